@@ -0,0 +1,400 @@
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Scanner;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Runs launcher input scripts headless and in parallel.
+ * <pre>
+ * Each script is a text file holding exactly what a player would type.
+ *   It is run through its own GameLauncher (see GameLauncher.session), with
+ *   its output written to a file or discarded, on a pool sized to the
+ *   available cores. All scripts share one history, so the run also
+ *   exercises concurrent recording.
+ * The report gives scripts and plays per second over the whole run,
+ *   per-script latency percentiles, the slowest script and any script
+ *   that ran out of input before exiting, followed by the final history.
+ *
+ * Usage: java GameLauncher --batch scriptDir [options]
+ *   --threads n      pool size (default: available processors)
+ *   --history file   load and save this history, with player profiles
+ *                    beside it (default: both in a temporary directory)
+ *   --output dir     write each script's output to dir/name.out
+ *                    (default: discard)
+ *   Scripts are the regular files in scriptDir, run in name order.
+ *   A missing script directory, an unknown option or an option without
+ *   its value prints the usage and exits with status USAGE_STATUS.
+ * </pre>
+ * @version 2
+ */
+final class BatchRunner {
+    /** Command-line option of GameLauncher that runs a batch. */
+    static final String BATCH_OPTION = "--batch";
+    /** Suffix of the files script output is written to. */
+    static final String OUTPUT_SUFFIX = ".out";
+    /** Exit status of a run given bad arguments. */
+    static final int USAGE_STATUS = 2;
+    /** Option setting the pool size. */
+    private static final String THREADS = "--threads";
+    /** Option naming the history file. */
+    private static final String HISTORY = "--history";
+    /** Option naming the output directory. */
+    private static final String OUTPUT = "--output";
+    /** Command-line summary printed on a usage error. */
+    private static final String USAGE =
+        "Usage: java GameLauncher --batch scriptDir"
+        + " [--threads n] [--history file] [--output dir]";
+    /** Nanoseconds per millisecond. */
+    private static final double NANOS_PER_MILLI = 1e6;
+    /** Nanoseconds per second. */
+    private static final double NANOS_PER_SECOND = 1e9;
+    /** Quantile reported as p50. */
+    private static final double MEDIAN = 0.5;
+    /** Quantile reported as p90. */
+    private static final double P90 = 0.9;
+    /** Quantile reported as p99. */
+    private static final double P99 = 0.99;
+
+    /** Shared history. */
+    private final GameHistoryTracker history;
+    /** Name of the shared history file. */
+    private final String historyFile;
+    /** Shared games. */
+    private final GameRegistry games;
+    /** Shared player profiles. */
+    private final ProfileStore profiles;
+    /** Directory for script output, or null to discard it. */
+    private final Path outputDir;
+
+    /**
+     * Outcome of one script.
+     */
+    static final class ScriptResult {
+        /** The script. */
+        private final Path script;
+        /** Run time in nanoseconds. */
+        private final long nanos;
+        /** Plays the script recorded. */
+        private final int plays;
+        /** True if the script exited from the menu. */
+        private final boolean exited;
+
+        /**
+         * Records an outcome.
+         * @param file the script
+         * @param elapsed run time in nanoseconds
+         * @param played plays recorded
+         * @param finished true if the script exited from the menu
+         */
+        ScriptResult(final Path file, final long elapsed, final int played,
+                     final boolean finished) {
+            this.script = file;
+            this.nanos = elapsed;
+            this.plays = played;
+            this.exited = finished;
+        }
+
+        /**
+         * The script.
+         * @return its path
+         */
+        Path getScript() {
+            return script;
+        }
+
+        /**
+         * Run time.
+         * @return nanoseconds
+         */
+        long getNanos() {
+            return nanos;
+        }
+
+        /**
+         * Plays the script recorded.
+         * @return the play count
+         */
+        int getPlays() {
+            return plays;
+        }
+
+        /**
+         * Whether the script exited from the menu rather than running out
+         *   of input.
+         * @return true if it exited
+         */
+        boolean isExited() {
+            return exited;
+        }
+    }
+
+    /**
+     * Creates a runner.
+     * @param tracker the shared history
+     * @param fileName the name of the shared history file
+     * @param registry the shared games
+     * @param profileStore the shared profiles
+     * @param output directory for script output, or null to discard it
+     */
+    BatchRunner(final GameHistoryTracker tracker, final String fileName,
+                final GameRegistry registry, final ProfileStore profileStore,
+                final Path output) {
+        this.history = tracker;
+        this.historyFile = fileName;
+        this.games = registry;
+        this.profiles = profileStore;
+        this.outputDir = output;
+    }
+
+    /**
+     * Runs scripts in parallel.
+     * @param scripts the scripts
+     * @param threads pool size
+     * @return one result per script, in the order given
+     * @throws IOException if a script cannot be read or its output
+     *         written
+     * @throws InterruptedException if interrupted while waiting
+     */
+    List<ScriptResult> run(final List<Path> scripts, final int threads)
+            throws IOException, InterruptedException {
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        try {
+            List<Callable<ScriptResult>> tasks = new ArrayList<>();
+            for (Path script : scripts) {
+                tasks.add(() -> runScript(script));
+            }
+            List<ScriptResult> results = new ArrayList<>();
+            for (Future<ScriptResult> future : pool.invokeAll(tasks)) {
+                try {
+                    results.add(future.get());
+                } catch (ExecutionException e) {
+                    if (e.getCause() instanceof IOException) {
+                        throw (IOException) e.getCause();
+                    }
+                    throw new IllegalStateException(e.getCause());
+                }
+            }
+            return results;
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    /**
+     * Runs one script.
+     * @param script the script
+     * @return its outcome
+     * @throws IOException if the script cannot be read or its output
+     *         written
+     */
+    private ScriptResult runScript(final Path script) throws IOException {
+        String input = Files.readString(script, StandardCharsets.UTF_8);
+        OutputStream sink = outputDir == null
+            ? OutputStream.nullOutputStream()
+            : Files.newOutputStream(outputDir.resolve(
+                  script.getFileName() + OUTPUT_SUFFIX));
+        long start = System.nanoTime();
+        boolean exited = true;
+        GameLauncher launcher;
+        try (GameIO io = new GameIO(new Scanner(input), sink,
+                                    StandardCharsets.UTF_8)) {
+            launcher = GameLauncher.session(io, history, games, historyFile,
+                                            profiles);
+            try {
+                launcher.run();
+            } catch (NoSuchElementException e) {
+                exited = false;
+            }
+            launcher.saveHistory();
+        }
+        return new ScriptResult(script, System.nanoTime() - start,
+                                launcher.getPlaysRecorded(), exited);
+    }
+
+    /**
+     * Lists the scripts in a directory.
+     * @param dir the directory
+     * @return its regular files, in name order
+     * @throws IOException if the directory cannot be listed
+     */
+    static List<Path> scriptsIn(final Path dir) throws IOException {
+        List<Path> scripts = new ArrayList<>();
+        try (DirectoryStream<Path> files
+                 = Files.newDirectoryStream(dir, Files::isRegularFile)) {
+            for (Path file : files) {
+                scripts.add(file);
+            }
+        }
+        scripts.sort(null);
+        return scripts;
+    }
+
+    /**
+     * Prints a report of a run.
+     * @param results the script outcomes
+     * @param wallNanos elapsed time of the whole run
+     * @param out where to print
+     */
+    static void report(final List<ScriptResult> results, final long wallNanos,
+                       final PrintStream out) {
+        long[] latencies = new long[results.size()];
+        long plays = 0;
+        ScriptResult slowest = null;
+        List<String> unfinished = new ArrayList<>();
+        for (int i = 0; i < latencies.length; i++) {
+            ScriptResult result = results.get(i);
+            latencies[i] = result.getNanos();
+            plays += result.getPlays();
+            if (slowest == null || result.getNanos() > slowest.getNanos()) {
+                slowest = result;
+            }
+            if (!result.isExited()) {
+                unfinished.add(result.getScript().getFileName().toString());
+            }
+        }
+        Arrays.sort(latencies);
+        double seconds = wallNanos / NANOS_PER_SECOND;
+        out.println("=== Batch Run ===");
+        out.printf("Scripts: %d in %.1f ms (%.1f/s)%n", results.size(),
+                   wallNanos / NANOS_PER_MILLI, results.size() / seconds);
+        out.printf("Plays: %d (%.1f/s)%n", plays, plays / seconds);
+        out.printf("Script latency p50: %.2f ms, p90: %.2f ms,"
+                   + " p99: %.2f ms%n",
+                   quantile(latencies, MEDIAN) / NANOS_PER_MILLI,
+                   quantile(latencies, P90) / NANOS_PER_MILLI,
+                   quantile(latencies, P99) / NANOS_PER_MILLI);
+        if (slowest != null) {
+            out.printf("Slowest: %s (%.2f ms)%n",
+                       slowest.getScript().getFileName(),
+                       slowest.getNanos() / NANOS_PER_MILLI);
+        }
+        if (!unfinished.isEmpty()) {
+            out.println("Ran out of input: " + String.join(", ", unfinished));
+        }
+    }
+
+    /**
+     * Reads a quantile from sorted values.
+     * @param sorted values in ascending order
+     * @param q the quantile, from 0 to 1
+     * @return the value at that quantile, or 0 if there are none
+     */
+    private static long quantile(final long[] sorted, final double q) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        return sorted[(int) Math.min(sorted.length - 1,
+                                     (long) (q * sorted.length))];
+    }
+
+    /**
+     * Reads the options after the script directory.
+     * @param args script directory and options
+     * @return the value of each option given, by option name
+     * @throws IllegalArgumentException if the script directory is
+     *         missing, an option is unknown or lacks its value, or the
+     *         pool size is not a positive number
+     */
+    static Map<String, String> parseOptions(final String[] args) {
+        if (args.length == 0) {
+            throw new IllegalArgumentException("No script directory given");
+        }
+        Map<String, String> options = new HashMap<>();
+        for (int i = 1; i < args.length; i += 2) {
+            if (!args[i].equals(THREADS) && !args[i].equals(HISTORY)
+                && !args[i].equals(OUTPUT)) {
+                throw new IllegalArgumentException(
+                    "Unknown option: " + args[i]);
+            }
+            if (i + 1 == args.length) {
+                throw new IllegalArgumentException(
+                    "Missing value for " + args[i]);
+            }
+            options.put(args[i], args[i + 1]);
+        }
+        String threads = options.get(THREADS);
+        if (threads != null) {
+            int count;
+            try {
+                count = Integer.parseInt(threads);
+            } catch (NumberFormatException e) {
+                count = 0;
+            }
+            if (count < 1) {
+                throw new IllegalArgumentException(
+                    "Pool size must be a positive number: " + threads);
+            }
+        }
+        return options;
+    }
+
+    /**
+     * Runs a batch from the command line.
+     * Bad arguments print the usage and exit with USAGE_STATUS.
+     * @param args script directory and options
+     * @throws IOException if the scripts, output or history cannot be
+     *         used
+     */
+    public static void main(final String[] args) throws IOException {
+        Map<String, String> options;
+        try {
+            options = parseOptions(args);
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.err.println(USAGE);
+            System.exit(USAGE_STATUS);
+            return;
+        }
+        Path dir = Paths.get(args[0]);
+        int threads = options.containsKey(THREADS)
+            ? Integer.parseInt(options.get(THREADS))
+            : Runtime.getRuntime().availableProcessors();
+        String file = options.get(HISTORY);
+        Path output = options.containsKey(OUTPUT)
+            ? Files.createDirectories(Paths.get(options.get(OUTPUT)))
+            : null;
+        GameHistoryTracker tracker = file == null
+            ? new GameHistoryTracker()
+            : GameHistoryTracker.loadHistory(file);
+        String historyName = file == null
+            ? Files.createTempDirectory("batch").resolve(
+                  GameLauncher.HISTORY_FILENAME).toString()
+            : file;
+        ProfileStore store = GameLauncher.defaultProfiles(historyName);
+        BatchRunner runner = new BatchRunner(tracker, historyName,
+                                             GameRegistry.load(), store,
+                                             output);
+        List<Path> scripts = scriptsIn(dir);
+        long start = System.nanoTime();
+        List<ScriptResult> results;
+        try {
+            results = runner.run(scripts, threads);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        }
+        long wall = System.nanoTime() - start;
+        store.close();
+        if (file != null) {
+            tracker.saveHistory(file);
+        }
+        report(results, wall, System.out);
+        tracker.displayHistory();
+    }
+}
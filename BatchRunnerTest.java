@@ -0,0 +1,97 @@
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests for BatchRunner.
+ * @version 2
+ */
+public class BatchRunnerTest {
+    /**
+     * Scripts run in parallel against one history, with their output
+     *   captured and their plays counted.
+     * @param tempDir temporary directory for scripts and output
+     * @throws Exception if the run fails
+     */
+    @Test
+    public void testRunScripts(@TempDir final Path tempDir)
+            throws Exception {
+        Path scripts = Files.createDirectory(tempDir.resolve("scripts"));
+        Path output = Files.createDirectory(tempDir.resolve("output"));
+        Files.writeString(scripts.resolve("a.txt"), "1\n1\n0\n");
+        Files.writeString(scripts.resolve("b.txt"), "H\n0\n");
+        Files.writeString(scripts.resolve("c.txt"), "1\n");
+        Game stub = new Game() {
+            @Override
+            public String getName() {
+                return "Stub";
+            }
+
+            @Override
+            public Optional<Integer> play(final GameIO io) {
+                return Optional.of(4);
+            }
+        };
+        GameHistoryTracker history = new GameHistoryTracker();
+        BatchRunner runner = new BatchRunner(
+            history, tempDir.resolve("history.dat").toString(),
+            GameRegistry.of(List.of(stub)),
+            new ProfileStore(tempDir.resolve("profiles"), 2), output);
+
+        List<BatchRunner.ScriptResult> results =
+            runner.run(BatchRunner.scriptsIn(scripts), 2);
+
+        assertEquals(3, results.size());
+        assertEquals(2, results.get(0).getPlays());
+        assertTrue(results.get(1).isExited());
+        assertFalse(results.get(2).isExited());
+        assertEquals(3, history.getTimesPlayed("Stub"));
+        assertTrue(Files.readString(output.resolve("a.txt.out"))
+                        .contains("Goodbye!"));
+
+        ByteArrayOutputStream report = new ByteArrayOutputStream();
+        BatchRunner.report(results, 1_000_000,
+                           new PrintStream(report, true,
+                                           StandardCharsets.UTF_8));
+        String text = report.toString(StandardCharsets.UTF_8);
+        assertTrue(text.contains("Plays: 3"), text);
+        assertTrue(text.contains("Ran out of input: c.txt"), text);
+    }
+
+    /**
+     * Options are read in pairs; a trailing option without its value,
+     *   an unknown option or a bad pool size is a usage error.
+     */
+    @Test
+    public void testParseOptions() {
+        assertEquals(Map.of("--threads", "4", "--history", "h.dat"),
+                     BatchRunner.parseOptions(new String[] {
+                         "scripts", "--threads", "4", "--history", "h.dat"}));
+        assertEquals(Map.of(),
+                     BatchRunner.parseOptions(new String[] {"scripts"}));
+        assertThrows(IllegalArgumentException.class,
+                     () -> BatchRunner.parseOptions(new String[0]));
+        assertThrows(IllegalArgumentException.class,
+                     () -> BatchRunner.parseOptions(new String[] {
+                         "scripts", "--threads", "4", "--output"}));
+        assertThrows(IllegalArgumentException.class,
+                     () -> BatchRunner.parseOptions(new String[] {
+                         "scripts", "--seed", "1"}));
+        assertThrows(IllegalArgumentException.class,
+                     () -> BatchRunner.parseOptions(new String[] {
+                         "scripts", "--threads", "none"}));
+    }
+}
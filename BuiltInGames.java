@@ -0,0 +1,37 @@
+import java.util.List;
+
+/**
+ * Provider of the games shipped with the hub.
+ * <pre>
+ * The list order is the launcher's menu numbering, which players and
+ *   batch scripts rely on, so new games are added at the end.
+ * </pre>
+ * @version 4
+ */
+public final class BuiltInGames implements GameProvider {
+    /**
+     * Creates the provider; ServiceLoader requires a public constructor.
+     */
+    public BuiltInGames() {
+        // Nothing to set up; games are created on demand.
+    }
+
+    @Override
+    public List<GameDescriptor> games() {
+        return List.of(
+            new GameDescriptor("Tic-Tac-Toe", TicTacToeGame::new),
+            new GameDescriptor("Word Guess", WordGuessGame::new),
+            new GameDescriptor("Jotto", JottoGame::new),
+            new GameDescriptor("Hangman", HangmanGame::new),
+            new GameDescriptor("Snake", SnakeGame::new),
+            new GameDescriptor("Connect Four", ConnectFourGame::new),
+            new GameDescriptor("MineSweeper", MineSweeperGame::new),
+            new GameDescriptor("Sudoku", SudokuGame::new),
+            new GameDescriptor("Number Guess", NumberGuessGame::new),
+            new GameDescriptor("Memory Match", MemoryMatchGame::new),
+            new GameDescriptor("Lights Out", LightsOutGame::new),
+            new GameDescriptor("MasterMind", MasterMindGame::new),
+            new GameDescriptor("Gomoku", TicTacToeGame::gomoku),
+            new GameDescriptor("Evil Hangman", HangmanGame::evil));
+    }
+}
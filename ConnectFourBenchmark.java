@@ -0,0 +1,348 @@
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Measures ConnectFourSearch on sets of test positions.
+ * <pre>
+ * Usage: java ConnectFourBenchmark [positions per set | file...]
+ *   With no arguments, or a count (default 20), generates the sets.
+ *   With files, solves every line of each and checks the score.
+ * Generated sets follow the layout of the published Connect Four test
+ *   sets: positions early (Begin, fewer than 14 discs), Middle (14 to
+ *   27) or late (End, 28 or more), and Easy (decided within 14 more
+ *   discs) or Medium (not). Positions come from seeded random play
+ *   that never hands the opponent a win at once, and none has a win
+ *   for the mover on the board, so every run measures the same ones.
+ * Files hold one position per line in that published format: the
+ *   moves as column digits 1 to 7, a space, and the score for the
+ *   player to move, positive for a win, being the discs the winner
+ *   has left to play after winning plus one (negative for a loss, 0
+ *   for a draw).
+ * Each position is solved with a cleared table, and reported per set:
+ *   mean time, mean nodes and nodes per second.
+ * Then ConnectFourParallelSearch on 1, 2, 4... threads up to every
+ *   core: time to solve the Middle-Medium set, speedup over one
+ *   thread, nodes per second, and how many scores match one thread's.
+ * Last, the AI's replies under each time budget and thread count, from
+ *   the empty board and openings of one to four discs: mean depth
+ *   reached and nodes per second.
+ * </pre>
+ * @version 2
+ */
+public final class ConnectFourBenchmark {
+    /** Positions per generated set when no count is given. */
+    private static final int DEFAULT_POSITIONS = 20;
+    /** Discs that separate Begin, Middle and End positions. */
+    private static final int[] STAGES = {0, 14, 28, ConnectFourBoard.CELLS};
+    /** Names of the stages. */
+    private static final String[] STAGE_NAMES = {"Begin", "Middle", "End"};
+    /** Sets measured, as a stage and 1 for Medium or 0 for Easy. End
+     *  positions have at most 14 discs to go, so are all Easy. */
+    private static final int[][] SETS = {{2, 0}, {1, 0}, {1, 1}, {0, 0}};
+    /** Further discs within which an Easy position is decided. */
+    private static final int EASY_DEPTH = 14;
+    /** Time budgets of the AI replies, in milliseconds. */
+    private static final long[] BUDGETS_MILLIS = {10, 100, 1000};
+    /** Replies measured per budget. */
+    private static final int REPLIES = 5;
+    /** Nanoseconds per millisecond. */
+    private static final long NANOS_PER_MILLI = 1_000_000;
+    /** Nanoseconds per millisecond, for division. */
+    private static final double MILLIS = 1e6;
+    /** Seed of the generated positions. */
+    private static final long SEED = 4;
+    /** Table size: 16M entries, 128 MB. */
+    private static final int TABLE_BITS = 24;
+
+    /**
+     * Prevent instantiation.
+     */
+    private ConnectFourBenchmark() {
+        throw new UnsupportedOperationException("class cannot be instantiated");
+    }
+
+    /**
+     * Runs the benchmark.
+     * @param args positions per set, or test files
+     * @throws IOException if a file cannot be read
+     */
+    public static void main(final String[] args) throws IOException {
+        ConnectFourSearch search = new ConnectFourSearch(TABLE_BITS);
+        System.out.printf("%-16s %6s %10s %14s %14s %7s%n", "set",
+                          "count", "mean ms", "mean nodes", "nodes/s",
+                          "wrong");
+        if (args.length > 0 && !args[0].matches("\\d+")) {
+            for (String file : args) {
+                solveFile(search, file);
+            }
+            return;
+        }
+        int count = args.length > 0 ? Integer.parseInt(args[0])
+                                    : DEFAULT_POSITIONS;
+        Random random = new Random(SEED);
+        List<ConnectFourBoard> hardest = new ArrayList<>();
+        for (int[] kind : SETS) {
+            int stage = kind[0];
+            boolean medium = kind[1] == 1;
+            List<ConnectFourBoard> set =
+                generate(search, random, stage, medium, count);
+            solveSet(search, STAGE_NAMES[stage]
+                     + (medium ? "-Medium" : "-Easy"), set, null);
+            if (medium) {
+                hardest = set;
+            }
+        }
+        System.out.println();
+        System.out.printf("%-16s %6s %10s %14s %14s%n", "threads",
+                          "count", "total ms", "speedup", "nodes/s");
+        int[] baseline = null;
+        long baselineNanos = 0;
+        for (int threads : threadCounts()) {
+            int[] scores = new int[hardest.size()];
+            long nanos = 0;
+            long nodes = 0;
+            try (ConnectFourParallelSearch parallel =
+                     new ConnectFourParallelSearch(threads, TABLE_BITS)) {
+                for (int i = 0; i < scores.length; i++) {
+                    parallel.clear();
+                    ConnectFourSearch.Result result =
+                        parallel.solve(hardest.get(i));
+                    scores[i] = result.score();
+                    nanos += result.nanos();
+                    nodes += result.nodes();
+                }
+            }
+            if (baseline == null) {
+                baseline = scores;
+                baselineNanos = nanos;
+            }
+            int same = 0;
+            for (int i = 0; i < scores.length; i++) {
+                same += scores[i] == baseline[i] ? 1 : 0;
+            }
+            System.out.printf("%-16s %6d %10.1f %14.2f %14.0f"
+                              + "  %d/%d same scores%n",
+                              threads, scores.length, nanos / MILLIS,
+                              (double) baselineNanos / Math.max(nanos, 1),
+                              nodes * 1e9 / Math.max(nanos, 1), same,
+                              scores.length);
+        }
+        System.out.println();
+        System.out.printf("%-16s %6s %10s %14s %14s%n", "AI reply",
+                          "count", "mean ms", "mean depth", "nodes/s");
+        List<ConnectFourBoard> openings = new ArrayList<>();
+        while (openings.size() < REPLIES) {
+            ConnectFourBoard board = play(random, openings.size());
+            if (board != null) {
+                openings.add(board);
+            }
+        }
+        for (long millis : BUDGETS_MILLIS) {
+            for (int threads : threadCounts()) {
+                try (ConnectFourParallelSearch parallel =
+                         new ConnectFourParallelSearch(threads, TABLE_BITS)) {
+                    reply(parallel, millis, openings);
+                }
+            }
+        }
+    }
+
+    /**
+     * Thread counts measured: powers of two below the number of cores,
+     *   then the number of cores.
+     * @return the counts, ascending
+     */
+    private static List<Integer> threadCounts() {
+        int cores = Runtime.getRuntime().availableProcessors();
+        List<Integer> counts = new ArrayList<>();
+        for (int threads = 1; threads < cores; threads *= 2) {
+            counts.add(threads);
+        }
+        counts.add(cores);
+        return counts;
+    }
+
+    /**
+     * Generates a set of positions.
+     * @param search used to sort positions into Easy and Medium
+     * @param random source of moves
+     * @param stage index into STAGES
+     * @param medium true for positions not decided within EASY_DEPTH
+     * @param count positions wanted
+     * @return the positions
+     */
+    private static List<ConnectFourBoard> generate(
+            final ConnectFourSearch search, final Random random,
+            final int stage, final boolean medium, final int count) {
+        List<ConnectFourBoard> set = new ArrayList<>();
+        while (set.size() < count) {
+            int discs = STAGES[stage]
+                + random.nextInt(STAGES[stage + 1] - STAGES[stage]);
+            ConnectFourBoard board = play(random, discs);
+            if (board == null) {
+                continue;
+            }
+            boolean decided = search.search(board, EASY_DEPTH,
+                                            Long.MAX_VALUE).isSolved();
+            if (decided != medium) {
+                set.add(board);
+            }
+        }
+        return set;
+    }
+
+    /**
+     * Plays random moves that do not give the opponent a win at once.
+     * @param random source of moves
+     * @param discs discs to play
+     * @return the position, or null if play got stuck or the mover
+     *         can win at once
+     */
+    private static ConnectFourBoard play(final Random random,
+                                         final int discs) {
+        ConnectFourBoard board = new ConnectFourBoard();
+        int[] safe = new int[ConnectFourBoard.WIDTH];
+        while (board.moves() < discs) {
+            int count = 0;
+            for (int column = 0; column < ConnectFourBoard.WIDTH; column++) {
+                if (board.canPlay(column) && !board.isWinningMove(column)
+                    && !hands(board, column)) {
+                    safe[count++] = column;
+                }
+            }
+            if (count == 0) {
+                return null;
+            }
+            board.play(safe[random.nextInt(count)]);
+        }
+        for (int column = 0; column < ConnectFourBoard.WIDTH; column++) {
+            if (board.canPlay(column) && board.isWinningMove(column)) {
+                return null;
+            }
+        }
+        return board.isFull() ? null : board;
+    }
+
+    /**
+     * Whether a move lets the opponent win at once.
+     * @param board the position
+     * @param column the move
+     * @return true if the opponent then has a winning move
+     */
+    private static boolean hands(final ConnectFourBoard board,
+                                 final int column) {
+        board.play(column);
+        boolean lost = false;
+        for (int reply = 0; reply < ConnectFourBoard.WIDTH; reply++) {
+            if (board.canPlay(reply) && board.isWinningMove(reply)) {
+                lost = true;
+            }
+        }
+        board.undo(column);
+        return lost;
+    }
+
+    /**
+     * Solves a file of positions and checks their scores.
+     * @param search the search
+     * @param file the file
+     * @throws IOException if it cannot be read
+     */
+    private static void solveFile(final ConnectFourSearch search,
+                                  final String file) throws IOException {
+        List<ConnectFourBoard> set = new ArrayList<>();
+        List<Integer> scores = new ArrayList<>();
+        for (String line : Files.readAllLines(Paths.get(file),
+                                              StandardCharsets.UTF_8)) {
+            String[] fields = line.trim().split("\\s+");
+            if (fields.length == 2) {
+                set.add(ConnectFourBoard.of(fields[0]));
+                scores.add(Integer.parseInt(fields[1]));
+            }
+        }
+        solveSet(search, Paths.get(file).getFileName().toString(), set,
+                 scores);
+    }
+
+    /**
+     * Solves a set of positions and prints a result row.
+     * @param search the search
+     * @param name the set's name
+     * @param set the positions
+     * @param expected their scores in the published format, or null
+     */
+    private static void solveSet(final ConnectFourSearch search,
+                                 final String name,
+                                 final List<ConnectFourBoard> set,
+                                 final List<Integer> expected) {
+        long nanos = 0;
+        long nodes = 0;
+        int wrong = 0;
+        for (int i = 0; i < set.size(); i++) {
+            ConnectFourBoard board = set.get(i);
+            search.clear();
+            ConnectFourSearch.Result result = search.solve(board);
+            nanos += result.nanos();
+            nodes += result.nodes();
+            if (expected != null
+                && published(result.score(), board) != expected.get(i)) {
+                wrong++;
+            }
+        }
+        int n = Math.max(set.size(), 1);
+        System.out.printf("%-16s %6d %10.2f %14d %14.0f %7s%n", name,
+                          set.size(), nanos / MILLIS / n, nodes / n,
+                          nanos == 0 ? 0 : nodes * 1e9 / nanos,
+                          expected == null ? "-" : String.valueOf(wrong));
+    }
+
+    /**
+     * Times the AI's replies under a budget.
+     * @param search the search
+     * @param millis the budget in milliseconds
+     * @param openings the positions
+     */
+    private static void reply(final ConnectFourParallelSearch search,
+                              final long millis,
+                              final List<ConnectFourBoard> openings) {
+        long nanos = 0;
+        long nodes = 0;
+        long depth = 0;
+        for (ConnectFourBoard board : openings) {
+            search.clear();
+            ConnectFourSearch.Result result =
+                search.search(board, millis * NANOS_PER_MILLI);
+            nanos += result.nanos();
+            nodes += result.nodes();
+            depth += result.depth();
+        }
+        int n = openings.size();
+        System.out.printf("%-16s %6d %10.2f %14.1f %14.0f%n",
+                          millis + " ms x" + search.threads(), n, nanos / MILLIS / n,
+                          (double) depth / n,
+                          nanos == 0 ? 0 : nodes * 1e9 / nanos);
+    }
+
+    /**
+     * Converts a score to the published format.
+     * @param score a ConnectFourSearch score
+     * @param board the position
+     * @return the score in the published format
+     */
+    private static int published(final int score,
+                                 final ConnectFourBoard board) {
+        if (score == 0) {
+            return 0;
+        }
+        int winner = Math.abs(score);
+        int before = ConnectFourSearch.WIN + ConnectFourBoard.CELLS - 1
+            - winner;
+        int left = (ConnectFourBoard.CELLS + 1 - before) / 2;
+        return score > 0 ? left : -left;
+    }
+}
@@ -0,0 +1,313 @@
+/**
+ * A Connect Four position on the standard 7-column, 6-row board, held as
+ *   bitboards.
+ * <pre>
+ * Each player's discs are one long. Bit col * 7 + row is the cell in
+ *   column col (0 on the left) and row row (0 at the bottom); the
+ *   seventh bit of each column is always clear, so a shift never carries
+ *   a line from the top of one column into the next.
+ * Four in a row is found with shifts, the same four steps for every
+ *   position: 1 (vertical), 7 (horizontal), 6 and 8 (the diagonals).
+ *   b &amp; (b &gt;&gt; s) marks pairs, and pairs of pairs are fours.
+ * The height of each column gives its next free cell, so moves are
+ *   generated and undone without scanning the board.
+ *
+ * key() identifies a position and the player to move in 49 bits (the
+ *   mover's discs plus all discs plus the bottom row), so search tables
+ *   can store it without a hash collision. canonicalKey() is the same
+ *   for a position and its mirror image, which have the same value.
+ * A board is not thread-safe; each search thread plays on its own copy.
+ * </pre>
+ * @version 2
+ */
+final class ConnectFourBoard {
+    /** Columns on the board. */
+    static final int WIDTH = 7;
+    /** Rows on the board. */
+    static final int HEIGHT = 6;
+    /** Cells on the board. */
+    static final int CELLS = WIDTH * HEIGHT;
+    /** Cell content: no disc. */
+    static final int EMPTY = -1;
+    /** Cell content: a disc of the player who moved first. */
+    static final int FIRST = 0;
+    /** Cell content: a disc of the player who moved second. */
+    static final int SECOND = 1;
+
+    /** Bits per column, one more than the rows. */
+    private static final int COLUMN_BITS = HEIGHT + 1;
+    /** Bottom cell of every column. */
+    private static final long BOTTOM = bottomRow();
+    /** Every cell on the board. */
+    private static final long FULL = BOTTOM * ((1L << HEIGHT) - 1);
+    /** Shifts to the next cell of a line: vertical, horizontal, diagonals. */
+    private static final int[] DIRECTIONS = {1, COLUMN_BITS,
+                                             COLUMN_BITS - 1, COLUMN_BITS + 1};
+
+    /** Discs of each player, FIRST and SECOND. */
+    private final long[] discs = new long[2];
+    /** Discs in each column. */
+    private final int[] heights = new int[WIDTH];
+    /** Discs on the board. */
+    private int moves;
+
+    /**
+     * Creates an empty board.
+     */
+    ConnectFourBoard() {
+        // Empty until moves are played.
+    }
+
+    /**
+     * Creates a copy of a board.
+     * @param other the board to copy
+     */
+    ConnectFourBoard(final ConnectFourBoard other) {
+        discs[FIRST] = other.discs[FIRST];
+        discs[SECOND] = other.discs[SECOND];
+        System.arraycopy(other.heights, 0, heights, 0, WIDTH);
+        moves = other.moves;
+    }
+
+    /**
+     * Builds a position from its moves, written as column digits 1 to 7
+     *   (the notation of published Connect Four test positions).
+     * @param sequence the moves, e.g. "4453"
+     * @return the position
+     * @throws IllegalArgumentException if a move is not a column, is
+     *         into a full column, or follows a win
+     */
+    static ConnectFourBoard of(final String sequence) {
+        ConnectFourBoard board = new ConnectFourBoard();
+        for (int i = 0; i < sequence.length(); i++) {
+            int column = sequence.charAt(i) - '1';
+            if (column < 0 || column >= WIDTH || !board.canPlay(column)
+                || board.isWon()) {
+                throw new IllegalArgumentException(
+                    "illegal move " + (i + 1) + " in " + sequence);
+            }
+            board.play(column);
+        }
+        return board;
+    }
+
+    /**
+     * Discs on the board.
+     * @return the number of moves played
+     */
+    int moves() {
+        return moves;
+    }
+
+    /**
+     * Player to move.
+     * @return FIRST or SECOND
+     */
+    int toMove() {
+        return moves & 1;
+    }
+
+    /**
+     * Discs in a column.
+     * @param column the column
+     * @return the column's height
+     */
+    int height(final int column) {
+        return heights[column];
+    }
+
+    /**
+     * Content of a cell.
+     * @param column the column
+     * @param row the row, 0 at the bottom
+     * @return FIRST, SECOND or EMPTY
+     */
+    int cell(final int column, final int row) {
+        long bit = bit(column, row);
+        if ((discs[FIRST] & bit) != 0) {
+            return FIRST;
+        }
+        return (discs[SECOND] & bit) != 0 ? SECOND : EMPTY;
+    }
+
+    /**
+     * Whether a column has room for a disc.
+     * @param column the column
+     * @return true if a disc can be dropped into it
+     */
+    boolean canPlay(final int column) {
+        return heights[column] < HEIGHT;
+    }
+
+    /**
+     * Drops the mover's disc into a column. The column must have room.
+     * @param column the column
+     */
+    void play(final int column) {
+        discs[moves & 1] |= bit(column, heights[column]++);
+        moves++;
+    }
+
+    /**
+     * Takes back the last disc dropped into a column, which must be the
+     *   last move played.
+     * @param column the column
+     */
+    void undo(final int column) {
+        moves--;
+        discs[moves & 1] &= ~bit(column, --heights[column]);
+    }
+
+    /**
+     * Whether the mover would complete four by playing a column. The
+     *   column must have room.
+     * @param column the column
+     * @return true if the move wins
+     */
+    boolean isWinningMove(final int column) {
+        return hasFour(discs[moves & 1] | bit(column, heights[column]));
+    }
+
+    /**
+     * Whether the player who moved last has four in a row.
+     * @return true if the game has been won
+     */
+    boolean isWon() {
+        return moves > 0 && hasFour(discs[(moves - 1) & 1]);
+    }
+
+    /**
+     * Whether every cell is filled.
+     * @return true if no move is left
+     */
+    boolean isFull() {
+        return moves == CELLS;
+    }
+
+    /**
+     * Discs of the player to move.
+     * @return the mover's bitboard
+     */
+    long own() {
+        return discs[moves & 1];
+    }
+
+    /**
+     * Discs of both players.
+     * @return the occupied cells
+     */
+    long mask() {
+        return discs[FIRST] | discs[SECOND];
+    }
+
+    /**
+     * Key of the position and player to move, unique among positions.
+     * @return a key below 2^49
+     */
+    long key() {
+        return discs[moves & 1] + mask() + BOTTOM;
+    }
+
+    /**
+     * Key shared by the position and its mirror image: the smaller of
+     *   the two keys.
+     * @return a key below 2^49
+     */
+    long canonicalKey() {
+        long own = discs[moves & 1];
+        long mask = mask();
+        return Math.min(own + mask + BOTTOM,
+                        mirror(own) + mirror(mask) + BOTTOM);
+    }
+
+    /**
+     * Cells a disc can be dropped into now, one per column with room.
+     * @param mask the occupied cells
+     * @return the playable cells
+     */
+    static long playable(final long mask) {
+        return (mask + BOTTOM) & FULL;
+    }
+
+    /**
+     * Cells of a column.
+     * @param column the column
+     * @return the column's cells
+     */
+    static long columnMask(final int column) {
+        return ((1L << HEIGHT) - 1) << (column * COLUMN_BITS);
+    }
+
+    /**
+     * Empty cells that would complete four for a player, reachable now
+     *   or not.
+     * @param player the player's discs
+     * @param mask the occupied cells
+     * @return the player's threats
+     */
+    static long threats(final long player, final long mask) {
+        long r = (player << 1) & (player << 2) & (player << 3);
+        for (int i = 1; i < DIRECTIONS.length; i++) {
+            int s = DIRECTIONS[i];
+            long pair = (player << s) & (player << (2 * s));
+            r |= pair & (player << (3 * s));
+            r |= pair & (player >>> s);
+            pair = (player >>> s) & (player >>> (2 * s));
+            r |= pair & (player << s);
+            r |= pair & (player >>> (3 * s));
+        }
+        return r & (FULL ^ mask);
+    }
+
+    /**
+     * Whether a player's discs include four in a row.
+     * @param player the player's discs
+     * @return true if they do
+     */
+    static boolean hasFour(final long player) {
+        for (int s : DIRECTIONS) {
+            long pairs = player & (player >>> s);
+            if ((pairs & (pairs >>> (2 * s))) != 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Reflects cells left to right.
+     * @param cells the cells
+     * @return the cells with the column order reversed
+     */
+    private static long mirror(final long cells) {
+        long mirrored = 0;
+        long columnBits = (1L << COLUMN_BITS) - 1;
+        for (int column = 0; column < WIDTH; column++) {
+            mirrored |= (cells >>> (column * COLUMN_BITS) & columnBits)
+                << ((WIDTH - 1 - column) * COLUMN_BITS);
+        }
+        return mirrored;
+    }
+
+    /**
+     * Bit of a cell.
+     * @param column the column
+     * @param row the row
+     * @return the cell's bit
+     */
+    private static long bit(final int column, final int row) {
+        return 1L << (column * COLUMN_BITS + row);
+    }
+
+    /**
+     * Bottom cell of every column.
+     * @return the bottom row's bits
+     */
+    private static long bottomRow() {
+        long bottom = 0;
+        for (int column = 0; column < WIDTH; column++) {
+            bottom |= 1L << (column * COLUMN_BITS);
+        }
+        return bottom;
+    }
+}
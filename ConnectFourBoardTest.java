@@ -0,0 +1,106 @@
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests for ConnectFourBoard.
+ * @version 1
+ */
+public class ConnectFourBoardTest {
+    /**
+     * Four in a row is found in every direction, and only then.
+     */
+    @Test
+    public void testWins() {
+        assertTrue(ConnectFourBoard.of("1212121").isWon());
+        assertTrue(ConnectFourBoard.of("1122334").isWon());
+        assertTrue(ConnectFourBoard.of("12234334454").isWon());
+        assertTrue(ConnectFourBoard.of("76654554434").isWon());
+        assertFalse(ConnectFourBoard.of("112233").isWon());
+        assertFalse(ConnectFourBoard.of("121212").isWon());
+        assertTrue(ConnectFourBoard.of("112233").isWinningMove(3));
+        assertFalse(ConnectFourBoard.of("112233").isWinningMove(4));
+    }
+
+    /**
+     * Lines never wrap from the top of one column into the next.
+     */
+    @Test
+    public void testNoWrap() {
+        ConnectFourBoard board = ConnectFourBoard.of("112117171");
+        assertFalse(board.isWon());
+        assertEquals(ConnectFourBoard.FIRST, board.cell(0, 5));
+        assertEquals(ConnectFourBoard.FIRST, board.cell(1, 0));
+    }
+
+    /**
+     * Threats are the empty cells that would complete four.
+     */
+    @Test
+    public void testThreats() {
+        ConnectFourBoard board = ConnectFourBoard.of("1122");
+        long threats = ConnectFourBoard.threats(board.own(), board.mask());
+        assertEquals(0, threats);
+        board = ConnectFourBoard.of("112233");
+        threats = ConnectFourBoard.threats(board.own(), board.mask());
+        assertEquals(1, Long.bitCount(threats));
+        assertTrue((threats & ConnectFourBoard.columnMask(3)) != 0);
+        assertTrue((threats & ConnectFourBoard.playable(board.mask())) != 0);
+    }
+
+    /**
+     * Playing and undoing random games restores every position, and
+     *   positions reached by different orders share a key.
+     */
+    @Test
+    public void testUndoAndKeys() {
+        Random random = new Random(3);
+        for (int game = 0; game < 200; game++) {
+            ConnectFourBoard board = new ConnectFourBoard();
+            long[] keys = new long[ConnectFourBoard.CELLS + 1];
+            int[] played = new int[ConnectFourBoard.CELLS];
+            keys[0] = board.key();
+            while (!board.isWon() && !board.isFull()) {
+                int column = random.nextInt(ConnectFourBoard.WIDTH);
+                if (board.canPlay(column)) {
+                    played[board.moves()] = column;
+                    board.play(column);
+                    keys[board.moves()] = board.key();
+                }
+            }
+            for (int m = board.moves(); m > 0; m--) {
+                assertEquals(keys[m], board.key());
+                board.undo(played[m - 1]);
+            }
+            assertEquals(keys[0], board.key());
+            assertEquals(0, board.mask());
+        }
+        assertEquals(ConnectFourBoard.of("1234").key(),
+                     ConnectFourBoard.of("3214").key());
+        Set<Long> distinct = new HashSet<>();
+        for (String moves : new String[] {"", "1", "2", "12", "21", "11",
+                                          "44", "444"}) {
+            assertTrue(distinct.add(ConnectFourBoard.of(moves).key()));
+        }
+    }
+
+    /**
+     * Illegal move sequences are rejected.
+     */
+    @Test
+    public void testIllegal() {
+        assertThrows(IllegalArgumentException.class,
+                     () -> ConnectFourBoard.of("8"));
+        assertThrows(IllegalArgumentException.class,
+                     () -> ConnectFourBoard.of("1111111"));
+        assertThrows(IllegalArgumentException.class,
+                     () -> ConnectFourBoard.of("12121212"));
+    }
+}
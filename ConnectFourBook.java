@@ -0,0 +1,206 @@
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Connect Four opening book: the scores of every position up to a number
+ *   of discs, read straight from a memory-mapped file.
+ * <pre>
+ * File layout (big-endian):
+ *   header (16 bytes)
+ *     int   magic "C4BK"
+ *     short version
+ *     short depth           most discs of a position in the book
+ *     int   entry count
+ *     int   reserved (0)
+ *   entries, one long per position, ascending
+ *     bits 14-62  the position's canonical key (ConnectFourBoard)
+ *     bits 0-13   its score as ConnectFourSearch gives it, offset to be
+ *                 non-negative
+ * A position and its mirror image share one entry.
+ *
+ * Opening a book maps the file and reads the header; nothing is loaded
+ *   onto the heap. A lookup is a binary search of the mapped entries,
+ *   about 17 reads for a book of 100,000 positions, and only the pages
+ *   it touches are read from disk, so a book costs next to no memory
+ *   and no start-up time.
+ * move() answers from the book when the scores of all the replies are
+ *   in it: it takes a win on the board, or else the reply whose score
+ *   is worst for the opponent, centre first among equals.
+ * Books are written by ConnectFourBookBuilder. A book is read-only and
+ *   may be shared by threads.
+ * </pre>
+ * @version 1
+ */
+final class ConnectFourBook {
+    /** File magic, "C4BK". */
+    static final int MAGIC = 0x4334424B;
+    /** Current format version. */
+    static final short VERSION = 1;
+    /** Book looked for by ConnectFourGame, in the working directory. */
+    static final String DEFAULT_FILENAME = "connect4.book";
+    /** Returned by score for a position not in the book. */
+    static final int MISSING = Integer.MIN_VALUE;
+
+    /** Size of the header in bytes. */
+    private static final int HEADER_SIZE = 16;
+    /** Bits of an entry's score. */
+    private static final int SCORE_BITS = 14;
+    /** Offset making stored scores non-negative. */
+    private static final int SCORE_OFFSET = 1 << (SCORE_BITS - 1);
+    /** Columns in the order preferred among equal replies. */
+    private static final int[] CENTRE_FIRST = {3, 2, 4, 1, 5, 0, 6};
+
+    /** The mapped file. */
+    private final MappedByteBuffer map;
+    /** Most discs of a position in the book. */
+    private final int depth;
+    /** Number of entries. */
+    private final int count;
+
+    /**
+     * Wraps a mapped book.
+     * @param mapped the mapped file
+     * @param maxDiscs most discs of a position in the book
+     * @param entries number of entries
+     */
+    private ConnectFourBook(final MappedByteBuffer mapped, final int maxDiscs,
+                            final int entries) {
+        this.map = mapped;
+        this.depth = maxDiscs;
+        this.count = entries;
+    }
+
+    /**
+     * Opens a book.
+     * @param path the book file
+     * @return the book
+     * @throws IOException if the file is missing, malformed or of an
+     *         unsupported version
+     */
+    static ConnectFourBook open(final Path path) throws IOException {
+        MappedByteBuffer map;
+        try (FileChannel ch = FileChannel.open(path, StandardOpenOption.READ)) {
+            map = ch.map(FileChannel.MapMode.READ_ONLY, 0, ch.size());
+        }
+        if (map.capacity() < HEADER_SIZE || map.getInt() != MAGIC) {
+            throw new IOException("Not an opening book: " + path);
+        }
+        short version = map.getShort();
+        if (version != VERSION) {
+            throw new IOException("Unsupported opening book version "
+                                  + version);
+        }
+        int depth = map.getShort();
+        int count = map.getInt();
+        if (count < 0
+            || (long) count * Long.BYTES != map.capacity() - HEADER_SIZE) {
+            throw new IOException("Truncated opening book: " + path);
+        }
+        return new ConnectFourBook(map, depth, count);
+    }
+
+    /**
+     * Writes a book.
+     * @param path destination
+     * @param depth most discs of a position in the book
+     * @param keys canonical keys, ascending
+     * @param scores the score of each key
+     * @throws IOException if an I/O error occurs
+     */
+    static void write(final Path path, final int depth, final long[] keys,
+                      final int[] scores) throws IOException {
+        try (DataOutputStream out = new DataOutputStream(
+                new BufferedOutputStream(Files.newOutputStream(path)))) {
+            out.writeInt(MAGIC);
+            out.writeShort(VERSION);
+            out.writeShort(depth);
+            out.writeInt(keys.length);
+            out.writeInt(0);
+            for (int i = 0; i < keys.length; i++) {
+                out.writeLong(keys[i] << SCORE_BITS
+                              | (scores[i] + SCORE_OFFSET));
+            }
+        }
+    }
+
+    /**
+     * Most discs of a position in the book.
+     * @return the depth
+     */
+    int depth() {
+        return depth;
+    }
+
+    /**
+     * Number of positions in the book, mirror images counted once.
+     * @return the entry count
+     */
+    int size() {
+        return count;
+    }
+
+    /**
+     * Score of a position, from the mover's point of view.
+     * @param board the position
+     * @return the score, or MISSING if the position is not in the book
+     */
+    int score(final ConnectFourBoard board) {
+        long key = board.canonicalKey();
+        int low = 0;
+        int high = count - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            long entry = map.getLong(HEADER_SIZE + mid * Long.BYTES);
+            long found = entry >>> SCORE_BITS;
+            if (found < key) {
+                low = mid + 1;
+            } else if (found > key) {
+                high = mid - 1;
+            } else {
+                return (int) (entry & ((1 << SCORE_BITS) - 1))
+                    - SCORE_OFFSET;
+            }
+        }
+        return MISSING;
+    }
+
+    /**
+     * Best move by the book.
+     * @param board the position, left as it was
+     * @return the column, or -1 if the book does not cover every reply
+     */
+    int move(final ConnectFourBoard board) {
+        if (board.moves() >= depth || board.isWon() || board.isFull()) {
+            return -1;
+        }
+        for (int column : CENTRE_FIRST) {
+            if (board.canPlay(column) && board.isWinningMove(column)) {
+                return column;
+            }
+        }
+        int best = -1;
+        int bestScore = MISSING;
+        for (int column : CENTRE_FIRST) {
+            if (!board.canPlay(column)) {
+                continue;
+            }
+            board.play(column);
+            int reply = score(board);
+            board.undo(column);
+            if (reply == MISSING) {
+                return -1;
+            }
+            if (best < 0 || -reply > bestScore) {
+                best = column;
+                bestScore = -reply;
+            }
+        }
+        return best;
+    }
+}
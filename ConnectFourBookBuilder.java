@@ -0,0 +1,165 @@
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Builds a ConnectFourBook offline.
+ * <pre>
+ * Usage: java ConnectFourBookBuilder depth [file] [leaf millis] [threads]
+ *   Writes every position of up to depth discs to file (default
+ *   connect4.book). Positions of exactly depth discs are searched by
+ *   ConnectFourParallelSearch for leaf millis each (default 100; 0
+ *   solves them exactly, which from the opening takes a long time) on
+ *   threads threads (default every core).
+ * Every other position is scored from its replies (negamax over the
+ *   book itself), so scores agree with each other all the way up, and
+ *   the book is exact wherever its leaves are. A position where the
+ *   mover can win at once is scored as that win and not expanded.
+ * Positions are kept by canonical key, so a position and its mirror
+ *   image are searched once. The table is kept from leaf to leaf, as
+ *   neighbouring leaves share much of their trees.
+ * </pre>
+ * @version 1
+ */
+public final class ConnectFourBookBuilder {
+    /** Leaf search time when none is given, in milliseconds. */
+    private static final long DEFAULT_LEAF_MILLIS = 100;
+    /** Nanoseconds per millisecond. */
+    private static final long NANOS_PER_MILLI = 1_000_000;
+    /** Table size: 16M entries, 128 MB. */
+    private static final int TABLE_BITS = 24;
+    /** Leaves between progress reports. */
+    private static final int PROGRESS_EVERY = 1000;
+
+    /** Most discs of a position in the book. */
+    private final int depth;
+    /** Leaf search time in nanoseconds, 0 to solve. */
+    private final long leafNanos;
+    /** Leaf search. */
+    private final ConnectFourParallelSearch search;
+    /** Score of each position reached, by canonical key. */
+    private final Map<Long, Integer> scores = new HashMap<>();
+    /** Leaves searched. */
+    private int leaves;
+
+    /**
+     * Creates a builder.
+     * @param maxDiscs most discs of a position in the book
+     * @param leafSearchNanos leaf search time in nanoseconds, 0 to solve
+     * @param leafSearch the leaf search
+     */
+    ConnectFourBookBuilder(final int maxDiscs, final long leafSearchNanos,
+                           final ConnectFourParallelSearch leafSearch) {
+        if (maxDiscs < 1 || maxDiscs >= ConnectFourBoard.CELLS) {
+            throw new IllegalArgumentException("depth: " + maxDiscs);
+        }
+        this.depth = maxDiscs;
+        this.leafNanos = leafSearchNanos;
+        this.search = leafSearch;
+    }
+
+    /**
+     * Builds a book.
+     * @param args depth, file, leaf millis and threads
+     * @throws IOException if the book cannot be written
+     */
+    public static void main(final String[] args) throws IOException {
+        if (args.length < 1) {
+            System.err.println("Usage: java ConnectFourBookBuilder depth "
+                               + "[file] [leaf millis] [threads]");
+            return;
+        }
+        int depth = Integer.parseInt(args[0]);
+        Path path = Paths.get(args.length > 1 ? args[1]
+                                              : ConnectFourBook.DEFAULT_FILENAME);
+        long millis = args.length > 2 ? Long.parseLong(args[2])
+                                      : DEFAULT_LEAF_MILLIS;
+        int threads = args.length > 3 ? Integer.parseInt(args[3])
+                                      : Runtime.getRuntime()
+                                               .availableProcessors();
+        long start = System.nanoTime();
+        try (ConnectFourParallelSearch search =
+                 new ConnectFourParallelSearch(threads, TABLE_BITS)) {
+            ConnectFourBookBuilder builder = new ConnectFourBookBuilder(
+                depth, millis * NANOS_PER_MILLI, search);
+            int root = builder.build(path);
+            System.out.printf("%d positions (%d leaves) in %.1f s, "
+                              + "%d bytes; first player's score %d%n",
+                              builder.size(), builder.leaves,
+                              (System.nanoTime() - start) / 1e9,
+                              Files.size(path), root);
+        }
+    }
+
+    /**
+     * Scores every position and writes the book.
+     * @param path destination
+     * @return the score of the empty board
+     * @throws IOException if an I/O error occurs
+     */
+    int build(final Path path) throws IOException {
+        int root = value(new ConnectFourBoard());
+        long[] keys = new long[scores.size()];
+        int i = 0;
+        for (long key : scores.keySet()) {
+            keys[i++] = key;
+        }
+        Arrays.sort(keys);
+        int[] values = new int[keys.length];
+        for (i = 0; i < keys.length; i++) {
+            values[i] = scores.get(keys[i]);
+        }
+        ConnectFourBook.write(path, depth, keys, values);
+        return root;
+    }
+
+    /**
+     * Number of positions scored.
+     * @return the count, mirror images counted once
+     */
+    int size() {
+        return scores.size();
+    }
+
+    /**
+     * Scores a position and every position below it in the book.
+     * @param board the position, left as it was
+     * @return its score, from the mover's point of view
+     */
+    private int value(final ConnectFourBoard board) {
+        long key = board.canonicalKey();
+        Integer known = scores.get(key);
+        if (known != null) {
+            return known;
+        }
+        int moves = board.moves();
+        int score = -Integer.MAX_VALUE;
+        for (int column = 0; column < ConnectFourBoard.WIDTH; column++) {
+            if (board.canPlay(column) && board.isWinningMove(column)) {
+                score = ConnectFourSearch.WIN + ConnectFourBoard.CELLS
+                    - moves - 1;
+            }
+        }
+        if (score == -Integer.MAX_VALUE && moves == depth) {
+            score = leafNanos == 0 ? search.solve(board).score()
+                : search.search(board, leafNanos).score();
+            if (++leaves % PROGRESS_EVERY == 0) {
+                System.out.printf("%d leaves%n", leaves);
+            }
+        } else if (score == -Integer.MAX_VALUE) {
+            for (int column = 0; column < ConnectFourBoard.WIDTH; column++) {
+                if (board.canPlay(column)) {
+                    board.play(column);
+                    score = Math.max(score, -value(board));
+                    board.undo(column);
+                }
+            }
+        }
+        scores.put(key, score);
+        return score;
+    }
+}
@@ -0,0 +1,176 @@
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Optional;
+import java.util.Scanner;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests for ConnectFourBook and ConnectFourBookBuilder.
+ * @version 2
+ */
+public class ConnectFourBookTest {
+    /** Table size used by the tests. */
+    private static final int TABLE_BITS = 16;
+    /** Nanoseconds each leaf is searched for. */
+    private static final long LEAF_NANOS = 1_000_000;
+    /** Discs of the deepest positions in the test book. */
+    private static final int DEPTH = 3;
+
+    /**
+     * A built book holds every position up to its depth once, mirror
+     *   images together, and its scores back each other up.
+     * @param tempDir where the book is written
+     * @throws IOException if the book cannot be written or read
+     */
+    @Test
+    public void testBuildAndLookUp(@TempDir final Path tempDir)
+            throws IOException {
+        Path path = tempDir.resolve(ConnectFourBook.DEFAULT_FILENAME);
+        int root;
+        int size;
+        try (ConnectFourParallelSearch search =
+                 new ConnectFourParallelSearch(1, TABLE_BITS)) {
+            ConnectFourBookBuilder builder =
+                new ConnectFourBookBuilder(DEPTH, LEAF_NANOS, search);
+            root = builder.build(path);
+            size = builder.size();
+        }
+        Set<Long> keys = new HashSet<>();
+        collect(new ConnectFourBoard(), keys);
+        assertEquals(keys.size(), size);
+        assertEquals(16 + 8L * size, Files.size(path));
+
+        ConnectFourBook book = ConnectFourBook.open(path);
+        assertEquals(DEPTH, book.depth());
+        assertEquals(size, book.size());
+        ConnectFourBoard board = new ConnectFourBoard();
+        assertEquals(root, book.score(board));
+        assertEquals(book.score(ConnectFourBoard.of("12")),
+                     book.score(ConnectFourBoard.of("76")));
+        assertEquals(book.score(ConnectFourBoard.of("435")),
+                     book.score(ConnectFourBoard.of("453")));
+        assertEquals(ConnectFourBook.MISSING,
+                     book.score(ConnectFourBoard.of("4444")));
+
+        int move = book.move(board);
+        assertTrue(move >= 0 && move < ConnectFourBoard.WIDTH);
+        board.play(move);
+        assertEquals(root, -book.score(board));
+        assertEquals(-1, book.move(ConnectFourBoard.of("444")));
+    }
+
+    /**
+     * Gathers the canonical keys of a position and every position
+     *   reached from it up to DEPTH discs.
+     * @param board the position, left as it was
+     * @param keys where the keys go
+     */
+    private static void collect(final ConnectFourBoard board,
+                                final Set<Long> keys) {
+        keys.add(board.canonicalKey());
+        if (board.moves() == DEPTH) {
+            return;
+        }
+        for (int column = 0; column < ConnectFourBoard.WIDTH; column++) {
+            board.play(column);
+            collect(board, keys);
+            board.undo(column);
+        }
+    }
+
+    /**
+     * The book takes a win on the board, and moves from the book only
+     *   when every reply is in it.
+     * @param tempDir where the book is written
+     * @throws IOException if the book cannot be written or read
+     */
+    @Test
+    public void testMove(@TempDir final Path tempDir) throws IOException {
+        Path path = tempDir.resolve("win.book");
+        ConnectFourBook.write(path, 8, new long[0], new int[0]);
+        ConnectFourBook book = ConnectFourBook.open(path);
+        assertEquals(3, book.move(ConnectFourBoard.of("112233")));
+        assertEquals(-1, book.move(ConnectFourBoard.of("1122")));
+    }
+
+    /**
+     * Files that are not books, or are cut short, are refused.
+     * @param tempDir where the files are written
+     * @throws IOException if a file cannot be written
+     */
+    @Test
+    public void testMalformed(@TempDir final Path tempDir) throws IOException {
+        Path path = tempDir.resolve("bad.book");
+        Files.write(path, "not a book at all".getBytes(StandardCharsets.UTF_8));
+        assertThrows(IOException.class, () -> ConnectFourBook.open(path));
+
+        ConnectFourBook.write(path, 2, new long[] {1, 2}, new int[] {0, 0});
+        byte[] bytes = Files.readAllBytes(path);
+        Files.write(path, Arrays.copyOf(bytes, bytes.length - 1));
+        assertThrows(IOException.class, () -> ConnectFourBook.open(path));
+    }
+
+    /**
+     * The game plays its opening from the book.
+     * @param tempDir where the book is written
+     * @throws IOException if the book cannot be written
+     */
+    @Test
+    public void testGameUsesBook(@TempDir final Path tempDir)
+            throws IOException {
+        Path path = tempDir.resolve(ConnectFourBook.DEFAULT_FILENAME);
+        try (ConnectFourParallelSearch search =
+                 new ConnectFourParallelSearch(1, TABLE_BITS)) {
+            new ConnectFourBookBuilder(2, LEAF_NANOS, search).build(path);
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        GameIO io = new GameIO(new Scanner("n\nq\n"), out,
+                               StandardCharsets.UTF_8);
+        ConnectFourGame game =
+            new ConnectFourGame(LEAF_NANOS, TABLE_BITS, 1, path);
+        assertEquals(Optional.empty(), game.play(io));
+        io.flush();
+        assertTrue(out.toString(StandardCharsets.UTF_8)
+                       .contains("(opening book)"));
+    }
+
+    /**
+     * The game opens its book once and keeps using it, even after the
+     *   file is gone.
+     * @param tempDir where the book is written
+     * @throws IOException if the book cannot be written or removed
+     */
+    @Test
+    public void testGameOpensBookOnce(@TempDir final Path tempDir)
+            throws IOException {
+        Path path = tempDir.resolve(ConnectFourBook.DEFAULT_FILENAME);
+        try (ConnectFourParallelSearch search =
+                 new ConnectFourParallelSearch(1, TABLE_BITS)) {
+            new ConnectFourBookBuilder(2, LEAF_NANOS, search).build(path);
+        }
+        ConnectFourGame game =
+            new ConnectFourGame(LEAF_NANOS, TABLE_BITS, 1, path);
+        for (int round = 0; round < 2; round++) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            GameIO io = new GameIO(new Scanner("n\nq\n"), out,
+                                   StandardCharsets.UTF_8);
+            assertEquals(Optional.empty(), game.play(io));
+            io.flush();
+            assertTrue(out.toString(StandardCharsets.UTF_8)
+                           .contains("(opening book)"));
+            Files.deleteIfExists(path);
+        }
+    }
+}
@@ -1,3 +1,8 @@
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.NoSuchElementException;
 import java.util.Optional;
 
 /**
@@ -7,20 +12,258 @@ import java.util.Optional;
  * The goal is to be the first to form a line of four discs
  * horizontally, vertically, or diagonally.
  * <pre>
- * Implement simple or advanced AI for the opponent.
- * Consider using a matrix for the board state.
+ * The board is a ConnectFourBoard; the computer plays with a
+ *   ConnectFourParallelSearch on every core, thinking for up to a fixed
+ *   time per move, and reports how deep it looked and how fast it
+ *   searched.
+ * One instance serves every session of a server, so the search, its
+ *   threads and its table are made once, on the first computer move,
+ *   and kept for later games; sessions take turns with it, a move at a
+ *   time, rather than each starting a table and a thread per core. The
+ *   table carries over between games, which only saves the search work.
+ * If an opening book (ConnectFourBook, connect4.book in the working
+ *   directory for the console game) is found, the computer plays its
+ *   opening moves from the book at once and only searches once the
+ *   game leaves it. A missing or unreadable book is ignored.
+ * The book is opened and mapped on the first game and shared, read
+ *   only, by every later one; a book missing then is not looked for
+ *   again.
+ * The player types a column number, 1 to 7, or q to quit, and chooses
+ *   whether to move first.
+ * A win scores the empty cells left plus one, so quicker wins score
+ *   higher; a draw or a loss scores 0, and quitting gives no score.
  * </pre>
- * @version 1
+ * @version 6
  */
 class ConnectFourGame implements Game {
+    /** Milliseconds the computer thinks per move in the console game. */
+    static final long DEFAULT_THINK_MILLIS = 1000;
+    /** Nanoseconds per millisecond. */
+    private static final long NANOS_PER_MILLI = 1_000_000;
+    /** Player's disc. */
+    private static final char PLAYER = 'X';
+    /** Computer's disc. */
+    private static final char COMPUTER = 'O';
+    /** Empty cell. */
+    private static final char EMPTY = '.';
+
+    /** Nanoseconds the computer thinks per move. */
+    private final long thinkNanos;
+    /** log2 of the computer's table entries. */
+    private final int tableBits;
+    /** Threads the computer searches on. */
+    private final int threads;
+    /** Opening book file, or null for none. */
+    private final Path bookPath;
+    /** Guards search; held for one computer move. */
+    private final Object searchLock = new Object();
+    /** The computer, made on its first move and shared by every game. */
+    private ConnectFourParallelSearch search;
+    /** Guards openingBook and bookOpened. */
+    private final Object bookLock = new Object();
+    /** True once the book has been looked for. */
+    private boolean bookOpened;
+    /** The opening book shared by every game, or null for none. */
+    private ConnectFourBook openingBook;
+
+    /**
+     * Creates the console game.
+     */
+    ConnectFourGame() {
+        this(DEFAULT_THINK_MILLIS * NANOS_PER_MILLI,
+             ConnectFourTable.DEFAULT_BITS,
+             Runtime.getRuntime().availableProcessors(),
+             Paths.get(ConnectFourBook.DEFAULT_FILENAME));
+    }
+
+    /**
+     * Creates a game with a given computer strength and no opening book.
+     * @param nanosPerMove nanoseconds the computer thinks per move
+     * @param bits log2 of the computer's table entries
+     * @param searchThreads threads the computer searches on
+     */
+    ConnectFourGame(final long nanosPerMove, final int bits,
+                    final int searchThreads) {
+        this(nanosPerMove, bits, searchThreads, null);
+    }
+
+    /**
+     * Creates a game with a given computer strength.
+     * @param nanosPerMove nanoseconds the computer thinks per move
+     * @param bits log2 of the computer's table entries
+     * @param searchThreads threads the computer searches on
+     * @param book opening book file, used if it exists; null for none
+     */
+    ConnectFourGame(final long nanosPerMove, final int bits,
+                    final int searchThreads, final Path book) {
+        this.thinkNanos = nanosPerMove;
+        this.tableBits = bits;
+        this.threads = searchThreads;
+        this.bookPath = book;
+    }
+
     @Override
     public String getName() {
         return "Connect Four";
     }
 
     @Override
-    public Optional<Integer> play() {
-        System.out.println("[Playing Connect Four - Placeholder]");
-        return Optional.empty();
+    public Optional<Integer> play(final GameIO io) {
+        io.println("Welcome to Connect Four!");
+        io.println("Drop discs into columns 1 to 7 and line up four "
+                   + "before the computer does. q quits.");
+        int computer;
+        try {
+            String answer = io.prompt("Do you want to go first? (y/n): ");
+            computer = answer.trim().toLowerCase().startsWith("n")
+                ? ConnectFourBoard.FIRST : ConnectFourBoard.SECOND;
+        } catch (NoSuchElementException e) {
+            return Optional.empty();
+        }
+        return playGame(io, book(), computer);
+    }
+
+    /**
+     * Chooses the computer's move with the shared search, waiting for
+     *   any other game's move to finish first.
+     * @param board the position
+     * @return the move found
+     */
+    private ConnectFourSearch.Result think(final ConnectFourBoard board) {
+        synchronized (searchLock) {
+            if (search == null) {
+                search = new ConnectFourParallelSearch(threads, tableBits);
+            }
+            return search.search(board, thinkNanos);
+        }
+    }
+
+    /**
+     * The shared opening book, opened by the first game to ask.
+     * @return the book, or null if there is none or it cannot be read
+     */
+    private ConnectFourBook book() {
+        synchronized (bookLock) {
+            if (!bookOpened) {
+                openingBook = openBook();
+                bookOpened = true;
+            }
+            return openingBook;
+        }
+    }
+
+    /**
+     * Opens the opening book, if there is one.
+     * @return the book, or null if there is none or it cannot be read
+     */
+    private ConnectFourBook openBook() {
+        if (bookPath == null || !Files.isRegularFile(bookPath)) {
+            return null;
+        }
+        try {
+            return ConnectFourBook.open(bookPath);
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Plays the game to its end.
+     * @param io the player's console
+     * @param book the opening book, or null
+     * @param computer the computer's side
+     * @return the score, or empty if the player quit
+     */
+    private Optional<Integer> playGame(final GameIO io,
+                                       final ConnectFourBook book,
+                                       final int computer) {
+        ConnectFourBoard board = new ConnectFourBoard();
+        while (!board.isWon() && !board.isFull()) {
+            int column = board.toMove() == computer && book != null
+                ? book.move(board) : -1;
+            if (column >= 0) {
+                io.printf("Computer plays %d (opening book)%n", column + 1);
+            } else if (board.toMove() == computer) {
+                ConnectFourSearch.Result result = think(board);
+                column = result.move();
+                io.printf("Computer plays %d (depth %d, %,d nodes, "
+                          + "%,.0f nodes/s)%n", column + 1, result.depth(),
+                          result.nodes(), result.nodesPerSecond());
+            } else {
+                printBoard(board, computer, io);
+                column = readMove(board, io);
+                if (column < 0) {
+                    return Optional.empty();
+                }
+            }
+            board.play(column);
+        }
+        printBoard(board, computer, io);
+        if (!board.isWon()) {
+            io.println("It's a draw.");
+            return Optional.of(0);
+        }
+        if (board.toMove() == computer) {
+            io.println("You win!");
+            return Optional.of(ConnectFourBoard.CELLS - board.moves() + 1);
+        }
+        io.println("The computer wins.");
+        return Optional.of(0);
+    }
+
+    /**
+     * Asks the player for a move until a legal one is given.
+     * @param board the position
+     * @param io the player's console
+     * @return the column, or -1 if the player quit
+     */
+    private static int readMove(final ConnectFourBoard board,
+                                final GameIO io) {
+        while (true) {
+            String line;
+            try {
+                line = io.prompt("Your move (1-7, q to quit): ").trim();
+            } catch (NoSuchElementException e) {
+                return -1;
+            }
+            if (line.equalsIgnoreCase("q")) {
+                return -1;
+            }
+            int column = line.length() == 1 ? line.charAt(0) - '1' : -1;
+            if (column < 0 || column >= ConnectFourBoard.WIDTH) {
+                io.println("Please enter a column from 1 to 7.");
+            } else if (!board.canPlay(column)) {
+                io.println("That column is full.");
+            } else {
+                return column;
+            }
+        }
+    }
+
+    /**
+     * Prints the board, top row first, with the column numbers.
+     * @param board the position
+     * @param computer the computer's side
+     * @param io where to print
+     */
+    private static void printBoard(final ConnectFourBoard board,
+                                   final int computer, final GameIO io) {
+        StringBuilder text = new StringBuilder();
+        for (int row = ConnectFourBoard.HEIGHT - 1; row >= 0; row--) {
+            text.append('|');
+            for (int column = 0; column < ConnectFourBoard.WIDTH; column++) {
+                int cell = board.cell(column, row);
+                text.append(' ').append(cell == ConnectFourBoard.EMPTY
+                                        ? EMPTY
+                                        : cell == computer ? COMPUTER
+                                                           : PLAYER);
+            }
+            text.append(" |").append(System.lineSeparator());
+        }
+        text.append(' ');
+        for (int column = 1; column <= ConnectFourBoard.WIDTH; column++) {
+            text.append(' ').append(column);
+        }
+        io.println(text);
     }
 }
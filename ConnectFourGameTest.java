@@ -0,0 +1,99 @@
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Scanner;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests for ConnectFourGame, played through a GameIO.
+ * @version 2
+ */
+public class ConnectFourGameTest {
+    /** Nanoseconds the computer thinks per move in the tests. */
+    private static final long THINK_NANOS = 20_000_000;
+    /** Table size used by the tests. */
+    private static final int TABLE_BITS = 16;
+
+    /**
+     * A player who keeps to the first column, then the next, loses and
+     *   scores 0.
+     */
+    @Test
+    public void testComputerWins() {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        GameIO io = new GameIO(new Scanner(losingInput()), out,
+                               StandardCharsets.UTF_8);
+        ConnectFourGame game = new ConnectFourGame(THINK_NANOS, TABLE_BITS, 2);
+        assertEquals(Optional.of(0), game.play(io));
+        io.flush();
+        String text = out.toString(StandardCharsets.UTF_8);
+        assertTrue(text.contains("The computer wins."));
+        assertTrue(text.contains("Computer plays 4"));
+        assertTrue(text.contains("nodes/s"));
+    }
+
+    /**
+     * Games played at once on one instance, as a server's sessions are,
+     *   share its computer and each play out as when played alone.
+     * @throws Exception if a game fails
+     */
+    @Test
+    public void testConcurrentGames() throws Exception {
+        ConnectFourGame game = new ConnectFourGame(THINK_NANOS, TABLE_BITS, 2);
+        List<CompletableFuture<Optional<Integer>>> games = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            games.add(CompletableFuture.supplyAsync(() -> {
+                GameIO io = new GameIO(new Scanner(losingInput()),
+                                       new ByteArrayOutputStream(),
+                                       StandardCharsets.UTF_8);
+                return game.play(io);
+            }));
+        }
+        for (CompletableFuture<Optional<Integer>> played : games) {
+            assertEquals(Optional.of(0), played.get());
+        }
+    }
+
+    /**
+     * Bad input is refused, and quitting ends the game with no score.
+     */
+    @Test
+    public void testQuit() {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        GameIO io = new GameIO(new Scanner("n\n9\nx\nq\nNEXT\n"), out,
+                               StandardCharsets.UTF_8);
+        ConnectFourGame game = new ConnectFourGame(THINK_NANOS, TABLE_BITS, 2);
+        assertEquals(Optional.empty(), game.play(io));
+        io.flush();
+        String text = out.toString(StandardCharsets.UTF_8);
+        assertTrue(text.startsWith("Welcome to Connect Four!"));
+        assertTrue(text.contains("Please enter a column from 1 to 7."));
+        assertTrue(text.contains("| . . . O . . . |"));
+        assertEquals("NEXT", io.readLine());
+    }
+
+    /**
+     * Input of a player who moves first and keeps to the first column,
+     *   then the next.
+     * @return the input lines
+     */
+    private static String losingInput() {
+        StringBuilder input = new StringBuilder("y\n");
+        for (int i = 0; i < 21; i++) {
+            input.append("1\n");
+        }
+        for (int column = 2; column <= 7; column++) {
+            for (int i = 0; i < 6; i++) {
+                input.append(column).append('\n');
+            }
+        }
+        return input.toString();
+    }
+}
@@ -0,0 +1,169 @@
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Connect Four player that searches on several cores at once (Lazy SMP).
+ * <pre>
+ * Every thread runs its own ConnectFourSearch of the whole position on
+ *   its own copy of the board; nothing is split up and nothing waits
+ *   for anything. They cooperate only through one shared
+ *   ConnectFourTable: each position one thread finishes is a table hit
+ *   for the others, so together they reach a given depth sooner than
+ *   one thread alone. Helper threads try the root moves in another
+ *   order and odd helpers run one iteration ahead, so they work on
+ *   different parts of the tree rather than repeating one another.
+ * The calling thread runs the main search, with the time budget; its
+ *   answer is the answer, so the move is chosen exactly as a single
+ *   search would choose it, only from a deeper iteration. When it
+ *   finishes it halts the helpers and waits for them, and the result
+ *   counts the nodes of all the threads.
+ * With one thread no helper is started and this is a plain
+ *   ConnectFourSearch. Helpers run on daemon threads made once; close
+ *   stops them.
+ * A parallel search is used by one caller at a time.
+ * </pre>
+ * @version 1
+ */
+final class ConnectFourParallelSearch implements AutoCloseable {
+    /** The table the threads share. */
+    private final ConnectFourTable table;
+    /** Set to stop the helpers. */
+    private final AtomicBoolean halt = new AtomicBoolean();
+    /** One search per thread; the first is the caller's. */
+    private final ConnectFourSearch[] searches;
+    /** Threads the helpers run on, or null for one thread. */
+    private final ExecutorService helpers;
+    /** Pending helper searches of the current call. */
+    private final Future<?>[] running;
+
+    /**
+     * Creates a parallel search.
+     * @param threads number of threads, the caller's included
+     * @param bits log2 of the table entries, ConnectFourTable.MIN_BITS
+     *        to ConnectFourTable.MAX_BITS
+     */
+    ConnectFourParallelSearch(final int threads, final int bits) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("threads: " + threads);
+        }
+        this.table = new ConnectFourTable(bits);
+        this.searches = new ConnectFourSearch[threads];
+        for (int i = 0; i < threads; i++) {
+            searches[i] = new ConnectFourSearch(table, halt);
+        }
+        this.running = new Future<?>[threads];
+        AtomicInteger count = new AtomicInteger();
+        this.helpers = threads == 1 ? null
+            : Executors.newFixedThreadPool(threads - 1, task -> {
+                Thread thread = new Thread(
+                    task, "connect-four-search-" + count.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+    }
+
+    /**
+     * Number of threads searching.
+     * @return the thread count
+     */
+    int threads() {
+        return searches.length;
+    }
+
+    /**
+     * Chooses a move within a time budget, as ConnectFourSearch.search.
+     * @param board the position, which must have a move left and no
+     *        winner; left as it was
+     * @param budgetNanos time allowed, in nanoseconds
+     * @return the best move found, with the nodes of every thread
+     */
+    ConnectFourSearch.Result search(final ConnectFourBoard board,
+                                    final long budgetNanos) {
+        return search(board, ConnectFourBoard.CELLS, budgetNanos);
+    }
+
+    /**
+     * Solves a position, as ConnectFourSearch.solve.
+     * @param board the position, which must have a move left and no
+     *        winner; left as it was
+     * @return the best move and its exact score
+     */
+    ConnectFourSearch.Result solve(final ConnectFourBoard board) {
+        return search(board, ConnectFourBoard.CELLS, Long.MAX_VALUE);
+    }
+
+    /**
+     * Chooses a move, searching no deeper than a given depth.
+     * @param board the position, which must have a move left and no
+     *        winner; left as it was
+     * @param maxDepth deepest iteration, in moves
+     * @param budgetNanos time allowed, in nanoseconds
+     * @return the best move found, with the nodes of every thread
+     */
+    ConnectFourSearch.Result search(final ConnectFourBoard board,
+                                    final int maxDepth,
+                                    final long budgetNanos) {
+        if (board.isFull() || board.isWon()) {
+            throw new IllegalArgumentException("game is over");
+        }
+        halt.set(false);
+        for (int i = 1; i < searches.length; i++) {
+            ConnectFourSearch helper = searches[i];
+            ConnectFourBoard copy = new ConnectFourBoard(board);
+            int number = i;
+            running[i] = helpers.submit(
+                () -> helper.search(copy, maxDepth, Long.MAX_VALUE, number));
+        }
+        ConnectFourSearch.Result main;
+        try {
+            main = searches[0].search(board, maxDepth, budgetNanos);
+        } finally {
+            halt.set(true);
+        }
+        long nodes = main.nodes();
+        for (int i = 1; i < searches.length; i++) {
+            nodes += helperNodes(running[i]);
+        }
+        return new ConnectFourSearch.Result(main.move(), main.score(),
+                                            main.depth(), main.isSolved(),
+                                            nodes, main.nanos());
+    }
+
+    /**
+     * Empties the shared table.
+     */
+    void clear() {
+        table.clear();
+    }
+
+    /**
+     * Stops the helper threads.
+     */
+    @Override
+    public void close() {
+        if (helpers != null) {
+            halt.set(true);
+            helpers.shutdownNow();
+        }
+    }
+
+    /**
+     * Waits for a helper search to stop.
+     * @param helper the helper's task
+     * @return the nodes it visited
+     */
+    private static long helperNodes(final Future<?> helper) {
+        try {
+            return ((ConnectFourSearch.Result) helper.get()).nodes();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return 0;
+        } catch (ExecutionException e) {
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+}
@@ -0,0 +1,114 @@
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests for ConnectFourParallelSearch.
+ * @version 1
+ */
+public class ConnectFourParallelSearchTest {
+    /** Table size used by the tests. */
+    private static final int TABLE_BITS = 18;
+    /** Nanoseconds per millisecond. */
+    private static final long NANOS_PER_MILLI = 1_000_000;
+
+    /**
+     * On any number of threads, solving gives the single-threaded score,
+     *   and the move chosen keeps it.
+     */
+    @Test
+    public void testSameResultAsOneThread() {
+        ConnectFourSearch single = new ConnectFourSearch(TABLE_BITS);
+        Random random = new Random(7);
+        for (int threads : new int[] {1, 2, 4}) {
+            try (ConnectFourParallelSearch parallel =
+                     new ConnectFourParallelSearch(threads, TABLE_BITS)) {
+                assertEquals(threads, parallel.threads());
+                int solved = 0;
+                while (solved < 20) {
+                    ConnectFourBoard board = randomPosition(random, 24);
+                    if (board == null) {
+                        continue;
+                    }
+                    parallel.clear();
+                    ConnectFourSearch.Result result = parallel.solve(board);
+                    single.clear();
+                    int expected = single.solve(board).score();
+                    assertTrue(result.isSolved());
+                    assertEquals(expected, result.score());
+                    if (board.isWinningMove(result.move())) {
+                        assertTrue(expected >= ConnectFourSearch.WIN);
+                    } else {
+                        board.play(result.move());
+                        single.clear();
+                        assertEquals(expected, -single.solve(board).score());
+                    }
+                    solved++;
+                }
+            }
+        }
+    }
+
+    /**
+     * A timed search on several threads keeps to its budget, counts the
+     *   helpers' nodes, and leaves the helpers ready for the next move.
+     */
+    @Test
+    public void testTimeBudget() {
+        try (ConnectFourParallelSearch parallel =
+                 new ConnectFourParallelSearch(3, TABLE_BITS)) {
+            long budget = 100 * NANOS_PER_MILLI;
+            ConnectFourBoard board = new ConnectFourBoard();
+            for (int move = 0; move < 3; move++) {
+                ConnectFourSearch.Result result =
+                    parallel.search(board, budget);
+                assertTrue(result.nanos() < 3 * budget);
+                assertTrue(result.depth() >= 6);
+                assertTrue(board.canPlay(result.move()));
+                board.play(result.move());
+            }
+        }
+    }
+
+    /**
+     * Bad thread counts and finished games are rejected.
+     */
+    @Test
+    public void testIllegal() {
+        assertThrows(IllegalArgumentException.class,
+                     () -> new ConnectFourParallelSearch(0, TABLE_BITS));
+        try (ConnectFourParallelSearch parallel =
+                 new ConnectFourParallelSearch(2, TABLE_BITS)) {
+            assertThrows(IllegalArgumentException.class,
+                         () -> parallel.solve(
+                             ConnectFourBoard.of("1212121")));
+        }
+    }
+
+    /**
+     * Plays random moves until a number of discs are down, if no one
+     *   has won or can win at once by then.
+     * @param random source of moves
+     * @param discs discs to play
+     * @return the position, or null if the game ended or a win is on
+     */
+    private static ConnectFourBoard randomPosition(final Random random,
+                                                   final int discs) {
+        ConnectFourBoard board = new ConnectFourBoard();
+        while (board.moves() < discs) {
+            int column = random.nextInt(ConnectFourBoard.WIDTH);
+            if (!board.canPlay(column)) {
+                continue;
+            }
+            if (board.isWinningMove(column)) {
+                return null;
+            }
+            board.play(column);
+        }
+        return board;
+    }
+}
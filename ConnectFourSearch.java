@@ -0,0 +1,504 @@
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Connect Four player: negamax alpha-beta search over ConnectFourBoard.
+ * <pre>
+ * Iterative deepening searches depth 1, 2, 3... until the time budget
+ *   runs out, the game is solved, or a forced result is found, and
+ *   answers with the best move of the deepest finished iteration.
+ *   Each iteration starts from the moves the last one preferred.
+ * At every node the search first looks one move ahead with bitboard
+ *   threats: a win for the mover ends the node, a double threat by the
+ *   opponent is a loss, a single one must be blocked, and no move may
+ *   fill the cell under an opponent's threat.
+ * Moves are tried best guess first: the transposition table's move,
+ *   then by the threats the move creates, then centre columns first.
+ * Positions are remembered in a ConnectFourTable, which several
+ *   searches may share (see ConnectFourParallelSearch).
+ * Scores are from the mover's point of view:
+ *   WIN + n   the mover wins, n being the empty cells left after the
+ *             winning disc, so sooner wins score higher
+ *   -WIN - n  the opponent wins
+ *   0         a draw
+ *   otherwise an estimate at the search horizon, below WIN in size:
+ *             threats the mover has minus the opponent's, and centre
+ *             discs
+ * Win scores depend only on the position, not on the path to it, so
+ *   they are safe to share through the table.
+ *
+ * A search is used by one thread at a time and keeps its table between
+ *   calls, so later searches of the same game start warm. A search
+ *   stops early, keeping the deepest finished iteration, once its halt
+ *   flag is set by another thread.
+ * </pre>
+ * @version 2
+ */
+final class ConnectFourSearch {
+    /** Scores of this size or more are forced wins or losses. */
+    static final int WIN = 1000;
+
+    /** Columns in the order tried when nothing else tells them apart. */
+    private static final int[] CENTRE_FIRST = {3, 2, 4, 1, 5, 0, 6};
+    /** Middle column's cells, for the estimate. */
+    private static final long CENTRE = ConnectFourBoard.columnMask(3);
+    /** Weight of a threat in the estimate. */
+    private static final int THREAT_WEIGHT = 4;
+    /** Nodes between clock reads, less one. */
+    private static final long CLOCK_MASK = (1 << 12) - 1;
+    /** Positions searched so far. */
+    private final ConnectFourTable table;
+    /** Set by another thread to stop the search. */
+    private final AtomicBoolean halt;
+    /** Moves at each ply, in the order to try them. */
+    private final int[][] order =
+        new int[ConnectFourBoard.CELLS + 1][ConnectFourBoard.WIDTH];
+    /** Sort keys of the moves at each ply. */
+    private final int[][] rank =
+        new int[ConnectFourBoard.CELLS + 1][ConnectFourBoard.WIDTH];
+    /** Nodes visited by the current search. */
+    private long nodes;
+    /** Discs on the board at the root of the current search. */
+    private int rootMoves;
+    /** Score of the root's best move in the last iteration. */
+    private int rootScore;
+    /** Time the current search started. */
+    private long start;
+    /** Time the current search may take, in nanoseconds. */
+    private long budget;
+    /** Root move tried first in place of the best guess, or 0. */
+    private int rotation;
+    /** True to read the clock while searching. */
+    private boolean timed;
+    /** True once the current iteration ran out of time. */
+    private boolean stopped;
+
+    /**
+     * Outcome of a search.
+     */
+    static final class Result {
+        /** Best column found. */
+        private final int move;
+        /** Its score. */
+        private final int score;
+        /** Depth of the deepest finished iteration. */
+        private final int depth;
+        /** True if the score is exact, not an estimate. */
+        private final boolean solved;
+        /** Nodes visited. */
+        private final long nodes;
+        /** Duration of the search. */
+        private final long nanos;
+
+        /**
+         * Creates a result.
+         * @param bestMove best column found
+         * @param bestScore its score
+         * @param finishedDepth depth of the deepest finished iteration
+         * @param exact true if the score is exact
+         * @param visited nodes visited
+         * @param elapsed duration in nanoseconds
+         */
+        Result(final int bestMove, final int bestScore,
+               final int finishedDepth, final boolean exact,
+               final long visited, final long elapsed) {
+            this.move = bestMove;
+            this.score = bestScore;
+            this.depth = finishedDepth;
+            this.solved = exact;
+            this.nodes = visited;
+            this.nanos = elapsed;
+        }
+
+        /**
+         * Best column found.
+         * @return the column, 0 on the left
+         */
+        int move() {
+            return move;
+        }
+
+        /**
+         * Score of the best move, from the mover's point of view.
+         * @return the score
+         */
+        int score() {
+            return score;
+        }
+
+        /**
+         * Depth of the deepest finished iteration.
+         * @return the depth in moves
+         */
+        int depth() {
+            return depth;
+        }
+
+        /**
+         * Whether the score is the game's value with perfect play.
+         * @return true if the position was solved
+         */
+        boolean isSolved() {
+            return solved;
+        }
+
+        /**
+         * Nodes visited.
+         * @return the node count
+         */
+        long nodes() {
+            return nodes;
+        }
+
+        /**
+         * Duration of the search.
+         * @return nanoseconds
+         */
+        long nanos() {
+            return nanos;
+        }
+
+        /**
+         * Search speed.
+         * @return nodes per second
+         */
+        double nodesPerSecond() {
+            return nanos == 0 ? 0 : nodes * 1e9 / nanos;
+        }
+    }
+
+    /**
+     * Creates a search with a table of the default size.
+     */
+    ConnectFourSearch() {
+        this(ConnectFourTable.DEFAULT_BITS);
+    }
+
+    /**
+     * Creates a search with a table of its own.
+     * @param bits log2 of the table entries, ConnectFourTable.MIN_BITS
+     *        to ConnectFourTable.MAX_BITS
+     */
+    ConnectFourSearch(final int bits) {
+        this(new ConnectFourTable(bits), new AtomicBoolean());
+    }
+
+    /**
+     * Creates a search on a shared table.
+     * @param shared the table
+     * @param stop flag that stops the search when set
+     */
+    ConnectFourSearch(final ConnectFourTable shared,
+                      final AtomicBoolean stop) {
+        this.table = shared;
+        this.halt = stop;
+    }
+
+    /**
+     * Chooses a move within a time budget. At least one iteration is
+     *   always finished, however short the budget.
+     * @param board the position, which must have a move left and no
+     *        winner; left as it was
+     * @param budgetNanos time allowed, in nanoseconds
+     * @return the best move found
+     */
+    Result search(final ConnectFourBoard board, final long budgetNanos) {
+        return search(board, ConnectFourBoard.CELLS, budgetNanos);
+    }
+
+    /**
+     * Solves a position: finds its exact value, however long it takes.
+     * @param board the position, which must have a move left and no
+     *        winner; left as it was
+     * @return the best move and its exact score
+     */
+    Result solve(final ConnectFourBoard board) {
+        return search(board, ConnectFourBoard.CELLS, Long.MAX_VALUE);
+    }
+
+    /**
+     * Chooses a move, searching no deeper than a given depth.
+     * @param board the position, which must have a move left and no
+     *        winner; left as it was
+     * @param maxDepth deepest iteration, in moves
+     * @param budgetNanos time allowed, in nanoseconds
+     * @return the best move found
+     */
+    Result search(final ConnectFourBoard board, final int maxDepth,
+                  final long budgetNanos) {
+        return search(board, maxDepth, budgetNanos, 0);
+    }
+
+    /**
+     * Searches as one of several threads on a shared table. Helpers
+     *   other than the first search the moves in another order and
+     *   odd helpers start one iteration deeper, so the threads spread
+     *   over the tree and fill the table for each other.
+     * @param board the position, which must have a move left and no
+     *        winner; left as it was
+     * @param maxDepth deepest iteration, in moves
+     * @param budgetNanos time allowed, in nanoseconds
+     * @param helper 0 for the thread whose answer is used, else the
+     *        helper's number
+     * @return the best move found
+     */
+    Result search(final ConnectFourBoard board, final int maxDepth,
+                  final long budgetNanos, final int helper) {
+        if (board.isFull() || board.isWon()) {
+            throw new IllegalArgumentException("game is over");
+        }
+        start = System.nanoTime();
+        budget = budgetNanos;
+        nodes = 0;
+        stopped = false;
+        timed = helper != 0;
+        rotation = helper;
+        rootMoves = board.moves();
+        int left = ConnectFourBoard.CELLS - board.moves();
+        int move = firstMove(board);
+        int score = 0;
+        int depth = 0;
+        for (int d = 1 + (helper & 1); d <= Math.min(maxDepth, left); d++) {
+            int found = root(board, d);
+            if (stopped) {
+                break;
+            }
+            move = found;
+            score = rootScore;
+            depth = d;
+            if (Math.abs(score) >= WIN || outOfTime()) {
+                break;
+            }
+            timed = true;
+        }
+        boolean solved = Math.abs(score) >= WIN || depth >= left;
+        return new Result(move, score, depth, solved, nodes,
+                          System.nanoTime() - start);
+    }
+
+    /**
+     * Empties the transposition table.
+     */
+    void clear() {
+        table.clear();
+    }
+
+    /**
+     * Whether the current search has used up its budget.
+     * @return true if out of time
+     */
+    private boolean outOfTime() {
+        return System.nanoTime() - start >= budget;
+    }
+
+    /**
+     * Searches the root to a depth.
+     * @param board the position
+     * @param depth the depth
+     * @return the best move, or -1 if stopped
+     */
+    private int root(final ConnectFourBoard board, final int depth) {
+        int moves = board.moves();
+        int count = orderMoves(board, 0, allMoves(board),
+                               ConnectFourTable.moveOf(
+                                   table.probe(board.key())));
+        int[] tried = order[0];
+        if (rotation != 0) {
+            int swap = rotation % count;
+            int first = tried[0];
+            tried[0] = tried[swap];
+            tried[swap] = first;
+        }
+        int alpha = -Integer.MAX_VALUE;
+        int best = tried[0];
+        int bestScore = -Integer.MAX_VALUE;
+        for (int i = 0; i < count; i++) {
+            int column = tried[i];
+            int score;
+            if (board.isWinningMove(column)) {
+                score = WIN + ConnectFourBoard.CELLS - moves - 1;
+            } else {
+                board.play(column);
+                score = -negamax(board, depth - 1, -Integer.MAX_VALUE,
+                                 -alpha);
+                board.undo(column);
+            }
+            if (stopped) {
+                return -1;
+            }
+            if (score > bestScore) {
+                bestScore = score;
+                best = column;
+                alpha = Math.max(alpha, score);
+            }
+        }
+        table.store(board.key(), bestScore, ConnectFourTable.EXACT, depth,
+                    best);
+        rootScore = bestScore;
+        return best;
+    }
+
+    /**
+     * Negamax alpha-beta search.
+     * @param board the position
+     * @param depth moves left to search
+     * @param alphaIn lower bound of the scores of interest
+     * @param betaIn upper bound of the scores of interest
+     * @return the score, from the mover's point of view
+     */
+    private int negamax(final ConnectFourBoard board, final int depth,
+                        final int alphaIn, final int betaIn) {
+        nodes++;
+        if ((nodes & CLOCK_MASK) == 0
+            && (halt.get() || timed && outOfTime())) {
+            stopped = true;
+        }
+        if (stopped) {
+            return 0;
+        }
+        int moves = board.moves();
+        if (moves == ConnectFourBoard.CELLS) {
+            return 0;
+        }
+        long mask = board.mask();
+        long own = board.own();
+        long playable = ConnectFourBoard.playable(mask);
+        long ownThreats = ConnectFourBoard.threats(own, mask);
+        if ((ownThreats & playable) != 0) {
+            return WIN + ConnectFourBoard.CELLS - moves - 1;
+        }
+        int loss = -(WIN + ConnectFourBoard.CELLS - moves - 2);
+        long oppThreats = ConnectFourBoard.threats(own ^ mask, mask);
+        long forced = oppThreats & playable;
+        long candidates = playable;
+        if (forced != 0) {
+            if ((forced & (forced - 1)) != 0) {
+                return loss;
+            }
+            candidates = forced;
+        }
+        candidates &= ~(oppThreats >>> 1);
+        if (candidates == 0) {
+            return loss;
+        }
+        if (moves >= ConnectFourBoard.CELLS - 2) {
+            return 0;
+        }
+        int alpha = alphaIn;
+        int beta = Math.min(betaIn, WIN + ConnectFourBoard.CELLS - moves - 3);
+        if (alpha >= beta) {
+            return beta;
+        }
+        if (depth <= 0) {
+            return THREAT_WEIGHT * (Long.bitCount(ownThreats)
+                                    - Long.bitCount(oppThreats))
+                + Long.bitCount(own & CENTRE)
+                - Long.bitCount((own ^ mask) & CENTRE);
+        }
+        long key = board.key();
+        long entry = table.probe(key);
+        if (entry != 0 && ConnectFourTable.depthOf(entry) >= depth) {
+            int stored = ConnectFourTable.scoreOf(entry);
+            int flag = ConnectFourTable.flagOf(entry);
+            if (flag == ConnectFourTable.EXACT) {
+                return stored;
+            } else if (flag == ConnectFourTable.LOWER) {
+                alpha = Math.max(alpha, stored);
+            } else {
+                beta = Math.min(beta, stored);
+            }
+            if (alpha >= beta) {
+                return stored;
+            }
+        }
+        int ply = moves - rootMoves;
+        int count = orderMoves(board, ply, candidates,
+                               ConnectFourTable.moveOf(entry));
+        int[] tried = order[ply];
+        int start = alpha;
+        int best = -Integer.MAX_VALUE;
+        int bestMove = ConnectFourTable.NO_MOVE;
+        for (int i = 0; i < count; i++) {
+            int column = tried[i];
+            board.play(column);
+            int score = -negamax(board, depth - 1, -beta, -alpha);
+            board.undo(column);
+            if (stopped) {
+                return 0;
+            }
+            if (score > best) {
+                best = score;
+                bestMove = column;
+                if (score > alpha) {
+                    alpha = score;
+                    if (alpha >= beta) {
+                        break;
+                    }
+                }
+            }
+        }
+        int flag = best <= start ? ConnectFourTable.UPPER
+            : best >= beta ? ConnectFourTable.LOWER : ConnectFourTable.EXACT;
+        table.store(key, best, flag, depth, bestMove);
+        return best;
+    }
+
+    /**
+     * Cells of every column with room.
+     * @param board the position
+     * @return the playable cells
+     */
+    private static long allMoves(final ConnectFourBoard board) {
+        return ConnectFourBoard.playable(board.mask());
+    }
+
+    /**
+     * A move to fall back on before any iteration has finished.
+     * @param board the position
+     * @return a column with room, centre first
+     */
+    private static int firstMove(final ConnectFourBoard board) {
+        for (int column : CENTRE_FIRST) {
+            if (board.canPlay(column)) {
+                return column;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Fills order[slot] with the columns of some playable cells, best
+     *   guess first: the table's move, then most threats made, then
+     *   centre first.
+     * @param board the position
+     * @param slot the ply, an index into order and rank
+     * @param cells playable cells to consider
+     * @param hinted the table's move, or ConnectFourTable.NO_MOVE
+     * @return the number of moves
+     */
+    private int orderMoves(final ConnectFourBoard board, final int slot,
+                           final long cells, final int hinted) {
+        int[] columns = order[slot];
+        int[] keys = rank[slot];
+        long own = board.own();
+        long mask = board.mask();
+        int count = 0;
+        for (int column : CENTRE_FIRST) {
+            long cell = cells & ConnectFourBoard.columnMask(column);
+            if (cell == 0) {
+                continue;
+            }
+            int key = column == hinted ? Integer.MAX_VALUE
+                : Long.bitCount(ConnectFourBoard.threats(own | cell,
+                                                         mask | cell));
+            int i = count++;
+            while (i > 0 && keys[i - 1] < key) {
+                columns[i] = columns[i - 1];
+                keys[i] = keys[i - 1];
+                i--;
+            }
+            columns[i] = column;
+            keys[i] = key;
+        }
+        return count;
+    }
+}
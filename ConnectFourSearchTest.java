@@ -0,0 +1,143 @@
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests for ConnectFourSearch.
+ * @version 1
+ */
+public class ConnectFourSearchTest {
+    /** Table size used by the tests. */
+    private static final int TABLE_BITS = 16;
+    /** Nanoseconds per millisecond. */
+    private static final long NANOS_PER_MILLI = 1_000_000;
+
+    /**
+     * The search takes a win at once, and blocks the opponent's.
+     */
+    @Test
+    public void testWinAndBlock() {
+        ConnectFourSearch search = new ConnectFourSearch(TABLE_BITS);
+        ConnectFourSearch.Result result =
+            search.search(ConnectFourBoard.of("112233"), NANOS_PER_MILLI);
+        assertEquals(3, result.move());
+        assertEquals(ConnectFourSearch.WIN + ConnectFourBoard.CELLS - 7,
+                     result.score());
+        assertTrue(result.isSolved());
+        result = search.search(ConnectFourBoard.of("11223"),
+                               10 * NANOS_PER_MILLI);
+        assertEquals(3, result.move());
+    }
+
+    /**
+     * Solving agrees with plain minimax on random late positions, with
+     *   a table small enough to see collisions.
+     */
+    @Test
+    public void testSolveMatchesMinimax() {
+        ConnectFourSearch search = new ConnectFourSearch(TABLE_BITS);
+        Random random = new Random(11);
+        int solved = 0;
+        while (solved < 100) {
+            ConnectFourBoard board = randomPosition(random, 30);
+            if (board == null) {
+                continue;
+            }
+            ConnectFourSearch.Result result = search.solve(board);
+            int expected = minimax(board);
+            assertTrue(result.isSolved());
+            assertEquals(expected, result.score());
+            board.play(result.move());
+            int after = board.isWon()
+                ? ConnectFourSearch.WIN + ConnectFourBoard.CELLS
+                  - board.moves()
+                : board.isFull() ? 0 : -minimax(board);
+            assertEquals(expected, after);
+            solved++;
+        }
+    }
+
+    /**
+     * A search from the empty board stops close to its budget, has
+     *   finished some iterations and counts its nodes.
+     */
+    @Test
+    public void testTimeBudget() {
+        ConnectFourSearch search = new ConnectFourSearch(TABLE_BITS);
+        long budget = 200 * NANOS_PER_MILLI;
+        ConnectFourSearch.Result result =
+            search.search(new ConnectFourBoard(), budget);
+        assertTrue(result.nanos() < 3 * budget);
+        assertTrue(result.depth() >= 8);
+        assertTrue(result.nodes() > 0);
+        assertTrue(result.nodesPerSecond() > 0);
+        assertTrue(!result.isSolved());
+        assertEquals(3, result.move());
+    }
+
+    /**
+     * Finished games and bad table sizes are rejected.
+     */
+    @Test
+    public void testIllegal() {
+        assertThrows(IllegalArgumentException.class,
+                     () -> new ConnectFourSearch(4));
+        ConnectFourSearch search = new ConnectFourSearch(TABLE_BITS);
+        assertThrows(IllegalArgumentException.class,
+                     () -> search.solve(ConnectFourBoard.of("1212121")));
+    }
+
+    /**
+     * Plays random moves until a number of discs are down, if no one
+     *   has won or can win at once by then.
+     * @param random source of moves
+     * @param discs discs to play
+     * @return the position, or null if the game ended or a win is on
+     */
+    private static ConnectFourBoard randomPosition(final Random random,
+                                                   final int discs) {
+        ConnectFourBoard board = new ConnectFourBoard();
+        while (board.moves() < discs) {
+            int column = random.nextInt(ConnectFourBoard.WIDTH);
+            if (!board.canPlay(column)) {
+                continue;
+            }
+            if (board.isWinningMove(column)) {
+                return null;
+            }
+            board.play(column);
+        }
+        return board;
+    }
+
+    /**
+     * Exact score by exhaustive negamax, in ConnectFourSearch's scale.
+     * @param board a position with a move left and no winner
+     * @return the score for the player to move
+     */
+    private static int minimax(final ConnectFourBoard board) {
+        int best = -Integer.MAX_VALUE;
+        for (int column = 0; column < ConnectFourBoard.WIDTH; column++) {
+            if (!board.canPlay(column)) {
+                continue;
+            }
+            int score;
+            if (board.isWinningMove(column)) {
+                score = ConnectFourSearch.WIN + ConnectFourBoard.CELLS
+                    - board.moves() - 1;
+            } else if (board.moves() == ConnectFourBoard.CELLS - 1) {
+                score = 0;
+            } else {
+                board.play(column);
+                score = -minimax(board);
+                board.undo(column);
+            }
+            best = Math.max(best, score);
+        }
+        return best;
+    }
+}
@@ -0,0 +1,153 @@
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Transposition table of ConnectFourSearch, shared lock-free by any
+ *   number of search threads.
+ * <pre>
+ * A fixed array of longs indexed by the low bits of the position key.
+ *   Each entry packs everything about a position into one long:
+ *   bits 27-59  the rest of the key, to tell positions apart
+ *   bits 11-26  the score, offset to be non-negative
+ *   bits 5-10   the depth searched
+ *   bits 3-4    the bound type, 0 for an empty entry
+ *   bits 0-2    the best move, NO_MOVE if none
+ * The key is below 2^49 and the table has at least 2^16 entries, so
+ *   the rest of the key fits, and a matching entry is the position's
+ *   own, never a collision.
+ * Entries are read and written whole with opaque (atomic, unordered)
+ *   accesses, so a thread sees either an old entry or a new one, never
+ *   half of each; no locks and no CAS are needed. Two threads storing
+ *   into the same slot at once lose one of the stores, which costs a
+ *   little search and nothing else. Entries are always replaced.
+ * </pre>
+ * @version 1
+ */
+final class ConnectFourTable {
+    /** Default log2 of the entries: 4M entries, 32 MB. */
+    static final int DEFAULT_BITS = 22;
+    /** Smallest log2 of the entries, so the key check fits. */
+    static final int MIN_BITS = 16;
+    /** Largest log2 of the entries. */
+    static final int MAX_BITS = 28;
+    /** Bound type: exact score. */
+    static final int EXACT = 1;
+    /** Bound type: the score is at least the stored one. */
+    static final int LOWER = 2;
+    /** Bound type: the score is at most the stored one. */
+    static final int UPPER = 3;
+    /** Move field meaning no move. */
+    static final int NO_MOVE = 7;
+
+    /** Bits of an entry's move. */
+    private static final int MOVE_BITS = 3;
+    /** Bits of an entry's bound type. */
+    private static final int FLAG_BITS = 2;
+    /** Bits of an entry's depth. */
+    private static final int DEPTH_BITS = 6;
+    /** Bits of an entry's score. */
+    private static final int SCORE_BITS = 16;
+    /** Offset making stored scores non-negative. */
+    private static final int SCORE_OFFSET = 1 << (SCORE_BITS - 1);
+    /** Shift of an entry's bound type. */
+    private static final int FLAG_SHIFT = MOVE_BITS;
+    /** Shift of an entry's depth. */
+    private static final int DEPTH_SHIFT = FLAG_SHIFT + FLAG_BITS;
+    /** Shift of an entry's score. */
+    private static final int SCORE_SHIFT = DEPTH_SHIFT + DEPTH_BITS;
+    /** Shift of an entry's key check. */
+    private static final int CHECK_SHIFT = SCORE_SHIFT + SCORE_BITS;
+
+    /** Entries, 0 when empty. */
+    private final AtomicLongArray entries;
+    /** log2 of the entries. */
+    private final int bits;
+    /** Mask from a key to its slot. */
+    private final int slotMask;
+
+    /**
+     * Creates an empty table.
+     * @param tableBits log2 of the entries, MIN_BITS to MAX_BITS
+     */
+    ConnectFourTable(final int tableBits) {
+        if (tableBits < MIN_BITS || tableBits > MAX_BITS) {
+            throw new IllegalArgumentException("table bits: " + tableBits);
+        }
+        this.bits = tableBits;
+        this.entries = new AtomicLongArray(1 << tableBits);
+        this.slotMask = (1 << tableBits) - 1;
+    }
+
+    /**
+     * Reads the entry of a key.
+     * @param key the position key
+     * @return the entry, or 0 if the slot is empty or holds another key
+     */
+    long probe(final long key) {
+        long entry = entries.getOpaque((int) key & slotMask);
+        return entry >>> CHECK_SHIFT == key >>> bits ? entry : 0;
+    }
+
+    /**
+     * Writes the entry of a key.
+     * @param key the position key
+     * @param score the score
+     * @param flag EXACT, LOWER or UPPER
+     * @param depth the depth searched
+     * @param move the best move, or NO_MOVE
+     */
+    void store(final long key, final int score, final int flag,
+               final int depth, final int move) {
+        entries.setOpaque((int) key & slotMask,
+                          (key >>> bits) << CHECK_SHIFT
+                          | (long) (score + SCORE_OFFSET) << SCORE_SHIFT
+                          | (long) depth << DEPTH_SHIFT
+                          | (long) flag << FLAG_SHIFT
+                          | move);
+    }
+
+    /**
+     * Empties the table. Not to be called while a search is using it.
+     */
+    void clear() {
+        for (int i = 0; i <= slotMask; i++) {
+            entries.setPlain(i, 0L);
+        }
+    }
+
+    /**
+     * Score of an entry.
+     * @param entry the entry
+     * @return the score
+     */
+    static int scoreOf(final long entry) {
+        return (int) (entry >>> SCORE_SHIFT & ((1 << SCORE_BITS) - 1))
+            - SCORE_OFFSET;
+    }
+
+    /**
+     * Bound type of an entry.
+     * @param entry the entry
+     * @return EXACT, LOWER or UPPER
+     */
+    static int flagOf(final long entry) {
+        return (int) (entry >>> FLAG_SHIFT & ((1 << FLAG_BITS) - 1));
+    }
+
+    /**
+     * Depth of an entry.
+     * @param entry the entry
+     * @return the depth searched
+     */
+    static int depthOf(final long entry) {
+        return (int) (entry >>> DEPTH_SHIFT & ((1 << DEPTH_BITS) - 1));
+    }
+
+    /**
+     * Best move of an entry.
+     * @param entry the entry, or 0
+     * @return the column, or NO_MOVE
+     */
+    static int moveOf(final long entry) {
+        return entry == 0 ? NO_MOVE : (int) (entry & NO_MOVE);
+    }
+}
@@ -0,0 +1,90 @@
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Tests for ConnectFourTable.
+ * @version 1
+ */
+public class ConnectFourTableTest {
+    /** Table size used by the tests. */
+    private static final int TABLE_BITS = 16;
+    /** Largest position key. */
+    private static final long MAX_KEY = (1L << 49) - 1;
+
+    /**
+     * Entries read back as written, with negative scores, and keys that
+     *   share a slot do not see each other's entries.
+     */
+    @Test
+    public void testStoreAndProbe() {
+        ConnectFourTable table = new ConnectFourTable(TABLE_BITS);
+        long key = MAX_KEY - 5;
+        assertEquals(0, table.probe(key));
+        table.store(key, -1037, ConnectFourTable.UPPER, 41, 6);
+        long entry = table.probe(key);
+        assertEquals(-1037, ConnectFourTable.scoreOf(entry));
+        assertEquals(ConnectFourTable.UPPER, ConnectFourTable.flagOf(entry));
+        assertEquals(41, ConnectFourTable.depthOf(entry));
+        assertEquals(6, ConnectFourTable.moveOf(entry));
+        assertEquals(0, table.probe(key ^ (1L << TABLE_BITS)));
+        assertEquals(ConnectFourTable.NO_MOVE, ConnectFourTable.moveOf(0));
+        table.store(5, 0, ConnectFourTable.EXACT, 0,
+                    ConnectFourTable.NO_MOVE);
+        assertEquals(ConnectFourTable.EXACT,
+                     ConnectFourTable.flagOf(table.probe(5)));
+        table.clear();
+        assertEquals(0, table.probe(5));
+        assertEquals(0, table.probe(key));
+        assertThrows(IllegalArgumentException.class,
+                     () -> new ConnectFourTable(ConnectFourTable.MIN_BITS - 1));
+    }
+
+    /**
+     * Threads writing the same slots at once never leave an entry made
+     *   of two writes: every hit has the fields its writer derived from
+     *   the key.
+     * @throws InterruptedException if interrupted
+     */
+    @Test
+    public void testNoTornEntries() throws InterruptedException {
+        ConnectFourTable table = new ConnectFourTable(TABLE_BITS);
+        AtomicBoolean torn = new AtomicBoolean();
+        Thread[] threads = new Thread[4];
+        for (int t = 0; t < threads.length; t++) {
+            long seed = t + 1;
+            threads[t] = new Thread(() -> {
+                long x = seed;
+                for (int i = 0; i < 2_000_000; i++) {
+                    x ^= x << 13;
+                    x ^= x >>> 7;
+                    x ^= x << 17;
+                    long key = (x & MAX_KEY) & ~0xFF00L;
+                    table.store(key, (int) (key % 2000) - 1000,
+                                (int) (key % 3) + 1, (int) (key % 43),
+                                (int) (key % 7));
+                    long probe = (x * 31) & MAX_KEY & ~0xFF00L;
+                    long entry = table.probe(probe);
+                    if (entry != 0
+                        && (ConnectFourTable.scoreOf(entry)
+                                != (int) (probe % 2000) - 1000
+                            || ConnectFourTable.depthOf(entry)
+                                != (int) (probe % 43)
+                            || ConnectFourTable.moveOf(entry)
+                                != (int) (probe % 7))) {
+                        torn.set(true);
+                    }
+                }
+            });
+            threads[t].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertFalse(torn.get());
+    }
+}
@@ -2,7 +2,7 @@ import java.util.Optional;
 
 /**
  * Interface representing a generic game in the arcade.
- * @version 1
+ * @version 2
  */
 interface Game {
     /**
@@ -11,6 +11,21 @@ interface Game {
      */
     String getName();
 
+    /**
+     * Starts and runs the game on the console.
+     * Equivalent to play(GameIO.console()), followed by a flush.
+     * @return Optional containing score if applicable, or
+     *         Optional.empty() if not
+     */
+    default Optional<Integer> play() {
+        GameIO io = GameIO.console();
+        try {
+            return play(io);
+        } finally {
+            io.flush();
+        }
+    }
+
     /**
      * Starts and runs the game.
      *
@@ -22,9 +37,14 @@ interface Game {
      *
      * This approach avoids the ambiguity of using 0 to mean "no score",
      * since 0 can be a valid score in many games.
+     *
+     * All input and output goes through io; a game never reads System.in
+     *   or writes System.out itself. Output is flushed when the game reads
+     *   from io, and by the caller when the game returns.
      * </pre>
+     * @param io the player's console
      * @return Optional containing score if applicable, or
      *         Optional.empty() if not
      */
-    Optional<Integer> play();
+    Optional<Integer> play(GameIO io);
 }
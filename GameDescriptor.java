@@ -0,0 +1,69 @@
+import java.util.function.Supplier;
+
+/**
+ * Lightweight entry for a game in the GameRegistry: its menu name and a
+ *   factory for the game itself.
+ * The game is created the first time it is asked for and then reused,
+ *   so a game that is never chosen never allocates its resources.
+ * The name must match the created game's getName, since history is
+ *   recorded under the game's own name.
+ * @version 1
+ */
+final class GameDescriptor {
+    /** Name shown in the menu. */
+    private final String name;
+    /** Creates the game. */
+    private final Supplier<? extends Game> factory;
+    /** The game, once created. */
+    private Game game;
+
+    /**
+     * Creates a descriptor.
+     * @param gameName name shown in the menu
+     * @param gameFactory creates the game when it is first chosen
+     */
+    GameDescriptor(final String gameName,
+                   final Supplier<? extends Game> gameFactory) {
+        this.name = gameName;
+        this.factory = gameFactory;
+    }
+
+    /**
+     * Describes a game that has already been created.
+     * @param created the game
+     * @return its descriptor
+     */
+    static GameDescriptor of(final Game created) {
+        GameDescriptor descriptor =
+            new GameDescriptor(created.getName(), () -> created);
+        descriptor.game = created;
+        return descriptor;
+    }
+
+    /**
+     * Name shown in the menu.
+     * @return the game name
+     */
+    String getName() {
+        return name;
+    }
+
+    /**
+     * Returns the game, creating it on first use.
+     * @return the game
+     */
+    synchronized Game getGame() {
+        if (game == null) {
+            game = factory.get();
+        }
+        return game;
+    }
+
+    /**
+     * Whether the game has been created.
+     * @return true once getGame has been called
+     */
+    synchronized boolean isCreated() {
+        return game != null;
+    }
+}
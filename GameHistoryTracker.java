@@ -1,69 +1,873 @@
 import java.util.Map;
 import java.util.HashMap;
-import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
 import java.io.IOException;
 import java.io.Serializable;
 import java.io.ObjectInputStream;
 import java.io.ObjectOutputStream;
+import java.io.ObjectStreamField;
+import java.io.PrintWriter;
 import java.io.FileInputStream;
-import java.io.FileOutputStream;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.channels.FileChannel;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDate;
 
 /**
  * Track history and stats of games played.
+ * <pre>
+ * History is kept as a snapshot file plus a write-ahead log beside it
+ *   (the snapshot name with LOG_SUFFIX appended).
+ * Once a tracker is loaded with loadHistory, each recordPlay appends a
+ *   small fixed-size record to the log, so the cost of persisting a play
+ *   does not grow with the size of the history.
+ * saveHistory compacts: it folds the log into a new snapshot and
+ *   empties the log.
+ *
+ * Each game keeps a constant-size ScoreSummary, so the history display
+ *   costs the same however many plays are recorded.
+ * Keeping every raw score as well is optional (see setRetainScores).
+ * Each game also keeps a Leaderboard, saved with the history, for its
+ *   best scores and the rank of any score (getTopScores, getRank).
+ * Plays are timestamped and kept in a PlayTimeline of day buckets with
+ *   rollups, so time-window queries (getPlays, getRecentPlays) read only
+ *   the days they cover. Days are local dates in the clock's time zone.
+ *
+ * Plays may be recorded from many threads at once. Like a LongAdder,
+ *   each game's counters are split into stripes, and a thread always
+ *   updates the stripe chosen by its id under that stripe's lock, so
+ *   sessions on different threads rarely meet on the same lock.
+ *   Readers lock one stripe at a time and merge; only saveHistory
+ *   holds every stripe, briefly, while it folds them into the totals
+ *   being written.
+ * Raw scores are kept per stripe, so after a save they are grouped by
+ *   the thread that recorded them rather than strictly in play order.
+ *
+ * Snapshots use the binary HistoryFile format. Loading maps the file
+ *   and reads only its index; raw scores are paged in when first used.
+ *   The history file is a pointer to the current snapshot, so a save
+ *   never replaces a mapped file (see HistoryFile); a snapshot written
+ *   in place by an earlier release is moved behind a pointer on load.
+ * The tracker remains Serializable only so that history files from
+ *   earlier releases, which used Java serialization, can be migrated.
+ * </pre>
  * @author Jody Paul (assisted by chatGPT)
  * @author Cesar Soto, Mason Proctor, Luke Ross
- * @version 2
+ * @version 4
  */
 class GameHistoryTracker implements Serializable {
     private static final long serialVersionUID = 2L;
+    /** Suffix appended to the snapshot file name to name its log. */
+    static final String LOG_SUFFIX = ".log";
+    /** Suffix of the backup kept when migrating a serialized snapshot. */
+    static final String LEGACY_SUFFIX = ".v2.bak";
+    /** Suffix of the temporary file a snapshot is written to. */
+    private static final String TEMP_SUFFIX = ".tmp";
+    /** Quantile shown as p50. */
+    private static final double MEDIAN = 0.5;
+    /** Quantile shown as p90. */
+    private static final double P90 = 0.9;
+    /** Quantile shown as p99. */
+    private static final double P99 = 0.99;
+    /** Number of stripes, a power of two of at least twice the cores. */
+    static final int STRIPES = Integer.highestOneBit(
+        Runtime.getRuntime().availableProcessors() * 2 - 1) << 1;
+    /** Milliseconds per second. */
+    private static final long MILLIS_PER_SECOND = 1000;
+    /** Multiplier spreading thread ids over the stripes (2^64 / phi). */
+    private static final long ID_SPREAD = 0x9E3779B97F4A7C15L;
+    /** Serialized fields, matching the layout of earlier releases. */
+    private static final ObjectStreamField[] serialPersistentFields = {
+        new ObjectStreamField("statsMap", HashMap.class),
+        new ObjectStreamField("logGeneration", long.class),
+        new ObjectStreamField("summaryOnly", boolean.class),
+    };
     /** Collection of play stats for each game. */
-    private final HashMap<String, GameStats> statsMap = new HashMap<>();
+    private transient ConcurrentHashMap<String, GameStats> statsMap
+        = new ConcurrentHashMap<>();
+    /** Stripe locks; lock i guards stripe i of every game. */
+    private transient ReentrantLock[] stripeLocks = newStripeLocks();
+    /** Serializes saves and other changes to the saved totals. */
+    private transient Object saveLock = new Object();
+    /** Last log generation folded into this snapshot. */
+    private long logGeneration = 0;
+    /** True if only summaries are kept, without the raw scores. */
+    private volatile boolean summaryOnly = false;
+    /** Log receiving plays since the snapshot, or null if not logging. */
+    private transient HistoryLog log;
+    /** Notified after each recorded play, or null. */
+    private transient volatile Runnable playListener;
+    /** Source of play times and of the zone that dates them. */
+    private transient Clock clock = Clock.systemDefaultZone();
+    /** True if plays were recorded or cleared since the last save. */
+    private transient volatile boolean dirty;
+    /** Last failure to write the log, not yet taken, or null. */
+    private transient volatile IOException logError;
 
     /**
-     * Records a play session for a game.
+     * Registers the listener notified after each recorded play, such as
+     *   a HistoryPersistence.
+     * @param listener the listener, or null for none
+     */
+    void setPlayListener(final Runnable listener) {
+        this.playListener = listener;
+    }
+
+    /**
+     * Replaces the clock that timestamps plays and dates time queries.
+     * @param playClock the clock to use
+     */
+    void setClock(final Clock playClock) {
+        this.clock = playClock;
+    }
+
+    /**
+     * Creates the stripe locks.
+     * @return one unlocked lock per stripe
+     */
+    private static ReentrantLock[] newStripeLocks() {
+        ReentrantLock[] locks = new ReentrantLock[STRIPES];
+        for (int i = 0; i < STRIPES; i++) {
+            locks[i] = new ReentrantLock();
+        }
+        return locks;
+    }
+
+    /**
+     * Chooses the stripe updated by the current thread.
+     * @return the stripe index
+     */
+    private static int stripeIndex() {
+        long id = Thread.currentThread().getId();
+        return (int) ((id * ID_SPREAD) >>> (Long.SIZE - Integer.SIZE))
+               & (STRIPES - 1);
+    }
+
+    /**
+     * Locks every stripe, in index order.
+     */
+    private void lockAll() {
+        for (ReentrantLock lock : stripeLocks) {
+            lock.lock();
+        }
+    }
+
+    /**
+     * Unlocks every stripe.
+     */
+    private void unlockAll() {
+        for (ReentrantLock lock : stripeLocks) {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Chooses whether every raw score is kept alongside the summaries.
+     * Raw scores are kept by default; turning this off releases them.
+     * @param retain true to keep raw scores, false for summaries only
+     */
+    public void setRetainScores(final boolean retain) {
+        synchronized (saveLock) {
+            lockAll();
+            try {
+                this.summaryOnly = !retain;
+                if (summaryOnly) {
+                    for (GameStats stats : statsMap.values()) {
+                        stats.dropScores();
+                    }
+                }
+            } finally {
+                unlockAll();
+            }
+        }
+    }
+
+    /**
+     * Records a play session for a game, timestamped now.
+     * Safe to call from several threads at once.
      * @param gameName the name of the game played
      * @param score optional numeric score (nullable)
      */
     public void recordPlay(final String gameName, final Integer score) {
-        GameStats stats = statsMap.getOrDefault(gameName, new GameStats());
-        stats.incrementTimesPlayed();
-        if (score != null) {
-            stats.totalScore += score;
-            stats.scores.add(score);
+        recordPlay(gameName, score, clock.millis());
+    }
+
+    /**
+     * Records a play session for a game at a given time.
+     * @param gameName the name of the game played
+     * @param score optional numeric score (nullable)
+     * @param timestamp when the play happened, in epoch millis
+     */
+    void recordPlay(final String gameName, final Integer score,
+                    final long timestamp) {
+        int day = dayOf(timestamp);
+        int second = (int) (Math.floorDiv(timestamp, MILLIS_PER_SECOND)
+                            - (long) day * PlayTimeline.SECONDS_PER_DAY);
+        int stripe = stripeIndex();
+        ReentrantLock lock = stripeLocks[stripe];
+        lock.lock();
+        try {
+            statsMap.computeIfAbsent(gameName, name -> new GameStats())
+                    .stripe(stripe).add(score, !summaryOnly, day, second);
+            if (!dirty) {
+                dirty = true;
+            }
+            if (log != null) {
+                log.append(gameName, score, timestamp);
+            }
+        } catch (IOException e) {
+            logFailed(e);
+        } finally {
+            lock.unlock();
+        }
+        Runnable listener = playListener;
+        if (listener != null) {
+            listener.run();
+        }
+    }
+
+    /**
+     * Local date of an instant, as an epoch day number.
+     * @param millis the instant, in epoch millis
+     * @return the day number in the clock's zone
+     */
+    private int dayOf(final long millis) {
+        return (int) LocalDate.ofInstant(Instant.ofEpochMilli(millis),
+                                         clock.getZone()).toEpochDay();
+    }
+
+    /**
+     * Start of a local date.
+     * @param day the epoch day number
+     * @return the first instant of the day in the clock's zone, in millis
+     */
+    private long startOfDay(final long day) {
+        return LocalDate.ofEpochDay(day).atStartOfDay(clock.getZone())
+                        .toInstant().toEpochMilli();
+    }
+
+    /**
+     * Aggregates a game's plays within a period, to the second.
+     * Only the days the period covers are read: whole days from their
+     *   rollups, the partial days at either end play by play.
+     * @param gameName the name of the game
+     * @param fromMillis start of the period, in epoch millis (inclusive)
+     * @param toMillis end of the period, in epoch millis (exclusive)
+     * @return the plays in the period
+     */
+    PlayWindow getPlays(final String gameName,
+                        final long fromMillis,
+                        final long toMillis) {
+        GameStats stats = statsMap.get(gameName);
+        if (stats == null || toMillis <= fromMillis) {
+            return new PlayWindow();
+        }
+        int fromDay = dayOf(fromMillis);
+        int toDay = dayOf(toMillis - 1);
+        int fullFrom = startOfDay(fromDay) >= fromMillis ? fromDay
+                                                          : fromDay + 1;
+        int fullTo = startOfDay(toDay + 1L) <= toMillis ? toDay : toDay - 1;
+        long fromSecond = Math.floorDiv(fromMillis + MILLIS_PER_SECOND - 1,
+                                        MILLIS_PER_SECOND);
+        long toSecond = Math.floorDiv(toMillis + MILLIS_PER_SECOND - 1,
+                                      MILLIS_PER_SECOND);
+        PlayWindow[] window = {new PlayWindow()};
+        walk(stats, new PartVisitor() {
+            @Override
+            public void restart() {
+                window[0] = new PlayWindow();
+            }
+            @Override
+            public void visit(final int plays, final long total,
+                              final ScoreSummary summary,
+                              final Leaderboard board,
+                              final PlayTimeline timeline) {
+                timeline.query(fromDay, toDay, fullFrom, fullTo,
+                               fromSecond, toSecond, window[0]);
+            }
+        });
+        return window[0];
+    }
+
+    /**
+     * Aggregates a game's plays over a range of whole days.
+     * @param gameName the name of the game
+     * @param from the first day
+     * @param to the last day (inclusive)
+     * @return the plays on those days
+     */
+    PlayWindow getPlays(final String gameName,
+                        final LocalDate from,
+                        final LocalDate to) {
+        return getPlays(gameName, startOfDay(from.toEpochDay()),
+                        startOfDay(to.toEpochDay() + 1));
+    }
+
+    /**
+     * Aggregates a game's plays over the most recent days.
+     * @param gameName the name of the game
+     * @param days number of days, counting today
+     * @return the plays on those days
+     */
+    PlayWindow getRecentPlays(final String gameName, final int days) {
+        LocalDate today = LocalDate.now(clock);
+        return getPlays(gameName, today.minusDays(days - 1L), today);
+    }
+
+    /**
+     * Access the number of times a game has been played.
+     * @param gameName the name of the game
+     * @return times played, or 0 if the game has never been played
+     */
+    int getTimesPlayed(final String gameName) {
+        GameStats stats = statsMap.get(gameName);
+        return stats == null ? 0 : snapshot(stats).getTimesPlayed();
+    }
+
+    /**
+     * Access the running summary of a game's scores.
+     * @param gameName the name of the game
+     * @return a copy of the summary, or null if the game has never
+     *         been played
+     */
+    ScoreSummary getSummary(final String gameName) {
+        GameStats stats = statsMap.get(gameName);
+        return stats == null ? null : snapshot(stats).getSummary();
+    }
+
+    /**
+     * Access the best scores of a game.
+     * @param gameName the name of the game
+     * @param k maximum number of scores wanted, at most Leaderboard.TOP_K
+     * @return up to k scores, highest first; empty if none recorded
+     */
+    int[] getTopScores(final String gameName, final int k) {
+        GameStats stats = statsMap.get(gameName);
+        if (stats == null) {
+            return new int[0];
+        }
+        Leaderboard[] best = {new Leaderboard()};
+        walk(stats, new PartVisitor() {
+            @Override
+            public void restart() {
+                best[0] = new Leaderboard();
+            }
+            @Override
+            public void visit(final int plays, final long total,
+                              final ScoreSummary summary,
+                              final Leaderboard board,
+                              final PlayTimeline timeline) {
+                best[0].mergeTop(board);
+            }
+        });
+        return best[0].topScores(k);
+    }
+
+    /**
+     * Ranks a score among those recorded for a game.
+     * Equal scores share a rank, so the best score always ranks 1.
+     * @param gameName the name of the game
+     * @param score the score to rank
+     * @return one more than the number of recorded scores above it
+     */
+    int getRank(final String gameName, final int score) {
+        GameStats stats = statsMap.get(gameName);
+        if (stats == null) {
+            return 1;
+        }
+        int[] above = new int[1];
+        walk(stats, new PartVisitor() {
+            @Override
+            public void restart() {
+                above[0] = 0;
+            }
+            @Override
+            public void visit(final int plays, final long total,
+                              final ScoreSummary summary,
+                              final Leaderboard board,
+                              final PlayTimeline timeline) {
+                above[0] += board.countAbove(score);
+            }
+        });
+        return above[0] + 1;
+    }
+
+    /**
+     * Totals a game's stats.
+     * @param stats the game's live stats
+     * @return stats of the plays seen, without raw scores or leaderboard
+     */
+    private GameStats snapshot(final GameStats stats) {
+        GameStats sum = new GameStats();
+        walk(stats, new PartVisitor() {
+            @Override
+            public void restart() {
+                sum.timesPlayed = 0;
+                sum.scoreTotal = 0;
+                sum.summary = new ScoreSummary();
+            }
+            @Override
+            public void visit(final int plays, final long total,
+                              final ScoreSummary summary,
+                              final Leaderboard board,
+                              final PlayTimeline timeline) {
+                sum.timesPlayed += plays;
+                sum.scoreTotal += total;
+                sum.summary.merge(summary);
+            }
+        });
+        return sum;
+    }
+
+    /**
+     * Receives the saved totals and each stripe of a game in turn.
+     */
+    private interface PartVisitor {
+        /**
+         * Discards what was visited so far; the walk starts again.
+         */
+        void restart();
+
+        /**
+         * Visits one part, while its stripe lock is held.
+         * @param plays plays in the part
+         * @param total sum of the part's scores
+         * @param summary summary of the part's scores
+         * @param board leaderboard of the part's scores
+         * @param timeline the part's plays by day
+         */
+        void visit(int plays, long total, ScoreSummary summary,
+                   Leaderboard board, PlayTimeline timeline);
+    }
+
+    /**
+     * Visits the parts of a game's stats, holding one stripe lock at a
+     *   time so that writers on the other stripes carry on.
+     * If a save folds the stripes part way through, plays may have moved
+     *   behind the walk, so it restarts.
+     * @param stats the game's live stats
+     * @param visitor receives each part
+     */
+    private void walk(final GameStats stats, final PartVisitor visitor) {
+        while (true) {
+            int folds = 0;
+            for (int i = 0; i < STRIPES; i++) {
+                stripeLocks[i].lock();
+                try {
+                    if (i == 0) {
+                        folds = stats.folds;
+                        visitor.visit(stats.timesPlayed, stats.scoreTotal,
+                                      stats.summary, stats.board,
+                                      stats.timeline);
+                    }
+                    Stripe stripe = stats.stripes[i];
+                    if (stripe != null) {
+                        visitor.visit(stripe.plays, stripe.total,
+                                      stripe.summary, stripe.board,
+                                      stripe.timeline);
+                    }
+                    if (i == STRIPES - 1 && folds == stats.folds) {
+                        return;
+                    }
+                } finally {
+                    stripeLocks[i].unlock();
+                }
+            }
+            visitor.restart();
+        }
+    }
+
+    /**
+     * Writes any plays buffered in the log to its file.
+     */
+    public void flushLog() {
+        if (log != null) {
+            try {
+                log.flush();
+            } catch (IOException e) {
+                logFailed(e);
+            }
+        }
+    }
+
+    /**
+     * Takes the last failure to write the log, so that the caller can
+     *   report it where the player will see it.
+     * @return the failure since the last call, or null if there was none
+     */
+    IOException takeLogError() {
+        IOException error = logError;
+        if (error != null) {
+            logError = null;
+        }
+        return error;
+    }
+
+    /**
+     * Records a failure to write the log for takeLogError, and notes it
+     *   on standard error; the play stays in memory until the next save.
+     * @param e the failure
+     */
+    private void logFailed(final IOException e) {
+        logError = e;
+        System.err.println("Game history log write failed: " + e.getMessage());
+    }
+
+    /**
+     * Whether plays are being appended to a log.
+     * @return true if the tracker was loaded with a usable log
+     */
+    boolean isLogging() {
+        return log != null;
+    }
+
+    /**
+     * Whether the history changed since it was last saved.
+     * @return true if a play was recorded, or the history cleared, after
+     *         the latest saveHistory
+     */
+    boolean isDirty() {
+        return dirty;
+    }
+
+    /**
+     * Writes any buffered plays and closes the log; later plays are kept
+     *   in memory only.
+     * @throws IOException if an I/O error occurs
+     */
+    void closeLog() throws IOException {
+        HistoryLog closing;
+        synchronized (saveLock) {
+            lockAll();
+            try {
+                closing = log;
+                log = null;
+            } finally {
+                unlockAll();
+            }
+        }
+        if (closing != null) {
+            closing.close();
+        }
+    }
+
+    /**
+     * Writes the plays buffered in the log and forces them to the device.
+     * @throws IOException if an I/O error occurs
+     */
+    void syncLog() throws IOException {
+        if (log != null) {
+            log.sync();
         }
-        statsMap.put(gameName, stats);
     }
 
     /**
      * Displays a summary of play history and scores.
      */
     public void displayHistory() {
-        System.out.println("\n=== Game Play History ===");
+        GameIO io = GameIO.console();
+        displayHistory(io);
+        io.flush();
+    }
+
+    /**
+     * Displays a summary of play history and scores.
+     * @param out where to print
+     */
+    void displayHistory(final PrintWriter out) {
+        out.println("\n=== Game Play History ===");
         if (statsMap.isEmpty()) {
-            System.out.println("No games played yet.");
+            out.println("No games played yet.");
             return;
         }
         for (Map.Entry<String, GameStats> entry : statsMap.entrySet()) {
             String game = entry.getKey();
-            GameStats stats = entry.getValue();
-            System.out.printf("%s - Played: %d", game, stats.timesPlayed);
-            if (!stats.scores.isEmpty()) {
-                double avg = stats.totalScore / (double) stats.scores.size();
-                System.out.printf(", Avg Score: %.2f", avg);
+            GameStats stats = snapshot(entry.getValue());
+            out.printf("%s - Played: %d", game, stats.timesPlayed);
+            ScoreSummary summary = stats.summary;
+            if (summary.getCount() > 0) {
+                double avg = stats.scoreTotal / (double) summary.getCount();
+                out.printf(", Avg Score: %.2f", avg);
+                out.printf("%n    Min: %d, Max: %d, Std Dev: %.2f,"
+                           + " p50: %d, p90: %d, p99: %d",
+                           summary.getMin(), summary.getMax(),
+                           summary.getStdDev(),
+                           summary.quantile(MEDIAN),
+                           summary.quantile(P90),
+                           summary.quantile(P99));
             }
-            System.out.println();
+            out.println();
         }
     }
 
+    /**
+     * Displays the best scores of each game that has any.
+     */
+    public void displayLeaderboards() {
+        GameIO io = GameIO.console();
+        displayLeaderboards(io);
+        io.flush();
+    }
+
+    /**
+     * Displays the best scores of each game that has any.
+     * @param out where to print
+     */
+    void displayLeaderboards(final PrintWriter out) {
+        out.println("\n=== Leaderboards ===");
+        boolean any = false;
+        for (String game : statsMap.keySet()) {
+            int[] best = getTopScores(game, Leaderboard.TOP_K);
+            if (best.length == 0) {
+                continue;
+            }
+            any = true;
+            out.println(game + ":");
+            for (int i = 0; i < best.length; i++) {
+                out.printf("  %2d. %d%n", getRank(game, best[i]), best[i]);
+            }
+        }
+        if (!any) {
+            out.println("No scores recorded yet.");
+        }
+    }
+
+    /**
+     * Displays each game's plays over the most recent days.
+     * @param days number of days, counting today
+     */
+    public void displayRecentHistory(final int days) {
+        GameIO io = GameIO.console();
+        displayRecentHistory(days, io);
+        io.flush();
+    }
+
+    /**
+     * Displays each game's plays over the most recent days.
+     * @param days number of days, counting today
+     * @param out where to print
+     */
+    void displayRecentHistory(final int days, final PrintWriter out) {
+        out.printf("%n=== Last %d Days ===%n", days);
+        boolean any = false;
+        for (String game : statsMap.keySet()) {
+            any |= printWindow(out, game, getRecentPlays(game, days));
+        }
+        if (!any) {
+            out.println("No games played in that time.");
+        }
+    }
+
+    /**
+     * Displays each game's plays day by day, most recent day first.
+     * @param days number of days, counting today
+     */
+    public void displayDailyHistory(final int days) {
+        GameIO io = GameIO.console();
+        displayDailyHistory(days, io);
+        io.flush();
+    }
+
+    /**
+     * Displays each game's plays day by day, most recent day first.
+     * @param days number of days, counting today
+     * @param out where to print
+     */
+    void displayDailyHistory(final int days, final PrintWriter out) {
+        LocalDate today = LocalDate.now(clock);
+        for (int d = 0; d < days; d++) {
+            LocalDate date = today.minusDays(d);
+            out.printf("%n=== %s ===%n", date);
+            boolean any = false;
+            for (String game : statsMap.keySet()) {
+                any |= printWindow(out, game,
+                                   getPlays(game, date, date));
+            }
+            if (!any) {
+                out.println("No games played.");
+            }
+        }
+    }
+
+    /**
+     * Prints one game's plays within a window, if it has any.
+     * @param out where to print
+     * @param game the name of the game
+     * @param window its plays in the window
+     * @return true if anything was printed
+     */
+    private static boolean printWindow(final PrintWriter out,
+                                       final String game,
+                                       final PlayWindow window) {
+        if (window.getPlays() == 0) {
+            return false;
+        }
+        out.printf("%s - Played: %d", game, window.getPlays());
+        if (window.getScoredPlays() > 0) {
+            out.printf(", Avg Score: %.2f, Min: %d, Max: %d",
+                       window.getAverage(), window.getMin(),
+                       window.getMax());
+        }
+        out.println();
+        return true;
+    }
+
     /**
      * Saves the game history to a file.
+     * All stripes are locked only while they are folded into the saved
+     *   totals; the snapshot is then written, without holding any stripe,
+     *   to a temporary file, renamed to the next snapshot number, and
+     *   published by replacing the pointer file.
+     * If this tracker logs beside the same file, the log is rotated as
+     *   the stripes are folded and its covered records are dropped once
+     *   the snapshot is in place (compaction). A crash in between is
+     *   harmless because the snapshot records the log generation it
+     *   already covers.
      * @param filename the name of the file to save to
      * @throws IOException if an I/O error occurs
      */
     public void saveHistory(final String filename) throws IOException {
-        try (ObjectOutputStream out =
-                new ObjectOutputStream(new FileOutputStream(filename))) {
-            out.writeObject(this);
+        Path target = Paths.get(filename);
+        boolean compacting = log != null
+            && log.getPath().equals(logPathFor(filename));
+        synchronized (saveLock) {
+            Map<String, GameStats> saved = new LinkedHashMap<>();
+            lockAll();
+            try {
+                if (compacting) {
+                    logGeneration = log.rotate();
+                }
+                dirty = false;
+                for (Map.Entry<String, GameStats> entry
+                         : statsMap.entrySet()) {
+                    entry.getValue().fold();
+                    saved.put(entry.getKey(), entry.getValue());
+                }
+            } finally {
+                unlockAll();
+            }
+            long number = Files.exists(target)
+                ? HistoryFile.readPointer(target) + 1 : 0;
+            Path snapshot = HistoryFile.snapshotFor(target, number);
+            Path temp = Paths.get(snapshot + TEMP_SUFFIX);
+            HistoryFile.write(temp, new HistoryFile.Contents(
+                    logGeneration, summaryOnly, saved));
+            force(temp);
+            replace(temp, snapshot);
+            publish(target, number);
+            HistoryFile.deleteSnapshots(target, number);
+            if (compacting) {
+                log.dropCovered();
+                remap(snapshot, saved);
+            }
+        }
+    }
+
+    /**
+     * Points a history file at a snapshot, replacing the pointer there.
+     * @param target the history file
+     * @param number the snapshot number
+     * @throws IOException if an I/O error occurs
+     */
+    private static void publish(final Path target, final long number)
+            throws IOException {
+        Path temp = Paths.get(target + TEMP_SUFFIX);
+        HistoryFile.writePointer(temp, number);
+        force(temp);
+        replace(temp, target);
+        forceDirectory(target);
+    }
+
+    /**
+     * Renames a file over another, atomically where the platform allows.
+     * @param source the file to rename
+     * @param target the file replaced
+     * @throws IOException if an I/O error occurs
+     */
+    private static void replace(final Path source, final Path target)
+            throws IOException {
+        try {
+            Files.move(source, target, StandardCopyOption.REPLACE_EXISTING,
+                       StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(source, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    /**
+     * Forces a file's contents to the storage device.
+     * @param path the file
+     * @throws IOException if an I/O error occurs
+     */
+    private static void force(final Path path) throws IOException {
+        try (FileChannel ch = FileChannel.open(path,
+                                               StandardOpenOption.WRITE)) {
+            ch.force(true);
+        }
+    }
+
+    /**
+     * Forces the directory entry of a renamed file to the storage device,
+     *   where the platform allows it.
+     * @param path the renamed file
+     */
+    private static void forceDirectory(final Path path) {
+        Path dir = path.toAbsolutePath().getParent();
+        try (FileChannel ch = FileChannel.open(dir, StandardOpenOption.READ)) {
+            ch.force(true);
+        } catch (IOException e) {
+            // Not supported on every platform; the rename itself is atomic.
+        }
+    }
+
+    /**
+     * Points the saved score columns at a freshly saved snapshot, so
+     *   scores recorded since loading move out of the heap and into the
+     *   mapping.
+     * @param snapshot the file just written
+     * @param saved the stats written to it
+     * @throws IOException if the snapshot cannot be reopened
+     */
+    private void remap(final Path snapshot, final Map<String, GameStats> saved)
+            throws IOException {
+        Map<String, GameStats> mapped = HistoryFile.read(snapshot).getStats();
+        lockAll();
+        try {
+            for (Map.Entry<String, GameStats> entry : saved.entrySet()) {
+                GameStats copy = mapped.get(entry.getKey());
+                if (copy != null) {
+                    entry.getValue().scoreColumn = copy.scoreColumn;
+                    entry.getValue().board = copy.board;
+                    entry.getValue().timeline = copy.timeline;
+                }
+            }
+        } finally {
+            unlockAll();
+        }
+    }
+
+    /**
+     * Forgets every play, without saving.
+     */
+    void clear() {
+        synchronized (saveLock) {
+            lockAll();
+            try {
+                statsMap.clear();
+                dirty = true;
+            } finally {
+                unlockAll();
+            }
         }
     }
 
@@ -72,7 +876,7 @@ class GameHistoryTracker implements Serializable {
      * @param filename takes name of file to clear history from.
      */
     public void clearHistory(final String filename) {
-        statsMap.clear();
+        clear();
         try {
             saveHistory(filename);
         } catch (IOException e) {
@@ -86,27 +890,227 @@ class GameHistoryTracker implements Serializable {
      * @return useful game history tracker
      */
     public static GameHistoryTracker loadHistory(final String filename) {
-        try (ObjectInputStream in
-                = new ObjectInputStream(new FileInputStream(filename))) {
-            return (GameHistoryTracker) in.readObject();
+        GameHistoryTracker tracker;
+        try {
+            tracker = readSnapshot(filename);
         } catch (IOException | ClassNotFoundException e) {
             System.err.println(
                 "No previous history found or failed to load. Starting fresh.");
-            return new GameHistoryTracker();
+            tracker = new GameHistoryTracker();
+        }
+        try {
+            tracker.log = HistoryLog.open(logPathFor(filename),
+                                          tracker.logGeneration,
+                                          tracker::recordPlay);
+        } catch (IOException e) {
+            System.err.println("Game history log unavailable: "
+                               + e.getMessage());
+        }
+        return tracker;
+    }
+
+    /**
+     * Reads a snapshot, migrating one saved by an earlier release.
+     * A serialized snapshot is kept as a backup (LEGACY_SUFFIX appended)
+     *   and replaced by the same history in HistoryFile format; a
+     *   HistoryFile snapshot saved in place becomes snapshot 0.
+     * @param filename the name of the snapshot file
+     * @return the tracker read
+     * @throws IOException if the file is missing or unreadable
+     * @throws ClassNotFoundException if a legacy snapshot names an
+     *         unknown class
+     */
+    private static GameHistoryTracker readSnapshot(final String filename)
+            throws IOException, ClassNotFoundException {
+        Path path = Paths.get(filename);
+        if (!Files.exists(path)) {
+            throw new NoSuchFileException(filename);
+        }
+        if (HistoryFile.isLegacy(path)) {
+            GameHistoryTracker legacy;
+            try (ObjectInputStream in
+                    = new ObjectInputStream(new FileInputStream(filename))) {
+                legacy = (GameHistoryTracker) in.readObject();
+            }
+            Files.copy(path, Paths.get(filename + LEGACY_SUFFIX),
+                       StandardCopyOption.REPLACE_EXISTING);
+            legacy.saveHistory(filename);
+            System.err.println("Game history converted to the binary format.");
+        } else if (HistoryFile.readPointer(path) < 0) {
+            // A snapshot saved in place: copy it behind a pointer before
+            // mapping it, so saves never replace the mapped file.
+            Path snapshot = HistoryFile.snapshotFor(path, 0);
+            Files.copy(path, snapshot, StandardCopyOption.REPLACE_EXISTING);
+            try {
+                HistoryFile.read(snapshot);
+            } catch (IOException e) {
+                Files.delete(snapshot); // Malformed: leave the file as it was.
+                throw e;
+            }
+            force(snapshot);
+            publish(path, 0);
+        }
+        HistoryFile.Contents contents = HistoryFile.read(path);
+        GameHistoryTracker tracker = new GameHistoryTracker();
+        tracker.statsMap.putAll(contents.getStats());
+        tracker.logGeneration = contents.getLogGeneration();
+        tracker.summaryOnly = contents.isSummaryOnly();
+        return tracker;
+    }
+
+    /**
+     * Names the log kept beside a snapshot file.
+     * @param filename the name of the snapshot file
+     * @return path of the log
+     */
+    static Path logPathFor(final String filename) {
+        return Paths.get(filename + LOG_SUFFIX);
+    }
+
+    /**
+     * Writes the tracker in the serialized layout of earlier releases.
+     * @param out destination
+     * @throws IOException if an I/O error occurs
+     */
+    private void writeObject(final ObjectOutputStream out) throws IOException {
+        HashMap<String, GameStats> saved = new HashMap<>();
+        for (Map.Entry<String, GameStats> entry : statsMap.entrySet()) {
+            GameStats stats = snapshot(entry.getValue());
+            stats.scoreColumn = entry.getValue().scoresCopy(this);
+            saved.put(entry.getKey(), stats);
+        }
+        ObjectOutputStream.PutField fields = out.putFields();
+        fields.put("statsMap", saved);
+        fields.put("logGeneration", logGeneration);
+        fields.put("summaryOnly", summaryOnly);
+        out.writeFields();
+    }
+
+    /**
+     * Restores a tracker serialized by this or an earlier release.
+     * @param in source
+     * @throws IOException if an I/O error occurs
+     * @throws ClassNotFoundException if a stats class is unavailable
+     */
+    private void readObject(final ObjectInputStream in)
+            throws IOException, ClassNotFoundException {
+        ObjectInputStream.GetField fields = in.readFields();
+        statsMap = new ConcurrentHashMap<>();
+        Object saved = fields.get("statsMap", null);
+        if (saved instanceof Map) {
+            for (Map.Entry<?, ?> entry : ((Map<?, ?>) saved).entrySet()) {
+                statsMap.put((String) entry.getKey(),
+                             (GameStats) entry.getValue());
+            }
+        }
+        logGeneration = fields.get("logGeneration", 0L);
+        summaryOnly = fields.get("summaryOnly", false);
+        stripeLocks = newStripeLocks();
+        saveLock = new Object();
+        clock = Clock.systemDefaultZone();
+    }
+
+    /**
+     * One thread-affine share of a game's stats, guarded by the tracker's
+     *   lock of the same index.
+     */
+    private static final class Stripe {
+        /** Plays recorded in this stripe. */
+        private int plays;
+        /** Sum of the scores recorded in this stripe. */
+        private long total;
+        /** Summary of the scores recorded in this stripe. */
+        private ScoreSummary summary = new ScoreSummary();
+        /** Raw scores recorded in this stripe. */
+        private IntColumn scores = new IntColumn();
+        /** Best scores and ranks of this stripe. */
+        private final Leaderboard board = new Leaderboard();
+        /** Plays of this stripe by day. */
+        private final PlayTimeline timeline = new PlayTimeline();
+
+        /**
+         * Records a play.
+         * @param score the score, or null if the game is unscored
+         * @param retain true to also record the raw score
+         * @param day the play's day number
+         * @param second seconds from the start of that UTC epoch day
+         */
+        void add(final Integer score, final boolean retain,
+                 final int day, final int second) {
+            timeline.add(day, second,
+                         score == null ? PlayTimeline.NO_SCORE : score,
+                         retain);
+            plays++;
+            if (score != null) {
+                total += score;
+                summary.add(score);
+                board.add(score);
+                if (retain) {
+                    scores.add(score);
+                }
+            }
         }
     }
 
     /**
      * Inner class to track stats for a single game.
+     * The fields hold the totals as of the last save (or load); plays
+     *   since then accumulate in per-thread stripes until saveHistory
+     *   folds them in. Only a thread holding every stripe lock changes
+     *   the totals, so holding any one of them is enough to read them.
+     * Scores are kept in a primitive column; the serialized form is read
+     *   back from both this layout and the original one, which stored an
+     *   int totalScore and an ArrayList of Integer scores.
      */
-    private static class GameStats implements Serializable {
+    static class GameStats implements Serializable {
         private static final long serialVersionUID = 2L;
+        /** Serialized fields. */
+        private static final ObjectStreamField[] serialPersistentFields = {
+            new ObjectStreamField("timesPlayed", int.class),
+            new ObjectStreamField("scoreTotal", long.class),
+            new ObjectStreamField("scoreColumn", IntColumn.class),
+            new ObjectStreamField("summary", ScoreSummary.class),
+        };
         /** The number of times game has been played. */
         private int timesPlayed = 0;
         /** The current total score. */
-        private int totalScore = 0;
-        /** All recorded scores. */
-        private ArrayList<Integer> scores = new ArrayList<>();
+        private long scoreTotal = 0;
+        /** All recorded scores, unless only summaries are kept. */
+        private IntColumn scoreColumn = new IntColumn();
+        /** Running summary of all scores. */
+        private ScoreSummary summary = new ScoreSummary();
+        /** Best scores and ranks of all scores. */
+        private transient Leaderboard board = new Leaderboard();
+        /** All plays by day. */
+        private transient PlayTimeline timeline = new PlayTimeline();
+        /** Plays since the totals, by stripe; allocated on first use. */
+        private transient Stripe[] stripes = new Stripe[STRIPES];
+        /** Number of times stripes were folded into the totals. */
+        private transient int folds;
+        /**
+         * Creates stats for a game not yet played.
+         */
+        GameStats() {
+        }
+        /**
+         * Creates stats restored from a history file.
+         * @param played times the game has been played
+         * @param total sum of all scores
+         * @param scoreSummary running summary of all scores
+         * @param scores the recorded scores
+         * @param leaderboard best scores and ranks of all scores
+         * @param plays all plays by day
+         */
+        GameStats(final int played, final long total,
+                  final ScoreSummary scoreSummary, final IntColumn scores,
+                  final Leaderboard leaderboard, final PlayTimeline plays) {
+            this.timesPlayed = played;
+            this.scoreTotal = total;
+            this.summary = scoreSummary;
+            this.scoreColumn = scores;
+            this.board = leaderboard;
+            this.timeline = plays;
+        }
         /**
          * Access the number of times the game has been played.
          * @return times played
@@ -115,10 +1119,166 @@ class GameHistoryTracker implements Serializable {
             return this.timesPlayed;
         }
         /**
-         * Increment the number of times the game has been played.
+         * Access the sum of all scores.
+         * @return the score total
+         */
+        long getScoreTotal() {
+            return this.scoreTotal;
+        }
+        /**
+         * Access the running summary of all scores.
+         * @return the summary
+         */
+        ScoreSummary getSummary() {
+            return this.summary;
+        }
+        /**
+         * Access the best scores and ranks of all scores.
+         * @return the leaderboard
+         */
+        Leaderboard getLeaderboard() {
+            return this.board;
+        }
+        /**
+         * Access all plays by day.
+         * @return the timeline
+         */
+        PlayTimeline getTimeline() {
+            return this.timeline;
+        }
+        /**
+         * Access the recorded scores.
+         * @return the scores, empty if only summaries are kept
+         */
+        IntColumn getScores() {
+            return this.scoreColumn;
+        }
+        /**
+         * Access a stripe, creating it on first use.
+         * The caller holds the stripe's lock.
+         * @param index the stripe index
+         * @return the stripe
+         */
+        private Stripe stripe(final int index) {
+            Stripe stripe = stripes[index];
+            if (stripe == null) {
+                stripe = new Stripe();
+                stripes[index] = stripe;
+            }
+            return stripe;
+        }
+        /**
+         * Moves every stripe's plays into the totals.
+         * The caller holds every stripe lock; rebuilding the leaderboard's
+         *   rank table takes time linear in the game's distinct scores.
+         */
+        private void fold() {
+            folds++;
+            for (int i = 0; i < STRIPES; i++) {
+                Stripe stripe = stripes[i];
+                if (stripe != null && stripe.plays > 0) {
+                    timesPlayed += stripe.plays;
+                    scoreTotal += stripe.total;
+                    summary.merge(stripe.summary);
+                    scoreColumn.addAll(stripe.scores);
+                    board.absorb(stripe.board);
+                    timeline.absorb(stripe.timeline);
+                    stripes[i] = null;
+                }
+            }
+            board.compact();
+        }
+        /**
+         * Releases the raw scores of the totals and of every stripe.
+         * The caller holds every stripe lock.
+         */
+        private void dropScores() {
+            folds++;
+            scoreColumn = new IntColumn();
+            timeline.dropRaw();
+            for (Stripe stripe : stripes) {
+                if (stripe != null) {
+                    stripe.scores = new IntColumn();
+                    stripe.timeline.dropRaw();
+                }
+            }
+        }
+        /**
+         * Copies every raw score, locking one stripe at a time.
+         * @param tracker the tracker owning the stripe locks
+         * @return the saved scores followed by each stripe's
          */
-        void incrementTimesPlayed() {
-            this.timesPlayed++;
+        private IntColumn scoresCopy(final GameHistoryTracker tracker) {
+            while (true) {
+                IntColumn copy = new IntColumn();
+                int seen = 0;
+                for (int i = 0; i < STRIPES; i++) {
+                    tracker.stripeLocks[i].lock();
+                    try {
+                        if (i == 0) {
+                            seen = folds;
+                            copy.addAll(scoreColumn);
+                        }
+                        if (stripes[i] != null) {
+                            copy.addAll(stripes[i].scores);
+                        }
+                        if (i == STRIPES - 1 && seen == folds) {
+                            return copy;
+                        }
+                    } finally {
+                        tracker.stripeLocks[i].unlock();
+                    }
+                }
+            }
+        }
+        /**
+         * Writes the totals, with every stripe already folded in.
+         * @param out destination
+         * @throws IOException if an I/O error occurs
+         */
+        private void writeObject(final ObjectOutputStream out)
+                throws IOException {
+            ObjectOutputStream.PutField fields = out.putFields();
+            fields.put("timesPlayed", timesPlayed);
+            fields.put("scoreTotal", scoreTotal);
+            fields.put("scoreColumn", scoreColumn);
+            fields.put("summary", summary);
+            out.writeFields();
+        }
+        /**
+         * Restores stats written in either the current or original layout.
+         * @param in source
+         * @throws IOException if an I/O error occurs
+         * @throws ClassNotFoundException if a score class is unavailable
+         */
+        private void readObject(final ObjectInputStream in)
+                throws IOException, ClassNotFoundException {
+            ObjectInputStream.GetField fields = in.readFields();
+            stripes = new Stripe[STRIPES];
+            timesPlayed = fields.get("timesPlayed", 0);
+            summary = (ScoreSummary) fields.get("summary", null);
+            if (!fields.defaulted("scoreColumn")) {
+                scoreTotal = fields.get("scoreTotal", 0L);
+                scoreColumn = (IntColumn) fields.get("scoreColumn", null);
+            } else {
+                scoreColumn = new IntColumn();
+                Object legacyScores = fields.get("scores", null);
+                if (legacyScores instanceof List) {
+                    for (Object score : (List<?>) legacyScores) {
+                        scoreColumn.add((Integer) score);
+                    }
+                }
+            }
+            board = Leaderboard.of(scoreColumn);
+            timeline = new PlayTimeline();
+            if (summary == null) {
+                summary = new ScoreSummary();
+                scoreTotal = 0;
+                for (int i = 0; i < scoreColumn.size(); i++) {
+                    scoreTotal += scoreColumn.get(i);
+                    summary.add(scoreColumn.get(i));
+                }
+            }
         }
     }
 }
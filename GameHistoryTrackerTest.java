@@ -0,0 +1,443 @@
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests for GameHistoryTracker persistence.
+ * @version 2
+ */
+public class GameHistoryTrackerTest {
+
+    /**
+     * Plays recorded after loading survive without an explicit save.
+     * @param tempDir temporary directory for history files
+     */
+    @Test
+    public void testLoggedPlaysReplayAfterCrash(@TempDir final Path tempDir) {
+        String file = tempDir.resolve("history.dat").toString();
+        GameHistoryTracker tracker = GameHistoryTracker.loadHistory(file);
+        tracker.recordPlay("Jotto", 7);
+        tracker.recordPlay("Jotto", null);
+        tracker.recordPlay("Snake", 3);
+        tracker.flushLog();
+
+        GameHistoryTracker reloaded = GameHistoryTracker.loadHistory(file);
+        assertEquals(2, reloaded.getTimesPlayed("Jotto"));
+        assertEquals(1, reloaded.getTimesPlayed("Snake"));
+    }
+
+    /**
+     * Saving folds the log into the snapshot without double counting.
+     * @param tempDir temporary directory for history files
+     * @throws IOException if file handling fails
+     */
+    @Test
+    public void testSaveCompactsLog(@TempDir final Path tempDir)
+            throws IOException {
+        String file = tempDir.resolve("history.dat").toString();
+        GameHistoryTracker tracker = GameHistoryTracker.loadHistory(file);
+        tracker.recordPlay("Jotto", 7);
+        tracker.saveHistory(file);
+        long emptyLogSize = Files.size(GameHistoryTracker.logPathFor(file));
+        tracker.recordPlay("Jotto", 5);
+        tracker.flushLog();
+        Path log = GameHistoryTracker.logPathFor(file);
+        assertTrue(Files.size(log) > emptyLogSize);
+
+        GameHistoryTracker reloaded = GameHistoryTracker.loadHistory(file);
+        assertEquals(2, reloaded.getTimesPlayed("Jotto"));
+        reloaded.saveHistory(file);
+        assertEquals(emptyLogSize, Files.size(log));
+        assertEquals(2, GameHistoryTracker.loadHistory(file)
+                                          .getTimesPlayed("Jotto"));
+    }
+
+    /**
+     * A record torn by a crash is dropped and earlier records kept.
+     * @param tempDir temporary directory for history files
+     * @throws IOException if file handling fails
+     */
+    @Test
+    public void testTornRecordIgnored(@TempDir final Path tempDir)
+            throws IOException {
+        String file = tempDir.resolve("history.dat").toString();
+        GameHistoryTracker tracker = GameHistoryTracker.loadHistory(file);
+        tracker.recordPlay("Jotto", 7);
+        tracker.recordPlay("Jotto", 8);
+        tracker.flushLog();
+        Path log = GameHistoryTracker.logPathFor(file);
+        try (FileChannel ch = FileChannel.open(log, StandardOpenOption.WRITE)) {
+            ch.truncate(ch.size() - 2);
+        }
+
+        GameHistoryTracker reloaded = GameHistoryTracker.loadHistory(file);
+        assertEquals(1, reloaded.getTimesPlayed("Jotto"));
+        reloaded.recordPlay("Jotto", 9);
+        reloaded.flushLog();
+        assertEquals(2, GameHistoryTracker.loadHistory(file)
+                                          .getTimesPlayed("Jotto"));
+    }
+
+    /**
+     * Score columns survive both encodings, including extreme deltas.
+     * @throws IOException if encoding fails
+     */
+    @Test
+    public void testIntColumnRoundTrip() throws IOException {
+        int[] values = {0, 5, -3, Integer.MAX_VALUE, Integer.MIN_VALUE, 42};
+        IntColumn column = new IntColumn();
+        for (int v : values) {
+            column.add(v);
+        }
+        for (byte encoding : new byte[] {IntColumn.PLAIN, IntColumn.DELTA}) {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            column.writeTo(new DataOutputStream(bytes), encoding);
+            IntColumn copy = IntColumn.readFrom(new DataInputStream(
+                    new ByteArrayInputStream(bytes.toByteArray())));
+            assertArrayEquals(values, copy.toArray());
+        }
+    }
+
+    /**
+     * Summaries track min, max, mean, deviation and quantiles.
+     */
+    @Test
+    public void testScoreSummary() {
+        GameHistoryTracker tracker = new GameHistoryTracker();
+        for (int score = 1; score <= 100; score++) {
+            tracker.recordPlay("Snake", score);
+        }
+        ScoreSummary summary = tracker.getSummary("Snake");
+        assertEquals(100, summary.getCount());
+        assertEquals(1, summary.getMin());
+        assertEquals(100, summary.getMax());
+        assertEquals(50.5, summary.getMean(), 1e-9);
+        assertEquals(Math.sqrt((100 * 100 - 1) / 12.0),
+                     summary.getStdDev(), 1e-9);
+        assertEquals(50, summary.quantile(0.5), 50 / 32.0);
+        assertEquals(90, summary.quantile(0.9), 90 / 32.0);
+        assertEquals(99, summary.quantile(0.99), 99 / 32.0);
+    }
+
+    /**
+     * Quantile estimates stay within the histogram's relative error.
+     */
+    @Test
+    public void testHistogramQuantileError() {
+        ScoreHistogram histogram = new ScoreHistogram();
+        histogram.add(-1_000_000);
+        histogram.add(7);
+        histogram.add(123_456_789);
+        histogram.add(Integer.MAX_VALUE);
+        assertEquals(-1_000_000, histogram.quantile(0.25), 1_000_000 / 32.0);
+        assertEquals(7, histogram.quantile(0.5));
+        assertEquals(123_456_789, histogram.quantile(0.75),
+                     123_456_789 / 32.0);
+        assertEquals(Integer.MAX_VALUE, histogram.quantile(1.0),
+                     Integer.MAX_VALUE / 32.0);
+    }
+
+    /**
+     * Summary-only trackers still report statistics and survive a save.
+     * @param tempDir temporary directory for history files
+     * @throws IOException if file handling fails
+     */
+    @Test
+    public void testSummaryOnlyHistory(@TempDir final Path tempDir)
+            throws IOException {
+        String file = tempDir.resolve("history.dat").toString();
+        GameHistoryTracker tracker = new GameHistoryTracker();
+        tracker.setRetainScores(false);
+        tracker.recordPlay("Jotto", 4);
+        tracker.recordPlay("Jotto", 8);
+        tracker.saveHistory(file);
+
+        ScoreSummary summary = GameHistoryTracker.loadHistory(file)
+                                                 .getSummary("Jotto");
+        assertEquals(2, summary.getCount());
+        assertEquals(6.0, summary.getMean(), 1e-9);
+        assertEquals(4, summary.getMin());
+        assertEquals(8, summary.getMax());
+    }
+
+    /**
+     * A serialized history from an earlier release is converted once,
+     *   keeping a backup of the original.
+     * @param tempDir temporary directory for history files
+     * @throws IOException if file handling fails
+     */
+    @Test
+    public void testLegacyHistoryMigrated(@TempDir final Path tempDir)
+            throws IOException {
+        Path file = tempDir.resolve("history.dat");
+        GameHistoryTracker legacy = new GameHistoryTracker();
+        legacy.recordPlay("Jotto", 4);
+        legacy.recordPlay("Hangman", null);
+        try (ObjectOutputStream out =
+                new ObjectOutputStream(Files.newOutputStream(file))) {
+            out.writeObject(legacy);
+        }
+
+        GameHistoryTracker migrated =
+            GameHistoryTracker.loadHistory(file.toString());
+        assertFalse(HistoryFile.isLegacy(file));
+        assertTrue(Files.exists(tempDir.resolve(
+            "history.dat" + GameHistoryTracker.LEGACY_SUFFIX)));
+        assertEquals(1, migrated.getTimesPlayed("Jotto"));
+        assertEquals(1, migrated.getTimesPlayed("Hangman"));
+        assertEquals(4, migrated.getSummary("Jotto").getMax());
+    }
+
+    /**
+     * Mapped score columns read back every score, including those added
+     *   after loading.
+     * @param tempDir temporary directory for history files
+     * @throws IOException if file handling fails
+     */
+    @Test
+    public void testMappedScoresRoundTrip(@TempDir final Path tempDir)
+            throws IOException {
+        Path file = tempDir.resolve("history.dat");
+        GameHistoryTracker tracker = new GameHistoryTracker();
+        for (int score = 0; score < 1000; score++) {
+            tracker.recordPlay("Snake", score);
+        }
+        tracker.recordPlay("Jotto", -2);
+        tracker.saveHistory(file.toString());
+
+        HistoryFile.Contents contents = HistoryFile.read(file);
+        IntColumn snake = contents.getStats().get("Snake").getScores();
+        assertEquals(1000, snake.size());
+        assertEquals(999, snake.get(999));
+        snake.add(1000);
+        assertEquals(1000, snake.get(1000));
+        assertEquals(-2, contents.getStats().get("Jotto").getScores().get(0));
+    }
+
+    /**
+     * Each save writes the next numbered snapshot and replaces only the
+     *   pointer, so mapped scores stay readable across saves and the
+     *   superseded snapshots are deleted.
+     * @param tempDir temporary directory for history files
+     * @throws IOException if file handling fails
+     */
+    @Test
+    public void testSavesNeverReplaceMappedFile(@TempDir final Path tempDir)
+            throws IOException {
+        Path file = tempDir.resolve("history.dat");
+        GameHistoryTracker tracker =
+            GameHistoryTracker.loadHistory(file.toString());
+        for (int save = 0; save < 3; save++) {
+            tracker.recordPlay("Snake", save);
+            tracker.saveHistory(file.toString());
+            assertEquals(save, HistoryFile.readPointer(file));
+            assertTrue(Files.exists(HistoryFile.snapshotFor(file, save)));
+            assertFalse(Files.exists(HistoryFile.snapshotFor(file, save - 1)));
+        }
+        IntColumn snake = HistoryFile.read(file).getStats().get("Snake")
+                                     .getScores();
+        assertEquals(3, snake.size());
+        assertEquals(2, snake.get(2));
+        assertEquals(3, tracker.getTimesPlayed("Snake"));
+        tracker.closeLog();
+    }
+
+    /**
+     * A snapshot saved in place by an earlier release moves behind a
+     *   pointer when loaded.
+     * @param tempDir temporary directory for history files
+     * @throws IOException if file handling fails
+     */
+    @Test
+    public void testInPlaceSnapshotMigrated(@TempDir final Path tempDir)
+            throws IOException {
+        Path file = tempDir.resolve("history.dat");
+        GameHistoryTracker old = new GameHistoryTracker();
+        old.recordPlay("Jotto", 4);
+        old.saveHistory(file.toString());
+        Files.copy(HistoryFile.snapshotFor(file, 0), file,
+                   StandardCopyOption.REPLACE_EXISTING);
+        Files.delete(HistoryFile.snapshotFor(file, 0));
+        assertEquals(-1, HistoryFile.readPointer(file));
+
+        GameHistoryTracker migrated =
+            GameHistoryTracker.loadHistory(file.toString());
+        assertEquals(0, HistoryFile.readPointer(file));
+        assertEquals(4, migrated.getSummary("Jotto").getMax());
+        migrated.saveHistory(file.toString());
+        assertEquals(1, HistoryFile.readPointer(file));
+        assertEquals(1, GameHistoryTracker.loadHistory(file.toString())
+                                          .getTimesPlayed("Jotto"));
+        migrated.closeLog();
+    }
+
+    /**
+     * Plays recorded from several threads while the history is saved are
+     *   neither lost nor counted twice.
+     * @param tempDir temporary directory for history files
+     * @throws Exception if a thread fails or file handling fails
+     */
+    @Test
+    public void testConcurrentPlaysDuringSaves(@TempDir final Path tempDir)
+            throws Exception {
+        String file = tempDir.resolve("history.dat").toString();
+        GameHistoryTracker tracker = GameHistoryTracker.loadHistory(file);
+        int threads = 4;
+        int plays = 5000;
+        Thread[] writers = new Thread[threads];
+        for (int t = 0; t < threads; t++) {
+            writers[t] = new Thread(() -> {
+                for (int i = 0; i < plays; i++) {
+                    tracker.recordPlay(i % 2 == 0 ? "Jotto" : "Snake", i);
+                }
+            });
+            writers[t].start();
+        }
+        for (int save = 0; save < 10; save++) {
+            tracker.saveHistory(file);
+        }
+        for (Thread writer : writers) {
+            writer.join();
+        }
+        tracker.flushLog();
+        assertEquals(threads * plays / 2, tracker.getTimesPlayed("Jotto"));
+
+        GameHistoryTracker reloaded = GameHistoryTracker.loadHistory(file);
+        assertEquals(threads * plays / 2, reloaded.getTimesPlayed("Jotto"));
+        assertEquals(threads * plays / 2, reloaded.getTimesPlayed("Snake"));
+        reloaded.saveHistory(file);
+        HistoryFile.Contents contents = HistoryFile.read(Path.of(file));
+        assertEquals(threads * plays / 2,
+                     contents.getStats().get("Snake").getScores().size());
+    }
+
+    /**
+     * Leaderboards answer top and rank queries across saves and reloads,
+     *   including in summary-only mode.
+     * @param tempDir temporary directory for history files
+     * @throws IOException if file handling fails
+     */
+    @Test
+    public void testLeaderboardSurvivesReload(@TempDir final Path tempDir)
+            throws IOException {
+        String file = tempDir.resolve("history.dat").toString();
+        GameHistoryTracker tracker = GameHistoryTracker.loadHistory(file);
+        tracker.setRetainScores(false);
+        for (int score : new int[] {30, 10, 50, 20, 50}) {
+            tracker.recordPlay("Snake", score);
+        }
+        tracker.saveHistory(file);
+        tracker.recordPlay("Snake", 40);
+        tracker.flushLog();
+        assertArrayEquals(new int[] {50, 50, 40},
+                          tracker.getTopScores("Snake", 3));
+
+        GameHistoryTracker reloaded = GameHistoryTracker.loadHistory(file);
+        assertArrayEquals(new int[] {50, 50, 40},
+                          reloaded.getTopScores("Snake", 3));
+        assertEquals(1, reloaded.getRank("Snake", 50));
+        assertEquals(3, reloaded.getRank("Snake", 45));
+        assertEquals(7, reloaded.getRank("Snake", 0));
+        assertEquals(1, reloaded.getRank("Jotto", 0));
+    }
+
+    /**
+     * Time-window queries see plays by day, across saves and log replay,
+     *   and filter partial days play by play.
+     * @param tempDir temporary directory for history files
+     * @throws IOException if file handling fails
+     */
+    @Test
+    public void testPlaysByTime(@TempDir final Path tempDir)
+            throws IOException {
+        String file = tempDir.resolve("history.dat").toString();
+        Instant now = Instant.parse("2024-03-10T12:00:00Z");
+        long hour = 3_600_000L;
+        long day = 24 * hour;
+        GameHistoryTracker tracker = GameHistoryTracker.loadHistory(file);
+        tracker.setClock(Clock.fixed(now, ZoneOffset.UTC));
+        long t = now.toEpochMilli();
+        tracker.recordPlay("Snake", 10, t - 10 * day);
+        tracker.recordPlay("Snake", 20, t - 3 * day);
+        tracker.saveHistory(file);
+        tracker.recordPlay("Snake", 30, t - 2 * hour);
+        tracker.recordPlay("Snake", null, t);
+        tracker.flushLog();
+
+        GameHistoryTracker reloaded = GameHistoryTracker.loadHistory(file);
+        reloaded.setClock(Clock.fixed(now, ZoneOffset.UTC));
+        PlayWindow week = reloaded.getRecentPlays("Snake", 7);
+        assertEquals(3, week.getPlays());
+        assertEquals(2, week.getScoredPlays());
+        assertEquals(25.0, week.getAverage(), 1e-9);
+        assertEquals(4, reloaded.getRecentPlays("Snake", 30).getPlays());
+        LocalDate today = LocalDate.of(2024, 3, 10);
+        assertEquals(2, reloaded.getPlays("Snake", today, today).getPlays());
+        PlayWindow hours = reloaded.getPlays("Snake", t - 3 * hour, t);
+        assertEquals(1, hours.getPlays());
+        assertEquals(30, hours.getMax());
+        assertEquals(0, reloaded.getRecentPlays("Jotto", 7).getPlays());
+
+        reloaded.setRetainScores(false);
+        reloaded.saveHistory(file);
+        GameHistoryTracker summaries = GameHistoryTracker.loadHistory(file);
+        summaries.setClock(Clock.fixed(now, ZoneOffset.UTC));
+        assertEquals(3, summaries.getRecentPlays("Snake", 7).getPlays());
+    }
+
+    /**
+     * Plays in a log written before plays were timestamped are replayed
+     *   and the log is rewritten in the current format.
+     * @param tempDir temporary directory for history files
+     * @throws IOException if file handling fails
+     */
+    @Test
+    public void testUntimedLogUpgraded(@TempDir final Path tempDir)
+            throws IOException {
+        String file = tempDir.resolve("history.dat").toString();
+        Path log = GameHistoryTracker.logPathFor(file);
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeInt(0x4347484C);
+        out.writeShort(2);
+        out.writeLong(1);
+        out.writeByte(1);
+        out.writeShort(0);
+        out.writeShort(5);
+        out.writeBytes("Jotto");
+        for (int score = 4; score <= 5; score++) {
+            out.writeByte(2);
+            out.writeShort(0);
+            out.writeByte(1);
+            out.writeInt(score);
+        }
+        Files.write(log, bytes.toByteArray());
+
+        GameHistoryTracker tracker = GameHistoryTracker.loadHistory(file);
+        assertEquals(2, tracker.getTimesPlayed("Jotto"));
+        assertEquals(2, tracker.getRecentPlays("Jotto", 1).getPlays());
+        tracker.recordPlay("Jotto", 6);
+        tracker.flushLog();
+        assertEquals(3, GameHistoryTracker.loadHistory(file)
+                                          .getTimesPlayed("Jotto"));
+    }
+}
@@ -0,0 +1,131 @@
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.PrintStream;
+import java.io.PrintWriter;
+import java.nio.charset.Charset;
+import java.util.Scanner;
+
+/**
+ * Console input and output of a launcher and the games it runs.
+ * <pre>
+ * A GameIO is a buffered PrintWriter that is never flushed line by
+ *   line, plus one line reader. Reading a line first flushes everything
+ *   printed so far, so the screen a player sees goes out in one write per
+ *   prompt rather than one per println.
+ * The launcher passes its GameIO to Game.play, so the launcher and the
+ *   game read through the same reader and neither can steal input the
+ *   other has buffered. Each server session, batch script and console
+ *   has its own GameIO.
+ *
+ * Full-screen games send prebuilt frames of bytes with writeBytes
+ *   (see GridRenderer), which go straight to the output after any text
+ *   printed before them.
+ *
+ * console() returns the GameIO of the current System.in and System.out,
+ *   shared by everything using the console until either is replaced.
+ * A GameIO is meant for one thread at a time, except that one thread
+ *   may read lines while another prints (as SnakeGame's input thread
+ *   does); output is synchronized like any PrintWriter's.
+ * </pre>
+ * @version 2
+ */
+final class GameIO extends PrintWriter {
+    /** GameIO of the console, or null before first use. */
+    private static GameIO console;
+    /** Stream console was built on, to notice System.setIn. */
+    private static InputStream consoleIn;
+    /** Stream console was built on, to notice System.setOut. */
+    private static PrintStream consoleOut;
+
+    /** Line reader. */
+    private final Scanner input;
+    /** The output underneath the writer, for writeBytes. */
+    private final OutputStream bytes;
+
+    /**
+     * Creates a GameIO.
+     * @param in the line reader
+     * @param out the output
+     * @param charset encoding of the output
+     */
+    GameIO(final Scanner in, final OutputStream out, final Charset charset) {
+        super(new BufferedWriter(new OutputStreamWriter(out, charset)), false);
+        this.input = in;
+        this.bytes = out;
+    }
+
+    /**
+     * Creates a GameIO writing in the platform's default encoding.
+     * @param in the line reader
+     * @param out the output
+     */
+    GameIO(final Scanner in, final OutputStream out) {
+        this(in, out, Charset.defaultCharset());
+    }
+
+    /**
+     * Returns the GameIO of the console, creating it on first use or
+     *   after System.in or System.out has been replaced.
+     * @return the console's GameIO
+     */
+    static synchronized GameIO console() {
+        if (console == null || consoleIn != System.in
+            || consoleOut != System.out) {
+            if (console != null) {
+                console.flush();
+            }
+            consoleIn = System.in;
+            consoleOut = System.out;
+            console = new GameIO(new Scanner(consoleIn), consoleOut);
+        }
+        return console;
+    }
+
+    /**
+     * Flushes the output, then reads a line.
+     * @return the line, without its terminator
+     * @throws java.util.NoSuchElementException if input has ended
+     */
+    String readLine() {
+        flush();
+        return input.nextLine();
+    }
+
+    /**
+     * Flushes the text printed so far, then writes encoded bytes to the
+     *   output in one write.
+     * Like the other PrintWriter methods this does not throw; a failure
+     *   is reported by checkError.
+     * @param data the bytes
+     * @param offset index of the first byte
+     * @param count number of bytes
+     */
+    void writeBytes(final byte[] data, final int offset, final int count) {
+        synchronized (lock) {
+            flush();
+            if (count == 0) {
+                return;
+            }
+            try {
+                bytes.write(data, offset, count);
+                bytes.flush();
+            } catch (IOException e) {
+                setError();
+            }
+        }
+    }
+
+    /**
+     * Prints a prompt and reads the reply.
+     * @param text the prompt
+     * @return the reply, without its terminator
+     * @throws java.util.NoSuchElementException if input has ended
+     */
+    String prompt(final String text) {
+        print(text);
+        return readLine();
+    }
+}
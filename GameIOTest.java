@@ -0,0 +1,69 @@
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.util.Scanner;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+/**
+ * Tests for GameIO.
+ * @version 1
+ */
+public class GameIOTest {
+    /**
+     * Output is written once per prompt, not once per line.
+     */
+    @Test
+    public void testOutputFlushedOncePerPrompt() {
+        CountingOutput out = new CountingOutput();
+        GameIO io = new GameIO(new Scanner("yes\n"), out);
+        io.println("=== Menu ===");
+        io.printf("%d. %s%n", 1, "Snake");
+        io.println("0. Exit");
+        assertEquals(0, out.writes);
+        assertEquals("yes", io.prompt("Choose: "));
+        assertEquals(1, out.writes);
+        assertEquals("=== Menu ===%n1. Snake%n0. Exit%nChoose: "
+                     .replace("%n", System.lineSeparator()),
+                     out.toString());
+    }
+
+    /**
+     * The console GameIO is shared until System.in is replaced.
+     */
+    @Test
+    public void testConsoleFollowsSystemIn() {
+        InputStream original = System.in;
+        try {
+            System.setIn(new ByteArrayInputStream("a\nb\n".getBytes()));
+            GameIO first = GameIO.console();
+            assertSame(first, GameIO.console());
+            assertEquals("a", first.readLine());
+            System.setIn(new ByteArrayInputStream("c\n".getBytes()));
+            GameIO second = GameIO.console();
+            assertNotSame(first, second);
+            assertEquals("c", second.readLine());
+        } finally {
+            System.setIn(original);
+        }
+    }
+
+    /**
+     * Output stream counting the writes it receives.
+     */
+    private static final class CountingOutput extends ByteArrayOutputStream {
+        /** Number of writes received. */
+        private int writes;
+
+        @Override
+        public synchronized void write(final byte[] b, final int off,
+                                       final int len) {
+            writes++;
+            super.write(b, off, len);
+        }
+    }
+}
@@ -1,7 +1,8 @@
 import java.util.Scanner;
 import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.Arrays;
 import java.util.List;
-import java.util.ArrayList;
 import java.util.Optional;
 
 /**
@@ -15,29 +16,60 @@ import java.util.Optional;
  */
 public class GameLauncher {
     /** Default history file name. */
-    private static final String HISTORY_FILENAME = "history.dat";
+    static final String HISTORY_FILENAME = "history.dat";
+
+    /** Directory of player profiles, beside the default history file. */
+    private static final String PROFILES_DIRNAME = "profiles";
+
+    /** Days in the short recent-history window. */
+    private static final int WEEK = 7;
+
+    /** Days in the long recent-history window. */
+    private static final int MONTH = 30;
 
     /** Name of the history file. */
     private String historyFileName;
 
-    /** Console input. */
-    private final Scanner scanner;
+    /** Console input and output, shared with the games. */
+    private final GameIO io;
+
+    /** True for the console launcher, false for a server or batch run. */
+    private final boolean standalone;
+
+    /** Plays recorded by this launcher. */
+    private int playsRecorded;
+
+    /** Registry of known games, created when first chosen. */
+    private final GameRegistry games;
+
+    /** Game history tracker of the current player. */
+    private GameHistoryTracker historyTracker;
+
+    /**
+     * Writes the current history in the background, or null in a server
+     *   session, where the server persists the shared history.
+     */
+    private HistoryPersistence persistence;
 
-    /** Collection of known games. */
-    private final List<Game> games;
+    /** Histories of the players who sign in. */
+    private final ProfileStore profiles;
 
-    /** Game history tracker. */
-    private final GameHistoryTracker historyTracker;
+    /** Name of the signed-in player, or null for the shared history. */
+    private String playerName;
 
     /**
      * Default constructor, used in production.
-     * Loads default games, scanner, and history tracker.
+     * Discovers the games, loads console and history tracker, and starts
+     *   writing the history in the background.
      */
     public GameLauncher() {
-        this(new Scanner(System.in),
+        this(GameIO.console(),
              GameHistoryTracker.loadHistory(HISTORY_FILENAME),
-             registerGames(),
-             HISTORY_FILENAME);
+             GameRegistry.load(),
+             HISTORY_FILENAME,
+             defaultProfiles(HISTORY_FILENAME),
+             true);
+        start();
     }
 
     /**
@@ -52,41 +84,120 @@ public class GameLauncher {
                         final GameHistoryTracker tracker,
                         final List<Game> gameList,
                         final String fileName) {
-        this.scanner = inputScanner;
+        this(inputScanner, tracker, GameRegistry.of(gameList), fileName,
+             defaultProfiles(fileName));
+    }
+
+    /**
+     * Constructor with injected testable components and player profiles.
+     *
+     * @param inputScanner the console input
+     * @param tracker the shared history, used until a player signs in
+     * @param registry the games available to play
+     * @param fileName the name of the shared history file
+     * @param profileStore the store of per-player histories
+     */
+    GameLauncher(final Scanner inputScanner,
+                 final GameHistoryTracker tracker,
+                 final GameRegistry registry,
+                 final String fileName,
+                 final ProfileStore profileStore) {
+        this(new GameIO(inputScanner, System.out), tracker, registry,
+             fileName, profileStore, true);
+    }
+
+    /**
+     * Constructor for all configurations.
+     *
+     * @param console the session input and output
+     * @param tracker the shared history, used until a player signs in
+     * @param registry the games available to play
+     * @param fileName the name of the shared history file
+     * @param profileStore the store of per-player histories
+     * @param ownsHistory true for the console launcher, which persists
+     *        its history itself (in saveHistory, or in the background
+     *        once started); false when another owner persists it
+     */
+    private GameLauncher(final GameIO console,
+                         final GameHistoryTracker tracker,
+                         final GameRegistry registry,
+                         final String fileName,
+                         final ProfileStore profileStore,
+                         final boolean ownsHistory) {
+        this.io = console;
         this.historyTracker = tracker;
-        this.games = gameList;
+        this.games = registry;
         this.historyFileName = fileName;
+        this.profiles = profileStore;
+        this.standalone = ownsHistory;
+    }
+
+    /**
+     * Creates the launcher of one GameServer session or BatchRunner
+     *   script.
+     * The session shares its owner's history, games and profiles, and
+     *   the owner persists the shared history; a signed-in player's
+     *   history is flushed to its log after each play.
+     *
+     * @param console the session input and output
+     * @param tracker the shared history
+     * @param registry the shared games
+     * @param fileName the name of the shared history file
+     * @param profileStore the shared profiles
+     * @return the session launcher
+     */
+    static GameLauncher session(final GameIO console,
+                                final GameHistoryTracker tracker,
+                                final GameRegistry registry,
+                                final String fileName,
+                                final ProfileStore profileStore) {
+        return new GameLauncher(console, tracker, registry, fileName,
+                                profileStore, false);
     }
 
     /**
      * Main entry point of the application.
-     * @param args command-line arguments (not used)
+     * With --server [port], serves sessions over TCP instead of the
+     *   console (see GameServer); with --batch, runs input scripts
+     *   (see BatchRunner).
+     * @param args command-line arguments
+     * @throws IOException if the server cannot be started
      */
-    public static void main(final String[] args) {
+    public static void main(final String[] args) throws IOException {
+        if (args.length > 0 && args[0].equals(GameServer.SERVER_OPTION)) {
+            GameServer.main(Arrays.copyOfRange(args, 1, args.length));
+            return;
+        }
+        if (args.length > 0 && args[0].equals(BatchRunner.BATCH_OPTION)) {
+            BatchRunner.main(Arrays.copyOfRange(args, 1, args.length));
+            return;
+        }
         GameLauncher launcher = new GameLauncher();
         launcher.run();
         launcher.saveHistory();
     }
 
     /**
-     * Registers all available games in the arcade.
-     * @return list of all available games
+     * Creates the profile store kept beside a history file.
+     * @param fileName the name of the shared history file
+     * @return the store
      */
-    private static List<Game> registerGames() {
-        List<Game> games = new ArrayList<>();
-        games.add(new TicTacToeGame());
-        games.add(new WordGuessGame());
-        games.add(new JottoGame());
-        games.add(new HangmanGame());
-        games.add(new SnakeGame());
-        games.add(new ConnectFourGame());
-        games.add(new MineSweeperGame());
-        games.add(new SudokuGame());
-        games.add(new NumberGuessGame());
-        games.add(new MemoryMatchGame());
-        games.add(new LightsOutGame());
-        games.add(new MasterMindGame());
-        return games;
+    static ProfileStore defaultProfiles(final String fileName) {
+        return new ProfileStore(Paths.get(fileName).toAbsolutePath()
+                                     .resolveSibling(PROFILES_DIRNAME),
+                                ProfileStore.DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Starts writing the history in the background, a group of plays at
+     *   a time, as the console launcher does; until then a standalone
+     *   launcher saves only in saveHistory. Does nothing in a session or
+     *   if already started.
+     */
+    void start() {
+        if (this.standalone && this.persistence == null) {
+            this.persistence = startPersistence();
+        }
     }
 
     /**
@@ -96,7 +207,7 @@ public class GameLauncher {
     protected void run() {
         boolean running = true;
         while (running) {
-            System.out.println(
+            this.io.println(
 "=== Console Game Hub === \n"
 + "  __  __ ___ _  _ _   _ \n"
 + " |  \\/  | __| \\| | | | |\n"
@@ -105,18 +216,32 @@ public class GameLauncher {
 + "\n"
                               );
             for (int i = 0; i < this.games.size(); i++) {
-                System.out.printf("%d. %s\n",
+                this.io.printf("%d. %s\n",
                                   i + 1,
                                   this.games.get(i).getName());
             }
-            System.out.println("0. Exit");
-            System.out.println("H. View Game History");
-            System.out.println("C. Clear Game History");
-            System.out.print("Choose a game: ");
+            this.io.println("0. Exit");
+            this.io.println("H. View Game History");
+            this.io.println("L. View Leaderboards");
+            this.io.println("R. View Recent Play History");
+            this.io.println("P. Switch Player (now: "
+                               + (playerName == null ? "guest" : playerName)
+                               + ")");
+            this.io.println("C. Clear Game History");
+            this.io.print("Choose a game: ");
 
-            String input = this.scanner.nextLine().trim();
+            String input = this.io.readLine().trim();
             if (input.equalsIgnoreCase("H")) {
-                this.historyTracker.displayHistory();
+                this.historyTracker.displayHistory(this.io);
+                continue;
+            } else if (input.equalsIgnoreCase("L")) {
+                showLeaderboards();
+                continue;
+            } else if (input.equalsIgnoreCase("R")) {
+                showRecentHistory();
+                continue;
+            } else if (input.equalsIgnoreCase("P")) {
+                switchPlayer();
                 continue;
             } else if (input.equalsIgnoreCase("C")) {
                 confirmClearHistory();
@@ -127,48 +252,195 @@ public class GameLauncher {
                 int choice = Integer.parseInt(input);
                 if (choice == 0) {
                     running = false;
-                    System.out.println("Goodbye!");
+                    this.io.println("Goodbye!");
                 } else if (choice > 0 && choice <= this.games.size()) {
-                    Game game = this.games.get(choice - 1);
-                    Optional<Integer> score = game.play();
+                    Game game = this.games.get(choice - 1).getGame();
+                    Optional<Integer> score = game.play(this.io);
                     this.historyTracker.recordPlay(game.getName(),
                                                    score.orElse(null));
+                    this.playsRecorded++;
+                    if (this.persistence == null && this.playerName != null) {
+                        this.historyTracker.flushLog();
+                    }
+                    IOException logError = this.historyTracker.takeLogError();
+                    if (logError != null) {
+                        this.io.println("Game history log write failed: "
+                                        + logError.getMessage());
+                    }
                 } else {
-                    System.out.println("Invalid choice.");
+                    this.io.println("Invalid choice.");
+                }
+            } catch (NumberFormatException e) {
+                this.io.println(
+                    "Please enter a valid number or Letters H, L, R, P or C.");
+            }
+        }
+        this.io.flush();
+    }
+
+
+    /**
+     * Shows the leaderboards, then ranks scores on request.
+     */
+    private void showLeaderboards() {
+        this.historyTracker.displayLeaderboards(this.io);
+        while (true) {
+            this.io.print("Rank a score (game number and score),"
+                             + " or press Enter to return: ");
+            String[] parts = this.io.readLine().trim().split("\\s+");
+            if (parts.length != 2) {
+                return;
+            }
+            try {
+                int choice = Integer.parseInt(parts[0]);
+                int score = Integer.parseInt(parts[1]);
+                if (choice < 1 || choice > this.games.size()) {
+                    this.io.println("Invalid choice.");
+                    continue;
                 }
+                String name = this.games.get(choice - 1).getName();
+                this.io.printf("A score of %d ranks #%d in %s.%n",
+                                  score,
+                                  this.historyTracker.getRank(name, score),
+                                  name);
             } catch (NumberFormatException e) {
-                System.out.println(
-                    "Please enter a valid number or Letters H or C.");
+                this.io.println("Please enter two whole numbers.");
             }
         }
     }
 
+    /**
+     * Shows the recent play history sub-menu until the user goes back.
+     */
+    private void showRecentHistory() {
+        while (true) {
+            this.io.println("\n=== Recent Play History ===");
+            this.io.println("1. Last " + WEEK + " days");
+            this.io.println("2. Last " + MONTH + " days");
+            this.io.println("3. Day by day, last " + WEEK + " days");
+            this.io.println("0. Back");
+            this.io.print("Choose an option: ");
+            String input = this.io.readLine().trim();
+            if (input.equals("1")) {
+                this.historyTracker.displayRecentHistory(WEEK, this.io);
+            } else if (input.equals("2")) {
+                this.historyTracker.displayRecentHistory(MONTH, this.io);
+            } else if (input.equals("3")) {
+                this.historyTracker.displayDailyHistory(WEEK, this.io);
+            } else {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Signs a player in, so later plays go to that player's history.
+     * The outgoing history is saved first.
+     */
+    private void switchPlayer() {
+        this.io.print("Player name (letters, digits, - or _): ");
+        String name = this.io.readLine().trim();
+        if (!ProfileStore.isValidName(name)) {
+            this.io.println("Invalid player name.");
+            return;
+        }
+        boolean background = this.persistence != null;
+        stopPersistence();
+        try {
+            GameHistoryTracker tracker = this.profiles.login(name);
+            if (this.playerName != null) {
+                this.profiles.logout(this.playerName);
+            }
+            this.historyTracker = tracker;
+            this.historyFileName = this.profiles.historyFile(name);
+            this.playerName = name;
+            this.io.println("Signed in as " + name + ".");
+        } catch (IOException e) {
+            this.io.println("Could not load profile: " + e.getMessage());
+        }
+        if (background) {
+            this.persistence = startPersistence();
+        }
+    }
+
+    /**
+     * Starts writing the current history in the background.
+     * @return the running writer
+     */
+    private HistoryPersistence startPersistence() {
+        return HistoryPersistence.start(
+            this.historyTracker, this.historyFileName,
+            HistoryPersistence.DEFAULT_COMMIT_PLAYS,
+            HistoryPersistence.DEFAULT_COMMIT_MILLIS);
+    }
 
     /**
      * Clears the history after user confirmation.
-     *
+     * A server or batch session may clear only its signed-in player's
+     *   history, never the shared one.
      */
     private void confirmClearHistory() {
-        System.out.println("Are you sure you want to clear history?");
-        System.out.println("type CLEAR to confirm");
-        System.out.println("or type anything else to cancel.");
+        if (!this.standalone && this.playerName == null) {
+            this.io.println("Sign in (P) to clear your own history; the "
+                            + "shared history cannot be cleared here.");
+            return;
+        }
+        this.io.println("Are you sure you want to clear history?");
+        this.io.println("type CLEAR to confirm");
+        this.io.println("or type anything else to cancel.");
 
-        String input = this.scanner.nextLine().trim();
+        String input = this.io.readLine().trim();
         if (input.equalsIgnoreCase("clear")) {
-             System.out.println("Clearing History.\n");
-             historyTracker.clearHistory("history.dat");
+             this.io.println("Clearing History.\n");
+             if (persistence != null) {
+                 historyTracker.clear();
+                 persistence.requestSave();
+             } else {
+                 historyTracker.clearHistory(historyFileName);
+             }
          }
 
     }
 
     /**
-     * Saves the history of games played.
+     * Number of plays this launcher has recorded.
+     * @return the play count
+     */
+    int getPlaysRecorded() {
+        return this.playsRecorded;
+    }
+
+    /**
+     * Saves the history of games played and stops the background writer.
+     * The signed-in player is logged out; the console launcher also writes
+     *   back the player histories still in memory.
      */
     protected void saveHistory() {
+        stopPersistence();
+        if (this.playerName != null) {
+            this.profiles.logout(this.playerName);
+            this.playerName = null;
+        }
+        if (this.standalone) {
+            this.profiles.close();
+        }
+    }
+
+    /**
+     * Saves the current history: stops its background writer if this
+     *   launcher has one, or writes it now if this standalone launcher was
+     *   not started.
+     */
+    private void stopPersistence() {
         try {
-            this.historyTracker.saveHistory(this.historyFileName);
+            if (this.persistence != null) {
+                this.persistence.close();
+            } else if (this.standalone) {
+                this.historyTracker.saveHistory(this.historyFileName);
+            }
         } catch (IOException e) {
-            System.out.println("game history save failed: " + e.getMessage());
+            this.io.println("game history save failed: " + e.getMessage());
+            this.io.flush();
         }
     }
 }
@@ -13,13 +13,16 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 import java.util.Scanner;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 /**
  * JUnit 5 test class for the GameLauncher.
  * Uses constructor injection and simulates console I/O to test
  * menu interaction, input validation, history recording, and file saving.
- * @version 3
+ * @version 4
  */
 public class GameLauncherTest {
 
@@ -229,6 +232,85 @@ public class GameLauncherTest {
                    "Should display history header.");
     }
 
+    /**
+     * Clearing from the menu saves to the launcher's own history file.
+     * @param tempDir Directory to store temporary history file
+     * @throws IOException if file handling fails
+     */
+    @Test
+    public void testClearHistoryUsesHistoryFile(@TempDir final Path tempDir)
+            throws IOException {
+        testHistory.recordPlay("Test Game 1", 42);
+        provideInput("C\nClear\n0\n", tempDir);
+        launcher.run();
+        launcher.saveHistory();
+
+        assertTrue(Files.exists(Path.of(tempHistoryFileName)));
+        assertEquals(0, GameHistoryTracker.loadHistory(tempHistoryFileName)
+                                          .getTimesPlayed("Test Game 1"));
+    }
+
+    /**
+     * An injected launcher runs no background writer until started;
+     *   saveHistory then saves the plays and stops the writer.
+     * @param tempDir Directory to store temporary history file
+     * @throws Exception if file handling or waiting fails
+     */
+    @Test
+    public void testStartWritesInBackground(@TempDir final Path tempDir)
+            throws Exception {
+        provideInput("1\n0\n", tempDir);
+        assertNull(writer());
+        launcher.start();
+        Thread writer = writer();
+        assertNotNull(writer);
+        launcher.run();
+        launcher.saveHistory();
+        writer.join();
+
+        assertEquals(1, GameHistoryTracker.loadHistory(tempHistoryFileName)
+                                          .getTimesPlayed("Test Game 1"));
+    }
+
+    /**
+     * The running background history writer.
+     * @return the writer thread, or null if none is running
+     */
+    private static Thread writer() {
+        for (Thread thread : Thread.getAllStackTraces().keySet()) {
+            if (thread.getName().equals("history-writer")) {
+                return thread;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Plays after signing in go to the player's own history.
+     * @param tempDir Directory to store temporary history files
+     * @throws IOException if file handling fails
+     */
+    @Test
+    public void testSwitchPlayer(@TempDir final Path tempDir)
+            throws IOException {
+        ProfileStore profiles = new ProfileStore(tempDir.resolve("profiles"),
+                                                 2);
+        launcher = new GameLauncher(
+                new Scanner(new ByteArrayInputStream("P\nAnn\n1\n0\n"
+                                                     .getBytes())),
+                testHistory,
+                GameRegistry.of(testGames),
+                tempDir.resolve("testHistory.dat").toString(),
+                profiles);
+        launcher.run();
+        launcher.saveHistory();
+
+        assertTrue(outContent.toString().contains("Signed in as Ann."));
+        assertEquals(0, testHistory.getTimesPlayed("Test Game 1"));
+        assertEquals(1, GameHistoryTracker.loadHistory(
+            profiles.historyFile("Ann")).getTimesPlayed("Test Game 1"));
+    }
+
     /**
      * Tests to see if Save file is cleared for clearHistory
      * @param tempDir Derectory to store temporary history file
@@ -252,10 +334,15 @@ public class GameLauncherTest {
         System.out.println(Files.size(tempHistoryFile));
         testHistory.clearHistory(tempHistoryFileName);
 
+        Path emptyHistoryFile = tempDir.resolve("empty_history.dat");
+        new GameHistoryTracker().saveHistory(emptyHistoryFile.toString());
+        long emptySize = Files.size(emptyHistoryFile);
+
         assertTrue(Files.exists(tempHistoryFile),
                    "File should exists." + Files.size(tempHistoryFile));
-        assertTrue(Files.size(tempHistoryFile) == 150,
-                   "File should be 150. File size is: " + Files.size(tempHistoryFile));
+        assertTrue(Files.size(tempHistoryFile) == emptySize,
+                   "File should be " + emptySize + ". File size is: "
+                   + Files.size(tempHistoryFile));
     }
 
 
@@ -285,8 +372,8 @@ public class GameLauncherTest {
         }
 
         @Override
-        public Optional<Integer> play() {
-            System.out.println("Playing " + name);
+        public Optional<Integer> play(final GameIO io) {
+            io.println("Playing " + name);
             return scoreToReturn;
         }
     }
@@ -0,0 +1,18 @@
+import java.util.List;
+
+/**
+ * Service supplying games to the GameRegistry.
+ * Implementations are found with ServiceLoader: each is listed in
+ *   META-INF/services/GameProvider and must be a public class with a
+ *   public no-argument constructor. Constructing a provider and listing
+ *   its games should be cheap; the games themselves are created only
+ *   when chosen.
+ * @version 1
+ */
+interface GameProvider {
+    /**
+     * Describes the games this provider supplies, in menu order.
+     * @return the game descriptors
+     */
+    List<GameDescriptor> games();
+}
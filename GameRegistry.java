@@ -0,0 +1,89 @@
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.ServiceLoader;
+import java.util.Set;
+
+/**
+ * The games offered by the launcher, as GameDescriptors.
+ * <pre>
+ * load() discovers GameProviders with ServiceLoader, so adding a game
+ *   means adding a provider (or a descriptor to one) rather than editing
+ *   the launcher. Only the descriptors are built at startup; each game
+ *   is instantiated when it is first chosen from the menu.
+ * Games keep the order of their providers; a name already registered
+ *   is skipped.
+ * </pre>
+ * @version 1
+ */
+final class GameRegistry {
+    /** Registered games, in menu order. */
+    private final List<GameDescriptor> descriptors;
+
+    /**
+     * Creates a registry.
+     * @param entries the games, in menu order
+     */
+    GameRegistry(final List<GameDescriptor> entries) {
+        this.descriptors = List.copyOf(entries);
+    }
+
+    /**
+     * Builds the registry from every GameProvider on the class path.
+     * @return the registry
+     */
+    static GameRegistry load() {
+        List<GameDescriptor> entries = new ArrayList<>();
+        Set<String> names = new HashSet<>();
+        for (GameProvider provider : ServiceLoader.load(
+                 GameProvider.class, GameRegistry.class.getClassLoader())) {
+            for (GameDescriptor descriptor : provider.games()) {
+                if (names.add(descriptor.getName())) {
+                    entries.add(descriptor);
+                } else {
+                    System.err.println("Duplicate game ignored: "
+                                       + descriptor.getName());
+                }
+            }
+        }
+        return new GameRegistry(entries);
+    }
+
+    /**
+     * Builds a registry of games that have already been created.
+     * @param games the games, in menu order
+     * @return the registry
+     */
+    static GameRegistry of(final List<Game> games) {
+        List<GameDescriptor> entries = new ArrayList<>(games.size());
+        for (Game game : games) {
+            entries.add(GameDescriptor.of(game));
+        }
+        return new GameRegistry(entries);
+    }
+
+    /**
+     * Number of registered games.
+     * @return the game count
+     */
+    int size() {
+        return descriptors.size();
+    }
+
+    /**
+     * Returns a registered game's descriptor.
+     * @param index position in menu order, from 0
+     * @return the descriptor
+     */
+    GameDescriptor get(final int index) {
+        return descriptors.get(index);
+    }
+
+    /**
+     * All registered games.
+     * @return the descriptors in menu order, unmodifiable
+     */
+    List<GameDescriptor> descriptors() {
+        return descriptors;
+    }
+}
@@ -0,0 +1,80 @@
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests for GameRegistry and GameDescriptor.
+ * @version 2
+ */
+public class GameRegistryTest {
+    /** Number of games shipped with the hub. */
+    private static final int BUILT_IN_GAMES = 14;
+
+    /**
+     * The built-in games are discovered through ServiceLoader without
+     *   being created, and each descriptor names the game it creates.
+     */
+    @Test
+    public void testLoadFindsBuiltInGamesLazily() {
+        GameRegistry registry = GameRegistry.load();
+        assertEquals(BUILT_IN_GAMES, registry.size());
+        assertEquals("Tic-Tac-Toe", registry.get(0).getName());
+        for (GameDescriptor descriptor : registry.descriptors()) {
+            assertFalse(descriptor.isCreated(), descriptor.getName());
+        }
+        for (GameDescriptor descriptor : GameRegistry.load().descriptors()) {
+            assertEquals(descriptor.getName(),
+                         descriptor.getGame().getName());
+        }
+    }
+
+    /**
+     * Games added after the first release come after the original
+     *   twelve, so their menu numbers stay the same.
+     */
+    @Test
+    public void testOriginalMenuNumbersKept() {
+        List<String> original = List.of(
+            "Tic-Tac-Toe", "Word Guess", "Jotto", "Hangman", "Snake",
+            "Connect Four", "MineSweeper", "Sudoku", "Number Guess",
+            "Memory Match", "Lights Out", "MasterMind");
+        GameRegistry registry = GameRegistry.load();
+        for (int i = 0; i < original.size(); i++) {
+            assertEquals(original.get(i), registry.get(i).getName());
+        }
+    }
+
+    /**
+     * A game is created once, when first asked for.
+     */
+    @Test
+    public void testGameCreatedOnFirstUse() {
+        AtomicInteger created = new AtomicInteger();
+        GameDescriptor descriptor = new GameDescriptor("Counted", () -> {
+            created.incrementAndGet();
+            return new Game() {
+                @Override
+                public String getName() {
+                    return "Counted";
+                }
+
+                @Override
+                public Optional<Integer> play(final GameIO io) {
+                    return Optional.empty();
+                }
+            };
+        });
+        assertEquals(0, created.get());
+        Game game = descriptor.getGame();
+        assertSame(game, descriptor.getGame());
+        assertEquals(1, created.get());
+        assertTrue(descriptor.isCreated());
+    }
+}
@@ -0,0 +1,326 @@
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.lang.reflect.Method;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.NoSuchElementException;
+import java.util.Scanner;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Serves the Console Game Hub to many telnet-style TCP connections.
+ * <pre>
+ * Each connection gets its own GameLauncher session (see
+ *   GameLauncher.session) reading and writing the socket, while every
+ *   session shares one history, game registry and profile store. The
+ *   server persists the shared history with a HistoryPersistence, just
+ *   as the console launcher does.
+ * Sessions spend nearly all their time blocked reading the socket, so
+ *   each runs on its own virtual thread where the runtime has them
+ *   (Java 21 and later), and thousands of sessions need only a few
+ *   carrier threads. Older runtimes fall back to a cached pool of
+ *   platform threads.
+ * Each session's GameIO buffers its output and flushes it whenever the
+ *   session waits for input, so a menu goes out as one write rather than
+ *   one per line.
+ *
+ * Usage: java GameLauncher --server [port [address]]
+ *   Listens on the loopback address and DEFAULT_PORT unless told
+ *   otherwise; press Enter on the server console to stop.
+ * </pre>
+ * @version 2
+ */
+final class GameServer implements Closeable {
+    /** Command-line option of GameLauncher that starts a server. */
+    static final String SERVER_OPTION = "--server";
+    /** Port listened on when none is given. */
+    static final int DEFAULT_PORT = 2323;
+    /** Pending connections the listening socket queues. */
+    private static final int BACKLOG = 1024;
+    /** Seconds close waits for sessions to end. */
+    private static final long CLOSE_SECONDS = 5;
+    /** Milliseconds the acceptor waits after its first failed accept. */
+    private static final long MIN_BACKOFF_MILLIS = 10;
+    /** Longest wait between failed accepts, in milliseconds. */
+    private static final long MAX_BACKOFF_MILLIS = 1000;
+
+    /** The listening socket. */
+    private final ServerSocket listener;
+    /** Runs the sessions. */
+    private final ExecutorService sessions;
+    /** True if the sessions run on virtual threads. */
+    private final boolean virtual;
+    /** Accepts connections. */
+    private final Thread acceptor;
+    /** Shared history. */
+    private final GameHistoryTracker history;
+    /** Name of the shared history file. */
+    private final String historyFile;
+    /** Shared games. */
+    private final GameRegistry games;
+    /** Shared player profiles. */
+    private final ProfileStore profiles;
+    /** Writes the shared history in the background. */
+    private final HistoryPersistence persistence;
+    /** Sockets of the sessions in progress. */
+    private final Set<Socket> open = ConcurrentHashMap.newKeySet();
+    /** True once close has been called. */
+    private final AtomicBoolean closed = new AtomicBoolean();
+
+    /**
+     * Creates a server on a bound socket; start() launches it.
+     * @param socket the bound listening socket
+     * @param tracker the shared history
+     * @param fileName the name of the shared history file
+     * @param registry the shared games
+     * @param profileStore the shared profiles
+     */
+    private GameServer(final ServerSocket socket,
+                       final GameHistoryTracker tracker,
+                       final String fileName,
+                       final GameRegistry registry,
+                       final ProfileStore profileStore) {
+        this.listener = socket;
+        this.history = tracker;
+        this.historyFile = fileName;
+        this.games = registry;
+        this.profiles = profileStore;
+        ExecutorService virtualThreads = newVirtualThreadExecutor();
+        this.virtual = virtualThreads != null;
+        this.sessions = virtual ? virtualThreads : newPlatformThreadExecutor();
+        this.persistence = HistoryPersistence.start(
+            tracker, fileName,
+            HistoryPersistence.DEFAULT_COMMIT_PLAYS,
+            HistoryPersistence.DEFAULT_COMMIT_MILLIS);
+        this.acceptor = new Thread(this::acceptLoop, "game-server-accept");
+    }
+
+    /**
+     * Starts serving.
+     * @param address address to listen on
+     * @param port port to listen on, or 0 for any free port
+     * @param tracker the shared history
+     * @param fileName the name of the shared history file
+     * @param registry the shared games
+     * @param profileStore the shared profiles
+     * @return the running server
+     * @throws IOException if the port cannot be bound
+     */
+    static GameServer start(final InetAddress address, final int port,
+                            final GameHistoryTracker tracker,
+                            final String fileName,
+                            final GameRegistry registry,
+                            final ProfileStore profileStore)
+            throws IOException {
+        ServerSocket socket = new ServerSocket();
+        socket.setReuseAddress(true);
+        socket.bind(new InetSocketAddress(address, port), BACKLOG);
+        GameServer server =
+            new GameServer(socket, tracker, fileName, registry, profileStore);
+        server.acceptor.start();
+        return server;
+    }
+
+    /**
+     * Creates an executor running each task on a new virtual thread.
+     * Looked up reflectively so the hub still builds and runs on
+     *   runtimes without virtual threads.
+     * @return the executor, or null if the runtime has no virtual threads
+     */
+    static ExecutorService newVirtualThreadExecutor() {
+        try {
+            Method factory = Executors.class.getMethod(
+                "newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) factory.invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Creates an executor of daemon platform threads, one per running
+     *   task.
+     * @return the executor
+     */
+    static ExecutorService newPlatformThreadExecutor() {
+        AtomicInteger count = new AtomicInteger();
+        return Executors.newCachedThreadPool(task -> {
+            Thread thread = new Thread(
+                task, "game-session-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * The port being listened on.
+     * @return the local port
+     */
+    int getPort() {
+        return listener.getLocalPort();
+    }
+
+    /**
+     * Whether sessions run on virtual threads.
+     * @return true if the runtime provides them
+     */
+    boolean usesVirtualThreads() {
+        return virtual;
+    }
+
+    /**
+     * Number of sessions in progress.
+     * @return the open connection count
+     */
+    int sessionCount() {
+        return open.size();
+    }
+
+    /**
+     * Body of the accepting thread.
+     * A failed accept (out of file descriptors, say) is retried after a
+     *   wait that doubles with each failure in a row, up to
+     *   MAX_BACKOFF_MILLIS, so a lasting error does not spin a core; the
+     *   loop ends once the server or its socket is closed.
+     */
+    private void acceptLoop() {
+        long backoff = 0;
+        while (!closed.get()) {
+            Socket socket;
+            try {
+                socket = listener.accept();
+            } catch (IOException e) {
+                if (closed.get() || listener.isClosed()) {
+                    return;
+                }
+                backoff = Math.min(MAX_BACKOFF_MILLIS,
+                                   Math.max(MIN_BACKOFF_MILLIS, backoff * 2));
+                System.err.println("Game server accept failed: "
+                                   + e.getMessage() + "; retrying in "
+                                   + backoff + " ms");
+                try {
+                    Thread.sleep(backoff);
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                continue;
+            }
+            backoff = 0;
+            open.add(socket);
+            try {
+                sessions.execute(() -> serve(socket));
+            } catch (RuntimeException e) {
+                open.remove(socket);
+                closeQuietly(socket);
+            }
+        }
+    }
+
+    /**
+     * Runs one connection's session until the player exits or the
+     *   connection ends.
+     * @param socket the connection
+     */
+    private void serve(final Socket socket) {
+        GameLauncher launcher = null;
+        try {
+            GameIO io = new GameIO(
+                new Scanner(new InputStreamReader(socket.getInputStream(),
+                                                  StandardCharsets.UTF_8)),
+                socket.getOutputStream(), StandardCharsets.UTF_8);
+            launcher = GameLauncher.session(io, history, games, historyFile,
+                                            profiles);
+            launcher.run();
+        } catch (IOException | NoSuchElementException
+                 | IllegalStateException e) {
+            // The client disconnected or the server is closing.
+        } finally {
+            if (launcher != null) {
+                launcher.saveHistory();
+            }
+            open.remove(socket);
+            closeQuietly(socket);
+        }
+    }
+
+    /**
+     * Stops accepting, ends every session, and saves the shared history
+     *   and the profiles. Later calls do nothing.
+     */
+    @Override
+    public void close() {
+        if (!closed.compareAndSet(false, true)) {
+            return;
+        }
+        closeQuietly(listener);
+        acceptor.interrupt(); // Cuts short a wait after a failed accept.
+        for (Socket socket : open) {
+            closeQuietly(socket);
+        }
+        sessions.shutdown();
+        try {
+            sessions.awaitTermination(CLOSE_SECONDS, TimeUnit.SECONDS);
+            acceptor.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        try {
+            persistence.close();
+        } catch (IOException e) {
+            System.err.println("Game history save failed: " + e.getMessage());
+        }
+        profiles.close();
+    }
+
+    /**
+     * Closes a socket, ignoring failure.
+     * @param socket the socket
+     */
+    private static void closeQuietly(final Closeable socket) {
+        try {
+            socket.close();
+        } catch (IOException e) {
+            // Already closed or broken; nothing more to release.
+        }
+    }
+
+    /**
+     * Runs a server on the default history until Enter is pressed.
+     * @param args optional port and listening address
+     * @throws IOException if the server cannot be started
+     */
+    public static void main(final String[] args) throws IOException {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_PORT;
+        InetAddress address = args.length > 1
+            ? InetAddress.getByName(args[1])
+            : InetAddress.getLoopbackAddress();
+        String file = GameLauncher.HISTORY_FILENAME;
+        GameServer server = start(address, port,
+                                  GameHistoryTracker.loadHistory(file), file,
+                                  GameRegistry.load(),
+                                  GameLauncher.defaultProfiles(file));
+        Runtime.getRuntime().addShutdownHook(new Thread(server::close));
+        System.out.printf("Game Hub serving on %s port %d (%s threads)."
+                          + " Press Enter to stop.%n",
+                          address.getHostAddress(), server.getPort(),
+                          server.usesVirtualThreads() ? "virtual"
+                                                      : "platform");
+        try {
+            new Scanner(System.in).nextLine();
+        } catch (NoSuchElementException e) {
+            // Console closed; stop as if Enter had been pressed.
+        }
+        server.close();
+    }
+}
@@ -0,0 +1,244 @@
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Loopback load test of GameServer: holds many sessions open at once
+ *   and measures how quickly each is served.
+ * <pre>
+ * Usage: java GameServerLoadClient [sessions [requests [port]]]
+ *   Defaults to 1000 sessions of 5 requests each. Without a port, a
+ *   server on a temporary history is started in this JVM on a free
+ *   loopback port.
+ * Every session connects and waits at the menu until all sessions are
+ *   connected, so the server holds them all at once (mostly idle, like
+ *   players reading a menu). Each then views the history repeatedly and
+ *   exits. The time from sending a request to the next menu prompt is
+ *   recorded; the peak session count, throughput and latency
+ *   percentiles are reported.
+ * </pre>
+ * @version 1
+ */
+public final class GameServerLoadClient {
+    /** Sessions opened when no count is given. */
+    private static final int DEFAULT_SESSIONS = 1000;
+    /** Requests per session when no count is given. */
+    private static final int DEFAULT_REQUESTS = 5;
+    /** The menu prompt ending every reply. */
+    private static final byte[] PROMPT =
+        "Choose a game: ".getBytes(StandardCharsets.UTF_8);
+    /** A request: view the history. */
+    private static final byte[] REQUEST =
+        "H\r\n".getBytes(StandardCharsets.UTF_8);
+    /** Ends a session. */
+    private static final byte[] EXIT =
+        "0\r\n".getBytes(StandardCharsets.UTF_8);
+    /** Longest wait for all sessions, in minutes. */
+    private static final long TIMEOUT_MINUTES = 5;
+    /** Size of the reply read buffer. */
+    private static final int BUFFER_SIZE = 8192;
+    /** Nanoseconds per millisecond. */
+    private static final double NANOS_PER_MILLI = 1e6;
+    /** Nanoseconds per second. */
+    private static final double NANOS_PER_SECOND = 1e9;
+    /** Quantile reported as p50. */
+    private static final double MEDIAN = 0.5;
+    /** Quantile reported as p99. */
+    private static final double P99 = 0.99;
+
+    /**
+     * Prevent instantiation.
+     */
+    private GameServerLoadClient() {
+        throw new UnsupportedOperationException("class cannot be instantiated");
+    }
+
+    /**
+     * Runs the load test.
+     * @param args session count, requests per session and server port
+     * @throws Exception if the server cannot be started or the test is
+     *         interrupted
+     */
+    public static void main(final String[] args) throws Exception {
+        int sessions = args.length > 0 ? Integer.parseInt(args[0])
+                                       : DEFAULT_SESSIONS;
+        int requests = args.length > 1 ? Integer.parseInt(args[1])
+                                       : DEFAULT_REQUESTS;
+        GameServer server = null;
+        int port;
+        if (args.length > 2) {
+            port = Integer.parseInt(args[2]);
+        } else {
+            Path dir = Files.createTempDirectory("server-load");
+            GameHistoryTracker history = new GameHistoryTracker();
+            history.recordPlay("Snake", 1);
+            server = GameServer.start(
+                InetAddress.getLoopbackAddress(), 0, history,
+                dir.resolve("history.dat").toString(), GameRegistry.load(),
+                new ProfileStore(dir.resolve("profiles"),
+                                 ProfileStore.DEFAULT_CAPACITY));
+            port = server.getPort();
+        }
+        ExecutorService clients = GameServer.newVirtualThreadExecutor();
+        if (clients == null) {
+            clients = GameServer.newPlatformThreadExecutor();
+        }
+        long[] latencies = new long[sessions * requests];
+        CountDownLatch connected = new CountDownLatch(sessions);
+        CountDownLatch done = new CountDownLatch(sessions);
+        AtomicInteger failures = new AtomicInteger();
+        long start = System.nanoTime();
+        for (int s = 0; s < sessions; s++) {
+            int first = s * requests;
+            clients.execute(() -> {
+                try {
+                    runSession(port, requests, latencies, first, connected);
+                } catch (IOException | InterruptedException e) {
+                    failures.incrementAndGet();
+                    connected.countDown();
+                } finally {
+                    done.countDown();
+                }
+            });
+        }
+        connected.await(TIMEOUT_MINUTES, TimeUnit.MINUTES);
+        long connectNanos = System.nanoTime() - start;
+        int peak = server == null ? 0 : server.sessionCount();
+        done.await(TIMEOUT_MINUTES, TimeUnit.MINUTES);
+        long totalNanos = System.nanoTime() - start;
+        clients.shutdown();
+        if (server != null) {
+            server.close();
+        }
+        report(server, sessions, peak, failures.get(),
+               connectNanos, totalNanos, latencies);
+    }
+
+    /**
+     * Runs one session: connect, wait for the others, send the requests
+     *   and exit.
+     * @param port the server port
+     * @param requests number of requests
+     * @param latencies where to record each request's latency
+     * @param first index of this session's first latency
+     * @param connected counted down once this session is at the menu
+     * @throws IOException if the connection fails
+     * @throws InterruptedException if interrupted while waiting
+     */
+    private static void runSession(final int port, final int requests,
+                                   final long[] latencies, final int first,
+                                   final CountDownLatch connected)
+            throws IOException, InterruptedException {
+        try (Socket socket = new Socket(InetAddress.getLoopbackAddress(),
+                                        port)) {
+            InputStream in = socket.getInputStream();
+            OutputStream out = socket.getOutputStream();
+            byte[] buffer = new byte[BUFFER_SIZE];
+            awaitPrompt(in, buffer);
+            connected.countDown();
+            connected.await();
+            for (int r = 0; r < requests; r++) {
+                long sent = System.nanoTime();
+                out.write(REQUEST);
+                out.flush();
+                awaitPrompt(in, buffer);
+                latencies[first + r] = System.nanoTime() - sent;
+            }
+            out.write(EXIT);
+            out.flush();
+            while (in.read(buffer) >= 0) {
+                continue;
+            }
+        }
+    }
+
+    /**
+     * Reads a session's output up to and including the menu prompt.
+     * @param in the session output
+     * @param buffer read buffer
+     * @throws IOException if the connection fails or closes first
+     */
+    private static void awaitPrompt(final InputStream in, final byte[] buffer)
+            throws IOException {
+        int matched = 0;
+        while (true) {
+            int n = in.read(buffer);
+            if (n < 0) {
+                throw new IOException("session closed before the prompt");
+            }
+            for (int i = 0; i < n; i++) {
+                if (buffer[i] == PROMPT[matched]) {
+                    matched++;
+                } else {
+                    matched = buffer[i] == PROMPT[0] ? 1 : 0;
+                }
+            }
+            if (matched == PROMPT.length) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Prints the results.
+     * @param server the in-process server, or null
+     * @param sessions sessions opened
+     * @param peak sessions open at once, or 0 if unknown
+     * @param failures sessions that failed
+     * @param connectNanos time until every session was connected
+     * @param totalNanos time until every session had finished
+     * @param latencies latency of each request, in nanoseconds
+     */
+    private static void report(final GameServer server, final int sessions,
+                               final int peak,
+                               final int failures, final long connectNanos,
+                               final long totalNanos,
+                               final long[] latencies) {
+        long[] sorted = latencies.clone();
+        Arrays.sort(sorted);
+        List<String> lines = List.of(
+            String.format("threads:           %s",
+                          server == null ? "remote server"
+                          : server.usesVirtualThreads() ? "virtual"
+                          : "platform"),
+            String.format("sessions:          %d (%d failed)",
+                          sessions, failures),
+            String.format("peak open:         %d", peak),
+            String.format("all connected in:  %.1f ms",
+                          connectNanos / NANOS_PER_MILLI),
+            String.format("requests:          %d in %.1f ms (%.0f/s)",
+                          latencies.length, totalNanos / NANOS_PER_MILLI,
+                          latencies.length * NANOS_PER_SECOND / totalNanos),
+            String.format("latency p50 / p99: %.2f / %.2f ms",
+                          quantile(sorted, MEDIAN) / NANOS_PER_MILLI,
+                          quantile(sorted, P99) / NANOS_PER_MILLI));
+        for (String line : lines) {
+            System.out.println(line);
+        }
+    }
+
+    /**
+     * Reads a quantile from sorted values.
+     * @param sorted values in ascending order
+     * @param q the quantile, from 0 to 1
+     * @return the value at that quantile, or 0 if there are none
+     */
+    private static long quantile(final long[] sorted, final double q) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        return sorted[(int) Math.min(sorted.length - 1,
+                                     (long) (q * sorted.length))];
+    }
+}
@@ -0,0 +1,136 @@
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests for GameServer.
+ * @version 2
+ */
+public class GameServerTest {
+    /** Concurrent sessions opened by the sharing test. */
+    private static final int SESSIONS = 8;
+
+    /**
+     * Concurrent sessions each get their own menu over the shared
+     *   history.
+     * @param tempDir temporary directory for history files
+     * @throws Exception if a session fails
+     */
+    @Test
+    public void testSessionsShareHistory(@TempDir final Path tempDir)
+            throws Exception {
+        GameServer server = startServer(tempDir, new GameHistoryTracker());
+        List<CompletableFuture<String>> replies = new ArrayList<>();
+        for (int i = 0; i < SESSIONS; i++) {
+            replies.add(CompletableFuture.supplyAsync(
+                () -> converse(server.getPort(), "H\r\n0\r\n")));
+        }
+        for (CompletableFuture<String> reply : replies) {
+            String output = reply.get();
+            assertTrue(output.contains("=== Game Play History ==="), output);
+            assertTrue(output.contains("Stub - Played: 1"), output);
+            assertTrue(output.contains("Goodbye!"), output);
+        }
+        server.close();
+        assertEquals(0, server.sessionCount());
+    }
+
+    /**
+     * A session plays games through its own connection.
+     * @param tempDir temporary directory for history files
+     * @throws IOException if the server cannot start
+     */
+    @Test
+    public void testSessionPlaysGames(@TempDir final Path tempDir)
+            throws IOException {
+        GameHistoryTracker history = new GameHistoryTracker();
+        GameServer server = startServer(tempDir, history);
+        String output = converse(server.getPort(), "1\n9\n0\n");
+        assertTrue(output.contains("Score? "), output);
+        server.close();
+        assertEquals(2, history.getTimesPlayed("Stub"));
+        assertEquals(9, history.getSummary("Stub").getMax());
+    }
+
+    /**
+     * A guest session cannot clear the shared history; a signed-in player
+     *   clears only their own.
+     * @param tempDir temporary directory for history files
+     * @throws IOException if the server cannot start
+     */
+    @Test
+    public void testSessionClearsOnlyOwnHistory(@TempDir final Path tempDir)
+            throws IOException {
+        GameHistoryTracker history = new GameHistoryTracker();
+        GameServer server = startServer(tempDir, history);
+        String output = converse(server.getPort(), "C\nCLEAR\n0\n");
+        assertTrue(output.contains("cannot be cleared"), output);
+        output = converse(server.getPort(), "P\nAnn\n1\n4\nC\nCLEAR\n0\n");
+        assertTrue(output.contains("Clearing History."), output);
+        server.close();
+        assertEquals(1, history.getTimesPlayed("Stub"));
+    }
+
+    /**
+     * Starts a server on a free loopback port with one stub game, played
+     *   once before the server starts. The stub asks for its score.
+     * @param tempDir directory for history files
+     * @param history the shared history
+     * @return the server
+     * @throws IOException if the server cannot start
+     */
+    private static GameServer startServer(final Path tempDir,
+                                          final GameHistoryTracker history)
+            throws IOException {
+        history.recordPlay("Stub", 3);
+        Game stub = new Game() {
+            @Override
+            public String getName() {
+                return "Stub";
+            }
+
+            @Override
+            public Optional<Integer> play(final GameIO io) {
+                return Optional.of(Integer.parseInt(io.prompt("Score? ")));
+            }
+        };
+        return GameServer.start(
+            InetAddress.getLoopbackAddress(), 0, history,
+            tempDir.resolve("history.dat").toString(),
+            GameRegistry.of(List.of(stub)),
+            new ProfileStore(tempDir.resolve("profiles"), 2));
+    }
+
+    /**
+     * Sends input to a new session and reads everything it writes back.
+     * @param port the server port
+     * @param input the lines to send
+     * @return the session output
+     */
+    private static String converse(final int port, final String input) {
+        try (Socket socket = new Socket(InetAddress.getLoopbackAddress(),
+                                        port)) {
+            OutputStream out = socket.getOutputStream();
+            out.write(input.getBytes(StandardCharsets.UTF_8));
+            out.flush();
+            InputStream in = socket.getInputStream();
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
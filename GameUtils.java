@@ -29,4 +29,33 @@ public final class GameUtils {
             }
         return words.get(RANDOM.nextInt(words.size()));
      }
+
+    /**
+     * Returns a random word of a given length from a dictionary.
+     *
+     * @param words The dictionary from which the random word will be selected.
+     * @param length The number of letters of the word.
+     * @return A random upper-case word, or null if the dictionary is null or
+     *         has no word of that length.
+     */
+    static String getRandomWord(final WordDictionary words, final int length) {
+        return getRandomWord(words, length, RANDOM);
+    }
+
+    /**
+     * Returns a random word of a given length from a dictionary.
+     *
+     * @param words The dictionary from which the random word will be selected.
+     * @param length The number of letters of the word.
+     * @param random The source of randomness.
+     * @return A random upper-case word, or null if the dictionary is null or
+     *         has no word of that length.
+     */
+    static String getRandomWord(final WordDictionary words, final int length,
+                                final Random random) {
+        if (words == null) {
+            return null;
+        }
+        return words.random(random, length);
+    }
 }
@@ -0,0 +1,445 @@
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Arrays;
+
+/**
+ * Double-buffered terminal renderer for the grid games.
+ * <pre>
+ * A game draws into a back buffer of cells (one char array and one
+ *   attribute array, row by row) and calls render. The back buffer is
+ *   compared with the frame last shown and only the cells that changed
+ *   are sent, as ANSI cursor moves, attribute changes and characters.
+ *   Rows nothing was drawn on since the last frame are not even
+ *   compared, so a frame costs time in proportion to what changed, not
+ *   to the size of the board.
+ *   The frame is assembled in one reusable byte array and written with
+ *   a single write, so a move in Snake sends a few dozen bytes instead
+ *   of the whole board.
+ * The first frame, and the first after invalidate, clears the screen
+ *   and draws every non-blank cell.
+ *
+ * The grid occupies the top rows of the terminal. After each frame the
+ *   cursor is parked on the row below it and the rest of the screen is
+ *   cleared, so status lines and prompts printed there do not pile up.
+ * Attributes combine a colour (DEFAULT or RED to WHITE) with BOLD,
+ *   UNDERLINE and REVERSE. Characters are sent as UTF-8, which is what
+ *   terminals are assumed to expect.
+ * A renderer is not thread-safe.
+ * </pre>
+ * @version 1
+ */
+final class GridRenderer {
+    /** Terminal default colour. */
+    static final byte DEFAULT = 0;
+    /** Black text. */
+    static final byte BLACK = 1;
+    /** Red text. */
+    static final byte RED = 2;
+    /** Green text. */
+    static final byte GREEN = 3;
+    /** Yellow text. */
+    static final byte YELLOW = 4;
+    /** Blue text. */
+    static final byte BLUE = 5;
+    /** Magenta text. */
+    static final byte MAGENTA = 6;
+    /** Cyan text. */
+    static final byte CYAN = 7;
+    /** White text. */
+    static final byte WHITE = 8;
+    /** Bold text; combine with a colour. */
+    static final byte BOLD = 0x10;
+    /** Underlined text; combine with a colour. */
+    static final byte UNDERLINE = 0x20;
+    /** Reversed colours; combine with a colour. */
+    static final byte REVERSE = 0x40;
+
+    /** Mask of the colour bits of an attribute. */
+    private static final int COLOUR_MASK = 0x0F;
+    /** SGR code of the first colour (BLACK). */
+    private static final int SGR_FOREGROUND = 29;
+    /** SGR code of bold. */
+    private static final int SGR_BOLD = 1;
+    /** SGR code of underline. */
+    private static final int SGR_UNDERLINE = 4;
+    /** SGR code of reverse video. */
+    private static final int SGR_REVERSE = 7;
+    /** Escape character starting every control sequence. */
+    private static final byte ESC = 0x1B;
+    /** Unchanged cells re-sent rather than moving the cursor past them. */
+    private static final int MAX_GAP = 4;
+    /** Largest UTF-8 encoding of a char, in bytes. */
+    private static final int MAX_CHAR_BYTES = 3;
+    /** Largest control sequence written for one cell, in bytes. */
+    private static final int MAX_CONTROL_BYTES = 32;
+    /** Last one-byte UTF-8 char. */
+    private static final char MAX_ASCII = 0x7F;
+    /** Last two-byte UTF-8 char. */
+    private static final char MAX_TWO_BYTE = 0x7FF;
+    /** Decimal radix. */
+    private static final int TEN = 10;
+
+    /** Columns in the grid. */
+    private final int width;
+    /** Rows in the grid. */
+    private final int height;
+    /** Characters being drawn. */
+    private final char[] chars;
+    /** Attributes being drawn. */
+    private final byte[] attrs;
+    /** Characters on screen. */
+    private final char[] shownChars;
+    /** Attributes on screen. */
+    private final byte[] shownAttrs;
+    /** Rows drawn on since the last frame. */
+    private final boolean[] dirtyRows;
+    /** True if the screen is known to match shownChars and shownAttrs. */
+    private boolean valid;
+    /** Frame being assembled. */
+    private byte[] frame;
+    /** Bytes of the frame assembled so far. */
+    private int length;
+    /** Cursor column while assembling, or -1 if unknown. */
+    private int cursorX;
+    /** Cursor row while assembling, or -1 if unknown. */
+    private int cursorY;
+    /** Attribute in effect while assembling. */
+    private int cursorAttr;
+
+    /**
+     * Creates a renderer with a blank grid.
+     * @param columns columns in the grid
+     * @param rows rows in the grid
+     */
+    GridRenderer(final int columns, final int rows) {
+        if (columns < 1 || rows < 1) {
+            throw new IllegalArgumentException(
+                "grid must be at least 1x1: " + columns + "x" + rows);
+        }
+        this.width = columns;
+        this.height = rows;
+        int cells = columns * rows;
+        this.chars = new char[cells];
+        this.attrs = new byte[cells];
+        this.shownChars = new char[cells];
+        this.shownAttrs = new byte[cells];
+        this.dirtyRows = new boolean[rows];
+        this.frame = new byte[cells + MAX_CONTROL_BYTES * rows];
+        clear();
+    }
+
+    /**
+     * Columns in the grid.
+     * @return the width
+     */
+    int getWidth() {
+        return width;
+    }
+
+    /**
+     * Rows in the grid.
+     * @return the height
+     */
+    int getHeight() {
+        return height;
+    }
+
+    /**
+     * Blanks the back buffer.
+     */
+    void clear() {
+        Arrays.fill(chars, ' ');
+        Arrays.fill(attrs, DEFAULT);
+        Arrays.fill(dirtyRows, true);
+    }
+
+    /**
+     * Draws one cell.
+     * @param x column, from 0
+     * @param y row, from 0
+     * @param c the character
+     * @param attr the attribute
+     */
+    void put(final int x, final int y, final char c, final int attr) {
+        int i = index(x, y);
+        if (chars[i] != c || attrs[i] != (byte) attr) {
+            chars[i] = c;
+            attrs[i] = (byte) attr;
+            dirtyRows[y] = true;
+        }
+    }
+
+    /**
+     * Draws text along a row, clipped at the right edge.
+     * @param x column of the first character, from 0
+     * @param y row, from 0
+     * @param text the text
+     * @param attr the attribute
+     */
+    void print(final int x, final int y, final String text, final int attr) {
+        int end = Math.min(width - x, text.length());
+        for (int i = 0; i < end; i++) {
+            put(x + i, y, text.charAt(i), attr);
+        }
+    }
+
+    /**
+     * Character drawn in a cell.
+     * @param x column, from 0
+     * @param y row, from 0
+     * @return the character
+     */
+    char charAt(final int x, final int y) {
+        return chars[index(x, y)];
+    }
+
+    /**
+     * Attribute drawn in a cell.
+     * @param x column, from 0
+     * @param y row, from 0
+     * @return the attribute
+     */
+    int attrAt(final int x, final int y) {
+        return attrs[index(x, y)];
+    }
+
+    /**
+     * Forgets what is on screen, so the next frame redraws everything
+     *   (after the terminal was cleared or written over, for example).
+     */
+    void invalidate() {
+        valid = false;
+    }
+
+    /**
+     * Sends the changes since the last frame to a GameIO, after any text
+     *   printed to it.
+     * @param io the player's console
+     * @return bytes sent for the frame
+     */
+    int render(final GameIO io) {
+        assemble();
+        io.writeBytes(frame, 0, length);
+        return length;
+    }
+
+    /**
+     * Sends the changes since the last frame to a stream in one write.
+     * Nothing is written if nothing changed.
+     * @param out the terminal
+     * @return bytes written
+     * @throws IOException if the write fails
+     */
+    int render(final OutputStream out) throws IOException {
+        assemble();
+        if (length > 0) {
+            out.write(frame, 0, length);
+        }
+        return length;
+    }
+
+    /**
+     * Assembles the next frame; each cell sent is recorded as shown.
+     */
+    private void assemble() {
+        length = 0;
+        cursorX = -1;
+        cursorY = -1;
+        cursorAttr = -1;
+        if (!valid) {
+            append(ESC, '[', 'H', ESC);
+            append('[', '2', 'J');
+            cursorX = 0;
+            cursorY = 0;
+            Arrays.fill(shownChars, ' ');
+            Arrays.fill(shownAttrs, DEFAULT);
+            Arrays.fill(dirtyRows, true);
+        }
+        for (int y = 0; y < height; y++) {
+            if (!dirtyRows[y]) {
+                continue;
+            }
+            dirtyRows[y] = false;
+            int row = y * width;
+            int x = 0;
+            while (x < width) {
+                if (!changed(row + x)) {
+                    x++;
+                    continue;
+                }
+                if (cursorY != y || cursorX != x) {
+                    if (cursorY != y || !bridge(row, x)) {
+                        moveTo(x, y);
+                    }
+                }
+                emitCell(row + x);
+                x++;
+            }
+        }
+        if (length > 0) {
+            if (cursorAttr > 0) {
+                append(ESC, '[', 'm');
+            }
+            moveTo(0, height);
+            append(ESC, '[', 'J');
+        }
+        valid = true;
+    }
+
+    /**
+     * Sends the unchanged cells between the cursor and a changed cell on
+     *   the same row, if that is shorter than moving the cursor.
+     * @param row index of the row's first cell
+     * @param x column of the changed cell
+     * @return true if the cursor now stands at x
+     */
+    private boolean bridge(final int row, final int x) {
+        if (cursorX < 0 || x < cursorX || x - cursorX > MAX_GAP) {
+            return false;
+        }
+        for (int i = row + cursorX; i < row + x; i++) {
+            if (shownAttrs[i] != cursorAttr || shownChars[i] > MAX_ASCII) {
+                return false;
+            }
+        }
+        for (int i = row + cursorX; i < row + x; i++) {
+            emitCell(i);
+        }
+        return true;
+    }
+
+    /**
+     * Whether a cell differs from the screen.
+     * @param i cell index
+     * @return true if it must be sent
+     */
+    private boolean changed(final int i) {
+        return chars[i] != shownChars[i] || attrs[i] != shownAttrs[i];
+    }
+
+    /**
+     * Appends a cell at the cursor, with its attribute if that differs
+     *   from the one in effect, and records it as shown.
+     * @param i cell index
+     */
+    private void emitCell(final int i) {
+        ensure(MAX_CONTROL_BYTES + MAX_CHAR_BYTES);
+        shownChars[i] = chars[i];
+        shownAttrs[i] = attrs[i];
+        if (attrs[i] != cursorAttr) {
+            emitAttr(attrs[i]);
+        }
+        char c = chars[i];
+        if (c <= MAX_ASCII) {
+            frame[length++] = (byte) c;
+        } else if (c <= MAX_TWO_BYTE) {
+            frame[length++] = (byte) (0xC0 | (c >> 6));
+            frame[length++] = (byte) (0x80 | (c & 0x3F));
+        } else if (Character.isSurrogate(c)) {
+            frame[length++] = '?';
+        } else {
+            frame[length++] = (byte) (0xE0 | (c >> 12));
+            frame[length++] = (byte) (0x80 | ((c >> 6) & 0x3F));
+            frame[length++] = (byte) (0x80 | (c & 0x3F));
+        }
+        cursorX++;
+    }
+
+    /**
+     * Appends the SGR sequence selecting an attribute.
+     * @param attr the attribute
+     */
+    private void emitAttr(final int attr) {
+        append(ESC, '[', '0');
+        int colour = attr & COLOUR_MASK;
+        if (colour != DEFAULT) {
+            frame[length++] = ';';
+            appendNumber(SGR_FOREGROUND + colour);
+        }
+        if ((attr & BOLD) != 0) {
+            frame[length++] = ';';
+            appendNumber(SGR_BOLD);
+        }
+        if ((attr & UNDERLINE) != 0) {
+            frame[length++] = ';';
+            appendNumber(SGR_UNDERLINE);
+        }
+        if ((attr & REVERSE) != 0) {
+            frame[length++] = ';';
+            appendNumber(SGR_REVERSE);
+        }
+        frame[length++] = 'm';
+        cursorAttr = attr;
+    }
+
+    /**
+     * Appends the cursor move to a cell (CUP, one-based).
+     * @param x column, from 0
+     * @param y row, from 0
+     */
+    private void moveTo(final int x, final int y) {
+        ensure(MAX_CONTROL_BYTES);
+        frame[length++] = ESC;
+        frame[length++] = '[';
+        appendNumber(y + 1);
+        frame[length++] = ';';
+        appendNumber(x + 1);
+        frame[length++] = 'H';
+        cursorX = x;
+        cursorY = y;
+    }
+
+    /**
+     * Appends a non-negative decimal number.
+     * @param n the number
+     */
+    private void appendNumber(final int n) {
+        int digits = 1;
+        for (int rest = n / TEN; rest > 0; rest /= TEN) {
+            digits++;
+        }
+        int value = n;
+        for (int i = length + digits - 1; i >= length; i--) {
+            frame[i] = (byte) ('0' + value % TEN);
+            value /= TEN;
+        }
+        length += digits;
+    }
+
+    /**
+     * Appends ASCII bytes.
+     * @param bytes the bytes
+     */
+    private void append(final int... bytes) {
+        ensure(bytes.length);
+        for (int b : bytes) {
+            frame[length++] = (byte) b;
+        }
+    }
+
+    /**
+     * Grows the frame buffer to hold more bytes.
+     * @param more bytes about to be appended
+     */
+    private void ensure(final int more) {
+        if (length + more > frame.length) {
+            frame = Arrays.copyOf(frame,
+                                  Math.max(frame.length * 2, length + more));
+        }
+    }
+
+    /**
+     * Index of a cell.
+     * @param x column, from 0
+     * @param y row, from 0
+     * @return the index in the cell arrays
+     */
+    private int index(final int x, final int y) {
+        if (x < 0 || x >= width || y < 0 || y >= height) {
+            throw new IndexOutOfBoundsException(
+                "cell (" + x + ", " + y + ") outside "
+                + width + "x" + height + " grid");
+        }
+        return y * width + x;
+    }
+}
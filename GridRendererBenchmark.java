@@ -0,0 +1,199 @@
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+
+/**
+ * Compares GridRenderer with redrawing the whole board on every move.
+ * <pre>
+ * Usage: java GridRendererBenchmark [frames]
+ *   Defaults to 200000 frames per run.
+ * Both renderers draw the same Snake-like animation: a walled board, a
+ *   snake of fixed length crawling round it and a score line that
+ *   changes every frame. The naive renderer homes the cursor and prints
+ *   every row with println on an autoflushing PrintStream, as the games
+ *   print their boards today; GridRenderer sends only the changed cells.
+ *   Output goes to a stream that counts bytes and writes and discards
+ *   them, so the figures measure the renderers, not a terminal.
+ * Reported per board size: bytes and writes per frame, and frames per
+ *   second (best of several runs).
+ * </pre>
+ * @version 1
+ */
+public final class GridRendererBenchmark {
+    /** Frames drawn per run when none are given. */
+    private static final int DEFAULT_FRAMES = 200_000;
+    /** Board sizes measured, as columns and rows. */
+    private static final int[][] SIZES = {{20, 10}, {40, 20}, {80, 24},
+                                          {200, 60}};
+    /** Timed runs per configuration; the fastest is reported. */
+    private static final int RUNS = 3;
+    /** Length of the snake. */
+    private static final int SNAKE_LENGTH = 8;
+    /** Nanoseconds per second. */
+    private static final double NANOS_PER_SECOND = 1e9;
+    /** Cursor home sequence sent before each naive frame. */
+    private static final String HOME = "\u001b[H";
+
+    /**
+     * Prevent instantiation.
+     */
+    private GridRendererBenchmark() {
+        throw new UnsupportedOperationException("class cannot be instantiated");
+    }
+
+    /**
+     * Runs the benchmark.
+     * @param args frames per run
+     * @throws IOException never; output is discarded
+     */
+    public static void main(final String[] args) throws IOException {
+        int frames = args.length > 0 ? Integer.parseInt(args[0])
+                                     : DEFAULT_FRAMES;
+        System.out.printf("%-8s %-5s %12s %12s %12s%n",
+                          "board", "mode", "bytes/frame", "writes/frame",
+                          "frames/s");
+        for (int[] size : SIZES) {
+            String board = size[0] + "x" + size[1];
+            report(board, "full", frames, best(size, frames, false));
+            report(board, "diff", frames, best(size, frames, true));
+        }
+    }
+
+    /**
+     * Prints a result row.
+     * @param board the board size
+     * @param mode the renderer
+     * @param frames frames drawn
+     * @param run the best run
+     */
+    private static void report(final String board, final String mode,
+                               final int frames, final CountingOutput run) {
+        System.out.printf("%-8s %-5s %12.1f %12.2f %12.0f%n", board, mode,
+                          (double) run.bytes / frames,
+                          (double) run.writes / frames,
+                          frames * NANOS_PER_SECOND / run.nanos);
+    }
+
+    /**
+     * Draws the animation several times and keeps the fastest run.
+     * @param size columns and rows
+     * @param frames frames per run
+     * @param diff true for GridRenderer, false for naive redraw
+     * @return the fastest run's counts
+     * @throws IOException never
+     */
+    private static CountingOutput best(final int[] size, final int frames,
+                                       final boolean diff)
+            throws IOException {
+        CountingOutput best = null;
+        for (int run = 0; run < RUNS; run++) {
+            CountingOutput out = new CountingOutput();
+            long start = System.nanoTime();
+            animate(size[0], size[1], frames, diff, out);
+            out.nanos = System.nanoTime() - start;
+            if (best == null || out.nanos < best.nanos) {
+                best = out;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Draws the animation.
+     * @param width columns, walls included
+     * @param height rows, walls and score line included
+     * @param frames frames to draw
+     * @param diff true for GridRenderer, false for naive redraw
+     * @param out where to write
+     * @throws IOException never
+     */
+    private static void animate(final int width, final int height,
+                                final int frames, final boolean diff,
+                                final OutputStream out) throws IOException {
+        GridRenderer grid = new GridRenderer(width, height);
+        PrintStream naive = new PrintStream(out, true);
+        char[] row = new char[width];
+        for (int x = 0; x < width; x++) {
+            grid.put(x, 0, '#', GridRenderer.BLUE);
+            grid.put(x, height - 2, '#', GridRenderer.BLUE);
+        }
+        for (int y = 0; y < height - 1; y++) {
+            grid.put(0, y, '#', GridRenderer.BLUE);
+            grid.put(width - 1, y, '#', GridRenderer.BLUE);
+        }
+        int inner = (width - 2) * (height - 3);
+        for (int frame = 0; frame < frames; frame++) {
+            grid.put(cellX(frame, width), cellY(frame, width, height), '@',
+                     GridRenderer.GREEN | GridRenderer.BOLD);
+            if (frame > 0) {
+                int neck = frame - 1;
+                grid.put(cellX(neck, width), cellY(neck, width, height), 'o',
+                         GridRenderer.GREEN);
+            }
+            if (frame >= SNAKE_LENGTH) {
+                int tail = frame - SNAKE_LENGTH;
+                grid.put(cellX(tail, width), cellY(tail, width, height), ' ',
+                         GridRenderer.DEFAULT);
+            }
+            grid.print(0, height - 1, "Score: " + frame % inner,
+                       GridRenderer.DEFAULT);
+            if (diff) {
+                grid.render(out);
+            } else {
+                naive.print(HOME);
+                for (int y = 0; y < height; y++) {
+                    for (int x = 0; x < width; x++) {
+                        row[x] = grid.charAt(x, y);
+                    }
+                    naive.println(row);
+                }
+            }
+        }
+    }
+
+    /**
+     * Column of the snake's n-th step, sweeping the inner board by rows.
+     * @param step the step
+     * @param width columns, walls included
+     * @return the column
+     */
+    private static int cellX(final int step, final int width) {
+        return 1 + step % (width - 2);
+    }
+
+    /**
+     * Row of the snake's n-th step, sweeping the inner board by rows.
+     * @param step the step
+     * @param width columns, walls included
+     * @param height rows, walls and score line included
+     * @return the row
+     */
+    private static int cellY(final int step, final int width,
+                             final int height) {
+        return 1 + step / (width - 2) % (height - 3);
+    }
+
+    /**
+     * Output stream that counts and discards what it is given.
+     */
+    private static final class CountingOutput extends OutputStream {
+        /** Bytes received. */
+        private long bytes;
+        /** Writes received. */
+        private long writes;
+        /** Duration of the run. */
+        private long nanos;
+
+        @Override
+        public void write(final int b) {
+            bytes++;
+            writes++;
+        }
+
+        @Override
+        public void write(final byte[] b, final int off, final int len) {
+            bytes += len;
+            writes++;
+        }
+    }
+}
@@ -0,0 +1,216 @@
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.Scanner;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests for GridRenderer.
+ * @version 1
+ */
+public class GridRendererTest {
+    /** Grid columns used by the tests. */
+    private static final int WIDTH = 20;
+    /** Grid rows used by the tests. */
+    private static final int HEIGHT = 10;
+
+    /**
+     * The first frame clears the screen; an unchanged frame sends nothing.
+     * @throws IOException never
+     */
+    @Test
+    public void testUnchangedFrameIsEmpty() throws IOException {
+        GridRenderer grid = new GridRenderer(WIDTH, HEIGHT);
+        grid.print(0, 0, "Score: 0", GridRenderer.BOLD);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        int first = grid.render(out);
+        assertTrue(out.toString(StandardCharsets.UTF_8)
+                      .startsWith("\u001b[H\u001b[2J"));
+        assertEquals(first, out.size());
+        out.reset();
+        assertEquals(0, grid.render(out));
+        assertEquals(0, out.size());
+    }
+
+    /**
+     * A single changed cell is sent as one cursor move and its character.
+     * @throws IOException never
+     */
+    @Test
+    public void testOnlyChangedCellsSent() throws IOException {
+        GridRenderer grid = new GridRenderer(WIDTH, HEIGHT);
+        grid.render(new ByteArrayOutputStream());
+        grid.put(4, 2, '@', GridRenderer.DEFAULT);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        grid.render(out);
+        assertEquals("\u001b[3;5H\u001b[0m@\u001b[11;1H\u001b[J",
+                     out.toString(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * A frame reaches a GameIO in one write, after text printed before it.
+     */
+    @Test
+    public void testRenderToGameIO() {
+        CountingOutput out = new CountingOutput();
+        GameIO io = new GameIO(new Scanner(""), out, StandardCharsets.UTF_8);
+        GridRenderer grid = new GridRenderer(WIDTH, HEIGHT);
+        grid.render(io);
+        io.print("Move: ");
+        grid.put(0, 0, '#', GridRenderer.GREEN);
+        int writes = out.writes;
+        int sent = grid.render(io);
+        assertEquals(writes + 2, out.writes);
+        String text = out.toString(StandardCharsets.UTF_8);
+        assertTrue(text.endsWith("Move: \u001b[1;1H\u001b[0;32m#\u001b[m"
+                                 + "\u001b[11;1H\u001b[J"));
+        assertEquals(sent, text.length() - text.lastIndexOf("Move: ") - 6);
+    }
+
+    /**
+     * After any sequence of frames, replaying the output on a terminal
+     *   shows exactly the grid, with its attributes.
+     * @throws IOException never
+     */
+    @Test
+    public void testScreenMatchesGrid() throws IOException {
+        GridRenderer grid = new GridRenderer(WIDTH, HEIGHT);
+        Terminal terminal = new Terminal(WIDTH, HEIGHT + 1);
+        Random random = new Random(42);
+        char[] glyphs = {' ', '#', '@', 'o', '\u00b7', '\u2588'};
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        for (int frame = 0; frame < 200; frame++) {
+            int changes = random.nextInt(frame % 50 == 0 ? 200 : 12);
+            for (int i = 0; i < changes; i++) {
+                grid.put(random.nextInt(WIDTH), random.nextInt(HEIGHT),
+                         glyphs[random.nextInt(glyphs.length)],
+                         random.nextInt(GridRenderer.WHITE + 1)
+                         | (random.nextBoolean() ? GridRenderer.BOLD : 0));
+            }
+            if (frame == 120) {
+                grid.invalidate();
+            }
+            out.reset();
+            grid.render(out);
+            terminal.play(out.toString(StandardCharsets.UTF_8));
+            for (int y = 0; y < HEIGHT; y++) {
+                for (int x = 0; x < WIDTH; x++) {
+                    assertEquals(grid.charAt(x, y), terminal.chars[y][x],
+                                 "char at " + x + "," + y + " frame " + frame);
+                    assertEquals(grid.attrAt(x, y), terminal.attrs[y][x],
+                                 "attr at " + x + "," + y + " frame " + frame);
+                }
+            }
+        }
+    }
+
+    /**
+     * Minimal terminal understanding the sequences GridRenderer sends.
+     */
+    private static final class Terminal {
+        /** Characters on screen. */
+        private final char[][] chars;
+        /** Attributes on screen. */
+        private final int[][] attrs;
+        /** Cursor column. */
+        private int x;
+        /** Cursor row. */
+        private int y;
+        /** Attribute in effect. */
+        private int attr;
+
+        /**
+         * Creates a blank screen.
+         * @param width columns
+         * @param height rows
+         */
+        Terminal(final int width, final int height) {
+            chars = new char[height][width];
+            attrs = new int[height][width];
+            for (char[] row : chars) {
+                Arrays.fill(row, ' ');
+            }
+        }
+
+        /**
+         * Applies output to the screen.
+         * @param text the output
+         */
+        void play(final String text) {
+            int i = 0;
+            while (i < text.length()) {
+                char c = text.charAt(i++);
+                if (c != '\u001b') {
+                    if (y < chars.length && x < chars[y].length) {
+                        chars[y][x] = c;
+                        attrs[y][x] = attr;
+                    }
+                    x++;
+                    continue;
+                }
+                assertEquals('[', text.charAt(i++));
+                int start = i;
+                while (!Character.isLetter(text.charAt(i))) {
+                    i++;
+                }
+                String[] params = text.substring(start, i).split(";");
+                char command = text.charAt(i++);
+                if (command == 'H') {
+                    y = params[0].isEmpty()
+                        ? 0 : Integer.parseInt(params[0]) - 1;
+                    x = params.length < 2
+                        ? 0 : Integer.parseInt(params[1]) - 1;
+                } else if (command == 'J') {
+                    erase(params[0].equals("2"));
+                } else if (command == 'm') {
+                    attr = 0;
+                    for (String p : params) {
+                        int code = p.isEmpty() ? 0 : Integer.parseInt(p);
+                        if (code == 1) {
+                            attr |= GridRenderer.BOLD;
+                        } else if (code > 29 && code < 38) {
+                            attr |= code - 29;
+                        }
+                    }
+                } else {
+                    throw new AssertionError("unexpected command " + command);
+                }
+            }
+        }
+
+        /**
+         * Erases the whole screen or from the cursor to its end.
+         * @param all true to erase the whole screen
+         */
+        private void erase(final boolean all) {
+            for (int row = all ? 0 : y; row < chars.length; row++) {
+                int from = all || row > y ? 0 : x;
+                for (int col = from; col < chars[row].length; col++) {
+                    chars[row][col] = ' ';
+                    attrs[row][col] = 0;
+                }
+            }
+        }
+    }
+
+    /**
+     * Output stream counting the writes it receives.
+     */
+    private static final class CountingOutput extends ByteArrayOutputStream {
+        /** Number of writes received. */
+        private int writes;
+
+        @Override
+        public synchronized void write(final byte[] b, final int off,
+                                       final int len) {
+            writes++;
+            super.write(b, off, len);
+        }
+    }
+}
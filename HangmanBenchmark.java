@@ -0,0 +1,235 @@
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * Measures the Hangman index: pattern queries against a scan of the
+ *   words, and the evil game's split.
+ * <pre>
+ * Usage: java HangmanBenchmark [count | word list]
+ *   Defaults to 150000 random words of 3 to 12 letters drawn with
+ *   English letter frequencies; given a word list file, uses its words.
+ * For each length it reports the words, the index's size and build
+ *   time, and:
+ *   query   a board with two letters shown and three excluded (e.g.
+ *           _A__E_ without R, S, T), answered by HangmanIndex.matching
+ *           and by checking every word of the length as Strings
+ *   split   an evil game from every word of the length, guessing
+ *           letters from most to least common until the word is shown
+ *           or the guesses run out; the worst and mean split
+ * Each timing is the best of several runs after a warm-up.
+ * </pre>
+ * @version 1
+ */
+public final class HangmanBenchmark {
+    /** Random words when none are given. */
+    private static final int DEFAULT_COUNT = 150_000;
+    /** Shortest random word. */
+    private static final int MIN_LENGTH = 3;
+    /** Timed runs; the best is reported. */
+    private static final int RUNS = 5;
+    /** Letters from most to least common in English. */
+    private static final String ORDER = "ETAOINSRHLDCUMFPGWYBVKXJQZ";
+    /** English letter frequencies, per mille, A to Z. */
+    private static final int[] FREQUENCIES = {
+        82, 15, 28, 43, 127, 22, 20, 61, 70, 2, 8, 40, 24,
+        67, 75, 19, 1, 60, 63, 91, 28, 10, 24, 2, 20, 1};
+    /** Nanoseconds per millisecond. */
+    private static final double NANOS_PER_MILLI = 1e6;
+    /** Nanoseconds per microsecond. */
+    private static final double NANOS_PER_MICRO = 1e3;
+    /** Seed so every run sees the same words. */
+    private static final long SEED = 42L;
+    /** Sink for results, so the work is not optimised away. */
+    private static long sink;
+
+    /**
+     * Prevent instantiation.
+     */
+    private HangmanBenchmark() {
+        throw new UnsupportedOperationException("class cannot be instantiated");
+    }
+
+    /**
+     * Runs the benchmark.
+     * @param args the word count or a word list
+     * @throws IOException if the word list cannot be read
+     */
+    public static void main(final String[] args) throws IOException {
+        WordDictionary words;
+        if (args.length > 0 && Files.isRegularFile(Paths.get(args[0]))) {
+            words = WordDictionary.of(Files.readAllLines(Paths.get(args[0])));
+        } else {
+            words = randomWords(args.length > 0 ? Integer.parseInt(args[0])
+                                                : DEFAULT_COUNT);
+        }
+        System.out.printf("%,d words%n", words.size());
+        System.out.printf("%6s %7s %8s %9s %11s %11s %10s %10s%n", "length",
+                          "words", "index KB", "build ms", "query us",
+                          "scan us", "split max", "split avg");
+        for (int length = 1; length <= WordDictionary.MAX_LENGTH; length++) {
+            if (words.size(length) > 0) {
+                measure(words, length);
+            }
+        }
+    }
+
+    /**
+     * Measures the words of one length and prints a row.
+     * @param words the dictionary
+     * @param length the length
+     */
+    private static void measure(final WordDictionary words,
+                                final int length) {
+        long best = Long.MAX_VALUE;
+        HangmanIndex index = null;
+        for (int run = 0; run < RUNS; run++) {
+            long start = System.nanoTime();
+            index = new HangmanIndex(words, length);
+            best = Math.min(best, System.nanoTime() - start);
+        }
+        double buildMillis = best / NANOS_PER_MILLI;
+        List<String> list = new ArrayList<>();
+        for (int i = 0; i < index.size(); i++) {
+            list.add(index.word(i));
+        }
+
+        // A board from a word of the length: two letters shown, three
+        // common letters not in it excluded.
+        String secret = index.word(index.size() / 2);
+        int shown = 0;
+        for (int i = 0; i < ORDER.length() && Integer.bitCount(shown) < 2;
+             i++) {
+            if (secret.indexOf(ORDER.charAt(i)) >= 0) {
+                shown |= 1 << (ORDER.charAt(i) - 'A');
+            }
+        }
+        int excluded = 0;
+        for (int i = 0; i < ORDER.length() && Integer.bitCount(excluded) < 3;
+             i++) {
+            if (secret.indexOf(ORDER.charAt(i)) < 0) {
+                excluded |= 1 << (ORDER.charAt(i) - 'A');
+            }
+        }
+        StringBuilder board = new StringBuilder();
+        for (char c : secret.toCharArray()) {
+            board.append((shown & 1 << (c - 'A')) != 0 ? c
+                                                       : HangmanIndex.BLANK);
+        }
+        String pattern = board.toString();
+        HangmanIndex queried = index;
+        final int guessed = shown | excluded;
+        final int without = excluded;
+        double query = time(() -> {
+            sink += HangmanIndex.count(queried.matching(pattern, without));
+        });
+        double scan = time(() -> {
+            int n = 0;
+            for (String word : list) {
+                n += fits(word, pattern, guessed) ? 1 : 0;
+            }
+            sink += n;
+        });
+
+        double worst = 0;
+        double total = 0;
+        int splits = 0;
+        for (int run = 0; run < 2; run++) {
+            worst = 0;
+            total = 0;
+            splits = 0;
+            long[] set = index.all();
+            int hidden = length;
+            int wrong = 0;
+            for (int i = 0; i < ORDER.length() && hidden > 0
+                            && wrong < HangmanGame.MAX_TRIES; i++) {
+                long start = System.nanoTime();
+                int revealed = index.split(set, ORDER.charAt(i) - 'A');
+                double millis = (System.nanoTime() - start) / NANOS_PER_MILLI;
+                worst = Math.max(worst, millis);
+                total += millis;
+                splits++;
+                hidden -= Integer.bitCount(revealed);
+                wrong += revealed == 0 ? 1 : 0;
+            }
+        }
+        System.out.printf("%6d %7d %8d %9.1f %11.1f %11.1f %10.3f %10.3f%n",
+                          length, index.size(),
+                          (long) Long.BYTES * ((index.size() + 63) / 64)
+                              * 26 * (length + 1) / 1024,
+                          buildMillis, query, scan, worst, total / splits);
+    }
+
+    /**
+     * Times an operation, best of RUNS after a warm-up.
+     * @param operation the operation
+     * @return microseconds
+     */
+    private static double time(final Runnable operation) {
+        for (int i = 0; i < RUNS; i++) {
+            operation.run();
+        }
+        long best = Long.MAX_VALUE;
+        for (int run = 0; run < RUNS; run++) {
+            long start = System.nanoTime();
+            operation.run();
+            best = Math.min(best, System.nanoTime() - start);
+        }
+        return best / NANOS_PER_MICRO;
+    }
+
+    /**
+     * Whether a word fits a board, checked letter by letter.
+     * @param word the word
+     * @param board the board
+     * @param guessed the letters guessed
+     * @return true if it fits
+     */
+    private static boolean fits(final String word, final String board,
+                                final int guessed) {
+        for (int p = 0; p < word.length(); p++) {
+            char c = word.charAt(p);
+            boolean shown = (guessed & 1 << (c - 'A')) != 0;
+            if (shown ? board.charAt(p) != c
+                      : board.charAt(p) != HangmanIndex.BLANK) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Distinct random words of MIN_LENGTH to MAX_LENGTH letters, drawn
+     *   with English letter frequencies.
+     * @param count number of words
+     * @return the dictionary
+     */
+    private static WordDictionary randomWords(final int count) {
+        int total = 0;
+        for (int f : FREQUENCIES) {
+            total += f;
+        }
+        Random random = new Random(SEED);
+        Set<String> words = new HashSet<>();
+        char[] letters = new char[WordDictionary.MAX_LENGTH];
+        while (words.size() < count) {
+            int length = MIN_LENGTH + random.nextInt(
+                WordDictionary.MAX_LENGTH - MIN_LENGTH + 1);
+            for (int i = 0; i < length; i++) {
+                int r = random.nextInt(total);
+                int letter = 0;
+                while (r >= FREQUENCIES[letter]) {
+                    r -= FREQUENCIES[letter++];
+                }
+                letters[i] = (char) ('A' + letter);
+            }
+            words.add(new String(letters, 0, length));
+        }
+        return WordDictionary.of(words);
+    }
+}
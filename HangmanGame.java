@@ -1,4 +1,8 @@
+import java.util.Arrays;
+import java.util.NoSuchElementException;
 import java.util.Optional;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicReferenceArray;
 
 /**
  * A traditional Hangman game.
@@ -8,20 +12,190 @@ import java.util.Optional;
  * <pre>
  * Implements visual feedback (e.g., ASCII scaffold).
  * Handles duplicate guesses and win/loss conditions.
+ * The secret is a random word of MIN_LENGTH letters or more from a
+ *   WordDictionary (the standard one unless another is given).
+ * The score is the tries left when the word is found; running out of
+ *   tries scores 0, and quitting gives no score.
+ * In evil mode there is no secret: only its length is chosen, and after
+ *   each guess the game keeps whichever words of that length show the
+ *   letter in the most common way (HangmanIndex.split), so it answers
+ *   "No" whenever most of the words still possible lack the letter. The
+ *   word shown at the end is one of those left. The indexes are kept
+ *   for later games and shared by a server's sessions.
  * </pre>
- * @version 1
+ * @version 4
  */
 class HangmanGame implements Game {
+    /** Shortest secret word. */
+    static final int MIN_LENGTH = 5;
+    /** Wrong guesses allowed. */
+    static final int MAX_TRIES = 6;
+    /** The scaffold after each number of wrong guesses. */
+    private static final String[] SCAFFOLD = {
+        "  +---+\n      |\n      |\n      |\n    ===",
+        "  +---+\n  O   |\n      |\n      |\n    ===",
+        "  +---+\n  O   |\n  |   |\n      |\n    ===",
+        "  +---+\n  O   |\n /|   |\n      |\n    ===",
+        "  +---+\n  O   |\n /|\\  |\n      |\n    ===",
+        "  +---+\n  O   |\n /|\\  |\n /    |\n    ===",
+        "  +---+\n  O   |\n /|\\  |\n / \\  |\n    ==="};
+
+    /** Words the secret comes from. */
+    private final WordDictionary words;
+    /** Chooses the secret. */
+    private final Random random;
+    /** Whether the game dodges the player's guesses. */
+    private final boolean evil;
+    /** Index of the words of each length, made on first use. */
+    private final AtomicReferenceArray<HangmanIndex> indexes =
+        new AtomicReferenceArray<>(WordDictionary.MAX_LENGTH + 1);
+
+    /**
+     * Creates the game on the standard dictionary.
+     */
+    HangmanGame() {
+        this(WordDictionary.standard(), new Random());
+    }
+
+    /**
+     * Creates the game on a given dictionary.
+     * @param dictionary words the secret comes from
+     * @param secrets chooses the secret
+     */
+    HangmanGame(final WordDictionary dictionary, final Random secrets) {
+        this(dictionary, secrets, false);
+    }
+
+    /**
+     * Creates the game on a given dictionary, fair or evil.
+     * @param dictionary words the secret comes from
+     * @param secrets chooses the secret, or in evil mode its length
+     * @param adversarial true for evil mode
+     */
+    HangmanGame(final WordDictionary dictionary, final Random secrets,
+                final boolean adversarial) {
+        this.words = dictionary;
+        this.random = secrets;
+        this.evil = adversarial;
+    }
+
+    /**
+     * Creates evil Hangman on the standard dictionary.
+     * @return the game
+     */
+    static HangmanGame evil() {
+        return new HangmanGame(WordDictionary.standard(), new Random(), true);
+    }
+
     @Override
     public String getName() {
-        return "Hangman";
+        return evil ? "Evil Hangman" : "Hangman";
     }
 
     @Override
-    public Optional<Integer> play() {
-      System.out.println("Welcome to Hangman!");
-      System.out.println("Guess the hidden word one letter at a time.");
-      System.out.println("Each wrong guess reduces your number of tries.");
-      return Optional.empty();
+    public Optional<Integer> play(final GameIO io) {
+        io.println("Welcome to " + getName() + "!");
+        io.println("Guess the hidden word one letter at a time.");
+        io.println("Each wrong guess reduces your number of tries.");
+        String secret = words.random(random, MIN_LENGTH,
+                                     WordDictionary.MAX_LENGTH);
+        if (secret == null) {
+            io.println("There are no words to play with.");
+            return Optional.empty();
+        }
+        HangmanIndex index = null;
+        long[] possible = null;
+        if (evil) {
+            index = index(secret.length());
+            possible = index.all();
+        }
+        char[] board = new char[secret.length()];
+        Arrays.fill(board, HangmanIndex.BLANK);
+        int guessed = 0;
+        int wrong = 0;
+        while (wrong < MAX_TRIES) {
+            io.println(SCAFFOLD[wrong].replace("\n", System.lineSeparator()));
+            if (new String(board).indexOf(HangmanIndex.BLANK) < 0) {
+                io.println("You found " + new String(board) + "!");
+                return Optional.of(MAX_TRIES - wrong);
+            }
+            io.println(spaced(board) + "   tries left: "
+                       + (MAX_TRIES - wrong));
+            String line;
+            try {
+                line = io.prompt("Guess a letter: ").trim().toUpperCase();
+            } catch (NoSuchElementException e) {
+                return Optional.empty();
+            }
+            if (line.length() != 1 || line.charAt(0) < 'A'
+                || line.charAt(0) > 'Z') {
+                io.println("Please enter a single letter.");
+                continue;
+            }
+            int bit = 1 << (line.charAt(0) - 'A');
+            if ((guessed & bit) != 0) {
+                io.println("You already guessed " + line + ".");
+                continue;
+            }
+            guessed |= bit;
+            char letter = line.charAt(0);
+            int revealed = 0;
+            if (evil) {
+                revealed = index.split(possible, letter - 'A');
+            } else {
+                for (int i = 0; i < secret.length(); i++) {
+                    if (secret.charAt(i) == letter) {
+                        revealed |= 1 << i;
+                    }
+                }
+            }
+            if (revealed == 0) {
+                io.println("No " + line + ".");
+                wrong++;
+            }
+            for (int i = 0; i < board.length; i++) {
+                if ((revealed & 1 << i) != 0) {
+                    board[i] = letter;
+                }
+            }
+        }
+        if (evil) {
+            secret = index.word(HangmanIndex.first(possible));
+        }
+        io.println(SCAFFOLD[wrong].replace("\n", System.lineSeparator()));
+        io.println("Out of tries. The word was " + secret + ".");
+        return Optional.of(0);
+    }
+
+    /**
+     * The index of the words of a length, made on first use.
+     * @param length the length
+     * @return the index
+     */
+    private HangmanIndex index(final int length) {
+        HangmanIndex index = indexes.get(length);
+        if (index == null) {
+            // Sessions racing here may each build one; the first is kept.
+            indexes.compareAndSet(length, null,
+                                  new HangmanIndex(words, length));
+            index = indexes.get(length);
+        }
+        return index;
+    }
+
+    /**
+     * The board with its letters spaced out.
+     * @param board a letter or HangmanIndex.BLANK per position
+     * @return the board as shown
+     */
+    private static String spaced(final char[] board) {
+        StringBuilder shown = new StringBuilder();
+        for (int i = 0; i < board.length; i++) {
+            if (i > 0) {
+                shown.append(' ');
+            }
+            shown.append(board[i]);
+        }
+        return shown.toString();
     }
 }
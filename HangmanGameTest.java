@@ -0,0 +1,96 @@
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Optional;
+import java.util.Random;
+import java.util.Scanner;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests for HangmanGame, played through a GameIO.
+ * @version 1
+ */
+public class HangmanGameTest {
+    /** A dictionary of one word long enough to play. */
+    private static final WordDictionary WORDS =
+        WordDictionary.of(List.of("CASTLE", "CAT"));
+
+    /**
+     * Plays a game on scripted input.
+     * @param input the player's lines
+     * @param out where the output goes
+     * @return the score
+     */
+    private static Optional<Integer> play(final String input,
+                                          final ByteArrayOutputStream out) {
+        GameIO io = new GameIO(new Scanner(input), out,
+                               StandardCharsets.UTF_8);
+        Optional<Integer> score =
+            new HangmanGame(WORDS, new Random(1)).play(io);
+        io.flush();
+        return score;
+    }
+
+    /**
+     * Finding the word scores the tries left; repeats and bad input cost
+     *   nothing.
+     */
+    @Test
+    public void testWin() {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        assertEquals(Optional.of(5),
+                     play("c\nc\nxy\nz\na\ns\nt\nl\ne\n", out));
+        String text = out.toString(StandardCharsets.UTF_8);
+        assertTrue(text.contains("_ _ _ _ _ _"));
+        assertTrue(text.contains("C A _ _ _ _"));
+        assertTrue(text.contains("You already guessed C."));
+        assertTrue(text.contains("Please enter a single letter."));
+        assertTrue(text.contains("No Z."));
+        assertTrue(text.contains("You found CASTLE!"));
+    }
+
+    /**
+     * Six wrong guesses lose, scoring 0; running out of input quits.
+     */
+    @Test
+    public void testLoseAndQuit() {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        assertEquals(Optional.of(0), play("b\nd\nf\ng\nh\ni\n", out));
+        assertTrue(out.toString(StandardCharsets.UTF_8)
+                       .contains("The word was CASTLE."));
+        assertEquals(Optional.empty(),
+                     play("c\n", new ByteArrayOutputStream()));
+    }
+
+    /**
+     * Evil mode answers No while most words lack the letter, keeps
+     *   words consistent with the board, and names one at the end.
+     */
+    @Test
+    public void testEvil() {
+        WordDictionary words = WordDictionary.of(List.of(
+            "BAKER", "CAKES", "LAKES", "MAKER", "TAKEN", "WOMEN", "GHOST"));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        GameIO io = new GameIO(new Scanner("o\nk\ns\nr\nb\nt\nx\ny\n"),
+                               out, StandardCharsets.UTF_8);
+        HangmanGame game = new HangmanGame(words, new Random(1), true);
+        assertEquals("Evil Hangman", game.getName());
+        Optional<Integer> score = game.play(io);
+        io.flush();
+        String text = out.toString(StandardCharsets.UTF_8);
+        // O splits {WOMEN, GHOST} from the five _AKE_ words, which win.
+        assertTrue(text.contains("No O."));
+        assertTrue(text.contains("_ _ K _ _"));
+        assertTrue(text.contains("No S."));
+        assertTrue(text.contains("_ _ K _ R"));
+        // BAKER and MAKER tie on B; the one that shows no B is kept.
+        assertTrue(text.contains("No B."));
+        assertTrue(text.contains("No Y."));
+        assertTrue(text.contains("The word was MAKER."));
+        assertEquals(Optional.of(0), score);
+    }
+}
@@ -0,0 +1,301 @@
+import java.util.Arrays;
+
+/**
+ * The words of one length, indexed by the letter at each position, so
+ *   Hangman's questions are answered with bit set operations.
+ * <pre>
+ * A set of words is a long[] bit set over the words of the length, in
+ *   dictionary order. The index holds one set per position and letter
+ *   (the words with that letter there) and one per letter (the words
+ *   with it anywhere), so for n words of length L it is 26 (L + 1) n / 8
+ *   bytes, built in one pass.
+ * matching answers "which words fit _A__E_ and have none of R, S, T"
+ *   64 words at a time: AND the sets of the shown letters, AND NOT the
+ *   sets of the excluded letters. As in Hangman, a blank cannot be a
+ *   letter shown elsewhere, since guessing a letter shows every copy.
+ * split is the step of the adversarial (evil) game: given the words
+ *   still possible and a guessed letter, it sorts them into classes by
+ *   where the letter appears (its reveal pattern, a bit per position)
+ *   and keeps the largest. The classes are the leaves of a walk down
+ *   the positions, each step dividing a set by "has the letter here"
+ *   with one AND and one AND NOT. The larger branch is followed first,
+ *   and a branch smaller than the largest class found so far is not
+ *   followed at all, so the work is a few sets per position rather
+ *   than a pass over every word and letter. On ties it keeps the class
+ *   that shows fewer letters, then the lower pattern.
+ * An index is not changed after it is made, so threads may share it;
+ *   each split keeps its walk in a Walk of its own.
+ * </pre>
+ * @version 2
+ */
+final class HangmanIndex {
+    /** Letters in the alphabet. */
+    private static final int LETTERS = 26;
+    /** Words per long. */
+    private static final int LANES = Long.SIZE;
+    /** A blank in a pattern. */
+    static final char BLANK = '_';
+
+    /** The dictionary. */
+    private final WordDictionary words;
+    /** Letters in a word. */
+    private final int length;
+    /** Number of words. */
+    private final int size;
+    /** Longs per set. */
+    private final int stride;
+    /** Words with each letter at each position: (p * 26 + letter). */
+    private final long[] at;
+    /** Words with each letter anywhere. */
+    private final long[] anywhere;
+
+    /**
+     * Indexes the words of a length.
+     * @param dictionary the words
+     * @param wordLength the length, 1 to WordDictionary.MAX_LENGTH
+     */
+    HangmanIndex(final WordDictionary dictionary, final int wordLength) {
+        this.words = dictionary;
+        this.length = wordLength;
+        this.size = dictionary.size(wordLength);
+        this.stride = (size + LANES - 1) / LANES;
+        this.at = new long[wordLength * LETTERS * stride];
+        this.anywhere = new long[LETTERS * stride];
+        for (int i = 0; i < size; i++) {
+            long packed = dictionary.packed(wordLength, i);
+            int word = i / LANES;
+            long bit = 1L << i;
+            for (int p = 0; p < wordLength; p++) {
+                int letter = WordDictionary.letter(packed, wordLength, p);
+                at[(p * LETTERS + letter) * stride + word] |= bit;
+                anywhere[letter * stride + word] |= bit;
+            }
+        }
+    }
+
+    /**
+     * Letters in the indexed words.
+     * @return the length
+     */
+    int length() {
+        return length;
+    }
+
+    /**
+     * Number of indexed words.
+     * @return the word count
+     */
+    int size() {
+        return size;
+    }
+
+    /**
+     * A word.
+     * @param i its index, 0 to size() - 1
+     * @return the word in upper case
+     */
+    String word(final int i) {
+        return words.word(length, i);
+    }
+
+    /**
+     * The set of every word.
+     * @return a new set
+     */
+    long[] all() {
+        long[] set = new long[stride];
+        Arrays.fill(set, -1L);
+        if (size % LANES != 0) {
+            set[stride - 1] = (1L << size) - 1;
+        }
+        return set;
+    }
+
+    /**
+     * The words that fit a Hangman board.
+     * @param pattern the board: a letter A to Z or BLANK per position
+     * @param excluded letters not in the word, bit 0 for A
+     * @return a new set
+     * @throws IllegalArgumentException if the pattern is not of the
+     *         length or has other characters
+     */
+    long[] matching(final CharSequence pattern, final int excluded) {
+        if (pattern.length() != length) {
+            throw new IllegalArgumentException("Pattern " + pattern
+                                               + " is not " + length
+                                               + " letters");
+        }
+        int shown = 0;
+        for (int p = 0; p < length; p++) {
+            char c = pattern.charAt(p);
+            if (c != BLANK) {
+                if (c < 'A' || c > 'Z') {
+                    throw new IllegalArgumentException("Not a pattern: "
+                                                       + pattern);
+                }
+                shown |= 1 << (c - 'A');
+            }
+        }
+        long[] set = all();
+        for (int p = 0; p < length; p++) {
+            char c = pattern.charAt(p);
+            if (c != BLANK) {
+                and(set, at, (p * LETTERS + c - 'A') * stride);
+            } else {
+                for (int rest = shown; rest != 0; rest &= rest - 1) {
+                    andNot(set, at, (p * LETTERS
+                                     + Integer.numberOfTrailingZeros(rest))
+                                    * stride);
+                }
+            }
+        }
+        for (int rest = excluded & ~shown; rest != 0; rest &= rest - 1) {
+            andNot(set, anywhere,
+                   Integer.numberOfTrailingZeros(rest) * stride);
+        }
+        return set;
+    }
+
+    /**
+     * Keeps the largest class of words by where a letter appears in them.
+     * @param set the words still possible; left holding the class kept
+     * @param letter the letter guessed, 0 for A
+     * @return the class's reveal pattern: bit p set if the letter is at
+     *         position p, 0 if the words do not have it
+     */
+    int split(final long[] set, final int letter) {
+        Walk walk = new Walk(length + 1, stride);
+        System.arraycopy(set, 0, walk.sets[0], 0, stride);
+        visit(walk, letter, 0, 0, count(set));
+        // Rebuild the class kept from its pattern.
+        for (int p = 0; p < length; p++) {
+            int offset = (p * LETTERS + letter) * stride;
+            if ((walk.bestPattern & 1 << p) != 0) {
+                and(set, at, offset);
+            } else {
+                andNot(set, at, offset);
+            }
+        }
+        return walk.bestPattern;
+    }
+
+    /**
+     * Follows the walk down from one position.
+     * @param walk the split's walk
+     * @param letter the letter guessed
+     * @param p the position to divide on
+     * @param pattern positions so far that have the letter
+     * @param n words in walk.sets[p]
+     */
+    private void visit(final Walk walk, final int letter, final int p,
+                       final int pattern, final int n) {
+        if (p == length) {
+            int shown = Integer.bitCount(pattern);
+            if (n > walk.bestSize || n == walk.bestSize
+                && (shown < walk.bestShown
+                    || shown == walk.bestShown && pattern < walk.bestPattern)) {
+                walk.bestSize = n;
+                walk.bestShown = shown;
+                walk.bestPattern = pattern;
+            }
+            return;
+        }
+        long[] from = walk.sets[p];
+        long[] to = walk.sets[p + 1];
+        int offset = (p * LETTERS + letter) * stride;
+        int with = 0;
+        for (int w = 0; w < stride; w++) {
+            with += Long.bitCount(from[w] & at[offset + w]);
+        }
+        // Larger branch first; a branch smaller than the best class found
+        // cannot hold a larger one.
+        boolean withFirst = with > n - with;
+        for (int branch = 0; branch < 2; branch++) {
+            boolean has = withFirst == (branch == 0);
+            int m = has ? with : n - with;
+            if (m == 0 || m < walk.bestSize) {
+                continue;
+            }
+            for (int w = 0; w < stride; w++) {
+                to[w] = has ? from[w] & at[offset + w]
+                            : from[w] & ~at[offset + w];
+            }
+            visit(walk, letter, p + 1, has ? pattern | 1 << p : pattern, m);
+        }
+    }
+
+    /**
+     * Number of words in a set.
+     * @param set the set
+     * @return the count
+     */
+    static int count(final long[] set) {
+        int n = 0;
+        for (long word : set) {
+            n += Long.bitCount(word);
+        }
+        return n;
+    }
+
+    /**
+     * The first word of a set.
+     * @param set the set
+     * @return its index, or -1 if the set is empty
+     */
+    static int first(final long[] set) {
+        for (int w = 0; w < set.length; w++) {
+            if (set[w] != 0) {
+                return w * LANES + Long.numberOfTrailingZeros(set[w]);
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * ANDs a set with one of the index's.
+     * @param set the set, changed
+     * @param sets the index's sets
+     * @param offset where the one wanted starts
+     */
+    private void and(final long[] set, final long[] sets, final int offset) {
+        for (int w = 0; w < stride; w++) {
+            set[w] &= sets[offset + w];
+        }
+    }
+
+    /**
+     * ANDs a set with the complement of one of the index's.
+     * @param set the set, changed
+     * @param sets the index's sets
+     * @param offset where the one wanted starts
+     */
+    private void andNot(final long[] set, final long[] sets,
+                        final int offset) {
+        for (int w = 0; w < stride; w++) {
+            set[w] &= ~sets[offset + w];
+        }
+    }
+
+    /**
+     * The state of one split.
+     */
+    private static final class Walk {
+        /** Sets of the walk, one per depth. */
+        private final long[][] sets;
+        /** Size of the best class found. */
+        private int bestSize = -1;
+        /** Letters the best class shows. */
+        private int bestShown;
+        /** Reveal pattern of the best class. */
+        private int bestPattern;
+
+        /**
+         * Creates the state of a split.
+         * @param depths positions plus one
+         * @param stride longs per set
+         */
+        Walk(final int depths, final int stride) {
+            this.sets = new long[depths][stride];
+        }
+    }
+}
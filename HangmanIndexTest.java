@@ -0,0 +1,250 @@
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Tests for HangmanIndex.
+ * @version 2
+ */
+public class HangmanIndexTest {
+    /** Words of several lengths. */
+    private static final WordDictionary WORDS = WordDictionary.of(List.of(
+        "PARENT", "CAMERA", "BASKET", "MARKET", "GARDEN", "CASTLE",
+        "TABLES", "LADDER", "HAMMER", "BANNER", "APPLE", "CAT"));
+
+    /**
+     * Matching words fit the shown letters, lack the excluded ones, and
+     *   show every copy of a shown letter.
+     */
+    @Test
+    public void testMatching() {
+        HangmanIndex index = new HangmanIndex(WORDS, 6);
+        assertEquals(10, index.size());
+        assertEquals(10, HangmanIndex.count(index.all()));
+        assertEquals(Set.of("PARENT", "BASKET", "MARKET", "GARDEN",
+                            "CASTLE", "TABLES", "LADDER", "HAMMER",
+                            "BANNER"),
+                     words(index, index.matching("_A____", 0)));
+        assertEquals(Set.of("BASKET", "MARKET", "GARDEN", "TABLES",
+                            "LADDER", "HAMMER", "BANNER"),
+                     words(index, index.matching("_A__E_", 0)));
+        assertEquals(Set.of("GARDEN", "LADDER", "HAMMER", "BANNER"),
+                     words(index, index.matching("_A__E_", letters("ST"))));
+        assertEquals(Set.of(), words(index, index.matching("_A__E_",
+                                                           letters("RST"))));
+        assertEquals(Set.of("BANNER", "HAMMER"),
+                     words(index, index.matching("_A__ER", letters("DS"))));
+        // CAMERA is not _AMER_: the last A would be shown too.
+        assertEquals(Set.of(), words(index, index.matching("_AMER_", 0)));
+        assertThrows(IllegalArgumentException.class,
+                     () -> index.matching("_A_", 0));
+        assertThrows(IllegalArgumentException.class,
+                     () -> index.matching("_a__e_", 0));
+    }
+
+    /**
+     * Matching agrees with checking every word, on a random dictionary.
+     */
+    @Test
+    public void testMatchingAgreesWithScan() {
+        Random random = new Random(8);
+        WordDictionary words = randomWords(random, 3000, 7);
+        HangmanIndex index = new HangmanIndex(words, 7);
+        for (int trial = 0; trial < 200; trial++) {
+            String secret = index.word(random.nextInt(index.size()));
+            int guessed = random.nextInt(1 << 26) & random.nextInt(1 << 26);
+            StringBuilder board = new StringBuilder();
+            int excluded = guessed;
+            for (char c : secret.toCharArray()) {
+                boolean shown = (guessed & 1 << (c - 'A')) != 0;
+                board.append(shown ? c : HangmanIndex.BLANK);
+                excluded &= ~(1 << (c - 'A'));
+            }
+            Set<String> expected = new HashSet<>();
+            for (int i = 0; i < index.size(); i++) {
+                if (fits(index.word(i), board.toString(), guessed)) {
+                    expected.add(index.word(i));
+                }
+            }
+            assertEquals(expected,
+                         words(index, index.matching(board, excluded)));
+        }
+    }
+
+    /**
+     * Split keeps the largest class by reveal pattern, found by grouping
+     *   every word, and follows it game after game.
+     */
+    @Test
+    public void testSplitKeepsLargestClass() {
+        Random random = new Random(9);
+        WordDictionary words = randomWords(random, 5000, 6);
+        HangmanIndex index = new HangmanIndex(words, 6);
+        long[] set = index.all();
+        List<String> left = new ArrayList<>(words(index, set));
+        for (char letter : "EAIOTNRS".toCharArray()) {
+            Map<Integer, List<String>> classes = new HashMap<>();
+            for (String word : left) {
+                int pattern = 0;
+                for (int p = 0; p < word.length(); p++) {
+                    if (word.charAt(p) == letter) {
+                        pattern |= 1 << p;
+                    }
+                }
+                classes.computeIfAbsent(pattern, k -> new ArrayList<>())
+                       .add(word);
+            }
+            int largest = 0;
+            for (List<String> c : classes.values()) {
+                largest = Math.max(largest, c.size());
+            }
+            int pattern = index.split(set, letter - 'A');
+            assertEquals(largest, classes.get(pattern).size());
+            assertEquals(new HashSet<>(classes.get(pattern)),
+                         words(index, set));
+            left = classes.get(pattern);
+        }
+    }
+
+    /**
+     * Ties go to the class that shows fewer letters, then to the lower
+     *   pattern.
+     */
+    @Test
+    public void testSplitTies() {
+        HangmanIndex index = new HangmanIndex(WordDictionary.of(
+            List.of("ABC", "BAC", "XYZ")), 3);
+        long[] set = index.all();
+        assertEquals(0, index.split(set, 'A' - 'A'));
+        assertEquals(Set.of("XYZ"), words(index, set));
+        set = index.all();
+        assertEquals(0, index.split(set, 'X' - 'A'));
+        assertEquals(Set.of("ABC", "BAC"), words(index, set));
+        assertEquals(0, HangmanIndex.first(set));
+        assertEquals(1, index.split(set, 'A' - 'A'));
+        assertEquals(Set.of("ABC"), words(index, set));
+        assertEquals(-1, HangmanIndex.first(new long[1]));
+    }
+
+    /**
+     * Threads splitting on one index get the splits one thread gets.
+     * @throws Exception if a thread fails
+     */
+    @Test
+    public void testConcurrentSplits() throws Exception {
+        WordDictionary words = randomWords(new Random(11), 5000, 7);
+        HangmanIndex index = new HangmanIndex(words, 7);
+        String letters = "EAIOTNRSLC";
+        List<Integer> expected = new ArrayList<>();
+        long[] set = index.all();
+        for (char letter : letters.toCharArray()) {
+            expected.add(index.split(set, letter - 'A'));
+        }
+        ExecutorService pool = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<List<Integer>>> runs = new ArrayList<>();
+            for (int t = 0; t < 8; t++) {
+                runs.add(pool.submit(() -> {
+                    List<Integer> patterns = new ArrayList<>();
+                    for (int game = 0; game < 20; game++) {
+                        long[] mine = index.all();
+                        patterns.clear();
+                        for (char letter : letters.toCharArray()) {
+                            patterns.add(index.split(mine, letter - 'A'));
+                        }
+                    }
+                    return patterns;
+                }));
+            }
+            for (Future<List<Integer>> run : runs) {
+                assertEquals(expected, run.get());
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    /**
+     * Whether a word fits a board, checked letter by letter.
+     * @param word the word
+     * @param board the board
+     * @param guessed the letters guessed
+     * @return true if it fits
+     */
+    private static boolean fits(final String word, final String board,
+                                final int guessed) {
+        for (int p = 0; p < word.length(); p++) {
+            char c = word.charAt(p);
+            boolean shown = (guessed & 1 << (c - 'A')) != 0;
+            if (shown ? board.charAt(p) != c
+                      : board.charAt(p) != HangmanIndex.BLANK) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * The words of a set.
+     * @param index the index
+     * @param set the set
+     * @return its words
+     */
+    private static Set<String> words(final HangmanIndex index,
+                                     final long[] set) {
+        Set<String> words = new HashSet<>();
+        for (int i = 0; i < index.size(); i++) {
+            if ((set[i / 64] & 1L << i) != 0) {
+                words.add(index.word(i));
+            }
+        }
+        return words;
+    }
+
+    /**
+     * A bit set of letters.
+     * @param letters the letters
+     * @return bit 0 for A
+     */
+    private static int letters(final String letters) {
+        int set = 0;
+        for (char c : letters.toCharArray()) {
+            set |= 1 << (c - 'A');
+        }
+        return set;
+    }
+
+    /**
+     * A dictionary of random words over common letters.
+     * @param random the generator
+     * @param count words to draw
+     * @param length their length
+     * @return the dictionary
+     */
+    private static WordDictionary randomWords(final Random random,
+                                              final int count,
+                                              final int length) {
+        String common = "EAIOTNRSLCDH";
+        Set<String> words = new HashSet<>();
+        char[] letters = new char[length];
+        while (words.size() < count) {
+            for (int i = 0; i < length; i++) {
+                letters[i] = common.charAt(random.nextInt(common.length()));
+            }
+            words.add(new String(letters));
+        }
+        return WordDictionary.of(words);
+    }
+}
@@ -0,0 +1,175 @@
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Measures how GameHistoryTracker.recordPlay throughput scales with the
+ *   number of threads recording at once.
+ * <pre>
+ * Usage: java HistoryConcurrencyBenchmark [plays-per-thread]
+ *   Defaults to 2000000 plays per thread.
+ * Thread counts run from 1 up to the number of cores, doubling.
+ * For each count two trackers are measured:
+ *   memory  a tracker that is not logging, so only the striped counters
+ *           are exercised
+ *   logged  a tracker loaded from a temporary file, so every play is also
+ *           appended to the write-ahead log, whose buffer is shared
+ * While the writers run, a reader thread repeatedly totals the history
+ *   (as displayHistory does) and a saver thread repeatedly saves it; the
+ *   number of each completed is reported beside the throughput.
+ * </pre>
+ * @version 1
+ */
+public final class HistoryConcurrencyBenchmark {
+    /** Plays recorded by each thread when no count is given. */
+    private static final int DEFAULT_PLAYS = 2_000_000;
+    /** Number of distinct games the plays are spread over. */
+    private static final int GAMES = 8;
+    /** Scores are derived from the play number below this bound. */
+    private static final int SCORE_BOUND = 1000;
+    /** Nanoseconds per second. */
+    private static final double NANOS_PER_SECOND = 1e9;
+    /** Plays per million. */
+    private static final double MILLION = 1e6;
+
+    /**
+     * Prevent instantiation.
+     */
+    private HistoryConcurrencyBenchmark() {
+        throw new UnsupportedOperationException("class cannot be instantiated");
+    }
+
+    /**
+     * Runs the benchmark.
+     * @param args optional number of plays per thread
+     * @throws IOException if the temporary history cannot be used
+     * @throws InterruptedException if interrupted while waiting
+     */
+    public static void main(final String[] args)
+            throws IOException, InterruptedException {
+        int plays = args.length > 0 ? Integer.parseInt(args[0])
+                                    : DEFAULT_PLAYS;
+        int cores = Runtime.getRuntime().availableProcessors();
+        System.out.printf("%d cores, %d stripes, %d plays per thread%n",
+                          cores, GameHistoryTracker.STRIPES, plays);
+        System.out.printf("%-8s %8s %14s %10s %10s%n",
+                          "tracker", "threads", "Mplays/s", "totals",
+                          "saves");
+        for (int threads = 1; threads <= cores; threads *= 2) {
+            measure("memory", threads, plays, false);
+        }
+        for (int threads = 1; threads <= cores; threads *= 2) {
+            measure("logged", threads, plays, true);
+        }
+    }
+
+    /**
+     * Measures one tracker at one thread count and prints a result row.
+     * @param label name of the tracker kind
+     * @param threads number of recording threads
+     * @param plays plays recorded by each thread
+     * @param logged true to record through a write-ahead log
+     * @throws IOException if the temporary history cannot be used
+     * @throws InterruptedException if interrupted while waiting
+     */
+    private static void measure(final String label,
+                                final int threads,
+                                final int plays,
+                                final boolean logged)
+            throws IOException, InterruptedException {
+        Path dir = Files.createTempDirectory("history");
+        String file = dir.resolve("history.dat").toString();
+        PrintStream err = System.err;
+        GameHistoryTracker tracker;
+        System.setErr(new PrintStream(OutputStream.nullOutputStream()));
+        try {
+            tracker = logged ? GameHistoryTracker.loadHistory(file)
+                             : new GameHistoryTracker();
+        } finally {
+            System.setErr(err);
+        }
+        tracker.setRetainScores(false);
+        String[] games = new String[GAMES];
+        for (int g = 0; g < GAMES; g++) {
+            games[g] = "Game " + g;
+        }
+        CountDownLatch start = new CountDownLatch(1);
+        Thread[] writers = new Thread[threads];
+        for (int t = 0; t < threads; t++) {
+            final int offset = t;
+            writers[t] = new Thread(() -> {
+                awaitQuietly(start);
+                for (int i = 0; i < plays; i++) {
+                    tracker.recordPlay(games[(i + offset) % GAMES],
+                                       i % SCORE_BOUND);
+                }
+            });
+            writers[t].start();
+        }
+        AtomicBoolean running = new AtomicBoolean(true);
+        long[] totals = new long[1];
+        Thread reader = new Thread(() -> {
+            while (running.get()) {
+                tracker.getTimesPlayed(games[0]);
+                totals[0]++;
+            }
+        });
+        long[] saves = new long[1];
+        Thread saver = new Thread(() -> {
+            while (running.get()) {
+                try {
+                    tracker.saveHistory(file);
+                } catch (IOException e) {
+                    throw new IllegalStateException(e);
+                }
+                saves[0]++;
+            }
+        });
+        long begin = System.nanoTime();
+        start.countDown();
+        reader.start();
+        saver.start();
+        for (Thread writer : writers) {
+            writer.join();
+        }
+        long elapsed = System.nanoTime() - begin;
+        running.set(false);
+        reader.join();
+        saver.join();
+        tracker.saveHistory(file);
+        long expected = (long) threads * plays;
+        long recorded = 0;
+        for (String game : games) {
+            recorded += tracker.getTimesPlayed(game);
+        }
+        if (recorded != expected) {
+            throw new IllegalStateException("Lost plays: recorded "
+                                             + recorded + " of " + expected);
+        }
+        System.out.printf("%-8s %8d %14.2f %10d %10d%n",
+                          label, threads,
+                          expected / (elapsed / NANOS_PER_SECOND) / MILLION,
+                          totals[0], saves[0]);
+        HistoryFile.deleteSnapshots(Path.of(file), -1);
+        for (Path path : new Path[] {
+                Path.of(file), GameHistoryTracker.logPathFor(file), dir}) {
+            Files.deleteIfExists(path);
+        }
+    }
+
+    /**
+     * Waits for a latch, restoring the interrupt flag if interrupted.
+     * @param latch the latch
+     */
+    private static void awaitQuietly(final CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,438 @@
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Versioned binary snapshot of a {@link GameHistoryTracker}.
+ * <pre>
+ * File layout (big-endian):
+ *   header (32 bytes)
+ *     int   magic "CGHF"
+ *     short version
+ *     short flags            bit 0: only summaries were kept
+ *     long  log generation   last HistoryLog generation folded in
+ *     int   game count
+ *     int   index length in bytes
+ *     long  reserved (0)
+ *   index, one entry per game
+ *     short name length, UTF-8 name
+ *     int   times played
+ *     long  score total
+ *     summary                (see ScoreSummary.writeTo)
+ *     best scores            (see Leaderboard.writeTop)
+ *     long  offset of the game's score column from the start of the file
+ *     int   number of scores in the column
+ *     long  offset of the game's rank table from the start of the file
+ *     int   number of distinct scores in the rank table
+ *     long  offset of the game's timeline from the start of the file
+ *     int   number of days in the timeline
+ *   padding to a multiple of 4 bytes
+ *   score columns, one per game in index order, each a packed int array
+ *   rank tables, one per game in index order (see Leaderboard.writeTable)
+ *   timelines, one per game in index order (see PlayTimeline.writeTo)
+ *
+ * The file is read through a MappedByteBuffer (so it is limited to 2 GB).
+ *   Opening it parses only the header and index, which is enough to
+ *   display the history; each score column is a view of the mapping whose
+ *   pages are read from disk when its scores are first used.
+ *
+ * Version 1 files lack the best scores and rank tables; reading one
+ *   builds each game's leaderboard from its score column.
+ * Versions 1 and 2 lack timelines; their plays have no recorded time
+ *   and count only towards lifetime totals.
+ *
+ * The history file itself is a pointer (16 bytes, big-endian: int magic
+ *   "CGHP", short version, short reserved, long snapshot number) naming
+ *   the snapshot beside it, the history file name with "." + number +
+ *   SNAPSHOT_SUFFIX appended. A save writes snapshot n + 1 under its own
+ *   name and then replaces the pointer, so the file replaced is never
+ *   one that is mapped: some platforms (Windows) refuse to replace or
+ *   delete a file while a mapping of it is live. Superseded snapshots
+ *   are deleted where the platform allows, and retried on later saves.
+ *   read follows a pointer; a snapshot written in place by an earlier
+ *   release is still read directly.
+ *
+ * Earlier releases saved the tracker with Java serialization; such files
+ *   start with the serialization magic (see isLegacy) and are converted
+ *   once by GameHistoryTracker.loadHistory.
+ * </pre>
+ * @version 4
+ */
+final class HistoryFile {
+    /** File magic, "CGHF". */
+    static final int MAGIC = 0x43474846;
+    /** Current format version. */
+    static final short VERSION = 3;
+    /** Format version without leaderboards or timelines. */
+    private static final short VERSION_1 = 1;
+    /** Format version without timelines. */
+    private static final short VERSION_2 = 2;
+    /** Flag set when raw scores were not kept. */
+    static final short SUMMARY_ONLY = 1;
+    /** Size of the header in bytes. */
+    private static final int HEADER_SIZE = 32;
+    /** First two bytes of a Java serialization stream. */
+    private static final short SERIALIZATION_MAGIC = (short) 0xACED;
+    /** Pointer file magic, "CGHP". */
+    static final int POINTER_MAGIC = 0x43474850;
+    /** Current pointer format version. */
+    private static final short POINTER_VERSION = 1;
+    /** Size of a pointer file in bytes. */
+    private static final int POINTER_SIZE = 16;
+    /** Suffix of a snapshot named by a pointer, after its number. */
+    static final String SNAPSHOT_SUFFIX = ".snap";
+
+    /**
+     * Contents of a history file.
+     */
+    static final class Contents {
+        /** Last log generation folded into the file. */
+        private final long logGeneration;
+        /** True if only summaries were kept. */
+        private final boolean summaryOnly;
+        /** Stats of each game, in file order. */
+        private final Map<String, GameHistoryTracker.GameStats> stats;
+
+        /**
+         * Bundles the contents of a history file.
+         * @param generation last log generation folded into the file
+         * @param onlySummaries true if only summaries were kept
+         * @param gameStats stats of each game
+         */
+        Contents(final long generation,
+                 final boolean onlySummaries,
+                 final Map<String, GameHistoryTracker.GameStats> gameStats) {
+            this.logGeneration = generation;
+            this.summaryOnly = onlySummaries;
+            this.stats = gameStats;
+        }
+
+        /**
+         * Last log generation folded into the file.
+         * @return the log generation
+         */
+        long getLogGeneration() {
+            return logGeneration;
+        }
+
+        /**
+         * Whether only summaries were kept.
+         * @return true if raw scores were not kept
+         */
+        boolean isSummaryOnly() {
+            return summaryOnly;
+        }
+
+        /**
+         * Stats of each game.
+         * @return stats keyed by game name
+         */
+        Map<String, GameHistoryTracker.GameStats> getStats() {
+            return stats;
+        }
+    }
+
+    /**
+     * Prevent instantiation.
+     */
+    private HistoryFile() {
+        throw new UnsupportedOperationException("class cannot be instantiated");
+    }
+
+    /**
+     * Writes a history file.
+     * @param path destination
+     * @param contents what to write
+     * @throws IOException if an I/O error occurs
+     */
+    static void write(final Path path, final Contents contents)
+            throws IOException {
+        Map<String, GameHistoryTracker.GameStats> stats = contents.getStats();
+        int indexLength = writeIndex(stats, 0).length;
+        long columnsStart = align(HEADER_SIZE + indexLength);
+        byte[] index = writeIndex(stats, columnsStart);
+        try (DataOutputStream out = new DataOutputStream(
+                new BufferedOutputStream(Files.newOutputStream(path)))) {
+            out.writeInt(MAGIC);
+            out.writeShort(VERSION);
+            out.writeShort(contents.isSummaryOnly() ? SUMMARY_ONLY : 0);
+            out.writeLong(contents.getLogGeneration());
+            out.writeInt(stats.size());
+            out.writeInt(index.length);
+            out.writeLong(0);
+            out.write(index);
+            for (long p = HEADER_SIZE + index.length; p < columnsStart; p++) {
+                out.writeByte(0);
+            }
+            for (GameHistoryTracker.GameStats gameStats : stats.values()) {
+                IntColumn scores = gameStats.getScores();
+                for (int i = 0; i < scores.size(); i++) {
+                    out.writeInt(scores.get(i));
+                }
+            }
+            for (GameHistoryTracker.GameStats gameStats : stats.values()) {
+                gameStats.getLeaderboard().writeTable(out);
+            }
+            for (GameHistoryTracker.GameStats gameStats : stats.values()) {
+                gameStats.getTimeline().writeTo(out);
+            }
+        }
+    }
+
+    /**
+     * Builds the index.
+     * @param stats stats of each game
+     * @param columnsStart file offset of the first score column
+     * @return the encoded index
+     * @throws IOException if an I/O error occurs
+     */
+    private static byte[] writeIndex(
+            final Map<String, GameHistoryTracker.GameStats> stats,
+            final long columnsStart) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        long offset = columnsStart;
+        long tableOffset = columnsStart;
+        for (GameHistoryTracker.GameStats gameStats : stats.values()) {
+            tableOffset += (long) gameStats.getScores().size() * Integer.BYTES;
+        }
+        long timelineOffset = tableOffset;
+        for (GameHistoryTracker.GameStats gameStats : stats.values()) {
+            timelineOffset += 2L * gameStats.getLeaderboard().distinctScores()
+                              * Integer.BYTES;
+        }
+        for (Map.Entry<String, GameHistoryTracker.GameStats> entry
+                 : stats.entrySet()) {
+            GameHistoryTracker.GameStats gameStats = entry.getValue();
+            byte[] name = entry.getKey().getBytes(StandardCharsets.UTF_8);
+            out.writeShort(name.length);
+            out.write(name);
+            out.writeInt(gameStats.getTimesPlayed());
+            out.writeLong(gameStats.getScoreTotal());
+            gameStats.getSummary().writeTo(out);
+            Leaderboard board = gameStats.getLeaderboard();
+            board.writeTop(out);
+            int count = gameStats.getScores().size();
+            out.writeLong(offset);
+            out.writeInt(count);
+            offset += (long) count * Integer.BYTES;
+            int distinct = board.distinctScores();
+            out.writeLong(tableOffset);
+            out.writeInt(distinct);
+            tableOffset += 2L * distinct * Integer.BYTES;
+            PlayTimeline timeline = gameStats.getTimeline();
+            out.writeLong(timelineOffset);
+            out.writeInt(timeline.bucketCount());
+            timelineOffset += timeline.byteSize();
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Opens a history file, reading only its header and index.
+     * @param path source: a pointer, whose snapshot is read, or a
+     *        snapshot
+     * @return the contents, with score columns mapped lazily
+     * @throws IOException if the file is missing, malformed or of an
+     *         unsupported version
+     */
+    static Contents read(final Path path) throws IOException {
+        long number = readPointer(path);
+        Path snapshot = number < 0 ? path : snapshotFor(path, number);
+        MappedByteBuffer map;
+        try (FileChannel ch = FileChannel.open(snapshot,
+                                               StandardOpenOption.READ)) {
+            map = ch.map(FileChannel.MapMode.READ_ONLY, 0, ch.size());
+        }
+        if (map.capacity() < HEADER_SIZE || map.getInt() != MAGIC) {
+            throw new IOException("Not a history file: " + snapshot);
+        }
+        short version = map.getShort();
+        if (version < VERSION_1 || version > VERSION) {
+            throw new IOException("Unsupported history format version "
+                                  + version);
+        }
+        boolean summaryOnly = (map.getShort() & SUMMARY_ONLY) != 0;
+        long logGeneration = map.getLong();
+        int games = map.getInt();
+        map.position(HEADER_SIZE);
+        Map<String, GameHistoryTracker.GameStats> stats =
+            new LinkedHashMap<>();
+        try {
+            for (int g = 0; g < games; g++) {
+                byte[] name = new byte[map.getShort() & 0xFFFF];
+                map.get(name);
+                int timesPlayed = map.getInt();
+                long scoreTotal = map.getLong();
+                ScoreSummary summary = ScoreSummary.readFrom(map);
+                ByteBuffer top = map.duplicate();
+                if (version != VERSION_1) {
+                    int best = map.get();
+                    map.position(map.position() + best * Integer.BYTES);
+                }
+                IntColumn column = IntColumn.mapped(
+                    ints(map, map.getLong(), map.getInt()));
+                Leaderboard board = version == VERSION_1
+                    ? Leaderboard.of(column)
+                    : Leaderboard.readFrom(
+                        top, ints(map, map.getLong(), 2 * map.getInt()));
+                PlayTimeline timeline = version <= VERSION_2
+                    ? new PlayTimeline()
+                    : PlayTimeline.readFrom(map, map.getLong(), map.getInt());
+                stats.put(new String(name, StandardCharsets.UTF_8),
+                          new GameHistoryTracker.GameStats(
+                              timesPlayed, scoreTotal, summary, column,
+                              board, timeline));
+            }
+        } catch (RuntimeException e) {
+            throw new IOException("Malformed history file: " + snapshot, e);
+        }
+        return new Contents(logGeneration, summaryOnly, stats);
+    }
+
+    /**
+     * Names a snapshot kept beside a pointer file.
+     * @param pointer the pointer file, the history file name
+     * @param number the snapshot number
+     * @return path of the snapshot
+     */
+    static Path snapshotFor(final Path pointer, final long number) {
+        return pointer.resolveSibling(pointer.getFileName() + "." + number
+                                      + SNAPSHOT_SUFFIX);
+    }
+
+    /**
+     * Reads a pointer file.
+     * @param path the file
+     * @return the number of the snapshot it names, or -1 if the file is
+     *         not a pointer (a snapshot written in place, or a legacy
+     *         file)
+     * @throws IOException if the file cannot be read or is a pointer of
+     *         an unsupported version
+     */
+    static long readPointer(final Path path) throws IOException {
+        try (InputStream in = Files.newInputStream(path)) {
+            ByteBuffer head = ByteBuffer.wrap(in.readNBytes(POINTER_SIZE));
+            if (head.remaining() < POINTER_SIZE
+                || head.getInt() != POINTER_MAGIC) {
+                return -1;
+            }
+            short version = head.getShort();
+            if (version != POINTER_VERSION) {
+                throw new IOException("Unsupported history pointer version "
+                                      + version);
+            }
+            head.getShort();
+            return head.getLong();
+        }
+    }
+
+    /**
+     * Writes a pointer file.
+     * @param path destination
+     * @param number the number of the snapshot it names
+     * @throws IOException if an I/O error occurs
+     */
+    static void writePointer(final Path path, final long number)
+            throws IOException {
+        try (DataOutputStream out = new DataOutputStream(
+                Files.newOutputStream(path))) {
+            out.writeInt(POINTER_MAGIC);
+            out.writeShort(POINTER_VERSION);
+            out.writeShort(0);
+            out.writeLong(number);
+        }
+    }
+
+    /**
+     * Deletes the snapshots beside a pointer file other than one.
+     * A snapshot the platform will not delete yet (one still mapped, on
+     *   Windows) is left for a later call.
+     * @param pointer the pointer file
+     * @param keep number of the snapshot to keep, or -1 to delete all
+     * @throws IOException if the directory cannot be listed
+     */
+    static void deleteSnapshots(final Path pointer, final long keep)
+            throws IOException {
+        Path dir = pointer.toAbsolutePath().getParent();
+        String prefix = pointer.getFileName() + ".";
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(dir)) {
+            for (Path file : files) {
+                String name = file.getFileName().toString();
+                if (!name.startsWith(prefix)
+                    || !name.endsWith(SNAPSHOT_SUFFIX)) {
+                    continue;
+                }
+                long number;
+                try {
+                    number = Long.parseLong(name.substring(
+                        prefix.length(),
+                        name.length() - SNAPSHOT_SUFFIX.length()));
+                } catch (NumberFormatException e) {
+                    continue;
+                }
+                if (number != keep) {
+                    try {
+                        Files.deleteIfExists(file);
+                    } catch (IOException e) {
+                        // Still mapped; deleted by a later save.
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Views a packed int array within a mapped file.
+     * @param map the mapped file
+     * @param offset the array's offset from the start of the file
+     * @param count the number of ints
+     * @return a view of the ints, read on first access
+     */
+    static IntBuffer ints(final ByteBuffer map,
+                                  final long offset,
+                                  final int count) {
+        return map.duplicate()
+            .position((int) offset)
+            .limit((int) (offset + (long) count * Integer.BYTES))
+            .slice()
+            .asIntBuffer();
+    }
+
+    /**
+     * Whether a file was written by Java serialization, the format used
+     *   before this one.
+     * @param path the file
+     * @return true if the file holds a serialized tracker
+     * @throws IOException if the file cannot be read
+     */
+    static boolean isLegacy(final Path path) throws IOException {
+        try (InputStream in = Files.newInputStream(path)) {
+            ByteBuffer head = ByteBuffer.wrap(in.readNBytes(Short.BYTES));
+            return head.remaining() == Short.BYTES
+                && head.getShort() == SERIALIZATION_MAGIC;
+        }
+    }
+
+    /**
+     * Rounds a file offset up to the next int boundary.
+     * @param offset the offset
+     * @return the aligned offset
+     */
+    private static long align(final long offset) {
+        return (offset + Integer.BYTES - 1) & -Integer.BYTES;
+    }
+}
@@ -0,0 +1,483 @@
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Append-only write-ahead log of the plays recorded by a
+ *   {@link GameHistoryTracker}.
+ * <pre>
+ * File layout (big-endian):
+ *   header   int magic "CGHL", short version, long generation
+ *   records  byte type followed by a type-specific body
+ *     NAME   short id, short length, UTF-8 game name
+ *     PLAY   short id, byte hasScore, int score, long epoch millis
+ *            (16 bytes in total)
+ *     MARK   long generation                     (9 bytes in total)
+ *
+ * A game name is written once per log as a NAME record; every later play
+ *   of that game is a fixed-size PLAY record referring to it by id.
+ * Records collect in a buffer that is written through a FileChannel when
+ *   it fills or when flush() is called.
+ *
+ * Generations tie the log to the snapshot it extends. Plays belong to
+ *   the generation named by the header or by the latest MARK before them,
+ *   and replay skips the generations a snapshot already covers.
+ * Compaction is two-step: rotate() starts a new generation with a MARK
+ *   while the snapshot is taken, and once the snapshot is safely on disk
+ *   dropCovered() rewrites the log without the covered records.
+ * A record torn by a crash is detected on replay and truncated away.
+ *
+ * Version 2 logs lack the play time. Their plays are replayed with the
+ *   log file's modification time and then rewritten in the current
+ *   format, so a log is never appended to in an older format.
+ * </pre>
+ * @version 3
+ */
+final class HistoryLog implements Closeable {
+    /** File magic, "CGHL". */
+    private static final int MAGIC = 0x4347484C;
+    /** Current log format version. */
+    private static final short VERSION = 3;
+    /** Log format version whose plays have no time. */
+    private static final short UNTIMED_VERSION = 2;
+    /** Size of the file header in bytes. */
+    private static final int HEADER_SIZE = 14;
+    /** Record type of a game name definition. */
+    private static final byte NAME_RECORD = 1;
+    /** Record type of a single play. */
+    private static final byte PLAY_RECORD = 2;
+    /** Record type starting a new generation. */
+    private static final byte MARK_RECORD = 3;
+    /** Size of a play record in bytes. */
+    private static final int PLAY_RECORD_SIZE = 16;
+    /** Size of a generation mark in bytes. */
+    private static final int MARK_RECORD_SIZE = 9;
+    /** Fixed part of a name record in bytes (type, id, length). */
+    private static final int NAME_RECORD_OVERHEAD = 5;
+    /** Size of the write buffer in bytes. */
+    private static final int BUFFER_SIZE = 8192;
+    /** Suffix of the temporary file used while compacting. */
+    private static final String TEMP_SUFFIX = ".tmp";
+
+    /** Path of the log file. */
+    private final Path path;
+    /** Channel used for all writes. */
+    private FileChannel channel;
+    /** Records waiting to be written. */
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+    /** Game names defined in this log, in id order. */
+    private final List<String> names = new ArrayList<>();
+    /** Ids of the game names defined in this log. */
+    private final Map<String, Integer> nameIds = new HashMap<>();
+    /** Generation of the records being appended. */
+    private long generation;
+    /** File offset just past the latest MARK, or -1 if none pending. */
+    private long markEnd = -1;
+
+    /**
+     * Receives the plays replayed from a log.
+     */
+    @FunctionalInterface
+    interface Replay {
+        /**
+         * Accepts one play.
+         * @param gameName the name of the game played
+         * @param score the score, or null if the game is unscored
+         * @param timestamp when the play was recorded, in epoch millis
+         */
+        void accept(String gameName, Integer score, long timestamp);
+    }
+
+    /**
+     * Creates a log over an open channel.
+     * @param logPath the log file
+     * @param logChannel the open channel
+     * @param logGeneration the generation found in the header
+     */
+    private HistoryLog(final Path logPath,
+                       final FileChannel logChannel,
+                       final long logGeneration) {
+        this.path = logPath;
+        this.channel = logChannel;
+        this.generation = logGeneration;
+    }
+
+    /**
+     * Opens a log, replaying the records of generations not yet covered
+     *   by the snapshot.
+     * A missing or unreadable log is started afresh with the generation
+     *   following the snapshot's.
+     * @param logPath the log file
+     * @param coveredGeneration the last generation folded into the snapshot
+     * @param replay receives each replayed play
+     * @return the opened log, positioned for appending
+     * @throws IOException if the log cannot be opened
+     */
+    static HistoryLog open(final Path logPath,
+                           final long coveredGeneration,
+                           final Replay replay)
+            throws IOException {
+        FileChannel ch = FileChannel.open(logPath,
+                                          StandardOpenOption.CREATE,
+                                          StandardOpenOption.READ,
+                                          StandardOpenOption.WRITE);
+        try {
+            HistoryLog log = new HistoryLog(logPath, ch, coveredGeneration);
+            if (!log.replay(coveredGeneration, replay)) {
+                log.reset(coveredGeneration + 1);
+            }
+            return log;
+        } catch (IOException e) {
+            ch.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Reads the existing records of the log.
+     * @param coveredGeneration the last generation folded into the snapshot
+     * @param replay receives each replayed play
+     * @return true if the log is usable and positioned for appending,
+     *         false if it must be reset
+     * @throws IOException if reading fails
+     */
+    private boolean replay(final long coveredGeneration,
+                           final Replay replay)
+            throws IOException {
+        if (channel.size() < HEADER_SIZE) {
+            return false;
+        }
+        channel.position(0);
+        DataInputStream in = new DataInputStream(new BufferedInputStream(
+                Channels.newInputStream(channel)));
+        if (in.readInt() != MAGIC) {
+            return false;
+        }
+        short version = in.readShort();
+        if (version == UNTIMED_VERSION) {
+            return upgrade(in, coveredGeneration, replay);
+        }
+        if (version != VERSION) {
+            return false;
+        }
+        long current = in.readLong();
+        long validEnd = HEADER_SIZE;
+        try {
+            while (true) {
+                byte type = in.readByte();
+                if (type == NAME_RECORD) {
+                    short id = in.readShort();
+                    byte[] bytes = new byte[in.readUnsignedShort()];
+                    in.readFully(bytes);
+                    if (id != names.size()) {
+                        break;
+                    }
+                    String name = new String(bytes, StandardCharsets.UTF_8);
+                    nameIds.put(name, names.size());
+                    names.add(name);
+                    validEnd += NAME_RECORD_OVERHEAD + bytes.length;
+                } else if (type == PLAY_RECORD) {
+                    short id = in.readShort();
+                    boolean hasScore = in.readByte() != 0;
+                    int score = in.readInt();
+                    long timestamp = in.readLong();
+                    if (id < 0 || id >= names.size()) {
+                        break;
+                    }
+                    if (current > coveredGeneration) {
+                        replay.accept(names.get(id), hasScore ? score : null,
+                                      timestamp);
+                    }
+                    validEnd += PLAY_RECORD_SIZE;
+                } else if (type == MARK_RECORD) {
+                    current = in.readLong();
+                    validEnd += MARK_RECORD_SIZE;
+                } else {
+                    break;
+                }
+            }
+        } catch (EOFException e) {
+            // Torn final record; everything before validEnd is intact.
+        }
+        if (current <= coveredGeneration) {
+            return false;
+        }
+        this.generation = current;
+        channel.truncate(validEnd);
+        channel.position(validEnd);
+        return true;
+    }
+
+    /**
+     * Replays an untimed log and rewrites it in the current format.
+     * Plays are given the log file's modification time, the best
+     *   estimate of when they were recorded.
+     * @param in source, positioned after the version
+     * @param coveredGeneration the last generation folded into the snapshot
+     * @param replay receives each replayed play
+     * @return true if plays were kept, false if the log must be reset
+     * @throws IOException if reading or rewriting fails
+     */
+    private boolean upgrade(final DataInputStream in,
+                            final long coveredGeneration,
+                            final Replay replay) throws IOException {
+        long timestamp = Files.getLastModifiedTime(path).toMillis();
+        long current = in.readLong();
+        List<String> untimedNames = new ArrayList<>();
+        List<String> playedNames = new ArrayList<>();
+        List<Integer> playedScores = new ArrayList<>();
+        try {
+            while (true) {
+                byte type = in.readByte();
+                if (type == NAME_RECORD) {
+                    in.readShort();
+                    byte[] bytes = new byte[in.readUnsignedShort()];
+                    in.readFully(bytes);
+                    untimedNames.add(new String(bytes,
+                                                StandardCharsets.UTF_8));
+                } else if (type == PLAY_RECORD) {
+                    short id = in.readShort();
+                    boolean hasScore = in.readByte() != 0;
+                    int score = in.readInt();
+                    if (id < 0 || id >= untimedNames.size()) {
+                        break;
+                    }
+                    if (current > coveredGeneration) {
+                        playedNames.add(untimedNames.get(id));
+                        playedScores.add(hasScore ? score : null);
+                    }
+                } else if (type == MARK_RECORD) {
+                    current = in.readLong();
+                } else {
+                    break;
+                }
+            }
+        } catch (EOFException e) {
+            // Torn final record; the plays before it are kept.
+        }
+        if (current <= coveredGeneration) {
+            return false;
+        }
+        reset(current);
+        for (int i = 0; i < playedNames.size(); i++) {
+            replay.accept(playedNames.get(i), playedScores.get(i), timestamp);
+            append(playedNames.get(i), playedScores.get(i), timestamp);
+        }
+        sync();
+        return true;
+    }
+
+    /**
+     * Generation of the plays currently being appended.
+     * @return the log generation
+     */
+    synchronized long getGeneration() {
+        return this.generation;
+    }
+
+    /**
+     * Path of the log file.
+     * @return the log path
+     */
+    Path getPath() {
+        return this.path;
+    }
+
+    /**
+     * Appends a play to the log.
+     * The record reaches the file when the buffer fills or on flush().
+     * @param gameName the name of the game played
+     * @param score the score, or null if the game is unscored
+     * @param timestamp when the play happened, in epoch millis
+     * @throws IOException if a full buffer cannot be written
+     */
+    synchronized void append(final String gameName, final Integer score,
+                             final long timestamp)
+            throws IOException {
+        Integer id = nameIds.get(gameName);
+        if (id == null) {
+            byte[] bytes = gameName.getBytes(StandardCharsets.UTF_8);
+            ensureRoom(NAME_RECORD_OVERHEAD + bytes.length);
+            id = names.size();
+            nameIds.put(gameName, id);
+            names.add(gameName);
+            putName(buffer, id, bytes);
+        }
+        ensureRoom(PLAY_RECORD_SIZE);
+        buffer.put(PLAY_RECORD).putShort(id.shortValue())
+              .put((byte) (score == null ? 0 : 1))
+              .putInt(score == null ? 0 : score)
+              .putLong(timestamp);
+    }
+
+    /**
+     * Encodes a name record.
+     * @param out destination
+     * @param id the name's id
+     * @param bytes the UTF-8 name
+     */
+    private static void putName(final ByteBuffer out,
+                                final int id,
+                                final byte[] bytes) {
+        out.put(NAME_RECORD).putShort((short) id)
+           .putShort((short) bytes.length).put(bytes);
+    }
+
+    /**
+     * Makes room in the buffer for a record, writing it out if needed.
+     * @param size the size of the record in bytes
+     * @throws IOException if the buffer cannot be written
+     */
+    private void ensureRoom(final int size) throws IOException {
+        if (buffer.remaining() < size) {
+            flush();
+        }
+    }
+
+    /**
+     * Writes all buffered records to the file.
+     * @throws IOException if an I/O error occurs
+     */
+    synchronized void flush() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    /**
+     * Writes all buffered records and forces them to the storage device.
+     * @throws IOException if an I/O error occurs
+     */
+    synchronized void sync() throws IOException {
+        flush();
+        channel.force(false);
+    }
+
+    /**
+     * Starts a new generation.
+     * Called while a snapshot is taken of every play appended so far; the
+     *   returned generation is the one that snapshot covers.
+     * @return the generation just closed
+     * @throws IOException if the mark cannot be written
+     */
+    synchronized long rotate() throws IOException {
+        long closed = generation;
+        ensureRoom(MARK_RECORD_SIZE);
+        buffer.put(MARK_RECORD).putLong(closed + 1);
+        flush();
+        generation = closed + 1;
+        markEnd = channel.position();
+        return closed;
+    }
+
+    /**
+     * Drops the records of generations covered by a snapshot saved after
+     *   the last rotate(), keeping the plays appended since.
+     * The log is rewritten to a temporary file and renamed into place.
+     * @throws IOException if an I/O error occurs
+     */
+    synchronized void dropCovered() throws IOException {
+        if (markEnd < 0) {
+            return;
+        }
+        flush();
+        Path temp = Paths.get(path + TEMP_SUFFIX);
+        try (FileChannel out = FileChannel.open(
+                temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer head = ByteBuffer.allocate(headerAndNamesSize());
+            head.putInt(MAGIC).putShort(VERSION).putLong(generation);
+            for (int id = 0; id < names.size(); id++) {
+                putName(head, id,
+                        names.get(id).getBytes(StandardCharsets.UTF_8));
+            }
+            head.flip();
+            while (head.hasRemaining()) {
+                out.write(head);
+            }
+            long tail = channel.size() - markEnd;
+            long copied = 0;
+            while (copied < tail) {
+                copied += channel.transferTo(markEnd + copied,
+                                             tail - copied, out);
+            }
+            out.force(false);
+        }
+        channel.close();
+        try {
+            Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING,
+                       StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            channel = FileChannel.open(path, StandardOpenOption.READ,
+                                       StandardOpenOption.WRITE);
+            channel.position(channel.size());
+        }
+        markEnd = -1;
+    }
+
+    /**
+     * Size of a header followed by a name record for every known game.
+     * @return the size in bytes
+     */
+    private int headerAndNamesSize() {
+        int size = HEADER_SIZE;
+        for (String name : names) {
+            size += NAME_RECORD_OVERHEAD
+                    + name.getBytes(StandardCharsets.UTF_8).length;
+        }
+        return size;
+    }
+
+    /**
+     * Discards all records and starts the given generation.
+     * @param nextGeneration the generation of the emptied log
+     * @throws IOException if an I/O error occurs
+     */
+    synchronized void reset(final long nextGeneration) throws IOException {
+        buffer.clear();
+        names.clear();
+        nameIds.clear();
+        markEnd = -1;
+        this.generation = nextGeneration;
+        channel.truncate(0);
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        header.putInt(MAGIC).putShort(VERSION).putLong(nextGeneration).flip();
+        channel.position(0);
+        while (header.hasRemaining()) {
+            channel.write(header);
+        }
+        channel.force(false);
+    }
+
+    /**
+     * Flushes buffered records and closes the log.
+     * @throws IOException if an I/O error occurs
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        if (channel.isOpen()) {
+            flush();
+            channel.close();
+        }
+    }
+}
@@ -0,0 +1,230 @@
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Background writer that persists a GameHistoryTracker, so the thread
+ *   recording plays never waits on the disk.
+ * <pre>
+ * recordPlay notifies the service after each play. A dedicated writer
+ *   thread gathers the notifications into group commits: a commit happens
+ *   once commitPlays plays are pending or commitMillis have passed since
+ *   the first of them, whichever comes first.
+ * A commit of a tracker that logs forces the log to the storage device
+ *   (so at most one commit's worth of plays can be lost in a crash); every
+ *   COMPACT_PLAYS plays the snapshot is rewritten and the log compacted.
+ * A tracker that does not log is committed by saving its snapshot.
+ * Snapshots are always written to a temporary file, forced to the device
+ *   and renamed into place, so a crash leaves the old or the new one.
+ *
+ * requestSave asks for a snapshot on the writer thread (after the history
+ *   is cleared, for example); close commits anything pending, saves a
+ *   final snapshot and waits for the writer to finish.
+ * </pre>
+ * @version 1
+ */
+final class HistoryPersistence implements Closeable {
+    /** Plays per group commit used by the launcher. */
+    static final int DEFAULT_COMMIT_PLAYS = 16;
+    /** Longest delay before a play is committed, used by the launcher. */
+    static final long DEFAULT_COMMIT_MILLIS = 1000;
+    /** Plays committed to the log between snapshot compactions. */
+    static final int COMPACT_PLAYS = 4096;
+
+    /** The tracker being persisted. */
+    private final GameHistoryTracker tracker;
+    /** Name of the snapshot file. */
+    private final String filename;
+    /** Pending plays that trigger a commit. */
+    private final int commitPlays;
+    /** Longest delay before a pending play is committed, in nanoseconds. */
+    private final long commitNanos;
+    /** Guards the writer's wake-up state. */
+    private final ReentrantLock lock = new ReentrantLock();
+    /** Signalled when the writer has work. */
+    private final Condition wake = lock.newCondition();
+    /** Plays recorded since the last commit. */
+    private final AtomicInteger pending = new AtomicInteger();
+    /** Listener registered with the tracker. */
+    private final Runnable listener = this::playRecorded;
+    /** The writer thread. */
+    private final Thread writer;
+    /** When the first pending play was recorded, from System.nanoTime. */
+    private long firstPendingNanos;
+    /** True if a snapshot has been asked for. */
+    private boolean saveRequested;
+    /** True once close has been called. */
+    private boolean closed;
+    /** Plays committed to the log since the last snapshot (writer only). */
+    private int uncompacted;
+    /** Failure of the latest snapshot, reported by close. */
+    private volatile IOException failure;
+
+    /**
+     * Creates the service; start() launches the writer.
+     * @param history the tracker to persist
+     * @param file name of the snapshot file
+     * @param plays pending plays that trigger a commit
+     * @param millis longest delay before a play is committed
+     */
+    private HistoryPersistence(final GameHistoryTracker history,
+                               final String file,
+                               final int plays,
+                               final long millis) {
+        this.tracker = history;
+        this.filename = file;
+        this.commitPlays = Math.max(1, plays);
+        this.commitNanos = TimeUnit.MILLISECONDS.toNanos(millis);
+        this.writer = new Thread(this::writeLoop, "history-writer");
+        this.writer.setDaemon(true);
+    }
+
+    /**
+     * Starts persisting a tracker in the background.
+     * @param history the tracker to persist
+     * @param file name of the snapshot file
+     * @param plays pending plays that trigger a commit
+     * @param millis longest delay before a play is committed
+     * @return the running service
+     */
+    static HistoryPersistence start(final GameHistoryTracker history,
+                                    final String file,
+                                    final int plays,
+                                    final long millis) {
+        HistoryPersistence service =
+            new HistoryPersistence(history, file, plays, millis);
+        history.setPlayListener(service.listener);
+        service.writer.start();
+        return service;
+    }
+
+    /**
+     * Notes a recorded play, waking the writer when a commit is due.
+     */
+    private void playRecorded() {
+        int count = pending.incrementAndGet();
+        if (count == 1 || count == commitPlays) {
+            lock.lock();
+            try {
+                if (count == 1) {
+                    firstPendingNanos = System.nanoTime();
+                }
+                wake.signal();
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    /**
+     * Asks the writer to save a snapshot soon.
+     */
+    void requestSave() {
+        lock.lock();
+        try {
+            saveRequested = true;
+            wake.signal();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Commits pending plays, saves a final snapshot and stops the writer.
+     * Later calls do nothing.
+     * @throws IOException if the final snapshot, or an earlier background
+     *         write, failed
+     */
+    @Override
+    public void close() throws IOException {
+        lock.lock();
+        try {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            wake.signal();
+        } finally {
+            lock.unlock();
+        }
+        try {
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        tracker.setPlayListener(null);
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    /**
+     * Body of the writer thread.
+     */
+    private void writeLoop() {
+        boolean stop = false;
+        while (!stop) {
+            boolean save;
+            lock.lock();
+            try {
+                awaitWork();
+                stop = closed;
+                save = saveRequested || closed;
+                saveRequested = false;
+            } catch (InterruptedException e) {
+                stop = true;
+                save = true;
+            } finally {
+                lock.unlock();
+            }
+            commit(pending.getAndSet(0), save);
+        }
+    }
+
+    /**
+     * Waits, holding the lock, until a commit or snapshot is due.
+     * @throws InterruptedException if the writer is interrupted
+     */
+    private void awaitWork() throws InterruptedException {
+        while (!closed && !saveRequested) {
+            int count = pending.get();
+            if (count >= commitPlays) {
+                return;
+            }
+            if (count == 0) {
+                wake.await();
+            } else {
+                long left = firstPendingNanos + commitNanos - System.nanoTime();
+                if (left <= 0) {
+                    return;
+                }
+                wake.awaitNanos(left);
+            }
+        }
+    }
+
+    /**
+     * Makes plays durable.
+     * @param plays number of plays being committed
+     * @param save true to save a snapshot whatever the log holds
+     */
+    private void commit(final int plays, final boolean save) {
+        uncompacted += plays;
+        try {
+            if (save || uncompacted >= COMPACT_PLAYS
+                || (plays > 0 && !tracker.isLogging())) {
+                tracker.saveHistory(filename);
+                uncompacted = 0;
+                failure = null;
+            } else if (plays > 0) {
+                tracker.syncLog();
+            }
+        } catch (IOException e) {
+            failure = e;
+            System.err.println("Game history save failed: " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,87 @@
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests for HistoryPersistence.
+ * @version 1
+ */
+public class HistoryPersistenceTest {
+    /** Longest time to wait for a background commit, in milliseconds. */
+    private static final long WAIT_MILLIS = 10_000;
+
+    /**
+     * Plays are committed to the log in the background, by count and by
+     *   elapsed time, without flushing on the recording thread.
+     * @param tempDir temporary directory for history files
+     * @throws Exception if waiting or file handling fails
+     */
+    @Test
+    public void testGroupCommit(@TempDir final Path tempDir)
+            throws Exception {
+        String file = tempDir.resolve("history.dat").toString();
+        GameHistoryTracker tracker = GameHistoryTracker.loadHistory(file);
+        Path log = GameHistoryTracker.logPathFor(file);
+        long emptyLog = Files.size(log);
+        HistoryPersistence service =
+            HistoryPersistence.start(tracker, file, 3, 200);
+        for (int score = 0; score < 3; score++) {
+            tracker.recordPlay("Jotto", score);
+        }
+        awaitGrowth(log, emptyLog);
+        long afterCount = Files.size(log);
+        tracker.recordPlay("Jotto", 9);
+        awaitGrowth(log, afterCount);
+        assertEquals(4, GameHistoryTracker.loadHistory(file)
+                                          .getTimesPlayed("Jotto"));
+        service.close();
+    }
+
+    /**
+     * Closing saves a snapshot holding every play, so the log is no
+     *   longer needed.
+     * @param tempDir temporary directory for history files
+     * @throws IOException if file handling fails
+     */
+    @Test
+    public void testCloseSavesSnapshot(@TempDir final Path tempDir)
+            throws IOException {
+        String file = tempDir.resolve("history.dat").toString();
+        GameHistoryTracker tracker = GameHistoryTracker.loadHistory(file);
+        HistoryPersistence service =
+            HistoryPersistence.start(tracker, file, 100, 60_000);
+        tracker.recordPlay("Snake", 5);
+        tracker.clear();
+        service.requestSave();
+        tracker.recordPlay("Snake", 7);
+        service.close();
+        service.close();
+
+        Files.delete(GameHistoryTracker.logPathFor(file));
+        GameHistoryTracker reloaded = GameHistoryTracker.loadHistory(file);
+        assertEquals(1, reloaded.getTimesPlayed("Snake"));
+        assertEquals(7, reloaded.getSummary("Snake").getMax());
+    }
+
+    /**
+     * Waits for a file to grow past a size.
+     * @param path the file
+     * @param size the size to exceed
+     * @throws Exception if interrupted or the file does not grow in time
+     */
+    private static void awaitGrowth(final Path path, final long size)
+            throws Exception {
+        long deadline = System.currentTimeMillis() + WAIT_MILLIS;
+        while (Files.size(path) <= size) {
+            assertTrue(System.currentTimeMillis() < deadline,
+                       "log was not committed in time");
+            Thread.sleep(10);
+        }
+    }
+}
@@ -0,0 +1,283 @@
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.nio.IntBuffer;
+import java.util.Arrays;
+
+/**
+ * Growable column of primitive ints.
+ * Stores values in a plain int array (4 bytes each) instead of boxed
+ *   Integers in an ArrayList (a 16-byte object plus a reference each).
+ * <pre>
+ * Serialized form:
+ *   byte encoding, int size, then the values
+ *   PLAIN  each value as a 4-byte int
+ *   DELTA  each value minus its predecessor, zigzag-mapped and written
+ *          as a variable-length unsigned int (1 to 5 bytes)
+ * Game scores are small and change little from play to play, so the
+ *   delta form usually needs a single byte per value.
+ *
+ * A column may also start from values in a memory-mapped file (see
+ *   HistoryFile); those are read only when first accessed, and values
+ *   added later are kept in the heap after them.
+ * </pre>
+ * @version 2
+ */
+final class IntColumn implements Serializable {
+    private static final long serialVersionUID = 1L;
+    /** Encoding that writes each value as a 4-byte int. */
+    static final byte PLAIN = 0;
+    /** Encoding that writes zigzag varint deltas. */
+    static final byte DELTA = 1;
+    /** Capacity of a column's first array. */
+    private static final int INITIAL_CAPACITY = 8;
+    /** Payload bits in each varint byte. */
+    private static final int VARINT_SHIFT = 7;
+    /** Mask of the payload bits of a varint byte. */
+    private static final int VARINT_PAYLOAD = 0x7F;
+    /** Flag marking a varint byte that is followed by another. */
+    private static final int VARINT_MORE = 0x80;
+
+    /** Leading values held in a mapped file, or null if none. */
+    private transient IntBuffer base;
+    /** Number of values in base. */
+    private transient int baseSize;
+    /** Values added in the heap; only the first tailSize are in use. */
+    private transient int[] data;
+    /** Number of values in data. */
+    private transient int tailSize;
+
+    /**
+     * Creates an empty column.
+     */
+    IntColumn() {
+        this.data = new int[INITIAL_CAPACITY];
+    }
+
+    /**
+     * Creates a column whose first values are read from a buffer,
+     *   typically a slice of a memory-mapped file.
+     * @param values the leading values, read on first access
+     * @return the column
+     */
+    static IntColumn mapped(final IntBuffer values) {
+        IntColumn column = new IntColumn();
+        column.base = values;
+        column.baseSize = values.limit();
+        return column;
+    }
+
+    /**
+     * Appends a value.
+     * @param value the value to add
+     */
+    void add(final int value) {
+        ensureCapacity(tailSize + 1);
+        data[tailSize++] = value;
+    }
+
+    /**
+     * Appends every value of another column.
+     * @param other the column whose values to add
+     */
+    void addAll(final IntColumn other) {
+        int count = other.size();
+        ensureCapacity(tailSize + count);
+        if (other.base != null) {
+            other.base.get(0, data, tailSize, other.baseSize);
+        }
+        System.arraycopy(other.data, 0, data, tailSize + other.baseSize,
+                         other.tailSize);
+        tailSize += count;
+    }
+
+    /**
+     * Grows the heap array, by half again, until it holds a number of
+     *   values.
+     * @param capacity the number of values needed
+     */
+    private void ensureCapacity(final int capacity) {
+        if (capacity > data.length) {
+            data = Arrays.copyOf(data, Math.max(
+                capacity, data.length + (data.length >> 1) + 1));
+        }
+    }
+
+    /**
+     * Reads a value.
+     * @param index position of the value
+     * @return the value at index
+     */
+    int get(final int index) {
+        if (index < 0 || index >= size()) {
+            throw new IndexOutOfBoundsException(
+                "Index " + index + " out of bounds for size " + size());
+        }
+        return index < baseSize ? base.get(index) : data[index - baseSize];
+    }
+
+    /**
+     * Number of values in the column.
+     * @return the column size
+     */
+    int size() {
+        return baseSize + tailSize;
+    }
+
+    /**
+     * Whether the column has no values.
+     * @return true if empty
+     */
+    boolean isEmpty() {
+        return size() == 0;
+    }
+
+    /**
+     * Removes all values and releases the storage.
+     */
+    void clear() {
+        base = null;
+        baseSize = 0;
+        data = new int[INITIAL_CAPACITY];
+        tailSize = 0;
+    }
+
+    /**
+     * Copies the values into a new array.
+     * @return the values, in insertion order
+     */
+    int[] toArray() {
+        int[] values = new int[size()];
+        if (base != null) {
+            base.get(0, values, 0, baseSize);
+        }
+        System.arraycopy(data, 0, values, baseSize, tailSize);
+        return values;
+    }
+
+    /**
+     * Writes the column.
+     * @param out destination
+     * @param encoding PLAIN or DELTA
+     * @throws IOException if an I/O error occurs
+     */
+    void writeTo(final DataOutput out, final byte encoding)
+            throws IOException {
+        int count = size();
+        out.writeByte(encoding);
+        out.writeInt(count);
+        if (encoding == DELTA) {
+            int previous = 0;
+            for (int i = 0; i < count; i++) {
+                int value = get(i);
+                int delta = value - previous;
+                writeVarint(out, (delta << 1) ^ (delta >> (Integer.SIZE - 1)));
+                previous = value;
+            }
+        } else {
+            for (int i = 0; i < count; i++) {
+                out.writeInt(get(i));
+            }
+        }
+    }
+
+    /**
+     * Reads a column written by writeTo.
+     * @param in source
+     * @return the column read
+     * @throws IOException if an I/O error occurs or the data is malformed
+     */
+    static IntColumn readFrom(final DataInput in) throws IOException {
+        IntColumn column = new IntColumn();
+        column.readValues(in);
+        return column;
+    }
+
+    /**
+     * Replaces the contents with values written by writeTo.
+     * @param in source
+     * @throws IOException if an I/O error occurs or the data is malformed
+     */
+    private void readValues(final DataInput in) throws IOException {
+        byte encoding = in.readByte();
+        int count = in.readInt();
+        if (count < 0 || (encoding != PLAIN && encoding != DELTA)) {
+            throw new IOException("Malformed int column");
+        }
+        base = null;
+        baseSize = 0;
+        data = new int[Math.max(count, INITIAL_CAPACITY)];
+        tailSize = count;
+        if (encoding == DELTA) {
+            int previous = 0;
+            for (int i = 0; i < count; i++) {
+                int zigzag = readVarint(in);
+                previous += (zigzag >>> 1) ^ -(zigzag & 1);
+                data[i] = previous;
+            }
+        } else {
+            for (int i = 0; i < count; i++) {
+                data[i] = in.readInt();
+            }
+        }
+    }
+
+    /**
+     * Writes an unsigned variable-length int, 7 bits per byte.
+     * @param out destination
+     * @param value the value, treated as unsigned
+     * @throws IOException if an I/O error occurs
+     */
+    private static void writeVarint(final DataOutput out, final int value)
+            throws IOException {
+        int v = value;
+        while ((v & ~VARINT_PAYLOAD) != 0) {
+            out.writeByte((v & VARINT_PAYLOAD) | VARINT_MORE);
+            v >>>= VARINT_SHIFT;
+        }
+        out.writeByte(v);
+    }
+
+    /**
+     * Reads an unsigned variable-length int.
+     * @param in source
+     * @return the value
+     * @throws IOException if an I/O error occurs or the varint is too long
+     */
+    private static int readVarint(final DataInput in) throws IOException {
+        int value = 0;
+        for (int shift = 0; shift < Integer.SIZE; shift += VARINT_SHIFT) {
+            int b = in.readUnsignedByte();
+            value |= (b & VARINT_PAYLOAD) << shift;
+            if ((b & VARINT_MORE) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("Malformed varint");
+    }
+
+    /**
+     * Serializes the column in DELTA encoding.
+     * @param out destination
+     * @throws IOException if an I/O error occurs
+     */
+    private void writeObject(final ObjectOutputStream out) throws IOException {
+        out.defaultWriteObject();
+        writeTo(out, DELTA);
+    }
+
+    /**
+     * Restores a serialized column.
+     * @param in source
+     * @throws IOException if an I/O error occurs
+     * @throws ClassNotFoundException never, declared by the contract
+     */
+    private void readObject(final ObjectInputStream in)
+            throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        readValues(in);
+    }
+}
@@ -0,0 +1,176 @@
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * Measures Jotto scoring: the letter-set count the game used to make
+ *   with HashSets against JottoRules letter masks and multiset keys,
+ *   and input validation with a regular expression against
+ *   JottoRules.isWord.
+ * <pre>
+ * Usage: java JottoBenchmark [pairs]
+ *   Defaults to 20000000 timed word pairs per method.
+ * Methods:
+ *   hash-set      the former countMatchingLetters: two HashSets of
+ *                 boxed characters and retainAll
+ *   mask          both masks built from the words, then one bit count
+ *   mask (pre)    masks computed once, as a solver holds them
+ *   multiset      both multiset keys built from the words
+ *   multiset (pre) keys computed once
+ *   regex         guess.matches("[A-Z]+") and a length check
+ *   isWord        JottoRules.isWord
+ * The words are random five-letter strings. Each method runs untimed
+ *   for a fifth of the budget first, so the JIT has settled. Allocation
+ *   is read from the thread's allocation counter, as in SnakeBenchmark.
+ * </pre>
+ * @version 1
+ */
+public final class JottoBenchmark {
+    /** Timed pairs per method when none are given. */
+    private static final long DEFAULT_PAIRS = 20_000_000;
+    /** Distinct words the pairs are drawn from. */
+    private static final int WORDS = 4096;
+    /** Letters in a word. */
+    private static final int WORD_LENGTH = 5;
+    /** Fraction of the budget run untimed first, as a divisor. */
+    private static final int WARM_UP_DIVISOR = 5;
+    /** Nanoseconds per second. */
+    private static final double NANOS_PER_SECOND = 1e9;
+    /** Seed so every method sees the same words. */
+    private static final long SEED = 42L;
+    /** Stride through the second word of a pair, coprime with WORDS. */
+    private static final int STRIDE = 1237;
+
+    /** Names of the methods, by number. */
+    private static final String[] NAMES = {"hash-set", "mask", "mask (pre)",
+                                           "multiset", "multiset (pre)",
+                                           "regex", "isWord"};
+
+    /** The words. */
+    private static String[] words;
+    /** Their letter masks. */
+    private static int[] masks;
+    /** Their multiset keys. */
+    private static long[] keys;
+    /** Sink for results, so the work is not optimised away. */
+    private static long sink;
+
+    /**
+     * Prevent instantiation.
+     */
+    private JottoBenchmark() {
+        throw new UnsupportedOperationException("class cannot be instantiated");
+    }
+
+    /**
+     * Runs the benchmark.
+     * @param args timed pairs per method
+     */
+    public static void main(final String[] args) {
+        long pairs = args.length > 0 ? Long.parseLong(args[0])
+                                     : DEFAULT_PAIRS;
+        Random random = new Random(SEED);
+        words = new String[WORDS];
+        masks = new int[WORDS];
+        keys = new long[WORDS];
+        char[] letters = new char[WORD_LENGTH];
+        for (int i = 0; i < WORDS; i++) {
+            for (int j = 0; j < WORD_LENGTH; j++) {
+                letters[j] = (char) ('A' + random.nextInt(JottoRules.LETTERS));
+            }
+            words[i] = new String(letters);
+            masks[i] = JottoRules.mask(words[i]);
+            keys[i] = JottoRules.multisetKey(words[i]);
+        }
+        System.out.printf("%-16s %14s %10s %12s%n", "method", "pairs/s",
+                          "ns/pair", "bytes/pair");
+        for (int method = 0; method < NAMES.length; method++) {
+            run(method, pairs / WARM_UP_DIVISOR);
+            long bytesBefore = allocatedBytes();
+            long start = System.nanoTime();
+            run(method, pairs);
+            long nanos = System.nanoTime() - start;
+            long bytesAfter = allocatedBytes();
+            String bytes = bytesBefore < 0 ? "n/a"
+                : String.format("%.1f", (double) (bytesAfter - bytesBefore)
+                                        / pairs);
+            System.out.printf("%-16s %,14.0f %10.2f %12s%n", NAMES[method],
+                              pairs * NANOS_PER_SECOND / nanos,
+                              (double) nanos / pairs, bytes);
+        }
+    }
+
+    /**
+     * Scores or validates word pairs with one method.
+     * @param method index into NAMES
+     * @param pairs pairs to score
+     */
+    private static void run(final int method, final long pairs) {
+        int mod = WORDS - 1;
+        for (long i = 0; i < pairs; i++) {
+            int a = (int) i & mod;
+            int b = (int) (i * STRIDE >>> 3) & mod;
+            switch (method) {
+                case 0:
+                    sink += hashSetCount(words[a], words[b]);
+                    break;
+                case 1:
+                    sink += JottoRules.common(JottoRules.mask(words[a]),
+                                              JottoRules.mask(words[b]));
+                    break;
+                case 2:
+                    sink += JottoRules.common(masks[a], masks[b]);
+                    break;
+                case 3:
+                    sink += JottoRules.common(
+                        JottoRules.multisetKey(words[a]),
+                        JottoRules.multisetKey(words[b]));
+                    break;
+                case 4:
+                    sink += JottoRules.common(keys[a], keys[b]);
+                    break;
+                case 5:
+                    sink += words[a].length() == WORD_LENGTH
+                        && words[a].matches("[A-Z]+") ? 1 : 0;
+                    break;
+                default:
+                    sink += JottoRules.isWord(words[a], WORD_LENGTH) ? 1 : 0;
+                    break;
+            }
+        }
+    }
+
+    /**
+     * The letter count JottoGame made before letter masks.
+     * @param secret the secret word
+     * @param guess the guess
+     * @return number of distinct shared letters
+     */
+    private static int hashSetCount(final String secret, final String guess) {
+        Set<Character> secretLetters = new HashSet<>();
+        for (char c : secret.toCharArray()) {
+            secretLetters.add(c);
+        }
+        Set<Character> guessLetters = new HashSet<>();
+        for (char c : guess.toCharArray()) {
+            guessLetters.add(c);
+        }
+        guessLetters.retainAll(secretLetters);
+        return guessLetters.size();
+    }
+
+    /**
+     * Bytes allocated so far by the current thread.
+     * @return the count, or -1 if the runtime does not provide it
+     */
+    private static long allocatedBytes() {
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        if (threads instanceof com.sun.management.ThreadMXBean) {
+            return ((com.sun.management.ThreadMXBean) threads)
+                .getCurrentThreadAllocatedBytes();
+        }
+        return -1;
+    }
+}
@@ -1,7 +1,8 @@
-import java.util.Scanner;
-import java.util.Set;
-import java.util.HashSet;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NoSuchElementException;
 import java.util.Optional;
+import java.util.Random;
 
 /**
  * A logic-based word guessing game where the player must deduce a secret
@@ -32,18 +33,70 @@ import java.util.Optional;
  * - Use consistent casing (e.g., convert all to uppercase).
  * - Use Optional<Integer> for scoring to integrate with the game
  *     history tracker.
+ *
+ * The secret is a random 5-letter word of a WordDictionary (the
+ *   standard one unless another is given), and guesses must be words
+ *   of the same dictionary.
+ * Matches are counted on JottoRules letter masks: by default each
+ *   shared letter once, however often it is repeated; in multiset mode
+ *   a repeated letter counts as often as both words have it.
+ * At the guess prompt, hint asks a JottoSolver for the guess that
+ *   leaves the fewest words possible on average, and auto lets the
+ *   solver play the rest of the game; a game the computer finishes
+ *   gives no score.
+ * The solver is only built once a hint or auto is asked for, and then
+ *   told the guesses already scored, so a game played without help
+ *   never pays for it.
  * </pre>
- * @version 1
+ * @version 6
  */
 public class JottoGame implements Game {
-    /** Hard-coded secret word. Replace with randomized word from list. */
-    private static final String SECRET_WORD = "BRICK";
     /** Number of letters in a word. */
     private static final int WORD_LENGTH = 5;
     /** Maximum number of guesses allowed. */
     private static final int MAX_GUESSES = 10;
-    /** Console input. */
-    private final Scanner scanner = new Scanner(System.in);
+    /** Command that asks for a hint. */
+    private static final String HINT = "HINT";
+    /** Command that lets the computer finish the game. */
+    private static final String AUTO = "AUTO";
+
+    /** Words the secret and the guesses come from. */
+    private final WordDictionary words;
+    /** Chooses the secret. */
+    private final Random random;
+    /** Whether repeated letters count once per copy in both words. */
+    private final boolean multiset;
+
+    /**
+     * Creates the game on the standard dictionary.
+     */
+    public JottoGame() {
+        this(WordDictionary.standard(), new Random());
+    }
+
+    /**
+     * Creates the game on a given dictionary.
+     * @param dictionary words the secret and the guesses come from
+     * @param secrets chooses the secret
+     */
+    JottoGame(final WordDictionary dictionary, final Random secrets) {
+        this(dictionary, secrets, false);
+    }
+
+    /**
+     * Creates the game on a given dictionary, choosing how repeated
+     *   letters count.
+     * @param dictionary words the secret and the guesses come from
+     * @param secrets chooses the secret
+     * @param countRepeats true to count a repeated letter as often as
+     *        both words have it, false to count each letter once
+     */
+    JottoGame(final WordDictionary dictionary, final Random secrets,
+              final boolean countRepeats) {
+        this.words = dictionary;
+        this.random = secrets;
+        this.multiset = countRepeats;
+    }
 
     @Override
     public String getName() {
@@ -51,41 +104,100 @@ public class JottoGame implements Game {
     }
 
     @Override
-    public Optional<Integer> play() {
-        System.out.println("[Jotto] Guess a secret word of "
-                           + WORD_LENGTH + " letters. "
-                           + System.lineSeparator()
-                           + "You will be shown how many letters matched."
-                           + System.lineSeparator()
-                           + "Ex: \"BRICK\" matches \"BUILD\" by two "
-                           + "letters: \"B\" and \"I\". ");
+    public Optional<Integer> play(final GameIO io) {
+        io.println("[Jotto] Guess a secret word of "
+                    + WORD_LENGTH + " letters. "
+                    + System.lineSeparator()
+                    + "You will be shown how many letters matched."
+                    + System.lineSeparator()
+                    + "Ex: \"BRICK\" matches \"BUILD\" by two "
+                    + "letters: \"B\" and \"I\". "
+                    + System.lineSeparator()
+                    + "Type hint for a suggestion, or auto to let the "
+                    + "computer finish.");
+        if (multiset) {
+            io.println("Repeated letters count as often as both words "
+                       + "have them.");
+        }
+        String secret = GameUtils.getRandomWord(words, WORD_LENGTH, random);
+        if (secret == null) {
+            io.println("There are no " + WORD_LENGTH + "-letter words to "
+                       + "play with.");
+            return Optional.empty();
+        }
+        JottoSolver solver = null;
+        List<String> guessed = new ArrayList<>();
+        List<Integer> scores = new ArrayList<>();
         int attemptsLeft = MAX_GUESSES;
+        boolean auto = false;
 
         while (attemptsLeft > 0) {
-            System.out.print("Enter guess: ");
-            String guess = scanner.nextLine().trim().toUpperCase();
+            String guess;
+            if (auto) {
+                guess = solver.hint();
+                io.println("Computer guesses " + guess);
+            } else {
+                try {
+                    guess = io.prompt("Enter guess: ").trim().toUpperCase();
+                } catch (NoSuchElementException e) {
+                    return Optional.empty();
+                }
+                if (guess.equals(HINT) || guess.equals(AUTO)) {
+                    if (solver == null) {
+                        solver = new JottoSolver(words, WORD_LENGTH, multiset);
+                        for (int i = 0; i < guessed.size(); i++) {
+                            solver.record(guessed.get(i), scores.get(i));
+                        }
+                    }
+                }
+                if (guess.equals(HINT)) {
+                    io.println("Hint: try " + solver.hint() + " ("
+                               + solver.candidates() + " words are still "
+                               + "possible).");
+                    continue;
+                }
+                if (guess.equals(AUTO)) {
+                    auto = true;
+                    continue;
+                }
+            }
 
-            if (guess.length() != WORD_LENGTH || !guess.matches("[A-Z]+")) {
-                System.out.println("Invalid input. "
-                                   + "Please enter a "
-                                   + WORD_LENGTH + "-letter word "
-                                   + "with alphabetic characters only.");
+            if (!JottoRules.isWord(guess, WORD_LENGTH)) {
+                io.println("Invalid input. "
+                            + "Please enter a "
+                            + WORD_LENGTH + "-letter word "
+                            + "with alphabetic characters only.");
+                continue;
+            }
+            if (!words.contains(guess)) {
+                io.println("\"" + guess + "\" is not in the word list.");
                 continue;
             }
 
-            if (guess.equals(SECRET_WORD)) {
-                System.out.println("Congratulations! You guessed the word.");
+            if (guess.equals(secret)) {
+                if (auto) {
+                    io.println("The computer found the word.");
+                    return Optional.empty();
+                }
+                io.println("Congratulations! You guessed the word.");
                 return Optional.of(attemptsLeft);
             } else {
-                int matches = countMatchingLetters(SECRET_WORD, guess);
-                System.out.println("Letters in common: " + matches);
+                int matches = multiset ? countRepeatedLetters(secret, guess)
+                                       : countMatchingLetters(secret, guess);
+                io.println("Letters in common: " + matches);
+                if (solver != null) {
+                    solver.record(guess, matches);
+                } else {
+                    guessed.add(guess);
+                    scores.add(matches);
+                }
                 attemptsLeft--;
             }
         }
 
-        System.out.println("You ran out of guesses. "
-                           + "The word was: " + SECRET_WORD);
-        return Optional.of(0);
+        io.println("You ran out of guesses. "
+                    + "The word was: " + secret);
+        return auto ? Optional.empty() : Optional.of(0);
     }
 
     /**
@@ -97,17 +209,20 @@ public class JottoGame implements Game {
      * @return number of matching letters
      */
     private int countMatchingLetters(final String secret, final String guess) {
-        Set<Character> secretLetters = new HashSet<>();
-        for (char c : secret.toCharArray()) {
-            secretLetters.add(c);
-        }
-
-        Set<Character> guessLetters = new HashSet<>();
-        for (char c : guess.toCharArray()) {
-            guessLetters.add(c);
-        }
+        return JottoRules.common(JottoRules.mask(secret),
+                                 JottoRules.mask(guess));
+    }
 
-        guessLetters.retainAll(secretLetters);
-        return guessLetters.size();
+    /**
+     * Counts the letters the guess shares with the secret word, a repeated
+     *   letter as often as both words have it.
+     *
+     * @param secret the secret word
+     * @param guess the player's guess
+     * @return number of matching letters
+     */
+    private int countRepeatedLetters(final String secret, final String guess) {
+        return JottoRules.common(JottoRules.multisetKey(secret),
+                                 JottoRules.multisetKey(guess));
     }
 }
@@ -1,10 +1,19 @@
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.junit.jupiter.api.Assertions.fail;
 import org.junit.jupiter.api.Test;
 
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Optional;
+import java.util.Random;
+import java.util.Scanner;
+
 /**
  * Tests for JottoGame.
- * @version 1
+ * @version 3
  */
 public class JottoGameTest {
 
@@ -29,6 +38,88 @@ public class JottoGameTest {
         assertEquals(5, matches);
     }
 
+    /**
+     * The secret comes from the dictionary, and guesses that are not
+     *   words in it are refused without costing a guess.
+     */
+    @Test
+    public void testPlayFromDictionary() {
+        WordDictionary words = WordDictionary.of(List.of("BRICK", "CRANE"));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        GameIO io = new GameIO(new Scanner("CRANX\nCRANE\nBRICK\n"), out,
+                               StandardCharsets.UTF_8);
+        JottoGame game = new JottoGame(words, new Random(1));
+        Optional<Integer> score = game.play(io);
+        io.flush();
+        String text = out.toString(StandardCharsets.UTF_8);
+        assertTrue(text.contains("\"CRANX\" is not in the word list."));
+        if (text.contains("Letters in common: 2")) {
+            assertEquals(Optional.of(9), score);
+        } else {
+            assertEquals(Optional.of(10), score);
+        }
+    }
+
+    /**
+     * In multiset mode a repeated letter counts as often as both words
+     *   have it.
+     */
+    @Test
+    public void testPlayCountingRepeats() {
+        WordDictionary words = WordDictionary.of(List.of("CIRCA", "CACAO"));
+        String secret = GameUtils.getRandomWord(words, 5, new Random(1));
+        String other = secret.equals("CIRCA") ? "CACAO" : "CIRCA";
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        GameIO io = new GameIO(new Scanner(other + "\n" + secret + "\n"),
+                               out, StandardCharsets.UTF_8);
+        Optional<Integer> score =
+            new JottoGame(words, new Random(1), true).play(io);
+        io.flush();
+        String text = out.toString(StandardCharsets.UTF_8);
+        assertTrue(text.contains("Letters in common: 3"));
+        assertEquals(Optional.of(9), score);
+    }
+
+    /**
+     * A hint names a word still possible, costing no guess; auto lets
+     *   the computer finish, which gives no score.
+     */
+    @Test
+    public void testHintAndAuto() {
+        WordDictionary words = WordDictionary.of(
+            List.of("BRICK", "CRANE", "BUILD", "ZOOEY", "PRICK"));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        GameIO io = new GameIO(new Scanner("hint\nauto\n"), out,
+                               StandardCharsets.UTF_8);
+        Optional<Integer> score = new JottoGame(words, new Random(1)).play(io);
+        io.flush();
+        String text = out.toString(StandardCharsets.UTF_8);
+        assertTrue(text.contains("Hint: try "));
+        assertTrue(text.contains("(5 words are still possible)"));
+        assertTrue(text.contains("Computer guesses "));
+        assertTrue(text.contains("The computer found the word."));
+        assertEquals(Optional.empty(), score);
+    }
+
+    /**
+     * A hint asked for after some guesses accounts for their scores.
+     */
+    @Test
+    public void testHintAfterGuesses() {
+        WordDictionary words = WordDictionary.of(
+            List.of("BRICK", "CRANE", "BUILD", "ZOOEY", "PRICK"));
+        String secret = GameUtils.getRandomWord(words, 5, new Random(1));
+        String guess = secret.equals("ZOOEY") ? "BRICK" : "ZOOEY";
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        GameIO io = new GameIO(new Scanner(guess + "\nhint\n"), out,
+                               StandardCharsets.UTF_8);
+        new JottoGame(words, new Random(1)).play(io);
+        io.flush();
+        String text = out.toString(StandardCharsets.UTF_8);
+        assertTrue(text.contains("Hint: try "));
+        assertFalse(text.contains("(5 words are still possible)"));
+    }
+
     /**
      * Reflection-based access since countMatchingLetters is private.
      * @param game the Jotto game under test
@@ -0,0 +1,174 @@
+/**
+ * Jotto scoring on letter masks, without allocation.
+ * <pre>
+ * A word's letter mask has bit i set when it holds the i-th letter of
+ *   the alphabet (A is bit 0), so the letters two words share, each
+ *   counted once, are Integer.bitCount(a &amp; b).
+ * A multiset key also counts repeats: a letter in both words counts as
+ *   often as it appears in the word with fewer copies, so a guess with
+ *   two Cs scores one C against a secret with one. The key holds
+ *   occurrence planes in one long:
+ *     bits  0-25  letters present at least once
+ *     bits 26-51  letters present at least twice
+ *     bits 52-56  the letter present three or more times, plus one
+ *                 (0 if none)
+ *     bits 57-62  copies of that letter beyond the second
+ *   so the shared count is the bit count of the two planes and, when
+ *   both words triple the same letter, the smaller surplus. Every word
+ *   of up to five letters has a key; a longer word with two letters
+ *   three times over has none.
+ * Letters may be in either case; anything else makes a word invalid,
+ *   which the masks and keys report as -1.
+ * </pre>
+ * @version 1
+ */
+final class JottoRules {
+    /** Letters in the alphabet. */
+    static final int LETTERS = 26;
+    /** Returned for a word with no mask or key. */
+    static final int INVALID = -1;
+    /** Bit that folds a lower-case ASCII letter to upper case. */
+    private static final int CASE_BIT = 0x20;
+    /** First bit of the second occurrence plane. */
+    private static final int SECOND_PLANE = LETTERS;
+    /** First bit of the tripled letter. */
+    private static final int TRIPLE_SHIFT = 2 * LETTERS;
+    /** First bit of the tripled letter's surplus. */
+    private static final int SURPLUS_SHIFT = TRIPLE_SHIFT + 5;
+    /** Both occurrence planes. */
+    private static final long PLANES = (1L << TRIPLE_SHIFT) - 1;
+    /** The tripled letter field. */
+    private static final long TRIPLE = 0x1FL << TRIPLE_SHIFT;
+    /** Largest surplus a key can hold. */
+    private static final int MAX_SURPLUS = 0x3F;
+
+    /**
+     * Not instantiated.
+     */
+    private JottoRules() {
+    }
+
+    /**
+     * Index of a letter in the alphabet.
+     * @param c a character
+     * @return 0 for A or a to 25 for Z or z, or -1 if c is not a letter
+     */
+    static int letter(final char c) {
+        int index = (c & ~CASE_BIT) - 'A';
+        return c < 'A' || c > 'z' || index < 0 || index >= LETTERS
+            ? INVALID : index;
+    }
+
+    /**
+     * Whether a word has a given length and only letters; the check the
+     *   game makes on every guess, without a regular expression.
+     * @param word the word
+     * @param length letters it should have
+     * @return true if it is a word of that length
+     */
+    static boolean isWord(final CharSequence word, final int length) {
+        if (word.length() != length) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            if (letter(word.charAt(i)) < 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * The set of letters in a word.
+     * @param word the word
+     * @return the letter mask, or INVALID if the word is empty or has
+     *         anything but letters
+     */
+    static int mask(final CharSequence word) {
+        int mask = 0;
+        for (int i = 0; i < word.length(); i++) {
+            int index = letter(word.charAt(i));
+            if (index < 0) {
+                return INVALID;
+            }
+            mask |= 1 << index;
+        }
+        return word.length() == 0 ? INVALID : mask;
+    }
+
+    /**
+     * Letters two words share, each counted once.
+     * @param a one word's letter mask
+     * @param b the other's
+     * @return the number of shared letters
+     */
+    static int common(final int a, final int b) {
+        return Integer.bitCount(a & b);
+    }
+
+    /**
+     * The multiset of letters in a word.
+     * @param word the word
+     * @return the multiset key, or INVALID if the word is empty, has
+     *         anything but letters, or has more than one letter three
+     *         or more times
+     */
+    static long multisetKey(final CharSequence word) {
+        long key = 0;
+        for (int i = 0; i < word.length(); i++) {
+            int index = letter(word.charAt(i));
+            if (index < 0) {
+                return INVALID;
+            }
+            long once = 1L << index;
+            long twice = once << SECOND_PLANE;
+            if ((key & once) == 0) {
+                key |= once;
+            } else if ((key & twice) == 0) {
+                key |= twice;
+            } else {
+                long triple = (long) (index + 1) << TRIPLE_SHIFT;
+                long field = key & TRIPLE;
+                if (field != 0 && field != triple
+                    || surplus(key) == MAX_SURPLUS) {
+                    return INVALID;
+                }
+                key = (key | triple) + (1L << SURPLUS_SHIFT);
+            }
+        }
+        return word.length() == 0 ? INVALID : key;
+    }
+
+    /**
+     * Letters two words share, counting repeats as often as both words
+     *   have them.
+     * @param a one word's multiset key
+     * @param b the other's
+     * @return the number of shared letters
+     */
+    static int common(final long a, final long b) {
+        int shared = Long.bitCount(a & b & PLANES);
+        if (((a ^ b) & TRIPLE) == 0) {
+            shared += Math.min(surplus(a), surplus(b));
+        }
+        return shared;
+    }
+
+    /**
+     * The letter mask held in a multiset key.
+     * @param key the key
+     * @return the mask
+     */
+    static int mask(final long key) {
+        return (int) (key & ((1L << LETTERS) - 1));
+    }
+
+    /**
+     * Copies of the tripled letter beyond the second.
+     * @param key a multiset key
+     * @return the surplus, 0 if no letter is tripled
+     */
+    private static int surplus(final long key) {
+        return (int) (key >>> SURPLUS_SHIFT);
+    }
+}
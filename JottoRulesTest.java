@@ -0,0 +1,154 @@
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests for JottoRules.
+ * @version 1
+ */
+public class JottoRulesTest {
+    /**
+     * Letters map to bits in either case; anything else is invalid.
+     */
+    @Test
+    public void testMask() {
+        assertEquals(1, JottoRules.mask("A"));
+        assertEquals(1 << 25 | 1, JottoRules.mask("zaZ"));
+        assertEquals(JottoRules.mask("BRICK"), JottoRules.mask("brick"));
+        assertEquals(JottoRules.INVALID, JottoRules.mask(""));
+        assertEquals(JottoRules.INVALID, JottoRules.mask("AB@"));
+        assertEquals(JottoRules.INVALID, JottoRules.mask("A[B"));
+        assertEquals(JottoRules.INVALID, JottoRules.mask("A`B"));
+        assertEquals(JottoRules.INVALID, JottoRules.mask("CAFÉ"));
+    }
+
+    /**
+     * The validator wants the right length and letters only.
+     */
+    @Test
+    public void testIsWord() {
+        assertTrue(JottoRules.isWord("BRICK", 5));
+        assertTrue(JottoRules.isWord("brick", 5));
+        assertFalse(JottoRules.isWord("BRICKS", 5));
+        assertFalse(JottoRules.isWord("BR1CK", 5));
+        assertFalse(JottoRules.isWord("BR CK", 5));
+        assertFalse(JottoRules.isWord("", 5));
+    }
+
+    /**
+     * Shared letters count once each in set mode, and as often as both
+     *   words have them in multiset mode.
+     */
+    @Test
+    public void testCommon() {
+        assertEquals(2, common("BRICK", "CRANE"));
+        assertEquals(0, common("BRICK", "ZOOEY"));
+        assertEquals(5, common("BRICK", "BRICK"));
+        assertEquals(2, common("CIRCA", "CACAO"));
+        assertEquals(3, repeated("CIRCA", "CACAO"));
+        assertEquals(1, repeated("CRANE", "CCCCC"));
+        assertEquals(3, repeated("EERIE", "EEEEE"));
+        assertEquals(5, repeated("EEEEE", "EEEEE"));
+        assertEquals(1, repeated("EERIE", "ABBEY"));
+    }
+
+    /**
+     * Multiset keys agree with counting letters one by one, and hold
+     *   the same letters as the masks.
+     */
+    @Test
+    public void testMultisetMatchesCounting() {
+        Random random = new Random(7);
+        for (int i = 0; i < 20_000; i++) {
+            String a = randomWord(random, 1 + random.nextInt(5));
+            String b = randomWord(random, 1 + random.nextInt(5));
+            assertEquals(counted(a, b), repeated(a, b), a + " " + b);
+            assertEquals(JottoRules.mask(a),
+                         JottoRules.mask(JottoRules.multisetKey(a)));
+            Set<Character> shared = new HashSet<>();
+            for (char c : a.toCharArray()) {
+                if (b.indexOf(c) >= 0) {
+                    shared.add(c);
+                }
+            }
+            assertEquals(shared.size(), common(a, b), a + " " + b);
+        }
+    }
+
+    /**
+     * Long words with one letter repeated many times have keys; words
+     *   with two letters tripled do not.
+     */
+    @Test
+    public void testLongWords() {
+        assertEquals(12, repeated("AAAAAAAAAAAA", "AAAAAAAAAAAA"));
+        assertEquals(3, repeated("AAAAAAAAAAAA", "AAAB"));
+        assertEquals(JottoRules.INVALID, JottoRules.multisetKey("AAABBB"));
+        assertEquals(JottoRules.INVALID, JottoRules.multisetKey(""));
+        assertEquals(JottoRules.INVALID, JottoRules.multisetKey("AB-C"));
+    }
+
+    /**
+     * Shared letters in set mode.
+     * @param a one word
+     * @param b the other
+     * @return the count
+     */
+    private static int common(final String a, final String b) {
+        return JottoRules.common(JottoRules.mask(a), JottoRules.mask(b));
+    }
+
+    /**
+     * Shared letters in multiset mode.
+     * @param a one word
+     * @param b the other
+     * @return the count
+     */
+    private static int repeated(final String a, final String b) {
+        return JottoRules.common(JottoRules.multisetKey(a),
+                                 JottoRules.multisetKey(b));
+    }
+
+    /**
+     * Shared letters in multiset mode, counted with maps.
+     * @param a one word
+     * @param b the other
+     * @return the count
+     */
+    private static int counted(final String a, final String b) {
+        Map<Character, Integer> counts = new HashMap<>();
+        for (char c : a.toCharArray()) {
+            counts.merge(c, 1, Integer::sum);
+        }
+        int shared = 0;
+        for (char c : b.toCharArray()) {
+            if (counts.getOrDefault(c, 0) > 0) {
+                counts.merge(c, -1, Integer::sum);
+                shared++;
+            }
+        }
+        return shared;
+    }
+
+    /**
+     * A random word over a few letters, so repeats are common.
+     * @param random the generator
+     * @param length letters
+     * @return the word
+     */
+    private static String randomWord(final Random random, final int length) {
+        char[] letters = new char[length];
+        for (int i = 0; i < length; i++) {
+            letters[i] = (char) ('A' + random.nextInt(4));
+        }
+        return new String(letters);
+    }
+}
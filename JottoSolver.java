@@ -0,0 +1,402 @@
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Jotto solver: keeps the words still possible as the secret and picks
+ *   the guess that leaves the fewest of them, on average.
+ * <pre>
+ * Every word of the dictionary's length is a guess, and at the start a
+ *   candidate. A guess splits the candidates into classes by the number
+ *   of letters each shares with it, plus the guess itself if it is a
+ *   candidate (found). If the secret is equally likely to be any
+ *   candidate, a class of s words is left with chance s/n, so the
+ *   expected number left is the sum of s*s over n; the solver picks
+ *   the guess with the smallest sum, a candidate on a tie, then the
+ *   first in dictionary order. Guessing a candidate always leaves fewer
+ *   words, so the solver never stalls.
+ * Scoring every guess against every candidate is done 64 candidates at
+ *   a time. Each occurrence of a letter in the guess is a term: the
+ *   first A asks "has the candidate an A", the second "has it two As"
+ *   (in multiset mode; in set mode repeated letters add no term). The
+ *   candidates answering yes are kept as bit sets, one per letter and
+ *   count, so a guess's shared count over 64 candidates is the sum of
+ *   its terms' bit sets, added up in bit-sliced 4-bit counters and read
+ *   out per count with Long.bitCount. The guesses are divided among the
+ *   cores with fork-join.
+ * A solver is used by one caller at a time.
+ * </pre>
+ * @version 1
+ */
+final class JottoSolver {
+    /** Largest word length; also the most terms a guess has. */
+    private static final int MAX_TERMS = WordDictionary.MAX_LENGTH;
+    /** Bit sets per letter: one per count from 1 to MAX_TERMS. */
+    private static final int PLANES = JottoRules.LETTERS * MAX_TERMS;
+    /** Bits of a packed choice that hold the guess. */
+    private static final int GUESS_BITS = 21;
+    /** Most words of one length a solver takes. */
+    static final int MAX_WORDS = 1 << (GUESS_BITS - 1);
+    /** Guess-words (guesses times 64-candidate words) one task scores. */
+    private static final int GRAIN = 1 << 14;
+    /** Candidates per long. */
+    private static final int LANES = Long.SIZE;
+
+    /** The dictionary. */
+    private final WordDictionary words;
+    /** Letters in a word. */
+    private final int length;
+    /** Whether repeated letters count as often as both words have them. */
+    private final boolean multiset;
+    /** Each guess's terms: plane indices, letter * MAX_TERMS + count. */
+    private final int[][] terms;
+    /** Each word's multiset key, or letter mask in set mode. */
+    private final long[] keys;
+    /** Candidates, as indices of words of the length; 0 to count. */
+    private int[] candidates;
+    /** Number of candidates. */
+    private int count;
+    /** Candidate bit sets, plane by plane, built for a candidate set. */
+    private long[] planes = new long[0];
+    /** Longs per plane in planes. */
+    private int stride;
+    /** Whether each word is a candidate in the set planes was built for. */
+    private boolean[] live;
+
+    /**
+     * Creates a solver with every word of a length a candidate.
+     * @param dictionary the words
+     * @param wordLength letters in a word, 1 to WordDictionary.MAX_LENGTH
+     * @param countRepeats true for multiset scoring, false to count each
+     *        shared letter once
+     * @throws IllegalArgumentException if the dictionary has more than
+     *         MAX_WORDS words of the length
+     */
+    JottoSolver(final WordDictionary dictionary, final int wordLength,
+                final boolean countRepeats) {
+        int size = dictionary.size(wordLength);
+        if (size > MAX_WORDS) {
+            throw new IllegalArgumentException("Too many words: " + size);
+        }
+        this.words = dictionary;
+        this.length = wordLength;
+        this.multiset = countRepeats;
+        this.terms = new int[size][];
+        this.keys = new long[size];
+        int[] copies = new int[JottoRules.LETTERS];
+        for (int i = 0; i < size; i++) {
+            long packed = dictionary.packed(wordLength, i);
+            Arrays.fill(copies, 0);
+            int[] plane = new int[wordLength];
+            int n = 0;
+            for (int j = 0; j < wordLength; j++) {
+                int letter = WordDictionary.letter(packed, wordLength, j);
+                if (copies[letter] == 0 || multiset) {
+                    plane[n++] = letter * MAX_TERMS + copies[letter];
+                }
+                copies[letter]++;
+            }
+            terms[i] = Arrays.copyOf(plane, n);
+            String word = WordDictionary.unpack(packed);
+            keys[i] = multiset ? JottoRules.multisetKey(word)
+                               : JottoRules.mask(word);
+        }
+        this.live = new boolean[size];
+        reset();
+    }
+
+    /**
+     * Makes every word a candidate again.
+     */
+    void reset() {
+        candidates = new int[keys.length];
+        for (int i = 0; i < keys.length; i++) {
+            candidates[i] = i;
+        }
+        count = keys.length;
+    }
+
+    /**
+     * Number of words still possible.
+     * @return the candidate count
+     */
+    int candidates() {
+        return count;
+    }
+
+    /**
+     * A word still possible.
+     * @param i 0 to candidates() - 1
+     * @return the word
+     */
+    String candidate(final int i) {
+        return words.word(length, candidates[i]);
+    }
+
+    /**
+     * Number of guesses, the words of the length.
+     * @return the guess count
+     */
+    int guesses() {
+        return keys.length;
+    }
+
+    /**
+     * The best guess for the words still possible.
+     * @return the guess, or null if no word is possible
+     */
+    String hint() {
+        int guess = best(candidates, count);
+        return guess < 0 ? null : words.word(length, guess);
+    }
+
+    /**
+     * Removes the words that are not the secret, given a wrong guess and
+     *   the letters it shares with the secret.
+     * @param guess the guess, of the solver's length
+     * @param matches shared letters reported for it
+     */
+    void record(final String guess, final int matches) {
+        long key = multiset ? JottoRules.multisetKey(guess)
+                            : JottoRules.mask(guess);
+        long packed = WordDictionary.pack(guess);
+        int kept = 0;
+        for (int i = 0; i < count; i++) {
+            int c = candidates[i];
+            if (shared(key, keys[c]) == matches
+                && words.packed(length, c) != packed) {
+                candidates[kept++] = c;
+            }
+        }
+        count = kept;
+    }
+
+    /**
+     * Guesses the solver needs to find a word, playing against it.
+     * @param secret index of the secret among the words of the length
+     * @return guesses made, the last the secret
+     */
+    int solve(final int secret) {
+        reset();
+        int guesses = 0;
+        while (true) {
+            int guess = best(candidates, count);
+            guesses++;
+            if (guess == secret) {
+                return guesses;
+            }
+            record(words.word(length, guess), shared(keys[guess],
+                                                     keys[secret]));
+        }
+    }
+
+    /**
+     * Solves every word at once by following the solver's decision tree:
+     *   each class of candidates a guess leaves gets its own best guess,
+     *   found once for all the words in it. The guesses are the same as
+     *   solve would make for each word.
+     * @return guesses needed for each word, by index
+     */
+    int[] solveAll() {
+        int[] guesses = new int[keys.length];
+        int[] all = new int[keys.length];
+        for (int i = 0; i < all.length; i++) {
+            all[i] = i;
+        }
+        solveAll(all, all.length, 1, guesses);
+        return guesses;
+    }
+
+    /**
+     * Solves every word of a candidate set.
+     * @param set the candidates; reordered
+     * @param n number of candidates
+     * @param depth guesses made so far, this one included
+     * @param guesses where each word's guess count goes
+     */
+    private void solveAll(final int[] set, final int n, final int depth,
+                          final int[] guesses) {
+        if (n == 0) {
+            return;
+        }
+        int guess = best(set, n);
+        int[] sizes = new int[MAX_TERMS + 1];
+        int[] feedback = new int[n];
+        for (int i = 0; i < n; i++) {
+            if (set[i] == guess) {
+                guesses[guess] = depth;
+                feedback[i] = -1;
+            } else {
+                feedback[i] = shared(keys[guess], keys[set[i]]);
+                sizes[feedback[i]]++;
+            }
+        }
+        for (int value = 0; value <= MAX_TERMS; value++) {
+            if (sizes[value] > 0) {
+                int[] subset = new int[sizes[value]];
+                int m = 0;
+                for (int i = 0; i < n; i++) {
+                    if (feedback[i] == value) {
+                        subset[m++] = set[i];
+                    }
+                }
+                solveAll(subset, m, depth + 1, guesses);
+            }
+        }
+    }
+
+    /**
+     * Letters two words share under the solver's scoring.
+     * @param a one word's key
+     * @param b the other's
+     * @return the shared count
+     */
+    private int shared(final long a, final long b) {
+        return multiset ? JottoRules.common(a, b)
+                        : JottoRules.common((int) a, (int) b);
+    }
+
+    /**
+     * The best guess against a set of candidates.
+     * @param set the candidates
+     * @param n number of candidates
+     * @return index of the guess, or -1 if there are no candidates
+     */
+    private int best(final int[] set, final int n) {
+        if (n <= 2) {
+            return n == 0 ? -1 : set[0];
+        }
+        build(set, n);
+        long choice = ForkJoinPool.commonPool().invoke(
+            new Choose(0, keys.length, n));
+        for (int i = 0; i < n; i++) {
+            live[set[i]] = false;
+        }
+        return (int) (choice & ((1 << GUESS_BITS) - 1));
+    }
+
+    /**
+     * Builds the candidate bit sets of a candidate set.
+     * @param set the candidates
+     * @param n number of candidates
+     */
+    private void build(final int[] set, final int n) {
+        stride = (n + LANES - 1) / LANES;
+        if (planes.length < PLANES * stride) {
+            planes = new long[PLANES * stride];
+        } else {
+            Arrays.fill(planes, 0, PLANES * stride, 0);
+        }
+        for (int i = 0; i < n; i++) {
+            int c = set[i];
+            live[c] = true;
+            long bit = 1L << i;
+            int word = i / LANES;
+            int[] t = terms[c];
+            for (int j = 0; j < t.length; j++) {
+                planes[t[j] * stride + word] |= bit;
+            }
+        }
+    }
+
+    /**
+     * Scores one guess: the sum over its classes of the class size
+     *   squared.
+     * @param guess index of the guess
+     * @param n number of candidates
+     * @param sizes scratch, at least MAX_TERMS + 1 entries
+     * @return the score
+     */
+    private long score(final int guess, final int n, final int[] sizes) {
+        int[] t = terms[guess];
+        int top = t.length;
+        Arrays.fill(sizes, 0, top + 1, 0);
+        long[] p = planes;
+        int s = stride;
+        for (int w = 0; w < s; w++) {
+            long c0 = 0;
+            long c1 = 0;
+            long c2 = 0;
+            long c3 = 0;
+            for (int j = 0; j < top; j++) {
+                long x = p[t[j] * s + w];
+                long carry0 = c0 & x;
+                c0 ^= x;
+                long carry1 = c1 & carry0;
+                c1 ^= carry0;
+                long carry2 = c2 & carry1;
+                c2 ^= carry1;
+                c3 ^= carry2;
+            }
+            for (int value = 1; value <= top; value++) {
+                long lanes = ((value & 1) != 0 ? c0 : ~c0)
+                    & ((value & 2) != 0 ? c1 : ~c1)
+                    & ((value & 4) != 0 ? c2 : ~c2)
+                    & ((value & 8) != 0 ? c3 : ~c3);
+                sizes[value] += Long.bitCount(lanes);
+            }
+        }
+        int zero = n;
+        for (int value = 1; value <= top; value++) {
+            zero -= sizes[value];
+        }
+        sizes[0] = zero;
+        if (live[guess]) {
+            sizes[top]--; // The guess itself is found, not left.
+        }
+        long sum = 0;
+        for (int value = 0; value <= top; value++) {
+            sum += (long) sizes[value] * sizes[value];
+        }
+        return sum;
+    }
+
+    /**
+     * Finds the best of a range of guesses, splitting the range among
+     *   the fork-join workers. The result packs the score, then 0 for a
+     *   candidate and 1 for another word, then the guess, so the least
+     *   result is the best choice.
+     */
+    private final class Choose extends RecursiveTask<Long> {
+        /** Serialization version. */
+        private static final long serialVersionUID = 1L;
+        /** First guess. */
+        private final int from;
+        /** Guess after the last. */
+        private final int to;
+        /** Number of candidates. */
+        private final int n;
+
+        /**
+         * Creates a task.
+         * @param first first guess
+         * @param end guess after the last
+         * @param candidateCount number of candidates
+         */
+        Choose(final int first, final int end, final int candidateCount) {
+            this.from = first;
+            this.to = end;
+            this.n = candidateCount;
+        }
+
+        @Override
+        protected Long compute() {
+            if ((long) (to - from) * stride > GRAIN && to - from > 1) {
+                int middle = (from + to) >>> 1;
+                Choose left = new Choose(from, middle, n);
+                left.fork();
+                long right = new Choose(middle, to, n).compute();
+                return Math.min(left.join(), right);
+            }
+            int[] sizes = new int[MAX_TERMS + 1];
+            long best = Long.MAX_VALUE;
+            for (int guess = from; guess < to; guess++) {
+                long choice = (score(guess, n, sizes) << 1
+                               | (live[guess] ? 0 : 1)) << GUESS_BITS
+                    | guess;
+                best = Math.min(best, choice);
+            }
+            return best;
+        }
+    }
+}
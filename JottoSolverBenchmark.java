@@ -0,0 +1,174 @@
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Measures the Jotto solver: how long a hint takes, and how many
+ *   guesses it needs for every word of a dictionary.
+ * <pre>
+ * Usage: java JottoSolverBenchmark [count ... | word list] [multiset]
+ *   Defaults to the standard dictionary and 12000 random five-letter
+ *   words drawn with English letter frequencies; given a word list
+ *   file, measures its five-letter words. multiset scores repeated
+ *   letters as often as both words have them.
+ * For each dictionary it reports:
+ *   hint ms   the opening hint, every word a candidate: the slowest
+ *             case, first run and best of several
+ *   guesses   average and most guesses over every word as the secret,
+ *             the last guess being the word itself, and how many words
+ *             are found within JottoGame's ten guesses
+ *   solve s   wall time to solve every word (JottoSolver.solveAll,
+ *             which makes the same guesses as solving the words one at
+ *             a time but chooses each shared guess once)
+ * Hints run on the common fork-join pool, whose size is printed.
+ * </pre>
+ * @version 1
+ */
+public final class JottoSolverBenchmark {
+    /** Letters in a word. */
+    private static final int WORD_LENGTH = 5;
+    /** Random words measured when none are given. */
+    private static final int DEFAULT_COUNT = 12_000;
+    /** Timed hints after the first. */
+    private static final int HINT_RUNS = 5;
+    /** Guesses a game of Jotto allows. */
+    private static final int MAX_GUESSES = 10;
+    /** Nanoseconds per millisecond. */
+    private static final double NANOS_PER_MILLI = 1e6;
+    /** Nanoseconds per second. */
+    private static final double NANOS_PER_SECOND = 1e9;
+    /** Seed so every run sees the same words. */
+    private static final long SEED = 42L;
+    /** English letter frequencies, per mille, A to Z. */
+    private static final int[] FREQUENCIES = {
+        82, 15, 28, 43, 127, 22, 20, 61, 70, 2, 8, 40, 24,
+        67, 75, 19, 1, 60, 63, 91, 28, 10, 24, 2, 20, 1};
+
+    /**
+     * Prevent instantiation.
+     */
+    private JottoSolverBenchmark() {
+        throw new UnsupportedOperationException("class cannot be instantiated");
+    }
+
+    /**
+     * Runs the benchmark.
+     * @param args word counts or a word list, and multiset
+     * @throws IOException if the word list cannot be read
+     */
+    public static void main(final String[] args) throws IOException {
+        boolean multiset = false;
+        List<String> sources = new ArrayList<>();
+        for (String arg : args) {
+            if (arg.equalsIgnoreCase("multiset")) {
+                multiset = true;
+            } else {
+                sources.add(arg);
+            }
+        }
+        System.out.printf("fork-join parallelism: %d%n",
+                          ForkJoinPool.getCommonPoolParallelism());
+        System.out.printf("%-14s %7s %9s %9s %8s %5s %8s %8s%n", "dictionary",
+                          "words", "hint ms", "best ms", "guesses", "most",
+                          "in 10", "solve s");
+        if (sources.isEmpty()) {
+            measure("standard", WordDictionary.standard(), multiset);
+            measure("random", randomWords(DEFAULT_COUNT), multiset);
+        }
+        for (String source : sources) {
+            if (Files.isRegularFile(Paths.get(source))) {
+                measure(Paths.get(source).getFileName().toString(),
+                        WordDictionary.of(words(source)), multiset);
+            } else {
+                measure("random", randomWords(Integer.parseInt(source)),
+                        multiset);
+            }
+        }
+    }
+
+    /**
+     * Measures one dictionary and prints a row.
+     * @param name what the dictionary is
+     * @param words the dictionary
+     * @param multiset whether repeats count
+     */
+    private static void measure(final String name, final WordDictionary words,
+                                final boolean multiset) {
+        JottoSolver solver = new JottoSolver(words, WORD_LENGTH, multiset);
+        long start = System.nanoTime();
+        solver.hint();
+        long first = System.nanoTime() - start;
+        long best = Long.MAX_VALUE;
+        for (int run = 0; run < HINT_RUNS; run++) {
+            start = System.nanoTime();
+            solver.hint();
+            best = Math.min(best, System.nanoTime() - start);
+        }
+        start = System.nanoTime();
+        int[] guesses = solver.solveAll();
+        long solve = System.nanoTime() - start;
+        long total = 0;
+        int most = 0;
+        int within = 0;
+        for (int g : guesses) {
+            total += g;
+            most = Math.max(most, g);
+            within += g <= MAX_GUESSES ? 1 : 0;
+        }
+        System.out.printf("%-14s %7d %9.1f %9.1f %8.3f %5d %8d %8.1f%n", name,
+                          guesses.length, first / NANOS_PER_MILLI,
+                          best / NANOS_PER_MILLI,
+                          (double) total / guesses.length, most, within,
+                          solve / NANOS_PER_SECOND);
+    }
+
+    /**
+     * Reads the words of a word list.
+     * @param file the list
+     * @return its words
+     * @throws IOException if it cannot be read
+     */
+    private static List<String> words(final String file) throws IOException {
+        List<String> words = new ArrayList<>();
+        for (String line : Files.readAllLines(Paths.get(file))) {
+            for (String word : line.trim().split("\\s+")) {
+                words.add(word);
+            }
+        }
+        return words;
+    }
+
+    /**
+     * Distinct random five-letter words, letters drawn with English
+     *   frequencies so that words share letters as real ones do.
+     * @param count number of words
+     * @return the dictionary
+     */
+    private static WordDictionary randomWords(final int count) {
+        int total = 0;
+        for (int f : FREQUENCIES) {
+            total += f;
+        }
+        Random random = new Random(SEED);
+        Set<String> words = new HashSet<>();
+        char[] letters = new char[WORD_LENGTH];
+        while (words.size() < count) {
+            for (int i = 0; i < WORD_LENGTH; i++) {
+                int r = random.nextInt(total);
+                int letter = 0;
+                while (r >= FREQUENCIES[letter]) {
+                    r -= FREQUENCIES[letter++];
+                }
+                letters[i] = (char) ('A' + letter);
+            }
+            words.add(new String(letters));
+        }
+        return WordDictionary.of(words);
+    }
+}
@@ -0,0 +1,144 @@
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests for JottoSolver.
+ * @version 1
+ */
+public class JottoSolverTest {
+    /**
+     * The hint is the guess with the fewest words left on average, as
+     *   found by scoring every pair of words one at a time.
+     */
+    @Test
+    public void testHintIsBestGuess() {
+        for (boolean multiset : new boolean[] {false, true}) {
+            WordDictionary words = randomWords(new Random(3), 300);
+            JottoSolver solver = new JottoSolver(words, 5, multiset);
+            String hint = solver.hint();
+            int size = words.size(5);
+            long best = Long.MAX_VALUE;
+            for (int g = 0; g < size; g++) {
+                best = Math.min(best, naiveScore(words, g, multiset));
+            }
+            assertEquals(best, naiveScore(words,
+                words.indexOf(WordDictionary.pack(hint), 5), multiset));
+        }
+    }
+
+    /**
+     * Recording feedback keeps exactly the words that would give it.
+     */
+    @Test
+    public void testRecord() {
+        WordDictionary words = WordDictionary.of(List.of(
+            "BRICK", "CRANE", "BUILD", "ZOOEY", "PRICK", "BRINK"));
+        JottoSolver solver = new JottoSolver(words, 5, false);
+        assertEquals(6, solver.candidates());
+        solver.record("CRANE", 2); // The secret shares C and R, say.
+        Set<String> left = new HashSet<>();
+        for (int i = 0; i < solver.candidates(); i++) {
+            left.add(solver.candidate(i));
+        }
+        assertEquals(Set.of("BRICK", "PRICK", "BRINK"), left);
+        solver.record("PRICK", 4);
+        assertEquals(1, solver.candidates());
+        assertEquals("BRICK", solver.hint());
+        solver.record("BRICK", 5);
+        assertNull(solver.hint());
+        solver.reset();
+        assertEquals(6, solver.candidates());
+    }
+
+    /**
+     * Solving every word at once makes the same guesses as solving them
+     *   one by one, and always ends on the word.
+     */
+    @Test
+    public void testSolveAll() {
+        for (boolean multiset : new boolean[] {false, true}) {
+            WordDictionary words = randomWords(new Random(5), 200);
+            JottoSolver solver = new JottoSolver(words, 5, multiset);
+            int[] all = solver.solveAll();
+            assertEquals(solver.guesses(), all.length);
+            for (int i = 0; i < all.length; i++) {
+                assertTrue(all[i] >= 1);
+                assertEquals(all[i], solver.solve(i), "word " + i);
+            }
+        }
+    }
+
+    /**
+     * Set mode cannot tell anagrams apart, except by guessing them.
+     */
+    @Test
+    public void testAnagrams() {
+        WordDictionary words = WordDictionary.of(List.of(
+            "LEMON", "MELON", "SOLEMN"));
+        JottoSolver solver = new JottoSolver(words, 5, false);
+        int[] all = solver.solveAll();
+        assertEquals(1, all[0]);
+        assertEquals(2, all[1]);
+        assertEquals(2, solver.guesses());
+    }
+
+    /**
+     * A guess's sum over classes of the class size squared, the guess
+     *   itself not counted as left.
+     * @param words the dictionary
+     * @param guess index of the guess
+     * @param multiset whether repeats count
+     * @return the score
+     */
+    private static long naiveScore(final WordDictionary words,
+                                   final int guess, final boolean multiset) {
+        String g = words.word(5, guess);
+        Map<Integer, Integer> classes = new HashMap<>();
+        for (int c = 0; c < words.size(5); c++) {
+            if (c != guess) {
+                String w = words.word(5, c);
+                int shared = multiset
+                    ? JottoRules.common(JottoRules.multisetKey(g),
+                                        JottoRules.multisetKey(w))
+                    : JottoRules.common(JottoRules.mask(g),
+                                        JottoRules.mask(w));
+                classes.merge(shared, 1, Integer::sum);
+            }
+        }
+        long sum = 0;
+        for (int size : classes.values()) {
+            sum += (long) size * size;
+        }
+        return sum;
+    }
+
+    /**
+     * A dictionary of random five-letter words over a few letters, so
+     *   that repeats and anagrams are common.
+     * @param random the generator
+     * @param count words to draw
+     * @return the dictionary
+     */
+    private static WordDictionary randomWords(final Random random,
+                                              final int count) {
+        Set<String> words = new HashSet<>();
+        char[] letters = new char[5];
+        while (words.size() < count) {
+            for (int i = 0; i < 5; i++) {
+                letters[i] = (char) ('A' + random.nextInt(10));
+            }
+            words.add(new String(letters));
+        }
+        return WordDictionary.of(words);
+    }
+}
@@ -0,0 +1,185 @@
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Scanner;
+import java.util.Set;
+
+/**
+ * Measures the launcher's time to first menu as games are added,
+ *   creating every game up front (as registerGames used to) or only the
+ *   GameDescriptors (as GameRegistry does).
+ * <pre>
+ * Usage: java LauncherStartupBenchmark [gameCount ...]
+ *   Defaults to 12 50 200 1000 games.
+ * Each synthetic game loads a small word set in its constructor,
+ *   standing in for the dictionaries, opening books and puzzle pools of
+ *   real games. A run builds the registry and launcher, shows the menu
+ *   once and exits; the best of several runs is reported.
+ * The built-in games found by GameRegistry.load are measured first.
+ * </pre>
+ * @version 1
+ */
+public final class LauncherStartupBenchmark {
+    /** Game counts measured when none are given. */
+    private static final int[] DEFAULT_COUNTS = {12, 50, 200, 1000};
+    /** Timed runs per configuration; the fastest is reported. */
+    private static final int RUNS = 5;
+    /** Words loaded by each synthetic game. */
+    private static final int WORDS = 5_000;
+    /** Nanoseconds per millisecond. */
+    private static final double NANOS_PER_MILLI = 1e6;
+    /** Menu input: exit straight away. */
+    private static final String EXIT = "0\n";
+
+    /**
+     * Prevent instantiation.
+     */
+    private LauncherStartupBenchmark() {
+        throw new UnsupportedOperationException("class cannot be instantiated");
+    }
+
+    /**
+     * Runs the benchmark.
+     * @param args game counts to measure
+     * @throws IOException if the temporary history cannot be used
+     */
+    public static void main(final String[] args) throws IOException {
+        int[] counts = DEFAULT_COUNTS;
+        if (args.length > 0) {
+            counts = new int[args.length];
+            for (int i = 0; i < args.length; i++) {
+                counts[i] = Integer.parseInt(args[i]);
+            }
+        }
+        Path dir = Files.createTempDirectory("startup-bench");
+        System.out.printf("%-10s %8s %14s %14s%n",
+                          "games", "count", "eager ms", "lazy ms");
+        report("built-in", GameRegistry.load().size(),
+               best(dir, () -> GameRegistry.load().descriptors(), true),
+               best(dir, () -> GameRegistry.load().descriptors(), false));
+        for (int count : counts) {
+            report("synthetic", count,
+                   best(dir, () -> synthetic(count), true),
+                   best(dir, () -> synthetic(count), false));
+        }
+    }
+
+    /**
+     * Prints a result row.
+     * @param kind kind of game measured
+     * @param count number of games
+     * @param eager best time with every game created up front
+     * @param lazy best time with games created on demand
+     */
+    private static void report(final String kind, final int count,
+                               final long eager, final long lazy) {
+        System.out.printf("%-10s %8d %14.2f %14.2f%n", kind, count,
+                          eager / NANOS_PER_MILLI, lazy / NANOS_PER_MILLI);
+    }
+
+    /**
+     * Source of fresh descriptors for each run.
+     */
+    private interface Games {
+        /**
+         * Describes the games of one run.
+         * @return new, uncreated descriptors
+         */
+        List<GameDescriptor> describe();
+    }
+
+    /**
+     * Times several launcher startups and keeps the fastest.
+     * @param dir directory for the history file
+     * @param games source of the games
+     * @param eager true to create every game before the menu
+     * @return the best time to first menu, in nanoseconds
+     * @throws IOException if the temporary history cannot be used
+     */
+    private static long best(final Path dir, final Games games,
+                             final boolean eager) throws IOException {
+        long best = Long.MAX_VALUE;
+        PrintStream console = System.out;
+        PrintStream discard = new PrintStream(OutputStream.nullOutputStream());
+        for (int run = 0; run < RUNS; run++) {
+            String file = Files.createTempFile(dir, "history", ".dat")
+                               .toString();
+            System.setOut(discard);
+            long start = System.nanoTime();
+            List<GameDescriptor> descriptors = games.describe();
+            if (eager) {
+                for (GameDescriptor descriptor : descriptors) {
+                    descriptor.getGame();
+                }
+            }
+            GameLauncher launcher = new GameLauncher(
+                new Scanner(new ByteArrayInputStream(
+                    EXIT.getBytes(StandardCharsets.UTF_8))),
+                new GameHistoryTracker(),
+                new GameRegistry(descriptors),
+                file,
+                new ProfileStore(dir.resolve("profiles"), 1));
+            launcher.run();
+            long elapsed = System.nanoTime() - start;
+            System.setOut(console);
+            launcher.saveHistory();
+            best = Math.min(best, elapsed);
+        }
+        return best;
+    }
+
+    /**
+     * Describes synthetic games.
+     * @param count number of games
+     * @return their descriptors
+     */
+    private static List<GameDescriptor> synthetic(final int count) {
+        List<GameDescriptor> descriptors = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            String name = "Game " + i;
+            descriptors.add(new GameDescriptor(name,
+                                               () -> new WordGame(name)));
+        }
+        return descriptors;
+    }
+
+    /**
+     * Synthetic game that loads a word set when created.
+     */
+    private static final class WordGame implements Game {
+        /** Name of the game. */
+        private final String name;
+        /** Words loaded at construction. */
+        private final Set<String> words = new HashSet<>();
+
+        /**
+         * Creates the game, loading its words.
+         * @param gameName name of the game
+         */
+        WordGame(final String gameName) {
+            this.name = gameName;
+            for (int i = 0; i < WORDS; i++) {
+                words.add(gameName + ':'
+                          + Integer.toString(i, Character.MAX_RADIX));
+            }
+        }
+
+        @Override
+        public String getName() {
+            return name;
+        }
+
+        @Override
+        public Optional<Integer> play(final GameIO io) {
+            return Optional.of(words.size());
+        }
+    }
+}
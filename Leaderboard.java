@@ -0,0 +1,445 @@
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.util.Arrays;
+
+/**
+ * Best scores and score ranks of one game.
+ * <pre>
+ * Two structures answer the queries without scanning the raw scores:
+ *   top     bounded min-heap of the TOP_K highest scores, so the best
+ *           scores are read in O(K) and each add costs O(log K)
+ *   ranks   counts of each distinct score, for "how many scores beat
+ *           this one" in O(log d), d being the number of distinct scores
+ * Ranks live in two parts:
+ *   table   distinct scores in descending order with, for each, the
+ *           number of scores at or above it; read-only, searched by
+ *           bisection, and possibly a view of a memory-mapped HistoryFile
+ *   treap   order-statistic treap of scores added since the table was
+ *           built, each node holding a distinct score, its count and the
+ *           count of its subtree; kept in parallel int arrays, with node
+ *           priorities hashed from the score
+ * compact() merges the treap into a new table in O(d).
+ * Memory is proportional to the distinct scores, not to the plays, so it
+ *   stays small with tens of millions of plays of a game.
+ *
+ * A leaderboard is not thread-safe; GameHistoryTracker keeps one per
+ *   stripe and guards each with that stripe's lock.
+ * </pre>
+ * @version 1
+ */
+final class Leaderboard {
+    /** Number of best scores kept. */
+    static final int TOP_K = 10;
+    /** Node capacity of a treap's first arrays. */
+    private static final int INITIAL_NODES = 8;
+    /** Index standing for "no node". */
+    private static final int NIL = -1;
+    /** Multiplier of the priority hash (2^32 / phi). */
+    private static final int PRIORITY_SPREAD = 0x9E3779B9;
+    /** Shift of the priority hash's final mixing step. */
+    private static final int PRIORITY_SHIFT = 16;
+    /** Table of a leaderboard with no compacted scores. */
+    private static final IntBuffer EMPTY = IntBuffer.allocate(0);
+
+    /** Min-heap of the best scores; only the first topSize are in use. */
+    private final int[] top = new int[TOP_K];
+    /** Number of scores in top. */
+    private int topSize;
+    /** Distinct compacted scores, highest first. */
+    private IntBuffer tableKeys = EMPTY;
+    /** Number of compacted scores at or above each of tableKeys. */
+    private IntBuffer tableAtLeast = EMPTY;
+    /** Score of each treap node. */
+    private int[] keys = new int[INITIAL_NODES];
+    /** Times each treap node's score was added. */
+    private int[] counts = new int[INITIAL_NODES];
+    /** Total count of each treap node's subtree. */
+    private int[] sizes = new int[INITIAL_NODES];
+    /** Child holding higher scores, by node. */
+    private int[] higher = new int[INITIAL_NODES];
+    /** Child holding lower scores, by node. */
+    private int[] lower = new int[INITIAL_NODES];
+    /** Number of treap nodes. */
+    private int nodes;
+    /** Treap root, or NIL if empty. */
+    private int root = NIL;
+
+    /**
+     * Builds a leaderboard of every value in a column.
+     * @param scores the scores
+     * @return the leaderboard, compacted
+     */
+    static Leaderboard of(final IntColumn scores) {
+        Leaderboard board = new Leaderboard();
+        for (int i = 0; i < scores.size(); i++) {
+            board.add(scores.get(i));
+        }
+        board.compact();
+        return board;
+    }
+
+    /**
+     * Records a score.
+     * @param score the score
+     */
+    void add(final int score) {
+        offerTop(score);
+        root = insert(root, score, 1);
+    }
+
+    /**
+     * Number of scores recorded.
+     * @return the count
+     */
+    int count() {
+        int tableCount = tableAtLeast.limit() == 0
+            ? 0 : tableAtLeast.get(tableAtLeast.limit() - 1);
+        return tableCount + sizeOf(root);
+    }
+
+    /**
+     * Number of recorded scores strictly higher than a score.
+     * A score's rank is one more than this.
+     * @param score the score
+     * @return the number of higher scores
+     */
+    int countAbove(final int score) {
+        int lo = 0;
+        int hi = tableKeys.limit();
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (tableKeys.get(mid) > score) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        int above = lo == 0 ? 0 : tableAtLeast.get(lo - 1);
+        int node = root;
+        while (node != NIL) {
+            if (keys[node] > score) {
+                above += sizeOf(higher[node]) + counts[node];
+                node = lower[node];
+            } else {
+                node = higher[node];
+            }
+        }
+        return above;
+    }
+
+    /**
+     * The best scores.
+     * @param k maximum number of scores wanted, at most TOP_K
+     * @return up to k scores, highest first
+     */
+    int[] topScores(final int k) {
+        int[] sorted = Arrays.copyOf(top, topSize);
+        Arrays.sort(sorted);
+        int n = Math.min(k, topSize);
+        int[] best = new int[n];
+        for (int i = 0; i < n; i++) {
+            best[i] = sorted[topSize - 1 - i];
+        }
+        return best;
+    }
+
+    /**
+     * Offers another leaderboard's best scores to this one's, leaving the
+     *   ranks alone.
+     * @param other the leaderboard whose best scores to offer
+     */
+    void mergeTop(final Leaderboard other) {
+        for (int i = 0; i < other.topSize; i++) {
+            offerTop(other.top[i]);
+        }
+    }
+
+    /**
+     * Adds every score recorded by another leaderboard.
+     * @param other the leaderboard to merge in
+     */
+    void absorb(final Leaderboard other) {
+        mergeTop(other);
+        int previous = 0;
+        for (int i = 0; i < other.tableKeys.limit(); i++) {
+            int atLeast = other.tableAtLeast.get(i);
+            root = insert(root, other.tableKeys.get(i), atLeast - previous);
+            previous = atLeast;
+        }
+        for (int node = 0; node < other.nodes; node++) {
+            root = insert(root, other.keys[node], other.counts[node]);
+        }
+    }
+
+    /**
+     * Merges the treap into a new table, leaving the treap empty.
+     */
+    void compact() {
+        if (root == NIL) {
+            return;
+        }
+        int[] treapKeys = new int[nodes];
+        int[] treapCounts = new int[nodes];
+        int[] stack = new int[nodes];
+        int depth = 0;
+        int filled = 0;
+        int node = root;
+        while (node != NIL || depth > 0) {
+            while (node != NIL) {
+                stack[depth++] = node;
+                node = higher[node];
+            }
+            node = stack[--depth];
+            treapKeys[filled] = keys[node];
+            treapCounts[filled++] = counts[node];
+            node = lower[node];
+        }
+        int tableSize = tableKeys.limit();
+        int[] mergedKeys = new int[tableSize + nodes];
+        int[] mergedAtLeast = new int[tableSize + nodes];
+        int t = 0;
+        int r = 0;
+        int m = 0;
+        int total = 0;
+        int previous = 0;
+        while (t < tableSize || r < nodes) {
+            int key;
+            int count = 0;
+            if (r == nodes
+                || (t < tableSize && tableKeys.get(t) >= treapKeys[r])) {
+                key = tableKeys.get(t);
+            } else {
+                key = treapKeys[r];
+            }
+            if (t < tableSize && tableKeys.get(t) == key) {
+                count += tableAtLeast.get(t) - previous;
+                previous = tableAtLeast.get(t);
+                t++;
+            }
+            if (r < nodes && treapKeys[r] == key) {
+                count += treapCounts[r++];
+            }
+            total += count;
+            mergedKeys[m] = key;
+            mergedAtLeast[m++] = total;
+        }
+        tableKeys = IntBuffer.wrap(mergedKeys, 0, m).slice();
+        tableAtLeast = IntBuffer.wrap(mergedAtLeast, 0, m).slice();
+        keys = new int[INITIAL_NODES];
+        counts = new int[INITIAL_NODES];
+        sizes = new int[INITIAL_NODES];
+        higher = new int[INITIAL_NODES];
+        lower = new int[INITIAL_NODES];
+        nodes = 0;
+        root = NIL;
+    }
+
+    /**
+     * Number of distinct scores in the table.
+     * @return the table length
+     */
+    int distinctScores() {
+        return tableKeys.limit();
+    }
+
+    /**
+     * Writes the best scores.
+     * <pre>
+     * Layout: byte count, then each score as an int, highest first
+     * </pre>
+     * @param out destination
+     * @throws IOException if an I/O error occurs
+     */
+    void writeTop(final DataOutput out) throws IOException {
+        int[] best = topScores(TOP_K);
+        out.writeByte(best.length);
+        for (int score : best) {
+            out.writeInt(score);
+        }
+    }
+
+    /**
+     * Writes the table; call compact() first to include every score.
+     * <pre>
+     * Layout: distinctScores() ints of scores, highest first, then as
+     *   many ints of the number of scores at or above each
+     * </pre>
+     * @param out destination
+     * @throws IOException if an I/O error occurs
+     */
+    void writeTable(final DataOutput out) throws IOException {
+        for (int i = 0; i < tableKeys.limit(); i++) {
+            out.writeInt(tableKeys.get(i));
+        }
+        for (int i = 0; i < tableAtLeast.limit(); i++) {
+            out.writeInt(tableAtLeast.get(i));
+        }
+    }
+
+    /**
+     * Restores a leaderboard written by writeTop and writeTable.
+     * @param in source, positioned at the best scores
+     * @param table the table, typically a slice of a mapped file
+     * @return the leaderboard
+     * @throws IOException if the data is malformed
+     */
+    static Leaderboard readFrom(final ByteBuffer in, final IntBuffer table)
+            throws IOException {
+        Leaderboard board = new Leaderboard();
+        int best = in.get();
+        if (best < 0 || best > TOP_K || table.limit() % 2 != 0) {
+            throw new IOException("Malformed leaderboard");
+        }
+        for (int i = 0; i < best; i++) {
+            board.offerTop(in.getInt());
+        }
+        int distinct = table.limit() / 2;
+        board.tableKeys = table.duplicate().limit(distinct).slice();
+        board.tableAtLeast = table.duplicate().position(distinct).slice();
+        return board;
+    }
+
+    /**
+     * Offers a score to the best scores.
+     * @param score the score
+     */
+    private void offerTop(final int score) {
+        if (topSize < TOP_K) {
+            int i = topSize++;
+            while (i > 0 && top[(i - 1) / 2] > score) {
+                top[i] = top[(i - 1) / 2];
+                i = (i - 1) / 2;
+            }
+            top[i] = score;
+        } else if (score > top[0]) {
+            int i = 0;
+            while (2 * i + 1 < topSize) {
+                int child = 2 * i + 1;
+                if (child + 1 < topSize && top[child + 1] < top[child]) {
+                    child++;
+                }
+                if (top[child] >= score) {
+                    break;
+                }
+                top[i] = top[child];
+                i = child;
+            }
+            top[i] = score;
+        }
+    }
+
+    /**
+     * Adds a count of a score to a subtree.
+     * @param node the subtree's root, or NIL
+     * @param key the score
+     * @param count how many times to add it
+     * @return the subtree's new root
+     */
+    private int insert(final int node, final int key, final int count) {
+        // The child is stored only after the call, which may grow (and so
+        // replace) the node arrays.
+        if (node == NIL) {
+            return newNode(key, count);
+        }
+        sizes[node] += count;
+        int result = node;
+        if (key == keys[node]) {
+            counts[node] += count;
+        } else if (key > keys[node]) {
+            int child = insert(higher[node], key, count);
+            higher[node] = child;
+            if (priority(keys[higher[node]]) > priority(keys[node])) {
+                result = rotateFromHigher(node);
+            }
+        } else {
+            int child = insert(lower[node], key, count);
+            lower[node] = child;
+            if (priority(keys[lower[node]]) > priority(keys[node])) {
+                result = rotateFromLower(node);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Lifts a node's higher child above it.
+     * @param node the node
+     * @return the new subtree root
+     */
+    private int rotateFromHigher(final int node) {
+        int child = higher[node];
+        higher[node] = lower[child];
+        lower[child] = node;
+        resize(node);
+        resize(child);
+        return child;
+    }
+
+    /**
+     * Lifts a node's lower child above it.
+     * @param node the node
+     * @return the new subtree root
+     */
+    private int rotateFromLower(final int node) {
+        int child = lower[node];
+        lower[node] = higher[child];
+        higher[child] = node;
+        resize(node);
+        resize(child);
+        return child;
+    }
+
+    /**
+     * Recomputes a node's subtree count from its children.
+     * @param node the node
+     */
+    private void resize(final int node) {
+        sizes[node] = sizeOf(higher[node]) + counts[node]
+                      + sizeOf(lower[node]);
+    }
+
+    /**
+     * Total count of a subtree.
+     * @param node the subtree's root, or NIL
+     * @return the count
+     */
+    private int sizeOf(final int node) {
+        return node == NIL ? 0 : sizes[node];
+    }
+
+    /**
+     * Allocates a leaf node.
+     * @param key the score
+     * @param count how many times it was added
+     * @return the node
+     */
+    private int newNode(final int key, final int count) {
+        if (nodes == keys.length) {
+            int capacity = nodes + (nodes >> 1) + 1;
+            keys = Arrays.copyOf(keys, capacity);
+            counts = Arrays.copyOf(counts, capacity);
+            sizes = Arrays.copyOf(sizes, capacity);
+            higher = Arrays.copyOf(higher, capacity);
+            lower = Arrays.copyOf(lower, capacity);
+        }
+        int node = nodes++;
+        keys[node] = key;
+        counts[node] = count;
+        sizes[node] = count;
+        higher[node] = NIL;
+        lower[node] = NIL;
+        return node;
+    }
+
+    /**
+     * Heap priority of a score, a fixed hash so no random state is kept.
+     * @param key the score
+     * @return the priority
+     */
+    private static int priority(final int key) {
+        int h = key * PRIORITY_SPREAD;
+        return h ^ (h >>> PRIORITY_SHIFT);
+    }
+}
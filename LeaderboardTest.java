@@ -0,0 +1,101 @@
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Tests for Leaderboard.
+ * @version 1
+ */
+public class LeaderboardTest {
+
+    /**
+     * Best scores and ranks match a brute-force scan, before and after
+     *   compaction and when leaderboards are merged.
+     */
+    @Test
+    public void testMatchesBruteForce() {
+        Random random = new Random(7);
+        int[] scores = new int[5000];
+        Leaderboard first = new Leaderboard();
+        Leaderboard second = new Leaderboard();
+        for (int i = 0; i < scores.length; i++) {
+            scores[i] = random.nextInt(2000) - 500;
+            (i % 3 == 0 ? second : first).add(scores[i]);
+            if (i == scores.length / 2) {
+                first.compact();
+            }
+        }
+        Leaderboard merged = new Leaderboard();
+        merged.absorb(first);
+        merged.absorb(second);
+        for (Leaderboard board : new Leaderboard[] {merged, compacted(merged)}) {
+            assertEquals(scores.length, board.count());
+            assertArrayEquals(bruteTop(scores, 5), board.topScores(5));
+            for (int probe = -600; probe <= 1600; probe += 37) {
+                assertEquals(bruteAbove(scores, probe),
+                             board.countAbove(probe));
+            }
+        }
+    }
+
+    /**
+     * Top scores keep duplicates and fewer scores than asked for.
+     */
+    @Test
+    public void testTopScoresWithDuplicates() {
+        Leaderboard board = new Leaderboard();
+        for (int score : new int[] {4, 9, 9, 1}) {
+            board.add(score);
+        }
+        assertArrayEquals(new int[] {9, 9, 4, 1},
+                          board.topScores(Leaderboard.TOP_K));
+        assertEquals(0, board.countAbove(9));
+        assertEquals(2, board.countAbove(4));
+    }
+
+    /**
+     * Compacts a leaderboard in place.
+     * @param board the leaderboard
+     * @return the same leaderboard
+     */
+    private static Leaderboard compacted(final Leaderboard board) {
+        board.compact();
+        return board;
+    }
+
+    /**
+     * Highest scores by sorting.
+     * @param scores all scores
+     * @param k how many
+     * @return the k highest, highest first
+     */
+    private static int[] bruteTop(final int[] scores, final int k) {
+        int[] sorted = scores.clone();
+        Arrays.sort(sorted);
+        int[] best = new int[k];
+        for (int i = 0; i < k; i++) {
+            best[i] = sorted[sorted.length - 1 - i];
+        }
+        return best;
+    }
+
+    /**
+     * Scores above a probe by scanning.
+     * @param scores all scores
+     * @param probe the score to compare with
+     * @return the number of higher scores
+     */
+    private static int bruteAbove(final int[] scores, final int probe) {
+        int above = 0;
+        for (int score : scores) {
+            if (score > probe) {
+                above++;
+            }
+        }
+        return above;
+    }
+}
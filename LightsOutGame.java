@@ -17,14 +17,14 @@ class LightsOutGame implements Game {
     }
 
     @Override
-    public Optional<Integer> play() {
-        System.out.println("Welcome to Lights Out!");
-        System.out.println("The tiles have an 'on' or 'off' function.");
-        System.out.println("Selecting a tile will change its state.");
-        System.out.println("Tiles also change the state of neighboring tiles.");
-        System.out.println("Turning them 'off' or 'on' as well.");
-        System.out.println("Grid must be lit in as few turns as possible.");
-        System.out.println("Good luck!");
+    public Optional<Integer> play(final GameIO io) {
+        io.println("Welcome to Lights Out!");
+        io.println("The tiles have an 'on' or 'off' function.");
+        io.println("Selecting a tile will change its state.");
+        io.println("Tiles also change the state of neighboring tiles.");
+        io.println("Turning them 'off' or 'on' as well.");
+        io.println("Grid must be lit in as few turns as possible.");
+        io.println("Good luck!");
         return Optional.empty();
     }
 }
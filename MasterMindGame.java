@@ -17,8 +17,8 @@ class MasterMindGame implements Game {
     }
 
     @Override
-    public Optional<Integer> play() {
-        System.out.println("[Playing MasterMind - Placeholder]");
+    public Optional<Integer> play(final GameIO io) {
+        io.println("[Playing MasterMind - Placeholder]");
         return Optional.empty();
     }
 }
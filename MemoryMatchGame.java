@@ -19,12 +19,12 @@ class MemoryMatchGame implements Game {
     }
 
     @Override
-    public Optional<Integer> play() {
-        System.out.println("Welcome, you are now playing Memory Match");
-        System.out.println("Flip items to match pairs");
-        System.out.println("If items don't match flip over, go again");
-        System.out.println("When all items are matched you win");
-        System.out.println("Have fun!!!");
+    public Optional<Integer> play(final GameIO io) {
+        io.println("Welcome, you are now playing Memory Match");
+        io.println("Flip items to match pairs");
+        io.println("If items don't match flip over, go again");
+        io.println("When all items are matched you win");
+        io.println("Have fun!!!");
         return Optional.empty();
     }
 }
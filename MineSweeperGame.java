@@ -20,15 +20,15 @@ class MineSweeperGame implements Game {
     }
 
     @Override
-    public Optional<Integer> play() {
-        System.out.println("[Playing MineSweeper - Placeholder]");
-        System.out.println("Welcome to Minesweeper!");
-        System.out.println("Uncover tiles to reveal numbers or mines.");
-        System.out.println("Numbers tell how many of the "
-                           + "8 adjacent tiles are mines.");
-        System.out.println("Choosing a tile that contains a mine "
-                           + "will end the game.");
-        System.out.println("Uncover all safe tiles to win!");
+    public Optional<Integer> play(final GameIO io) {
+        io.println("[Playing MineSweeper - Placeholder]");
+        io.println("Welcome to Minesweeper!");
+        io.println("Uncover tiles to reveal numbers or mines.");
+        io.println("Numbers tell how many of the "
+                    + "8 adjacent tiles are mines.");
+        io.println("Choosing a tile that contains a mine "
+                    + "will end the game.");
+        io.println("Uncover all safe tiles to win!");
         return Optional.empty();
     }
 }
@@ -0,0 +1,533 @@
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+/**
+ * A position of an m,n,k-game: two players take turns placing stones on
+ *   a width x height board, and the first to line up k stones wins.
+ *   Tic-tac-toe is 3,3,3; five in a row on a 15x15 board is 15,15,5.
+ * <pre>
+ * Cells are numbered row by row, row * width + column, row 0 at the
+ *   top. Each player's stones are a bitset of longs; on boards of up to
+ *   64 cells the first long is the whole board (TicTacToeTable reads
+ *   the 3x3 board that way).
+ * Every line of k cells (a window) is listed once when the board is
+ *   made, with the windows through each cell, and the board keeps how
+ *   many stones each player has in every window. Placing or taking
+ *   back a stone touches only the windows through its cell, at most
+ *   4k of them, and that is enough to
+ *   - tell whether the move wins (a window reaches k),
+ *   - keep a running estimate: each window holding stones of one
+ *     player only counts 8^(stones - 1) for that player,
+ *   - keep a hash of the position under each symmetry of the board
+ *     (8 for a square board, 4 otherwise), so that canonicalHash() is
+ *     the same for a position and its rotations and reflections.
+ * The board also counts, for each cell, the stones within two cells of
+ *   it, so searches can consider only the cells near the play.
+ * A board is not thread-safe.
+ * </pre>
+ * @version 1
+ */
+final class MnkBoard {
+    /** A player: the one who moves first. */
+    static final int FIRST = 0;
+    /** A player: the one who moves second. */
+    static final int SECOND = 1;
+    /** Cell content: no stone. */
+    static final int EMPTY = -1;
+    /** Largest width or height, so columns can be named a to z. */
+    static final int MAX_SIDE = 26;
+
+    /** Distance of the cells counted as near a stone. */
+    private static final int NEAR = 2;
+    /** Largest number of stones a window's weight grows with. */
+    private static final int MAX_WEIGHTED = 7;
+    /** Seed of the hash keys, fixed so hashes repeat from run to run. */
+    private static final long SEED = 0x6D6E6BL;
+    /** Steps along a line: across, down, and the two diagonals. */
+    private static final int[][] STEPS = {{1, 0}, {0, 1}, {1, 1}, {1, -1}};
+
+    /** Columns. */
+    private final int width;
+    /** Rows. */
+    private final int height;
+    /** Stones in a row that win. */
+    private final int k;
+    /** Stones of each player, FIRST and SECOND. */
+    private final long[][] stones;
+    /** Windows through each cell. */
+    private final int[][] windowsOf;
+    /** Stones of each player in each window. */
+    private final int[][] counts;
+    /** Estimate weight of a window by its stones. */
+    private final int[] weight;
+    /** Cells within NEAR of each cell, itself excluded. */
+    private final int[][] around;
+    /** Stones within NEAR of each cell. */
+    private final int[] near;
+    /** Image of each cell under each symmetry. */
+    private final int[][] symmetry;
+    /** Cell of each image under each symmetry. */
+    private final int[][] inverse;
+    /** Hash key of each player's stone on each cell. */
+    private final long[][] keys;
+    /** Hash of the position under each symmetry. */
+    private final long[] hashes;
+    /** Stones on the board. */
+    private int moves;
+    /** Whether the last stone placed won. */
+    private boolean won;
+    /** Running estimate, from the first player's point of view. */
+    private long estimate;
+
+    /**
+     * Creates an empty board.
+     * @param columns width, 1 to MAX_SIDE
+     * @param rows height, 1 to MAX_SIDE
+     * @param inARow stones in a row that win, 2 to the longer side
+     * @throws IllegalArgumentException if a size is out of range
+     */
+    MnkBoard(final int columns, final int rows, final int inARow) {
+        if (columns < 1 || columns > MAX_SIDE || rows < 1 || rows > MAX_SIDE
+            || inARow < 2 || inARow > Math.max(columns, rows)) {
+            throw new IllegalArgumentException(
+                "no " + columns + "," + rows + "," + inARow + " game");
+        }
+        this.width = columns;
+        this.height = rows;
+        this.k = inARow;
+        int cells = columns * rows;
+        int words = (cells + Long.SIZE - 1) / Long.SIZE;
+        this.stones = new long[2][words];
+        this.windowsOf = windows();
+        int windowCount = 0;
+        for (int[] through : windowsOf) {
+            for (int window : through) {
+                windowCount = Math.max(windowCount, window + 1);
+            }
+        }
+        this.counts = new int[2][windowCount];
+        this.weight = new int[inARow + 1];
+        for (int stonesIn = 1; stonesIn <= inARow; stonesIn++) {
+            weight[stonesIn] = 1 << (3 * Math.min(stonesIn - 1,
+                                                  MAX_WEIGHTED - 1));
+        }
+        this.around = neighbours();
+        this.near = new int[cells];
+        this.symmetry = symmetries();
+        this.inverse = new int[symmetry.length][cells];
+        for (int s = 0; s < symmetry.length; s++) {
+            for (int cell = 0; cell < cells; cell++) {
+                inverse[s][symmetry[s][cell]] = cell;
+            }
+        }
+        SplittableRandom random = new SplittableRandom(SEED);
+        this.keys = new long[2][cells];
+        for (int cell = 0; cell < cells; cell++) {
+            keys[FIRST][cell] = random.nextLong();
+            keys[SECOND][cell] = random.nextLong();
+        }
+        this.hashes = new long[symmetry.length];
+    }
+
+    /**
+     * Columns.
+     * @return the width
+     */
+    int width() {
+        return width;
+    }
+
+    /**
+     * Rows.
+     * @return the height
+     */
+    int height() {
+        return height;
+    }
+
+    /**
+     * Stones in a row that win.
+     * @return k
+     */
+    int k() {
+        return k;
+    }
+
+    /**
+     * Cells on the board.
+     * @return width times height
+     */
+    int cells() {
+        return width * height;
+    }
+
+    /**
+     * Stones on the board.
+     * @return the number of moves played
+     */
+    int moves() {
+        return moves;
+    }
+
+    /**
+     * Player to move.
+     * @return FIRST or SECOND
+     */
+    int toMove() {
+        return moves & 1;
+    }
+
+    /**
+     * Content of a cell.
+     * @param cell the cell
+     * @return FIRST, SECOND or EMPTY
+     */
+    int cell(final int cell) {
+        if (has(FIRST, cell)) {
+            return FIRST;
+        }
+        return has(SECOND, cell) ? SECOND : EMPTY;
+    }
+
+    /**
+     * Whether a cell is free.
+     * @param cell the cell
+     * @return true if no stone is on it
+     */
+    boolean isEmpty(final int cell) {
+        return !has(FIRST, cell) && !has(SECOND, cell);
+    }
+
+    /**
+     * Stones within two cells of a cell.
+     * @param cell the cell
+     * @return the count
+     */
+    int near(final int cell) {
+        return near[cell];
+    }
+
+    /**
+     * A player's stones on the first 64 cells.
+     * @param player FIRST or SECOND
+     * @return bit c set if cell c holds the player's stone
+     */
+    long stones(final int player) {
+        return stones[player][0];
+    }
+
+    /**
+     * Places the mover's stone. The cell must be empty and the game not
+     *   over.
+     * @param cell the cell
+     */
+    void play(final int cell) {
+        int player = moves & 1;
+        int[] own = counts[player];
+        int[] other = counts[player ^ 1];
+        long change = 0;
+        boolean line = false;
+        for (int window : windowsOf[cell]) {
+            change -= value(own[window], other[window])
+                - value(other[window], own[window]);
+            own[window]++;
+            change += value(own[window], other[window])
+                - value(other[window], own[window]);
+            line |= own[window] == k;
+        }
+        estimate += player == FIRST ? change : -change;
+        stones[player][cell >>> 6] |= 1L << cell;
+        for (int s = 0; s < hashes.length; s++) {
+            hashes[s] ^= keys[player][symmetry[s][cell]];
+        }
+        for (int neighbour : around[cell]) {
+            near[neighbour]++;
+        }
+        won = line;
+        moves++;
+    }
+
+    /**
+     * Takes back a stone, which must be the last one placed.
+     * @param cell the cell
+     */
+    void undo(final int cell) {
+        moves--;
+        int player = moves & 1;
+        int[] own = counts[player];
+        int[] other = counts[player ^ 1];
+        long change = 0;
+        for (int window : windowsOf[cell]) {
+            change -= value(own[window], other[window])
+                - value(other[window], own[window]);
+            own[window]--;
+            change += value(own[window], other[window])
+                - value(other[window], own[window]);
+        }
+        estimate += player == FIRST ? change : -change;
+        stones[player][cell >>> 6] &= ~(1L << cell);
+        for (int s = 0; s < hashes.length; s++) {
+            hashes[s] ^= keys[player][symmetry[s][cell]];
+        }
+        for (int neighbour : around[cell]) {
+            near[neighbour]--;
+        }
+        won = false;
+    }
+
+    /**
+     * Whether a player would complete k in a row on a cell. The cell
+     *   must be empty.
+     * @param player FIRST or SECOND
+     * @param cell the cell
+     * @return true if the stone would win
+     */
+    boolean completes(final int player, final int cell) {
+        int[] own = counts[player];
+        int[] other = counts[player ^ 1];
+        for (int window : windowsOf[cell]) {
+            if (own[window] == k - 1 && other[window] == 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Whether the mover would win by playing a cell. The cell must be
+     *   empty.
+     * @param cell the cell
+     * @return true if the move wins
+     */
+    boolean isWinningMove(final int cell) {
+        return completes(moves & 1, cell);
+    }
+
+    /**
+     * How much a move would raise the mover's estimate: the lines it
+     *   extends and the opponent's lines it blocks.
+     * @param cell an empty cell
+     * @return the gain
+     */
+    int gain(final int cell) {
+        int[] own = counts[moves & 1];
+        int[] other = counts[(moves & 1) ^ 1];
+        int total = 0;
+        for (int window : windowsOf[cell]) {
+            int mine = own[window];
+            int theirs = other[window];
+            if (theirs == 0) {
+                total += weight[mine + 1] - weight[mine];
+            } else if (mine == 0) {
+                total += weight[theirs];
+            }
+        }
+        return total;
+    }
+
+    /**
+     * Whether the last stone placed made k in a row. Only the last move
+     *   is looked at; play stops at a win.
+     * @return true if the game has been won
+     */
+    boolean isWon() {
+        return won;
+    }
+
+    /**
+     * Whether every cell is filled.
+     * @return true if no move is left
+     */
+    boolean isFull() {
+        return moves == width * height;
+    }
+
+    /**
+     * Estimate of the position: the mover's open lines, weighted by
+     *   their stones, less the opponent's.
+     * @return the estimate, from the mover's point of view
+     */
+    long estimate() {
+        return (moves & 1) == FIRST ? estimate : -estimate;
+    }
+
+    /**
+     * Hash of the position, the same for all its rotations and
+     *   reflections.
+     * @return the smallest of its hashes under the board's symmetries
+     */
+    long canonicalHash() {
+        return hashes[canonicalSymmetry()];
+    }
+
+    /**
+     * The symmetry that gives canonicalHash.
+     * @return its number, an index for toCanonical and fromCanonical
+     */
+    int canonicalSymmetry() {
+        int best = 0;
+        for (int s = 1; s < hashes.length; s++) {
+            if (hashes[s] < hashes[best]) {
+                best = s;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * A cell's image under a symmetry.
+     * @param s the symmetry
+     * @param cell the cell
+     * @return the image
+     */
+    int toCanonical(final int s, final int cell) {
+        return symmetry[s][cell];
+    }
+
+    /**
+     * The cell a symmetry maps onto a given cell.
+     * @param s the symmetry
+     * @param image the image
+     * @return the cell
+     */
+    int fromCanonical(final int s, final int image) {
+        return inverse[s][image];
+    }
+
+    /**
+     * Name of a cell: column letter and row number, e.g. "b2".
+     * @param cell the cell
+     * @return the name
+     */
+    String name(final int cell) {
+        return (char) ('a' + cell % width) + Integer.toString(cell / width + 1);
+    }
+
+    /**
+     * Cell of a name.
+     * @param name column letter and row number, e.g. "b2"
+     * @return the cell, or -1 if the name is not of a cell of the board
+     */
+    int parse(final String name) {
+        if (name.length() < 2) {
+            return -1;
+        }
+        int column = Character.toLowerCase(name.charAt(0)) - 'a';
+        int row;
+        try {
+            row = Integer.parseInt(name.substring(1)) - 1;
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+        if (column < 0 || column >= width || row < 0 || row >= height) {
+            return -1;
+        }
+        return row * width + column;
+    }
+
+    /**
+     * Estimate weight of a window for one player.
+     * @param own the player's stones in it
+     * @param other the other player's
+     * @return the weight, 0 if the other player has stones in it
+     */
+    private int value(final int own, final int other) {
+        return other == 0 ? weight[own] : 0;
+    }
+
+    /**
+     * Whether a player has a stone on a cell.
+     * @param player FIRST or SECOND
+     * @param cell the cell
+     * @return true if so
+     */
+    private boolean has(final int player, final int cell) {
+        return (stones[player][cell >>> 6] & (1L << cell)) != 0;
+    }
+
+    /**
+     * Numbers every window and lists those through each cell.
+     * @return the windows through each cell
+     */
+    private int[][] windows() {
+        int cells = width * height;
+        int[] sizes = new int[cells];
+        int[][] through = new int[cells][4 * k];
+        int count = 0;
+        for (int[] step : STEPS) {
+            for (int row = 0; row < height; row++) {
+                for (int column = 0; column < width; column++) {
+                    int endColumn = column + (k - 1) * step[0];
+                    int endRow = row + (k - 1) * step[1];
+                    if (endColumn >= width || endRow < 0 || endRow >= height) {
+                        continue;
+                    }
+                    for (int i = 0; i < k; i++) {
+                        int cell = (row + i * step[1]) * width
+                            + column + i * step[0];
+                        through[cell][sizes[cell]++] = count;
+                    }
+                    count++;
+                }
+            }
+        }
+        for (int cell = 0; cell < cells; cell++) {
+            through[cell] = Arrays.copyOf(through[cell], sizes[cell]);
+        }
+        return through;
+    }
+
+    /**
+     * Lists the cells within NEAR of each cell.
+     * @return the neighbours of each cell
+     */
+    private int[][] neighbours() {
+        int[][] result = new int[width * height][];
+        int[] found = new int[(2 * NEAR + 1) * (2 * NEAR + 1)];
+        for (int row = 0; row < height; row++) {
+            for (int column = 0; column < width; column++) {
+                int count = 0;
+                for (int r = Math.max(0, row - NEAR);
+                     r <= Math.min(height - 1, row + NEAR); r++) {
+                    for (int c = Math.max(0, column - NEAR);
+                         c <= Math.min(width - 1, column + NEAR); c++) {
+                        if (r != row || c != column) {
+                            found[count++] = r * width + c;
+                        }
+                    }
+                }
+                result[row * width + column] =
+                    Arrays.copyOf(found, count);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Maps every cell under every symmetry of the board: the identity
+     *   and the reflections and rotations that keep its shape.
+     * @return the image of each cell under each symmetry
+     */
+    private int[][] symmetries() {
+        int count = width == height ? 8 : 4;
+        int[][] result = new int[count][width * height];
+        for (int row = 0; row < height; row++) {
+            for (int column = 0; column < width; column++) {
+                int cell = row * width + column;
+                int flippedColumn = width - 1 - column;
+                int flippedRow = height - 1 - row;
+                result[0][cell] = cell;
+                result[1][cell] = row * width + flippedColumn;
+                result[2][cell] = flippedRow * width + column;
+                result[3][cell] = flippedRow * width + flippedColumn;
+                if (count == 8) {
+                    result[4][cell] = column * width + row;
+                    result[5][cell] = flippedColumn * width + row;
+                    result[6][cell] = column * width + flippedRow;
+                    result[7][cell] = flippedColumn * width + flippedRow;
+                }
+            }
+        }
+        return result;
+    }
+}
@@ -0,0 +1,137 @@
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests for MnkBoard.
+ * @version 1
+ */
+public class MnkBoardTest {
+    /**
+     * Plays moves given by name.
+     * @param board the board
+     * @param moves the cells, e.g. "a1 b2"
+     * @return the board
+     */
+    private static MnkBoard play(final MnkBoard board, final String moves) {
+        for (String name : moves.split(" ")) {
+            board.play(board.parse(name));
+        }
+        return board;
+    }
+
+    /**
+     * k in a row is found in every direction, and only then.
+     */
+    @Test
+    public void testWins() {
+        assertTrue(play(new MnkBoard(15, 15, 5),
+                        "a1 a2 b1 b2 c1 c2 d1 d2 e1").isWon());
+        assertTrue(play(new MnkBoard(15, 15, 5),
+                        "h8 a1 h9 a2 h10 a3 h11 a4 h12").isWon());
+        assertTrue(play(new MnkBoard(15, 15, 5),
+                        "c3 a1 d4 a2 e5 a3 f6 a4 g7").isWon());
+        assertTrue(play(new MnkBoard(15, 15, 5),
+                        "g3 a1 f4 a2 e5 a3 d6 a4 c7").isWon());
+        MnkBoard board = play(new MnkBoard(15, 15, 5),
+                              "a1 a2 b1 b2 c1 c2 d1 d2");
+        assertFalse(board.isWon());
+        assertTrue(board.isWinningMove(board.parse("e1")));
+        assertFalse(board.isWinningMove(board.parse("f1")));
+        assertTrue(board.completes(MnkBoard.SECOND, board.parse("e2")));
+    }
+
+    /**
+     * Lines never wrap from the end of one row into the next.
+     */
+    @Test
+    public void testNoWrap() {
+        MnkBoard board = play(new MnkBoard(4, 4, 3), "c1 a4 d1 b4 a2");
+        assertFalse(board.isWon());
+        assertEquals(MnkBoard.FIRST, board.cell(board.parse("a2")));
+        assertEquals(MnkBoard.EMPTY, board.cell(board.parse("b2")));
+    }
+
+    /**
+     * Playing and undoing random games restores every position, and
+     *   rotated or reflected positions share a canonical hash.
+     */
+    @Test
+    public void testUndoAndSymmetry() {
+        Random random = new Random(20);
+        for (int game = 0; game < 50; game++) {
+            MnkBoard board = new MnkBoard(7, 7, 4);
+            MnkBoard rotated = new MnkBoard(7, 7, 4);
+            int[] moves = new int[board.cells()];
+            long[] hashes = new long[board.cells()];
+            long[] estimates = new long[board.cells()];
+            int count = 0;
+            while (!board.isWon() && !board.isFull()) {
+                int cell;
+                do {
+                    cell = random.nextInt(board.cells());
+                } while (!board.isEmpty(cell));
+                hashes[count] = board.canonicalHash();
+                estimates[count] = board.estimate();
+                moves[count++] = cell;
+                board.play(cell);
+                int row = cell / 7;
+                int column = cell % 7;
+                rotated.play(column * 7 + (6 - row));
+                assertEquals(board.canonicalHash(), rotated.canonicalHash());
+                assertEquals(board.estimate(), rotated.estimate());
+            }
+            while (count > 0) {
+                board.undo(moves[--count]);
+                assertEquals(hashes[count], board.canonicalHash());
+                assertEquals(estimates[count], board.estimate());
+                assertFalse(board.isWon());
+            }
+            assertEquals(0, board.estimate());
+            for (int cell = 0; cell < board.cells(); cell++) {
+                assertTrue(board.isEmpty(cell));
+                assertEquals(0, board.near(cell));
+            }
+        }
+    }
+
+    /**
+     * The estimate favours the side with more open lines, and a move's
+     *   gain is what it adds to the estimate.
+     */
+    @Test
+    public void testEstimate() {
+        MnkBoard board = play(new MnkBoard(15, 15, 5), "h8");
+        assertTrue(board.estimate() < 0);
+        int cell = board.parse("h9");
+        long before = board.estimate();
+        int gain = board.gain(cell);
+        board.play(cell);
+        assertEquals(before + gain, -board.estimate());
+    }
+
+    /**
+     * Cell names are read and written alike; bad names and sizes are
+     *   refused.
+     */
+    @Test
+    public void testNamesAndSizes() {
+        MnkBoard board = new MnkBoard(15, 15, 5);
+        assertEquals("h8", board.name(board.parse("h8")));
+        assertEquals("o15", board.name(board.parse("O15")));
+        assertEquals(-1, board.parse("p1"));
+        assertEquals(-1, board.parse("a16"));
+        assertEquals(-1, board.parse("a0"));
+        assertEquals(-1, board.parse("a"));
+        assertEquals(-1, board.parse("ax"));
+        assertThrows(IllegalArgumentException.class,
+                     () -> new MnkBoard(3, 3, 4));
+        assertThrows(IllegalArgumentException.class,
+                     () -> new MnkBoard(27, 3, 3));
+    }
+}
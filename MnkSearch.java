@@ -0,0 +1,441 @@
+import java.util.Arrays;
+
+/**
+ * m,n,k-game player: negamax alpha-beta search over MnkBoard, for
+ *   boards too large to solve outright (3x3 tic-tac-toe is read from
+ *   TicTacToeTable instead).
+ * <pre>
+ * Iterative deepening searches depth 1, 2, 3... until the time budget
+ *   runs out or a forced result is found, and answers with the best
+ *   move of the deepest finished iteration.
+ * At every node the search first looks one move ahead: a win for the
+ *   mover ends the node, two cells where the opponent would win are a
+ *   loss, and one must be blocked.
+ * Only empty cells within two of a stone are moves (the centre on an
+ *   empty board), and of those only the BREADTH best by
+ *   MnkBoard.gain, the table's move first. That keeps the search
+ *   narrow enough to look several moves ahead on 15x15. On small
+ *   boards nothing may be cut, and Result.isSolved tells whether the
+ *   score is then exact.
+ * Positions are remembered in a transposition table keyed by
+ *   MnkBoard.canonicalHash, so a position reached in any rotation or
+ *   reflection is searched once; the best move is stored as it is in
+ *   the canonical orientation and mapped back on the way out. Entries
+ *   pack score, depth, bound and move into one long beside the full
+ *   64-bit hash, and are always replaced.
+ * Scores are from the mover's point of view:
+ *   WIN + n   the mover wins, n being the empty cells left after the
+ *             winning stone, so sooner wins score higher
+ *   -WIN - n  the opponent wins
+ *   0         a draw
+ *   otherwise MnkBoard.estimate at the search horizon, below WIN
+ *
+ * A search is used by one thread at a time and keeps its table between
+ *   calls, so later searches of the same game start warm.
+ * </pre>
+ * @version 1
+ */
+final class MnkSearch {
+    /** Scores of this size or more are forced wins or losses. */
+    static final int WIN = 1 << 30;
+    /** Default log2 of the table entries: 1M entries, 16 MB. */
+    static final int DEFAULT_BITS = 20;
+    /** Most moves searched at a node. */
+    static final int BREADTH = 20;
+
+    /** Bound type: exact score. */
+    private static final int EXACT = 1;
+    /** Bound type: the score is at least the stored one. */
+    private static final int LOWER = 2;
+    /** Bound type: the score is at most the stored one. */
+    private static final int UPPER = 3;
+    /** Move field meaning no move. */
+    private static final int NO_MOVE = 0xFFFF;
+    /** Shift of an entry's bound type. */
+    private static final int FLAG_SHIFT = 16;
+    /** Shift of an entry's depth. */
+    private static final int DEPTH_SHIFT = 18;
+    /** Largest depth an entry holds. */
+    private static final int MAX_STORED_DEPTH = 0xFF;
+    /** Shift of an entry's score. */
+    private static final int SCORE_SHIFT = 32;
+    /** Nodes between clock reads, less one. */
+    private static final long CLOCK_MASK = (1 << 10) - 1;
+
+    /** Full hash of each entry's position. */
+    private final long[] hashes;
+    /** Entries, 0 when empty. */
+    private final long[] entries;
+    /** Moves at each ply, in the order to try them. */
+    private int[][] order = new int[0][];
+    /** Sort keys of the moves at each ply. */
+    private int[][] rank = new int[0][];
+    /** Nodes visited by the current search. */
+    private long nodes;
+    /** Stones on the board at the root of the current search. */
+    private int rootMoves;
+    /** Best move at the root in the current iteration. */
+    private int rootMove;
+    /** Time the current search started. */
+    private long start;
+    /** Time the current search may take, in nanoseconds. */
+    private long budget;
+    /** True to read the clock while searching. */
+    private boolean timed;
+    /** True once the current iteration ran out of time. */
+    private boolean stopped;
+    /** True if the current iteration left moves out. */
+    private boolean pruned;
+
+    /**
+     * Outcome of a search.
+     */
+    static final class Result {
+        /** Best cell found. */
+        private final int move;
+        /** Its score. */
+        private final int score;
+        /** Depth of the deepest finished iteration. */
+        private final int depth;
+        /** True if the score is exact, not an estimate. */
+        private final boolean solved;
+        /** Nodes visited. */
+        private final long nodes;
+        /** Duration of the search. */
+        private final long nanos;
+
+        /**
+         * Creates a result.
+         * @param bestMove best cell found
+         * @param bestScore its score
+         * @param finishedDepth depth of the deepest finished iteration
+         * @param exact true if the score is exact
+         * @param visited nodes visited
+         * @param elapsed duration in nanoseconds
+         */
+        Result(final int bestMove, final int bestScore,
+               final int finishedDepth, final boolean exact,
+               final long visited, final long elapsed) {
+            this.move = bestMove;
+            this.score = bestScore;
+            this.depth = finishedDepth;
+            this.solved = exact;
+            this.nodes = visited;
+            this.nanos = elapsed;
+        }
+
+        /**
+         * Best cell found.
+         * @return the cell
+         */
+        int move() {
+            return move;
+        }
+
+        /**
+         * Score of the best move, from the mover's point of view.
+         * @return the score
+         */
+        int score() {
+            return score;
+        }
+
+        /**
+         * Depth of the deepest finished iteration.
+         * @return the depth in moves
+         */
+        int depth() {
+            return depth;
+        }
+
+        /**
+         * Whether the score is the game's value with perfect play.
+         * @return true if the position was solved
+         */
+        boolean isSolved() {
+            return solved;
+        }
+
+        /**
+         * Nodes visited.
+         * @return the node count
+         */
+        long nodes() {
+            return nodes;
+        }
+
+        /**
+         * Duration of the search.
+         * @return nanoseconds
+         */
+        long nanos() {
+            return nanos;
+        }
+
+        /**
+         * Search speed.
+         * @return nodes per second
+         */
+        double nodesPerSecond() {
+            return nanos == 0 ? 0 : nodes * 1e9 / nanos;
+        }
+    }
+
+    /**
+     * Creates a search.
+     * @param bits log2 of the table entries, 10 to 28
+     */
+    MnkSearch(final int bits) {
+        if (bits < 10 || bits > 28) {
+            throw new IllegalArgumentException("bits: " + bits);
+        }
+        this.hashes = new long[1 << bits];
+        this.entries = new long[1 << bits];
+    }
+
+    /**
+     * Chooses a move within a time budget. At least one iteration is
+     *   always finished, however short the budget.
+     * @param board the position, which must have a move left and no
+     *        winner; left as it was
+     * @param budgetNanos time allowed, in nanoseconds
+     * @return the best move found
+     */
+    Result search(final MnkBoard board, final long budgetNanos) {
+        return search(board, board.cells(), budgetNanos);
+    }
+
+    /**
+     * Chooses a move, searching no deeper than a given depth.
+     * @param board the position, which must have a move left and no
+     *        winner; left as it was
+     * @param maxDepth deepest iteration, in moves
+     * @param budgetNanos time allowed, in nanoseconds
+     * @return the best move found
+     */
+    Result search(final MnkBoard board, final int maxDepth,
+                  final long budgetNanos) {
+        if (board.isFull() || board.isWon()) {
+            throw new IllegalArgumentException("game is over");
+        }
+        int cells = board.cells();
+        if (order.length < cells + 1 || order[0].length < cells) {
+            order = new int[cells + 1][cells];
+            rank = new int[cells + 1][cells];
+        }
+        start = System.nanoTime();
+        budget = budgetNanos;
+        nodes = 0;
+        stopped = false;
+        timed = false;
+        rootMoves = board.moves();
+        int left = cells - board.moves();
+        int move = -1;
+        int score = 0;
+        int depth = 0;
+        boolean exact = false;
+        for (int d = 1; d <= Math.min(maxDepth, left); d++) {
+            rootMove = -1;
+            pruned = false;
+            int found = negamax(board, d, -Integer.MAX_VALUE,
+                                Integer.MAX_VALUE);
+            if (stopped) {
+                break;
+            }
+            move = rootMove;
+            score = found;
+            depth = d;
+            exact = !pruned && (Math.abs(score) >= WIN || d >= left);
+            if (exact || Math.abs(score) >= WIN || outOfTime()) {
+                break;
+            }
+            timed = true;
+        }
+        return new Result(move, score, depth, exact, nodes,
+                          System.nanoTime() - start);
+    }
+
+    /**
+     * Empties the transposition table.
+     */
+    void clear() {
+        Arrays.fill(hashes, 0);
+        Arrays.fill(entries, 0);
+    }
+
+    /**
+     * Whether the current search has used up its budget.
+     * @return true if out of time
+     */
+    private boolean outOfTime() {
+        return System.nanoTime() - start >= budget;
+    }
+
+    /**
+     * Negamax alpha-beta search. At the root it also sets rootMove.
+     * @param board the position
+     * @param depth moves left to search
+     * @param alphaIn lower bound of the scores of interest
+     * @param betaIn upper bound of the scores of interest
+     * @return the score, from the mover's point of view
+     */
+    private int negamax(final MnkBoard board, final int depth,
+                        final int alphaIn, final int betaIn) {
+        nodes++;
+        if (timed && (nodes & CLOCK_MASK) == 0 && outOfTime()) {
+            stopped = true;
+        }
+        if (stopped) {
+            return 0;
+        }
+        int cells = board.cells();
+        int moves = board.moves();
+        if (moves == cells) {
+            return 0;
+        }
+        int ply = moves - rootMoves;
+        int[] tried = order[ply];
+        int opponent = board.toMove() ^ 1;
+        int count = 0;
+        int block = -1;
+        for (int cell = 0; cell < cells; cell++) {
+            if (board.near(cell) == 0 || !board.isEmpty(cell)) {
+                continue;
+            }
+            if (board.isWinningMove(cell)) {
+                if (ply == 0) {
+                    rootMove = cell;
+                }
+                return WIN + cells - moves - 1;
+            }
+            if (board.completes(opponent, cell)) {
+                if (block >= 0) {
+                    if (ply == 0) {
+                        rootMove = block;
+                    }
+                    return -(WIN + cells - moves - 2);
+                }
+                block = cell;
+            }
+            tried[count++] = cell;
+        }
+        if (count == 0) {
+            tried[count++] = (board.height() / 2) * board.width()
+                + board.width() / 2;
+        }
+        if (count < cells - moves) {
+            pruned = true;
+        }
+        int alpha = alphaIn;
+        int beta = Math.min(betaIn, WIN + cells - moves - 3);
+        if (alpha >= beta && ply > 0) {
+            return beta;
+        }
+        if (depth <= 0) {
+            return (int) board.estimate();
+        }
+        long hash = board.canonicalHash();
+        int s = board.canonicalSymmetry();
+        int slot = (int) hash & (entries.length - 1);
+        long entry = hashes[slot] == hash ? entries[slot] : 0;
+        int hinted = -1;
+        if (entry != 0) {
+            int stored = (int) (entry >> SCORE_SHIFT);
+            int flag = (int) (entry >>> FLAG_SHIFT) & 3;
+            int storedMove = (int) entry & NO_MOVE;
+            if (storedMove != NO_MOVE) {
+                hinted = board.fromCanonical(s, storedMove);
+            }
+            if (ply > 0
+                && ((int) (entry >>> DEPTH_SHIFT) & MAX_STORED_DEPTH)
+                   >= Math.min(depth, MAX_STORED_DEPTH)) {
+                if (flag == EXACT) {
+                    return stored;
+                } else if (flag == LOWER) {
+                    alpha = Math.max(alpha, stored);
+                } else {
+                    beta = Math.min(beta, stored);
+                }
+                if (alpha >= beta) {
+                    return stored;
+                }
+            }
+        }
+        if (block >= 0) {
+            tried[0] = block;
+            count = 1;
+        } else {
+            count = orderMoves(board, ply, count, hinted);
+        }
+        int start = alpha;
+        int best = -Integer.MAX_VALUE;
+        int bestMove = tried[0];
+        for (int i = 0; i < count; i++) {
+            int cell = tried[i];
+            board.play(cell);
+            int score = -negamax(board, depth - 1, -beta, -alpha);
+            board.undo(cell);
+            if (stopped) {
+                return 0;
+            }
+            if (score > best) {
+                best = score;
+                bestMove = cell;
+                if (score > alpha) {
+                    alpha = score;
+                    if (alpha >= beta) {
+                        break;
+                    }
+                }
+            }
+        }
+        if (ply == 0) {
+            rootMove = bestMove;
+        }
+        int flag = best <= start ? UPPER : best >= beta ? LOWER : EXACT;
+        hashes[slot] = hash;
+        entries[slot] = (long) best << SCORE_SHIFT
+            | (long) Math.min(depth, MAX_STORED_DEPTH) << DEPTH_SHIFT
+            | (long) flag << FLAG_SHIFT
+            | board.toCanonical(s, bestMove);
+        return best;
+    }
+
+    /**
+     * Sorts the first count moves of order[slot], best guess first: the
+     *   table's move, then by MnkBoard.gain, keeping at most BREADTH.
+     * @param board the position
+     * @param slot the ply, an index into order and rank
+     * @param count the number of moves
+     * @param hinted the table's move, or -1
+     * @return the number of moves kept
+     */
+    private int orderMoves(final MnkBoard board, final int slot,
+                           final int count, final int hinted) {
+        int[] cells = order[slot];
+        int[] keys = rank[slot];
+        int kept = 0;
+        for (int j = 0; j < count; j++) {
+            int cell = cells[j];
+            int key = cell == hinted ? Integer.MAX_VALUE : board.gain(cell);
+            if (kept == BREADTH && keys[kept - 1] >= key) {
+                pruned = true;
+                continue;
+            }
+            if (kept == BREADTH) {
+                pruned = true;
+            } else {
+                kept++;
+            }
+            int i = kept - 1;
+            while (i > 0 && keys[i - 1] < key) {
+                cells[i] = cells[i - 1];
+                keys[i] = keys[i - 1];
+                i--;
+            }
+            cells[i] = cell;
+            keys[i] = key;
+        }
+        return kept;
+    }
+}
@@ -0,0 +1,125 @@
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests for MnkSearch.
+ * @version 1
+ */
+public class MnkSearchTest {
+    /** Table size used by the tests. */
+    private static final int TABLE_BITS = 16;
+    /** Nanoseconds per millisecond. */
+    private static final long NANOS_PER_MILLI = 1_000_000;
+
+    /**
+     * Plays moves given by name.
+     * @param board the board
+     * @param moves the cells, e.g. "a1 b2"
+     * @return the board
+     */
+    private static MnkBoard play(final MnkBoard board, final String moves) {
+        for (String name : moves.split(" ")) {
+            board.play(board.parse(name));
+        }
+        return board;
+    }
+
+    /**
+     * The search takes a win, blocks the opponent's, and turns an open
+     *   three into a won open four.
+     */
+    @Test
+    public void testWinBlockAndOpenFour() {
+        MnkSearch search = new MnkSearch(TABLE_BITS);
+        MnkBoard board = play(new MnkBoard(15, 15, 5),
+                              "a1 a2 b1 b2 c1 c2 d1 d2");
+        MnkSearch.Result result = search.search(board, NANOS_PER_MILLI);
+        assertEquals("e1", board.name(result.move()));
+        assertTrue(result.score() >= MnkSearch.WIN);
+
+        board = play(new MnkBoard(15, 15, 5), "a1 h8 b1 h9 c1 h10 d1");
+        result = search.search(board, 10 * NANOS_PER_MILLI);
+        assertEquals("e1", board.name(result.move()));
+
+        board = play(new MnkBoard(15, 15, 5), "f8 a1 g8 a15 h8 o1");
+        result = search.search(board, 100 * NANOS_PER_MILLI);
+        String move = board.name(result.move());
+        assertTrue(move.equals("e8") || move.equals("i8"), move);
+        assertTrue(result.score() >= MnkSearch.WIN);
+    }
+
+    /**
+     * On 3x3 the search solves every position to the value in
+     *   TicTacToeTable.
+     */
+    @Test
+    public void testAgreesWithTable() {
+        MnkSearch search = new MnkSearch(TABLE_BITS);
+        MnkBoard board = new MnkBoard(3, 3, 3);
+        for (int cell = 0; cell < board.cells(); cell++) {
+            board.play(cell);
+            assertTrue(check(search, board) > 0);
+            board.undo(cell);
+        }
+    }
+
+    /**
+     * Checks a position and every position after it.
+     * @param search the search
+     * @param board the position, left as it was
+     * @return the number of positions checked
+     */
+    private static int check(final MnkSearch search, final MnkBoard board) {
+        if (board.isWon() || board.isFull()) {
+            return 0;
+        }
+        MnkSearch.Result result = search.search(board, Long.MAX_VALUE);
+        assertTrue(result.isSolved());
+        int score = result.score();
+        int value = score >= MnkSearch.WIN ? score - MnkSearch.WIN + 1
+            : score <= -MnkSearch.WIN ? score + MnkSearch.WIN - 1 : 0;
+        int first = (int) board.stones(MnkBoard.FIRST);
+        int second = (int) board.stones(MnkBoard.SECOND);
+        assertEquals(TicTacToeTable.value(first, second), value);
+        int checked = 1;
+        for (int cell = 0; cell < board.cells(); cell++) {
+            if (board.isEmpty(cell)) {
+                board.play(cell);
+                checked += check(search, board);
+                board.undo(cell);
+            }
+        }
+        return checked;
+    }
+
+    /**
+     * A search stops close to its budget on a large board, and always
+     *   finishes one iteration.
+     */
+    @Test
+    public void testTimeBudget() {
+        MnkSearch search = new MnkSearch(TABLE_BITS);
+        MnkBoard board = play(new MnkBoard(15, 15, 5), "h8 h9 i8 g7");
+        long budget = 100 * NANOS_PER_MILLI;
+        MnkSearch.Result result = search.search(board, budget);
+        assertTrue(result.depth() >= 2);
+        assertTrue(result.nanos() < 3 * budget, "took " + result.nanos());
+        assertTrue(board.isEmpty(result.move()));
+        assertTrue(!result.isSolved());
+        assertTrue(search.search(board, 0).depth() >= 1);
+    }
+
+    /**
+     * A finished game cannot be searched.
+     */
+    @Test
+    public void testGameOver() {
+        MnkSearch search = new MnkSearch(TABLE_BITS);
+        MnkBoard board = play(new MnkBoard(3, 3, 3), "a1 a2 b1 b2 c1");
+        assertThrows(IllegalArgumentException.class,
+                     () -> search.search(board, NANOS_PER_MILLI));
+    }
+}
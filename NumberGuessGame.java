@@ -20,14 +20,15 @@ class NumberGuessGame implements Game {
     }
     /**
     *Starts the game and prints game instructions.
+    *@param io the player's console.
     *@return an empty optional instance to represent the absence of a score.
     */
-    public Optional<Integer> play() {
-        System.out.println("[Playing Number Guessing Game]");
-        System.out.println("This is a simple game where you"
-                           + " try and guess the number I pick.");
-        System.out.println("If you are too high or too low I will let"
-                           + " you know. Try to do it in the fewest attempts!");
+    public Optional<Integer> play(final GameIO io) {
+        io.println("[Playing Number Guessing Game]");
+        io.println("This is a simple game where you"
+                    + " try and guess the number I pick.");
+        io.println("If you are too high or too low I will let"
+                    + " you know. Try to do it in the fewest attempts!");
         return Optional.empty();
     }
 }
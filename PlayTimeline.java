@@ -0,0 +1,305 @@
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * Plays of one game partitioned by the day they happened.
+ * <pre>
+ * Each day is a bucket holding a rollup (plays, scored plays, score
+ *   total, minimum and maximum) and, when raw scores are kept, every play
+ *   of the day as a time (seconds since the start of the day's UTC epoch
+ *   day number) and a score (NO_SCORE if unscored).
+ * Buckets are kept in day order in parallel arrays. Plays nearly always
+ *   arrive for the latest day, so adding one is an append or an update of
+ *   the last bucket; an earlier day is found by bisection.
+ * A query bisects to its first day and reads only the buckets in range:
+ *   days wholly inside it from their rollups, and the partial days at its
+ *   ends from their raw plays. A partial day whose raw plays were not
+ *   kept is counted whole.
+ *
+ * Day numbers are chosen by the caller (GameHistoryTracker uses local
+ *   dates); the timeline only requires them to increase with time.
+ * A timeline is not thread-safe; GameHistoryTracker keeps one per stripe
+ *   and guards each with that stripe's lock.
+ * </pre>
+ * @version 1
+ */
+final class PlayTimeline {
+    /** Score recorded for a play without one. */
+    static final int NO_SCORE = Integer.MIN_VALUE;
+    /** Seconds in a day. */
+    static final int SECONDS_PER_DAY = 86_400;
+    /** Size of a bucket header in a history file, in bytes. */
+    private static final int BUCKET_HEADER_SIZE = 32;
+    /** Bucket capacity of a timeline's first arrays. */
+    private static final int INITIAL_DAYS = 4;
+
+    /** Day number of each bucket, ascending. */
+    private int[] days = new int[INITIAL_DAYS];
+    /** Buckets, parallel to days. */
+    private Bucket[] buckets = new Bucket[INITIAL_DAYS];
+    /** Number of buckets in use. */
+    private int size;
+
+    /**
+     * Plays of a single day.
+     */
+    private static final class Bucket {
+        /** Number of plays. */
+        private int plays;
+        /** Number of plays that had a score. */
+        private int scored;
+        /** Sum of the scores. */
+        private long total;
+        /** Lowest score. */
+        private int min = Integer.MAX_VALUE;
+        /** Highest score. */
+        private int max = Integer.MIN_VALUE;
+        /** Time of each kept play, in seconds into the day. */
+        private IntColumn seconds = new IntColumn();
+        /** Score of each kept play, parallel to seconds. */
+        private IntColumn scores = new IntColumn();
+
+        /**
+         * Adds another bucket's plays.
+         * @param other the bucket to merge in
+         */
+        void merge(final Bucket other) {
+            plays += other.plays;
+            scored += other.scored;
+            total += other.total;
+            min = Math.min(min, other.min);
+            max = Math.max(max, other.max);
+            seconds.addAll(other.seconds);
+            scores.addAll(other.scores);
+        }
+
+        /**
+         * Whether every play of the day is kept.
+         * @return true if the raw plays are complete
+         */
+        boolean isComplete() {
+            return seconds.size() == plays;
+        }
+    }
+
+    /**
+     * Records a play.
+     * @param day the play's day number
+     * @param second seconds from the start of that UTC epoch day
+     * @param score the score, or NO_SCORE if unscored
+     * @param retain true to keep the raw play as well as the rollup
+     */
+    void add(final int day, final int second, final int score,
+             final boolean retain) {
+        Bucket bucket = bucket(day);
+        bucket.plays++;
+        if (score != NO_SCORE) {
+            bucket.scored++;
+            bucket.total += score;
+            bucket.min = Math.min(bucket.min, score);
+            bucket.max = Math.max(bucket.max, score);
+        }
+        if (retain) {
+            bucket.seconds.add(second);
+            bucket.scores.add(score);
+        }
+    }
+
+    /**
+     * Adds the plays of a day range to a window.
+     * Days from fullFrom to fullTo are wholly inside the range and read
+     *   from their rollups; the others are filtered by time.
+     * @param fromDay first day of the range
+     * @param toDay last day of the range
+     * @param fullFrom first day wholly inside the range
+     * @param fullTo last day wholly inside the range
+     * @param fromSecond start of the range, in epoch seconds (inclusive)
+     * @param toSecond end of the range, in epoch seconds (exclusive)
+     * @param into the window to add to
+     */
+    void query(final int fromDay, final int toDay,
+               final int fullFrom, final int fullTo,
+               final long fromSecond, final long toSecond,
+               final PlayWindow into) {
+        for (int i = indexOf(fromDay); i < size && days[i] <= toDay; i++) {
+            Bucket bucket = buckets[i];
+            boolean full = days[i] >= fullFrom && days[i] <= fullTo;
+            if (full || !bucket.isComplete()) {
+                into.add(bucket.plays, bucket.scored, bucket.total,
+                         bucket.min, bucket.max);
+                continue;
+            }
+            long dayStart = (long) days[i] * SECONDS_PER_DAY;
+            for (int p = 0; p < bucket.seconds.size(); p++) {
+                long time = dayStart + bucket.seconds.get(p);
+                if (time >= fromSecond && time < toSecond) {
+                    into.addPlay(bucket.scores.get(p));
+                }
+            }
+        }
+    }
+
+    /**
+     * Adds every play recorded by another timeline.
+     * @param other the timeline to merge in
+     */
+    void absorb(final PlayTimeline other) {
+        for (int i = 0; i < other.size; i++) {
+            bucket(other.days[i]).merge(other.buckets[i]);
+        }
+    }
+
+    /**
+     * Releases the raw plays, keeping the rollups.
+     */
+    void dropRaw() {
+        for (int i = 0; i < size; i++) {
+            buckets[i].seconds = new IntColumn();
+            buckets[i].scores = new IntColumn();
+        }
+    }
+
+    /**
+     * Number of days with plays.
+     * @return the bucket count
+     */
+    int bucketCount() {
+        return size;
+    }
+
+    /**
+     * Size of the timeline as written by writeTo.
+     * @return the size in bytes
+     */
+    long byteSize() {
+        long bytes = (long) size * BUCKET_HEADER_SIZE;
+        for (int i = 0; i < size; i++) {
+            bytes += 2L * buckets[i].seconds.size() * Integer.BYTES;
+        }
+        return bytes;
+    }
+
+    /**
+     * Writes the timeline.
+     * <pre>
+     * Layout: one 32-byte header per bucket
+     *     int day, int plays, int scored plays, long score total,
+     *     int min, int max, int raw play count
+     *   then, per bucket in order, its raw play times followed by its raw
+     *   play scores, each a packed int array
+     * </pre>
+     * @param out destination
+     * @throws IOException if an I/O error occurs
+     */
+    void writeTo(final DataOutput out) throws IOException {
+        for (int i = 0; i < size; i++) {
+            Bucket bucket = buckets[i];
+            out.writeInt(days[i]);
+            out.writeInt(bucket.plays);
+            out.writeInt(bucket.scored);
+            out.writeLong(bucket.total);
+            out.writeInt(bucket.min);
+            out.writeInt(bucket.max);
+            out.writeInt(bucket.seconds.size());
+        }
+        for (int i = 0; i < size; i++) {
+            writeColumn(out, buckets[i].seconds);
+            writeColumn(out, buckets[i].scores);
+        }
+    }
+
+    /**
+     * Writes a column as a packed int array.
+     * @param out destination
+     * @param column the values
+     * @throws IOException if an I/O error occurs
+     */
+    private static void writeColumn(final DataOutput out,
+                                    final IntColumn column)
+            throws IOException {
+        for (int p = 0; p < column.size(); p++) {
+            out.writeInt(column.get(p));
+        }
+    }
+
+    /**
+     * Reads a timeline written by writeTo from a mapped file.
+     * Only the bucket headers are read; raw plays stay in the mapping.
+     * @param map the mapped file
+     * @param offset offset of the timeline from the start of the file
+     * @param bucketCount number of buckets
+     * @return the timeline
+     */
+    static PlayTimeline readFrom(final ByteBuffer map, final long offset,
+                                 final int bucketCount) {
+        PlayTimeline timeline = new PlayTimeline();
+        ByteBuffer in = map.duplicate().position((int) offset);
+        long raw = offset + (long) bucketCount * BUCKET_HEADER_SIZE;
+        for (int i = 0; i < bucketCount; i++) {
+            Bucket bucket = timeline.bucket(in.getInt());
+            bucket.plays = in.getInt();
+            bucket.scored = in.getInt();
+            bucket.total = in.getLong();
+            bucket.min = in.getInt();
+            bucket.max = in.getInt();
+            int count = in.getInt();
+            long rawBytes = (long) count * Integer.BYTES;
+            bucket.seconds = IntColumn.mapped(
+                HistoryFile.ints(map, raw, count));
+            bucket.scores = IntColumn.mapped(
+                HistoryFile.ints(map, raw + rawBytes, count));
+            raw += 2 * rawBytes;
+        }
+        return timeline;
+    }
+
+    /**
+     * Finds the bucket of a day, creating it if needed.
+     * @param day the day number
+     * @return the bucket
+     */
+    private Bucket bucket(final int day) {
+        if (size > 0 && days[size - 1] == day) {
+            return buckets[size - 1];
+        }
+        int i = indexOf(day);
+        if (i < size && days[i] == day) {
+            return buckets[i];
+        }
+        if (size == days.length) {
+            int capacity = size + (size >> 1) + 1;
+            days = Arrays.copyOf(days, capacity);
+            buckets = Arrays.copyOf(buckets, capacity);
+        }
+        System.arraycopy(days, i, days, i + 1, size - i);
+        System.arraycopy(buckets, i, buckets, i + 1, size - i);
+        days[i] = day;
+        buckets[i] = new Bucket();
+        size++;
+        return buckets[i];
+    }
+
+    /**
+     * Finds the first bucket on or after a day.
+     * @param day the day number
+     * @return its index, or size if every bucket is earlier
+     */
+    private int indexOf(final int day) {
+        if (size == 0 || days[size - 1] < day) {
+            return size;
+        }
+        int lo = 0;
+        int hi = size;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (days[mid] < day) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+}
@@ -0,0 +1,96 @@
+/**
+ * Aggregate of the plays of one game within a period of time.
+ * Built by GameHistoryTracker's time queries from PlayTimeline rollups.
+ * @version 1
+ */
+final class PlayWindow {
+    /** Number of plays. */
+    private int plays;
+    /** Number of plays that had a score. */
+    private int scoredPlays;
+    /** Sum of the scores. */
+    private long scoreTotal;
+    /** Lowest score. */
+    private int min = Integer.MAX_VALUE;
+    /** Highest score. */
+    private int max = Integer.MIN_VALUE;
+
+    /**
+     * Adds pre-aggregated plays.
+     * @param played number of plays
+     * @param scored number of plays that had a score
+     * @param total sum of their scores
+     * @param lowest lowest of their scores
+     * @param highest highest of their scores
+     */
+    void add(final int played, final int scored, final long total,
+             final int lowest, final int highest) {
+        plays += played;
+        if (scored > 0) {
+            scoredPlays += scored;
+            scoreTotal += total;
+            min = Math.min(min, lowest);
+            max = Math.max(max, highest);
+        }
+    }
+
+    /**
+     * Adds a single play.
+     * @param score the score, or PlayTimeline.NO_SCORE if unscored
+     */
+    void addPlay(final int score) {
+        if (score == PlayTimeline.NO_SCORE) {
+            add(1, 0, 0, 0, 0);
+        } else {
+            add(1, 1, score, score, score);
+        }
+    }
+
+    /**
+     * Number of plays.
+     * @return the play count
+     */
+    int getPlays() {
+        return plays;
+    }
+
+    /**
+     * Number of plays that had a score.
+     * @return the scored play count
+     */
+    int getScoredPlays() {
+        return scoredPlays;
+    }
+
+    /**
+     * Sum of the scores.
+     * @return the score total
+     */
+    long getScoreTotal() {
+        return scoreTotal;
+    }
+
+    /**
+     * Mean score.
+     * @return the average, or 0 if no play had a score
+     */
+    double getAverage() {
+        return scoredPlays == 0 ? 0 : scoreTotal / (double) scoredPlays;
+    }
+
+    /**
+     * Lowest score.
+     * @return the minimum, or 0 if no play had a score
+     */
+    int getMin() {
+        return scoredPlays == 0 ? 0 : min;
+    }
+
+    /**
+     * Highest score.
+     * @return the maximum, or 0 if no play had a score
+     */
+    int getMax() {
+        return scoredPlays == 0 ? 0 : max;
+    }
+}
@@ -0,0 +1,328 @@
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * Per-player game histories for a shared console.
+ * <pre>
+ * Each player has a directory under the store's root, named after the
+ *   player (lower case), holding that player's history snapshot and log.
+ * Trackers are loaded lazily when a player logs in and kept in a
+ *   bounded LRU cache (a LinkedHashMap in access order). When the cache
+ *   is over capacity, the players used least recently are evicted: a
+ *   tracker that changed since its last save is written back, then its
+ *   log is closed so the evicted history holds neither heap nor file
+ *   handles.
+ * A player stays pinned in the cache from login until the matching
+ *   logout, so a tracker in use by a session is never evicted under it;
+ *   if every cached player is signed in, the cache grows past its
+ *   capacity until some log out.
+ * Memory therefore depends on the cache capacity and the number of
+ *   signed-in players, not on how many players have registered; an
+ *   evicted player is simply reloaded from disk on the next login.
+ * The store is thread-safe. The cache is guarded by the store's
+ *   monitor, but trackers are loaded and evicted trackers written back
+ *   after it is released, so one session's disk I/O does not stall the
+ *   others. A player being loaded or written back is marked, and a
+ *   login of that player waits for the load or write to finish.
+ * </pre>
+ * @version 3
+ */
+final class ProfileStore implements Closeable {
+    /** Name of the history snapshot in each player directory. */
+    static final String HISTORY_FILENAME = "history.dat";
+    /** Trackers kept in memory by the launcher. */
+    static final int DEFAULT_CAPACITY = 16;
+    /** Longest allowed player name. */
+    static final int MAX_NAME_LENGTH = 32;
+    /** Allowed player names: letters, digits, '-' and '_'. */
+    private static final Pattern NAME = Pattern.compile(
+        "[A-Za-z0-9_-]{1," + MAX_NAME_LENGTH + "}");
+    /** Load factor of the cache, which never grows past its capacity. */
+    private static final float LOAD_FACTOR = 0.75f;
+
+    /** Directory holding one directory per player. */
+    private final Path root;
+    /** Most trackers kept in memory. */
+    private final int capacity;
+    /** Loaded profiles by player key, least recently used first. */
+    private final LinkedHashMap<String, Profile> cache;
+    /** Evicted trackers being written back, by player key. */
+    private final Map<String, GameHistoryTracker> evicting = new HashMap<>();
+    /** Keys of the players being loaded. */
+    private final Set<String> loading = new HashSet<>();
+
+    /**
+     * A loaded tracker and the number of logins holding it.
+     */
+    private static final class Profile {
+        /** The player's tracker. */
+        private final GameHistoryTracker tracker;
+        /** Logins not yet matched by a logout. */
+        private int pins;
+
+        /**
+         * Creates an unpinned profile.
+         * @param history the player's tracker
+         */
+        Profile(final GameHistoryTracker history) {
+            this.tracker = history;
+        }
+    }
+
+    /**
+     * Creates a store; nothing is read until a player logs in.
+     * @param directory directory holding the player directories
+     * @param maxLoaded most trackers kept in memory (at least 1)
+     */
+    ProfileStore(final Path directory, final int maxLoaded) {
+        if (maxLoaded < 1) {
+            throw new IllegalArgumentException(
+                "capacity must be positive: " + maxLoaded);
+        }
+        this.root = directory;
+        this.capacity = maxLoaded;
+        this.cache = new LinkedHashMap<>(
+            (int) (maxLoaded / LOAD_FACTOR) + 1, LOAD_FACTOR, true);
+    }
+
+    /**
+     * Whether a string may be used as a player name.
+     * @param player the proposed name
+     * @return true if it is 1 to MAX_NAME_LENGTH letters, digits, '-'
+     *         or '_'
+     */
+    static boolean isValidName(final String player) {
+        return player != null && NAME.matcher(player).matches();
+    }
+
+    /**
+     * Returns a player's tracker, loading it (or creating the player) if
+     *   it is not in memory, and pins it until the matching logout.
+     * @param player the player name
+     * @return the player's tracker
+     * @throws IOException if the player directory cannot be created, or
+     *         the wait for the player's load or write-back is
+     *         interrupted
+     * @throws IllegalArgumentException if the name is not valid
+     */
+    GameHistoryTracker login(final String player) throws IOException {
+        String key = keyOf(player);
+        Profile profile;
+        Map<String, GameHistoryTracker> evicted = Map.of();
+        synchronized (this) {
+            while (evicting.containsKey(key) || loading.contains(key)) {
+                try {
+                    wait();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new InterruptedIOException(
+                        "interrupted loading " + player);
+                }
+            }
+            profile = cache.get(key);
+            if (profile != null) {
+                profile.pins++;
+                evicted = trim();
+            } else {
+                loading.add(key);
+            }
+        }
+        if (profile == null) {
+            GameHistoryTracker tracker = null;
+            try {
+                Files.createDirectories(root.resolve(key));
+                tracker = GameHistoryTracker.loadHistory(historyFile(player));
+            } finally {
+                synchronized (this) {
+                    loading.remove(key);
+                    if (tracker != null) {
+                        profile = new Profile(tracker);
+                        cache.put(key, profile);
+                        profile.pins++;
+                        evicted = trim();
+                    }
+                    notifyAll();
+                }
+            }
+        }
+        writeBack(evicted);
+        return profile.tracker;
+    }
+
+    /**
+     * Releases a login, letting the player's tracker be evicted once no
+     *   login holds it.
+     * @param player the player name
+     * @throws IllegalArgumentException if the name is not valid
+     */
+    void logout(final String player) {
+        String key = keyOf(player);
+        Map<String, GameHistoryTracker> evicted;
+        synchronized (this) {
+            Profile profile = cache.get(key);
+            if (profile == null || profile.pins == 0) {
+                return;
+            }
+            profile.pins--;
+            evicted = trim();
+        }
+        writeBack(evicted);
+    }
+
+    /**
+     * Names a player's history snapshot file.
+     * @param player the player name
+     * @return the snapshot file name
+     * @throws IllegalArgumentException if the name is not valid
+     */
+    String historyFile(final String player) {
+        return root.resolve(keyOf(player)).resolve(HISTORY_FILENAME)
+                   .toString();
+    }
+
+    /**
+     * Whether a player's tracker is in memory.
+     * @param player the player name
+     * @return true if loaded
+     */
+    synchronized boolean isLoaded(final String player) {
+        return cache.containsKey(keyOf(player));
+    }
+
+    /**
+     * Number of trackers in memory.
+     * @return the loaded count
+     */
+    synchronized int loadedCount() {
+        return cache.size();
+    }
+
+    /**
+     * Lists the players with a directory in the store.
+     * @return player keys in directory order
+     * @throws IOException if the root cannot be listed
+     */
+    List<String> players() throws IOException {
+        List<String> names = new ArrayList<>();
+        if (Files.isDirectory(root)) {
+            try (DirectoryStream<Path> dirs
+                     = Files.newDirectoryStream(root, Files::isDirectory)) {
+                for (Path dir : dirs) {
+                    names.add(dir.getFileName().toString());
+                }
+            }
+        }
+        return names;
+    }
+
+    /**
+     * Writes back every changed tracker and closes all logs, whether or
+     *   not their players are signed in.
+     * The store is empty afterwards and may still be used.
+     */
+    @Override
+    public void close() {
+        Map<String, GameHistoryTracker> evicted = new HashMap<>();
+        synchronized (this) {
+            for (Map.Entry<String, Profile> entry : cache.entrySet()) {
+                evicted.put(entry.getKey(), entry.getValue().tracker);
+            }
+            cache.clear();
+            evicting.putAll(evicted);
+        }
+        writeBack(evicted);
+    }
+
+    /**
+     * Evicts unpinned profiles, least recently used first, until the
+     *   cache is within its capacity or only pinned profiles remain.
+     * The caller holds the monitor and writes the evicted trackers back
+     *   after releasing it.
+     * @return the evicted trackers by player key, now marked as being
+     *         written back
+     */
+    private Map<String, GameHistoryTracker> trim() {
+        Map<String, GameHistoryTracker> evicted = new HashMap<>();
+        Iterator<Map.Entry<String, Profile>> entries =
+            cache.entrySet().iterator();
+        while (cache.size() > capacity && entries.hasNext()) {
+            Map.Entry<String, Profile> entry = entries.next();
+            if (entry.getValue().pins == 0) {
+                entries.remove();
+                evicted.put(entry.getKey(), entry.getValue().tracker);
+            }
+        }
+        evicting.putAll(evicted);
+        return evicted;
+    }
+
+    /**
+     * Writes back evicted trackers, without holding the monitor, then
+     *   lets logins of their players proceed.
+     * @param evicted the trackers by player key, from trim or close
+     */
+    private void writeBack(final Map<String, GameHistoryTracker> evicted) {
+        if (evicted.isEmpty()) {
+            return;
+        }
+        for (Map.Entry<String, GameHistoryTracker> entry : evicted.entrySet()) {
+            writeBack(entry.getKey(), entry.getValue());
+        }
+        synchronized (this) {
+            evicting.keySet().removeAll(evicted.keySet());
+            notifyAll();
+        }
+    }
+
+    /**
+     * Saves a tracker being dropped from memory if it changed, and
+     *   closes its log.
+     * A failed save is reported; plays already in the log are kept.
+     * @param key the player key
+     * @param tracker the tracker
+     */
+    private void writeBack(final String key, final GameHistoryTracker tracker) {
+        try {
+            if (tracker.isDirty()) {
+                tracker.saveHistory(historyFile(key));
+            }
+        } catch (IOException e) {
+            System.err.println("Game history save failed for " + key + ": "
+                               + e.getMessage());
+        }
+        try {
+            tracker.closeLog();
+        } catch (IOException e) {
+            System.err.println("Game history log write failed for " + key
+                               + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Maps a player name to its cache key and directory name.
+     * @param player the player name
+     * @return the key
+     * @throws IllegalArgumentException if the name is not valid
+     */
+    private static String keyOf(final String player) {
+        if (!isValidName(player)) {
+            throw new IllegalArgumentException(
+                "invalid player name: " + player);
+        }
+        return player.toLowerCase(Locale.ROOT);
+    }
+}
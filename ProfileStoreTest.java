@@ -0,0 +1,175 @@
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests for ProfileStore.
+ * @version 3
+ */
+public class ProfileStoreTest {
+    /** Players registered by the bounded-cache test. */
+    private static final int PLAYERS = 200;
+
+    /**
+     * An evicted player's changes are saved to the snapshot and found
+     *   again on the next login.
+     * @param tempDir temporary directory for the store
+     * @throws IOException if file handling fails
+     */
+    @Test
+    public void testEvictionWritesBack(@TempDir final Path tempDir)
+            throws IOException {
+        ProfileStore store = new ProfileStore(tempDir, 2);
+        store.login("Ann").recordPlay("Snake", 12);
+        store.logout("Ann");
+        store.login("Bo");
+        store.login("Cy");
+
+        assertFalse(store.isLoaded("Ann"));
+        assertEquals(2, store.loadedCount());
+        Files.delete(GameHistoryTracker.logPathFor(store.historyFile("Ann")));
+        GameHistoryTracker ann = store.login("ann");
+        assertEquals(1, ann.getTimesPlayed("Snake"));
+        assertEquals(12, ann.getSummary("Snake").getMax());
+        store.close();
+    }
+
+    /**
+     * Players evicted and signed in again by many threads keep every
+     *   play: a login waits for its player's write-back.
+     * @param tempDir temporary directory for the store
+     * @throws Exception if a thread fails
+     */
+    @Test
+    public void testConcurrentEvictions(@TempDir final Path tempDir)
+            throws Exception {
+        ProfileStore store = new ProfileStore(tempDir, 1);
+        String[] players = {"Ann", "Bo", "Cy"};
+        int rounds = 30;
+        ExecutorService pool = Executors.newFixedThreadPool(players.length);
+        try {
+            List<Future<?>> runs = new ArrayList<>();
+            for (String player : players) {
+                runs.add(pool.submit(() -> {
+                    for (int i = 0; i < rounds; i++) {
+                        GameHistoryTracker tracker = store.login(player);
+                        tracker.recordPlay("Snake", i);
+                        store.logout(player);
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> run : runs) {
+                run.get();
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+        store.close();
+        for (String player : players) {
+            assertEquals(rounds, GameHistoryTracker.loadHistory(
+                store.historyFile(player)).getTimesPlayed("Snake"), player);
+        }
+    }
+
+    /**
+     * Threads signing in one player at once share a single load of the
+     *   player's history.
+     * @param tempDir temporary directory for the store
+     * @throws Exception if a thread fails
+     */
+    @Test
+    public void testConcurrentLoginsLoadOnce(@TempDir final Path tempDir)
+            throws Exception {
+        ProfileStore store = new ProfileStore(tempDir, 2);
+        int threads = 8;
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<GameHistoryTracker>> logins = new ArrayList<>();
+            for (int i = 0; i < threads; i++) {
+                logins.add(pool.submit(() -> store.login("Ann")));
+            }
+            GameHistoryTracker first = logins.get(0).get();
+            for (Future<GameHistoryTracker> login : logins) {
+                assertSame(first, login.get());
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+        assertEquals(1, store.loadedCount());
+        store.close();
+    }
+
+    /**
+     * However many players register, only the cache capacity stays
+     *   loaded.
+     * @param tempDir temporary directory for the store
+     * @throws IOException if file handling fails
+     */
+    @Test
+    public void testCacheStaysBounded(@TempDir final Path tempDir)
+            throws IOException {
+        ProfileStore store = new ProfileStore(tempDir, 4);
+        for (int i = 0; i < PLAYERS; i++) {
+            store.login("player" + i).recordPlay("Jotto", i);
+            store.logout("player" + i);
+        }
+        assertEquals(4, store.loadedCount());
+        assertEquals(PLAYERS, store.players().size());
+        store.close();
+        assertEquals(0, store.loadedCount());
+        assertEquals(1, GameHistoryTracker.loadHistory(
+            store.historyFile("player7")).getTimesPlayed("Jotto"));
+    }
+
+    /**
+     * A signed-in player is never evicted, even past the capacity.
+     * @param tempDir temporary directory for the store
+     * @throws IOException if file handling fails
+     */
+    @Test
+    public void testPinnedPlayersStay(@TempDir final Path tempDir)
+            throws IOException {
+        ProfileStore store = new ProfileStore(tempDir, 1);
+        GameHistoryTracker ann = store.login("Ann");
+        store.login("Bo");
+        assertSame(ann, store.login("Ann"));
+        assertEquals(2, store.loadedCount());
+        store.logout("Bo");
+        assertEquals(1, store.loadedCount());
+        assertFalse(store.isLoaded("Bo"));
+        store.close();
+    }
+
+    /**
+     * Names are case-insensitive and restricted to safe characters.
+     * @param tempDir temporary directory for the store
+     * @throws IOException if file handling fails
+     */
+    @Test
+    public void testPlayerNames(@TempDir final Path tempDir)
+            throws IOException {
+        ProfileStore store = new ProfileStore(tempDir, 2);
+        assertSame(store.login("Dee"), store.login("DEE"));
+        assertTrue(ProfileStore.isValidName("jo_2-b"));
+        assertFalse(ProfileStore.isValidName(""));
+        assertFalse(ProfileStore.isValidName("../etc"));
+        assertThrows(IllegalArgumentException.class,
+                     () -> store.login("a b"));
+        store.close();
+    }
+}
@@ -0,0 +1,219 @@
+import java.io.DataOutput;
+import java.io.IOException;
+import java.io.Serializable;
+import java.nio.ByteBuffer;
+
+/**
+ * Mergeable, fixed-size histogram of int scores for quantile estimates.
+ * <pre>
+ * Buckets follow the HDR (high dynamic range) histogram layout:
+ *   values below SUB_COUNT each get their own bucket, and every
+ *   power-of-two range above that is split into SUB_COUNT / 2 equal
+ *   buckets.
+ * A quantile is therefore exact for small scores and within 1/32 of the
+ *   true value for large ones, whatever the number of scores recorded.
+ * Negative scores use a mirrored set of buckets, allocated on first use.
+ * Memory is bounded by BUCKETS longs per sign (under 4 KB).
+ * </pre>
+ * @version 1
+ */
+final class ScoreHistogram implements Serializable {
+    private static final long serialVersionUID = 1L;
+    /** Bits of precision kept within each power-of-two range. */
+    private static final int SUB_BITS = 5;
+    /** Number of values with their own bucket. */
+    private static final int SUB_COUNT = 1 << SUB_BITS;
+    /** Number of buckets per power-of-two range. */
+    private static final int HALF = SUB_COUNT >> 1;
+    /** Buckets needed to cover every int magnitude, up to 2^31. */
+    static final int BUCKETS = bucketOf(1L << (Integer.SIZE - 1)) + 1;
+
+    /** Counts of non-negative scores by bucket. */
+    private final long[] positive = new long[BUCKETS];
+    /** Counts of negative scores by bucket of their magnitude. */
+    private long[] negative;
+    /** Number of scores recorded. */
+    private long count;
+
+    /**
+     * Finds the bucket holding a magnitude.
+     * @param magnitude a value from 0 to 2^31
+     * @return the bucket index
+     */
+    static int bucketOf(final long magnitude) {
+        if (magnitude < SUB_COUNT) {
+            return (int) magnitude;
+        }
+        int shift = (Long.SIZE - 1 - Long.numberOfLeadingZeros(magnitude))
+                    - SUB_BITS + 1;
+        return SUB_COUNT + (shift - 1) * HALF
+               + (int) (magnitude >>> shift) - HALF;
+    }
+
+    /**
+     * Lowest magnitude that falls in a bucket.
+     * @param bucket the bucket index
+     * @return the bucket's lower bound
+     */
+    static long lowerBound(final int bucket) {
+        if (bucket < SUB_COUNT) {
+            return bucket;
+        }
+        int k = bucket - SUB_COUNT;
+        int shift = k / HALF + 1;
+        return (long) (k % HALF + HALF) << shift;
+    }
+
+    /**
+     * Highest magnitude that falls in a bucket.
+     * @param bucket the bucket index
+     * @return the bucket's upper bound
+     */
+    static long upperBound(final int bucket) {
+        return bucket + 1 < BUCKETS ? lowerBound(bucket + 1) - 1
+                                    : lowerBound(bucket);
+    }
+
+    /**
+     * Records a score.
+     * @param score the score
+     */
+    void add(final int score) {
+        add(score, 1);
+    }
+
+    /**
+     * Records a score several times.
+     * @param score the score
+     * @param times how many times to record it
+     */
+    void add(final int score, final long times) {
+        if (score >= 0) {
+            positive[bucketOf(score)] += times;
+        } else {
+            if (negative == null) {
+                negative = new long[BUCKETS];
+            }
+            negative[bucketOf(-(long) score)] += times;
+        }
+        count += times;
+    }
+
+    /**
+     * Adds all scores recorded by another histogram.
+     * @param other the histogram to merge in
+     */
+    void merge(final ScoreHistogram other) {
+        for (int i = 0; i < BUCKETS; i++) {
+            positive[i] += other.positive[i];
+        }
+        if (other.negative != null) {
+            if (negative == null) {
+                negative = new long[BUCKETS];
+            }
+            for (int i = 0; i < BUCKETS; i++) {
+                negative[i] += other.negative[i];
+            }
+        }
+        count += other.count;
+    }
+
+    /**
+     * Number of scores recorded.
+     * @return the count
+     */
+    long getCount() {
+        return count;
+    }
+
+    /**
+     * Estimates the score at a quantile.
+     * The estimate is the midpoint of the bucket holding that rank.
+     * @param quantile a fraction from 0 to 1, e.g. 0.9 for p90
+     * @return the estimated score, or 0 if nothing was recorded
+     */
+    int quantile(final double quantile) {
+        if (count == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(quantile * count));
+        long seen = 0;
+        if (negative != null) {
+            for (int i = BUCKETS - 1; i >= 0; i--) {
+                seen += negative[i];
+                if (seen >= rank) {
+                    return (int) -((lowerBound(i) + upperBound(i)) / 2);
+                }
+            }
+        }
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += positive[i];
+            if (seen >= rank) {
+                return (int) ((lowerBound(i) + upperBound(i)) / 2);
+            }
+        }
+        return (int) lowerBound(BUCKETS - 1);
+    }
+
+    /**
+     * Writes the non-empty buckets.
+     * <pre>
+     * Layout: short entry count, then per entry
+     *   short bucket (negative scores' buckets as -(bucket + 1)),
+     *   long count
+     * </pre>
+     * @param out destination
+     * @throws IOException if an I/O error occurs
+     */
+    void writeTo(final DataOutput out) throws IOException {
+        int entries = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            if (positive[i] != 0) {
+                entries++;
+            }
+            if (negative != null && negative[i] != 0) {
+                entries++;
+            }
+        }
+        out.writeShort(entries);
+        for (int i = 0; i < BUCKETS; i++) {
+            if (negative != null && negative[i] != 0) {
+                out.writeShort(-(i + 1));
+                out.writeLong(negative[i]);
+            }
+            if (positive[i] != 0) {
+                out.writeShort(i);
+                out.writeLong(positive[i]);
+            }
+        }
+    }
+
+    /**
+     * Reads buckets written by writeTo.
+     * @param in source, positioned at the histogram
+     * @return the histogram
+     * @throws IOException if a bucket is out of range
+     */
+    static ScoreHistogram readFrom(final ByteBuffer in) throws IOException {
+        ScoreHistogram histogram = new ScoreHistogram();
+        int entries = in.getShort();
+        for (int e = 0; e < entries; e++) {
+            int code = in.getShort();
+            long times = in.getLong();
+            int bucket = code < 0 ? -code - 1 : code;
+            if (bucket >= BUCKETS) {
+                throw new IOException("Malformed score histogram");
+            }
+            if (code < 0) {
+                if (histogram.negative == null) {
+                    histogram.negative = new long[BUCKETS];
+                }
+                histogram.negative[bucket] += times;
+            } else {
+                histogram.positive[bucket] += times;
+            }
+            histogram.count += times;
+        }
+        return histogram;
+    }
+}
@@ -0,0 +1,184 @@
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Random;
+
+/**
+ * Measures heap use and load time of recorded scores, comparing the
+ *   original ArrayList of Integer layout with IntColumn.
+ * <pre>
+ * Usage: java ScoreStorageBenchmark [count ...]
+ *   Defaults to 1000000 10000000 50000000 scores.
+ *   Large counts need a large heap, e.g. -Xmx8g; a layout that does not
+ *   fit is reported as skipped.
+ * For each count, the scores are built, serialized to a temporary file,
+ *   and loaded back; the retained heap of the loaded layout and the best
+ *   of several load times are reported.
+ * </pre>
+ * @version 1
+ */
+public final class ScoreStorageBenchmark {
+    /** Score counts measured when none are given. */
+    private static final int[] DEFAULT_COUNTS = {
+        1_000_000, 10_000_000, 50_000_000,
+    };
+    /** Timed loads per layout; the fastest is reported. */
+    private static final int LOAD_RUNS = 3;
+    /** Scores are drawn uniformly below this bound. */
+    private static final int SCORE_BOUND = 10_000;
+    /** Bytes per megabyte. */
+    private static final double MB = 1024.0 * 1024.0;
+    /** Nanoseconds per millisecond. */
+    private static final double NANOS_PER_MILLI = 1e6;
+    /** Seed so both layouts load identical scores. */
+    private static final long SEED = 42L;
+    /** Keeps the loaded layout reachable while its heap is measured. */
+    private static Object retained;
+
+    /**
+     * Prevent instantiation.
+     */
+    private ScoreStorageBenchmark() {
+        throw new UnsupportedOperationException("class cannot be instantiated");
+    }
+
+    /**
+     * Runs the benchmark.
+     * @param args score counts to measure
+     * @throws IOException if the temporary files cannot be used
+     */
+    public static void main(final String[] args) throws IOException {
+        int[] counts = DEFAULT_COUNTS;
+        if (args.length > 0) {
+            counts = new int[args.length];
+            for (int i = 0; i < args.length; i++) {
+                counts[i] = Integer.parseInt(args[i]);
+            }
+        }
+        System.out.printf("%-12s %-22s %12s %10s %12s%n",
+                          "scores", "layout", "heap MB", "file MB",
+                          "load ms");
+        for (int count : counts) {
+            measure(count, "ArrayList<Integer>", false);
+            measure(count, "IntColumn (plain)", true);
+            measure(count, "IntColumn (delta)", true);
+        }
+    }
+
+    /**
+     * Measures one layout at one size and prints a result row.
+     * @param count number of scores
+     * @param layout name of the layout
+     * @param primitive true for IntColumn, false for ArrayList
+     * @throws IOException if the temporary file cannot be used
+     */
+    private static void measure(final int count,
+                                final String layout,
+                                final boolean primitive) throws IOException {
+        Path file = Files.createTempFile("scores", ".bin");
+        try {
+            write(file, count, layout);
+            long best = Long.MAX_VALUE;
+            long heap = 0;
+            for (int run = 0; run < LOAD_RUNS; run++) {
+                retained = null;
+                long before = usedHeap();
+                long start = System.nanoTime();
+                retained = primitive ? readColumn(file) : readList(file);
+                best = Math.min(best, System.nanoTime() - start);
+                heap = usedHeap() - before;
+            }
+            retained = null;
+            System.out.printf("%-12d %-22s %12.1f %10.1f %12.1f%n",
+                              count, layout, heap / MB, Files.size(file) / MB,
+                              best / NANOS_PER_MILLI);
+        } catch (OutOfMemoryError e) {
+            retained = null;
+            System.out.printf("%-12d %-22s %12s%n",
+                              count, layout, "skipped (heap too small)");
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    /**
+     * Writes the scores in the given layout.
+     * @param file destination
+     * @param count number of scores
+     * @param layout name of the layout
+     * @throws IOException if an I/O error occurs
+     */
+    private static void write(final Path file,
+                              final int count,
+                              final String layout) throws IOException {
+        Random random = new Random(SEED);
+        if (layout.startsWith("ArrayList")) {
+            ArrayList<Integer> list = new ArrayList<>();
+            for (int i = 0; i < count; i++) {
+                list.add(random.nextInt(SCORE_BOUND));
+            }
+            try (ObjectOutputStream out = new ObjectOutputStream(
+                    new BufferedOutputStream(Files.newOutputStream(file)))) {
+                out.writeObject(list);
+            }
+            return;
+        }
+        IntColumn column = new IntColumn();
+        for (int i = 0; i < count; i++) {
+            column.add(random.nextInt(SCORE_BOUND));
+        }
+        byte encoding = layout.contains("delta")
+            ? IntColumn.DELTA : IntColumn.PLAIN;
+        try (DataOutputStream out = new DataOutputStream(
+                new BufferedOutputStream(Files.newOutputStream(file)))) {
+            column.writeTo(out, encoding);
+        }
+    }
+
+    /**
+     * Loads an ArrayList of Integer.
+     * @param file source
+     * @return the list
+     * @throws IOException if an I/O error occurs
+     */
+    private static Object readList(final Path file) throws IOException {
+        try (ObjectInputStream in = new ObjectInputStream(
+                new BufferedInputStream(Files.newInputStream(file)))) {
+            return in.readObject();
+        } catch (ClassNotFoundException e) {
+            throw new IOException(e);
+        }
+    }
+
+    /**
+     * Loads an IntColumn.
+     * @param file source
+     * @return the column
+     * @throws IOException if an I/O error occurs
+     */
+    private static Object readColumn(final Path file) throws IOException {
+        try (DataInputStream in = new DataInputStream(
+                new BufferedInputStream(Files.newInputStream(file)))) {
+            return IntColumn.readFrom(in);
+        }
+    }
+
+    /**
+     * Heap in use after a collection.
+     * @return used heap in bytes
+     */
+    private static long usedHeap() {
+        Runtime rt = Runtime.getRuntime();
+        for (int i = 0; i < 2; i++) {
+            System.gc();
+        }
+        return rt.totalMemory() - rt.freeMemory();
+    }
+}
@@ -0,0 +1,171 @@
+import java.io.DataOutput;
+import java.io.IOException;
+import java.io.Serializable;
+import java.nio.ByteBuffer;
+
+/**
+ * Constant-memory running summary of a game's scores.
+ * <pre>
+ * Each score updates the summary in O(1):
+ *   - count, minimum and maximum
+ *   - mean and variance by Welford's online algorithm, which avoids the
+ *     cancellation error of a running sum of squares
+ *   - a ScoreHistogram for p50 / p90 / p99 estimates
+ * Summaries are mergeable, so partial summaries (for example, from
+ *   separate sessions) combine into the summary of all their scores.
+ * </pre>
+ * @version 1
+ */
+final class ScoreSummary implements Serializable {
+    private static final long serialVersionUID = 1L;
+    /** Number of scores summarized. */
+    private long count;
+    /** Lowest score. */
+    private int min = Integer.MAX_VALUE;
+    /** Highest score. */
+    private int max = Integer.MIN_VALUE;
+    /** Running mean. */
+    private double mean;
+    /** Running sum of squared differences from the mean. */
+    private double m2;
+    /** Distribution of scores for quantiles. */
+    private ScoreHistogram histogram = new ScoreHistogram();
+
+    /**
+     * Adds a score to the summary.
+     * @param score the score
+     */
+    void add(final int score) {
+        count++;
+        min = Math.min(min, score);
+        max = Math.max(max, score);
+        double delta = score - mean;
+        mean += delta / count;
+        m2 += delta * (score - mean);
+        histogram.add(score);
+    }
+
+    /**
+     * Adds all scores summarized by another summary.
+     * Uses Chan's pairwise update for the mean and variance.
+     * @param other the summary to merge in
+     */
+    void merge(final ScoreSummary other) {
+        if (other.count == 0) {
+            return;
+        }
+        long total = count + other.count;
+        double delta = other.mean - mean;
+        mean += delta * other.count / total;
+        m2 += other.m2 + delta * delta * count * other.count / total;
+        count = total;
+        min = Math.min(min, other.min);
+        max = Math.max(max, other.max);
+        histogram.merge(other.histogram);
+    }
+
+    /**
+     * Copies the summary.
+     * @return an independent summary of the same scores
+     */
+    ScoreSummary copy() {
+        ScoreSummary copy = new ScoreSummary();
+        copy.merge(this);
+        return copy;
+    }
+
+    /**
+     * Number of scores summarized.
+     * @return the count
+     */
+    long getCount() {
+        return count;
+    }
+
+    /**
+     * Lowest score.
+     * @return the minimum, or 0 if empty
+     */
+    int getMin() {
+        return count == 0 ? 0 : min;
+    }
+
+    /**
+     * Highest score.
+     * @return the maximum, or 0 if empty
+     */
+    int getMax() {
+        return count == 0 ? 0 : max;
+    }
+
+    /**
+     * Mean score.
+     * @return the mean, or 0 if empty
+     */
+    double getMean() {
+        return mean;
+    }
+
+    /**
+     * Population variance of the scores.
+     * @return the variance, or 0 if empty
+     */
+    double getVariance() {
+        return count == 0 ? 0 : m2 / count;
+    }
+
+    /**
+     * Population standard deviation of the scores.
+     * @return the standard deviation, or 0 if empty
+     */
+    double getStdDev() {
+        return Math.sqrt(getVariance());
+    }
+
+    /**
+     * Estimates the score at a quantile, clamped to the observed range.
+     * @param quantile a fraction from 0 to 1, e.g. 0.5 for the median
+     * @return the estimated score, or 0 if empty
+     */
+    int quantile(final double quantile) {
+        if (count == 0) {
+            return 0;
+        }
+        return Math.max(min, Math.min(max, histogram.quantile(quantile)));
+    }
+
+    /**
+     * Writes the summary.
+     * <pre>
+     * Layout: long count, int min, int max, double mean, double m2,
+     *   then the histogram (see ScoreHistogram.writeTo)
+     * </pre>
+     * @param out destination
+     * @throws IOException if an I/O error occurs
+     */
+    void writeTo(final DataOutput out) throws IOException {
+        out.writeLong(count);
+        out.writeInt(min);
+        out.writeInt(max);
+        out.writeDouble(mean);
+        out.writeDouble(m2);
+        histogram.writeTo(out);
+    }
+
+    /**
+     * Reads a summary written by writeTo.
+     * @param in source, positioned at the summary
+     * @return the summary
+     * @throws IOException if the data is malformed
+     */
+    static ScoreSummary readFrom(final ByteBuffer in) throws IOException {
+        ScoreSummary summary = new ScoreSummary();
+        summary.count = in.getLong();
+        summary.min = in.getInt();
+        summary.max = in.getInt();
+        summary.mean = in.getDouble();
+        summary.m2 = in.getDouble();
+        summary.histogram = ScoreHistogram.readFrom(in);
+        return summary;
+    }
+}
@@ -0,0 +1,469 @@
+import java.util.Arrays;
+
+/**
+ * Steers a SnakeEngine towards the food without ever trapping itself.
+ * <pre>
+ * On a board with an even number of rows the autopilot fixes a
+ *   Hamiltonian cycle, a closed path through every cell (a serpentine
+ *   along the rows returning up one edge column), laid out so that a new
+ *   snake already lies along it. Following the cycle alone fills the
+ *   board, but slowly; the autopilot takes shortcuts that keep the
+ *   snake in cycle order:
+ * - Number the cells by their distance along the cycle from the tail.
+ *   The body occupies the numbers up to the head's and every higher
+ *   number is free.
+ * - A move to a higher number keeps that true, so it can never lead
+ *   into the body or a dead end. (The head may also enter the tail's
+ *   cell, as the tail leaves it.)
+ * - If the food is ahead of the head, moves stop at the food's number.
+ *   If it lies between body cells, the snake keeps going round until
+ *   the tail has passed it.
+ * Each time new food appears, A* (see estimate for its heuristic) finds
+ *   the shortest route to it using only such moves, and the snake
+ *   follows that route until it eats. Every move on the route remains
+ *   allowed as the tail advances, so one search per piece of food
+ *   suffices. As a safeguard a search gives up after a budget
+ *   proportional to the board's sides; the snake then takes, each
+ *   tick, the allowed neighbour nearest the food, which is just as
+ *   safe but slower.
+ * On other boards there is no such cycle. A* then searches the free
+ *   cells every tick, and if the food cannot be reached the snake takes
+ *   any free neighbour, so it may die.
+ *
+ * The search uses arrays sized to the board, allocated once: visited
+ *   marks are generation stamps, so nothing is cleared between searches,
+ *   and the open set is a binary heap of longs packing priority and
+ *   cell. The heap grows on demand, so after the first few searches
+ *   nothing is allocated per tick.
+ * </pre>
+ * @version 1
+ */
+final class SnakeAutopilot {
+    /** Number of directions. */
+    private static final int DIRECTIONS = 4;
+    /** Bits of a heap entry holding the cell. */
+    private static final int CELL_BITS = 32;
+    /** Mask of the cell bits of a heap entry. */
+    private static final long CELL_MASK = 0xFFFF_FFFFL;
+    /** Initial heap entries per board cell, as a divisor. */
+    private static final int HEAP_DIVISOR = 4;
+    /** Smallest initial heap. */
+    private static final int MIN_HEAP = 16;
+    /** Cells a search may expand per cell of board width plus height. */
+    private static final int EXPANSIONS_PER_SIDE = 8;
+
+    /** The game steered. */
+    private final SnakeEngine engine;
+    /** Board columns. */
+    private final int width;
+    /** Board rows. */
+    private final int height;
+    /** True if the cycle's return column is the last, not the first. */
+    private final boolean mirrored;
+    /** Position of each cell along the cycle, or null if none. */
+    private final int[] cycleIndex;
+    /** Search generation in which each cell was reached. */
+    private final int[] stamp;
+    /** Steps from the start to each reached cell. */
+    private final int[] distance;
+    /** Cell each reached cell was reached from. */
+    private final int[] parent;
+    /** Route to the food, first step first. */
+    private final int[] path;
+    /** Most cells a search expands before giving up. */
+    private final int searchBudget;
+    /** Open set of the search: priority in the high bits, cell low. */
+    private long[] heap;
+    /** Entries in the heap. */
+    private int heapSize;
+    /** Current search generation. */
+    private int generation;
+    /** Steps in the route. */
+    private int pathLength;
+    /** Next step of the route to take. */
+    private int pathStep;
+    /** Cell the route's next step starts from, or NONE. */
+    private int pathFrom = SnakeEngine.NONE;
+    /** Food the route leads to, or NONE. */
+    private int pathFood = SnakeEngine.NONE;
+
+    /**
+     * Creates an autopilot for a game.
+     * @param game the game to steer
+     */
+    SnakeAutopilot(final SnakeEngine game) {
+        this.engine = game;
+        this.width = game.getWidth();
+        this.height = game.getHeight();
+        int cells = width * height;
+        this.mirrored = height / 2 % 2 == 1;
+        this.cycleIndex = height % 2 == 0 ? buildCycle() : null;
+        this.stamp = new int[cells];
+        this.distance = new int[cells];
+        this.parent = new int[cells];
+        this.path = new int[cells];
+        this.searchBudget = EXPANSIONS_PER_SIDE * (width + height);
+        this.heap = new long[Math.max(MIN_HEAP, cells / HEAP_DIVISOR)];
+    }
+
+    /**
+     * Whether the autopilot follows a Hamiltonian cycle, and so never
+     *   dies on this board.
+     * @return true if the board has an even number of rows
+     */
+    boolean hasCycle() {
+        return cycleIndex != null;
+    }
+
+    /**
+     * Chooses the direction for the next tick.
+     * @return SnakeEngine.UP, RIGHT, DOWN or LEFT
+     */
+    int direction() {
+        int head = engine.head();
+        int food = engine.food();
+        if (food == SnakeEngine.NONE) {
+            return engine.direction();
+        }
+        int limit = limit(head, food);
+        boolean ahead = cycleIndex == null || limit < cycleIndex.length;
+        if (ahead && (food != pathFood
+                      || cycleIndex == null && head != pathFrom)) {
+            search(head, food, limit);
+        }
+        if (ahead && pathStep < pathLength) {
+            int next = path[pathStep++];
+            pathFrom = next;
+            return directionTo(head, next);
+        }
+        pathFrom = SnakeEngine.NONE;
+        return fallback(head, food, limit);
+    }
+
+    /**
+     * Highest rank the snake may move to while heading for the food: the
+     *   food's own if it is ahead of the head, or the cycle's length if
+     *   the food is among the body's ranks and the snake must go round.
+     * @param head the head's cell
+     * @param food the food's cell
+     * @return the limit; unused without a cycle
+     */
+    private int limit(final int head, final int food) {
+        if (cycleIndex == null) {
+            return 0;
+        }
+        int rank = rank(food);
+        return rank > rank(head) ? rank : cycleIndex.length;
+    }
+
+    /**
+     * Finds the shortest allowed route from the head to the food with
+     *   A*, leaving it in path (empty if there is none, or if finding it
+     *   would expand more than searchBudget cells).
+     * @param head the head's cell
+     * @param food the food's cell
+     * @param limit highest rank allowed (see limit)
+     */
+    private void search(final int head, final int food, final int limit) {
+        pathFood = food;
+        pathFrom = head;
+        pathStep = 0;
+        pathLength = 0;
+        if (++generation == Integer.MAX_VALUE) {
+            Arrays.fill(stamp, 0);
+            generation = 1;
+        }
+        heapSize = 0;
+        visit(head, 0, SnakeEngine.NONE, food);
+        int expansions = 0;
+        while (heapSize > 0 && expansions++ < searchBudget) {
+            long top = pop();
+            int cell = (int) (top & CELL_MASK);
+            int g = distance[cell];
+            if ((int) (top >>> CELL_BITS) > g + estimate(cell, food)) {
+                continue;
+            }
+            if (cell == food) {
+                tracePath(food);
+                return;
+            }
+            int x = cell % width;
+            if (cell >= width) {
+                relax(cell, cell - width, g, food, limit);
+            }
+            if (x < width - 1) {
+                relax(cell, cell + 1, g, food, limit);
+            }
+            if (cell < width * (height - 1)) {
+                relax(cell, cell + width, g, food, limit);
+            }
+            if (x > 0) {
+                relax(cell, cell - 1, g, food, limit);
+            }
+        }
+    }
+
+    /**
+     * Considers reaching a neighbour of a cell in the search.
+     * @param from the cell
+     * @param to the neighbour
+     * @param g steps to from
+     * @param food the food's cell
+     * @param limit highest rank allowed
+     */
+    private void relax(final int from, final int to, final int g,
+                       final int food, final int limit) {
+        if (!allowed(from, to, limit)) {
+            return;
+        }
+        if (stamp[to] != generation || g + 1 < distance[to]) {
+            visit(to, g + 1, from, food);
+        }
+    }
+
+    /**
+     * Records a cell as reached and adds it to the open set.
+     * @param cell the cell
+     * @param g steps to it
+     * @param from the cell it was reached from, or NONE
+     * @param food the food's cell
+     */
+    private void visit(final int cell, final int g, final int from,
+                       final int food) {
+        stamp[cell] = generation;
+        distance[cell] = g;
+        parent[cell] = from;
+        push(((long) (g + estimate(cell, food)) << CELL_BITS) | cell);
+    }
+
+    /**
+     * Copies the route ending at the food into path.
+     * @param food the food's cell
+     */
+    private void tracePath(final int food) {
+        pathLength = distance[food];
+        int cell = food;
+        for (int i = pathLength - 1; i >= 0; i--) {
+            path[i] = cell;
+            cell = parent[cell];
+        }
+    }
+
+    /**
+     * Whether the snake may move from one cell to a neighbour: the
+     *   neighbour is free or the tail (which moves away as the head
+     *   arrives) and, on a cycle, further along it than the cell but not
+     *   past the limit. The tail counts as the rank after the last.
+     * @param from the cell
+     * @param to the neighbour
+     * @param limit highest rank allowed
+     * @return true if allowed
+     */
+    private boolean allowed(final int from, final int to, final int limit) {
+        int tail = engine.tail();
+        if (engine.isOccupied(to) && to != tail) {
+            return false;
+        }
+        if (cycleIndex == null) {
+            return true;
+        }
+        int rank = to == tail ? cycleIndex.length : rank(to);
+        return rank > rank(from) && rank <= limit;
+    }
+
+    /**
+     * Picks a move when there is no route: the allowed neighbour nearest
+     *   the food, or failing that any free neighbour, or straight on.
+     * On a cycle an allowed neighbour always exists, so the snake goes
+     *   round until its tail has passed the food.
+     * @param head the head's cell
+     * @param food the food's cell
+     * @param limit highest rank allowed
+     * @return the direction
+     */
+    private int fallback(final int head, final int food, final int limit) {
+        int best = SnakeEngine.NONE;
+        int bestDistance = Integer.MAX_VALUE;
+        int anyFree = SnakeEngine.NONE;
+        int x = head % width;
+        for (int d = 0; d < DIRECTIONS; d++) {
+            int next = neighbour(head, x, d);
+            if (next == SnakeEngine.NONE || engine.isOccupied(next)
+                && next != engine.tail()) {
+                continue;
+            }
+            anyFree = next;
+            int toFood = manhattan(next, food);
+            if (allowed(head, next, limit) && toFood < bestDistance) {
+                best = next;
+                bestDistance = toFood;
+            }
+        }
+        if (best != SnakeEngine.NONE) {
+            return directionTo(head, best);
+        }
+        if (anyFree != SnakeEngine.NONE) {
+            return directionTo(head, anyFree);
+        }
+        return engine.direction();
+    }
+
+    /**
+     * A cell's distance along the cycle from the tail.
+     * @param cell the cell
+     * @return its rank, 0 for the tail
+     */
+    private int rank(final int cell) {
+        int n = cycleIndex.length;
+        return (cycleIndex[cell] - cycleIndex[engine.tail()] + n) % n;
+    }
+
+    /**
+     * Neighbour of a cell in a direction.
+     * @param cell the cell
+     * @param x the cell's column
+     * @param direction SnakeEngine.UP, RIGHT, DOWN or LEFT
+     * @return the neighbour, or NONE at the edge
+     */
+    private int neighbour(final int cell, final int x, final int direction) {
+        switch (direction) {
+            case SnakeEngine.UP:
+                return cell >= width ? cell - width : SnakeEngine.NONE;
+            case SnakeEngine.RIGHT:
+                return x < width - 1 ? cell + 1 : SnakeEngine.NONE;
+            case SnakeEngine.DOWN:
+                return cell < width * (height - 1) ? cell + width
+                                                   : SnakeEngine.NONE;
+            default:
+                return x > 0 ? cell - 1 : SnakeEngine.NONE;
+        }
+    }
+
+    /**
+     * Direction from a cell to a neighbour.
+     * @param from the cell
+     * @param to the neighbour
+     * @return SnakeEngine.UP, RIGHT, DOWN or LEFT
+     */
+    private int directionTo(final int from, final int to) {
+        if (to == from - width) {
+            return SnakeEngine.UP;
+        }
+        if (to == from + 1) {
+            return SnakeEngine.RIGHT;
+        }
+        if (to == from + width) {
+            return SnakeEngine.DOWN;
+        }
+        return SnakeEngine.LEFT;
+    }
+
+    /**
+     * A* estimate of the steps from a cell to the food.
+     * Usually the Manhattan distance. On a cycle, a cell past the food in
+     *   cycle order can normally reach it only by going on round: along
+     *   the rows to the return column, up it to row 0, and back down to
+     *   the food. The estimate then counts those steps, which makes the
+     *   search far narrower. It can overestimate when a route cuts past
+     *   the tail, so a route found may then be longer than the shortest,
+     *   but it is still a safe one.
+     * @param cell the cell
+     * @param food the food's cell
+     * @return the estimate
+     */
+    private int estimate(final int cell, final int food) {
+        int direct = manhattan(cell, food);
+        if (cycleIndex == null || cycleIndex[cell] <= cycleIndex[food]) {
+            return direct;
+        }
+        return Math.max(direct, column(cell % width) + cell / width
+                                + column(food % width) + food / width);
+    }
+
+    /**
+     * Manhattan distance between cells.
+     * @param a a cell
+     * @param b another cell
+     * @return the distance
+     */
+    private int manhattan(final int a, final int b) {
+        return Math.abs(a % width - b % width)
+               + Math.abs(a / width - b / width);
+    }
+
+    /**
+     * Lays out the cycle: right along the rows the new snake's row
+     *   shares parity with, left along the others, skipping the edge
+     *   column the snake's rows start from, which leads back to row 0.
+     * @return each cell's position along the cycle
+     */
+    private int[] buildCycle() {
+        int[] index = new int[width * height];
+        int position = 0;
+        for (int y = 0; y < height; y++) {
+            for (int i = 1; i < width; i++) {
+                int x = y % 2 == 0 ? i : width - i;
+                index[y * width + column(x)] = position++;
+            }
+        }
+        for (int y = height - 1; y >= 0; y--) {
+            index[y * width + column(0)] = position++;
+        }
+        return index;
+    }
+
+    /**
+     * Maps a column of the unmirrored layout to the board, or back.
+     * @param x the column
+     * @return the board column
+     */
+    private int column(final int x) {
+        return mirrored ? width - 1 - x : x;
+    }
+
+    /**
+     * Adds an entry to the heap, growing it if full.
+     * @param entry priority and cell
+     */
+    private void push(final long entry) {
+        if (heapSize == heap.length) {
+            heap = Arrays.copyOf(heap, heap.length * 2);
+        }
+        int i = heapSize++;
+        while (i > 0) {
+            int up = (i - 1) / 2;
+            if (heap[up] <= entry) {
+                break;
+            }
+            heap[i] = heap[up];
+            i = up;
+        }
+        heap[i] = entry;
+    }
+
+    /**
+     * Removes the smallest entry from the heap.
+     * @return the entry
+     */
+    private long pop() {
+        long top = heap[0];
+        long last = heap[--heapSize];
+        int i = 0;
+        while (true) {
+            int child = 2 * i + 1;
+            if (child >= heapSize) {
+                break;
+            }
+            if (child + 1 < heapSize && heap[child + 1] < heap[child]) {
+                child++;
+            }
+            if (heap[child] >= last) {
+                break;
+            }
+            heap[i] = heap[child];
+            i = child;
+        }
+        heap[i] = last;
+        return top;
+    }
+}
@@ -0,0 +1,159 @@
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+
+/**
+ * Measures headless Snake: ticks per second and bytes allocated per
+ *   tick, for the engine alone and for the autopilot.
+ * <pre>
+ * Usage: java SnakeBenchmark [ticks]
+ *   Defaults to 5000000 timed ticks per board and mode.
+ * Modes:
+ *   engine     random legal turns from an inline xorshift generator,
+ *              so the figures are the engine's own
+ *   autopilot  SnakeSimulation steps (A* route plus cycle shortcuts)
+ * Games that end are reset and play continues until the tick budget is
+ *   spent. Each measurement follows an untimed warm-up of a fifth of
+ *   the budget, so the JIT and the autopilot's heap have settled.
+ * Allocation is read from the running thread's allocation counter
+ *   (com.sun.management.ThreadMXBean), so it counts every byte the
+ *   loop allocates, including garbage collected before it ends; it is
+ *   shown as n/a on runtimes without one. The hot path should show 0.
+ * </pre>
+ * @version 1
+ */
+public final class SnakeBenchmark {
+    /** Timed ticks per board and mode when none are given. */
+    private static final long DEFAULT_TICKS = 5_000_000;
+    /** Board sizes measured, as columns and rows. */
+    private static final int[][] SIZES = {{10, 10}, {20, 20}, {50, 50},
+                                          {100, 100}, {500, 500}};
+    /** Fraction of the budget run untimed first, as a divisor. */
+    private static final int WARM_UP_DIVISOR = 5;
+    /** Nanoseconds per second. */
+    private static final double NANOS_PER_SECOND = 1e9;
+    /** Number of directions. */
+    private static final int DIRECTIONS = 4;
+    /** Xorshift shifts. */
+    private static final int[] XORSHIFT = {13, 7, 17};
+
+    /**
+     * Prevent instantiation.
+     */
+    private SnakeBenchmark() {
+        throw new UnsupportedOperationException("class cannot be instantiated");
+    }
+
+    /**
+     * Outcome of a measured run.
+     */
+    private static final class Run {
+        /** Ticks run. */
+        private long ticks;
+        /** Games that ended. */
+        private long games;
+        /** Games that ended with a full board. */
+        private long wins;
+        /** Food eaten in games that ended. */
+        private long food;
+        /** Duration of the run. */
+        private long nanos;
+        /** Bytes allocated, or -1 if unknown. */
+        private long bytes;
+    }
+
+    /**
+     * Runs the benchmark.
+     * @param args timed ticks per board and mode
+     */
+    public static void main(final String[] args) {
+        long ticks = args.length > 0 ? Long.parseLong(args[0])
+                                     : DEFAULT_TICKS;
+        System.out.printf("%-8s %-10s %14s %12s %8s %6s %10s%n",
+                          "board", "mode", "ticks/s", "bytes/tick",
+                          "games", "wins", "food/game");
+        for (int[] size : SIZES) {
+            String board = size[0] + "x" + size[1];
+            SnakeSimulation simulation =
+                new SnakeSimulation(size[0], size[1], 1);
+            run(simulation, ticks / WARM_UP_DIVISOR, false);
+            report(board, "engine", run(simulation, ticks, false));
+            run(simulation, ticks / WARM_UP_DIVISOR, true);
+            report(board, "autopilot", run(simulation, ticks, true));
+        }
+    }
+
+    /**
+     * Plays games back to back for a number of ticks.
+     * @param simulation the simulation, reset before each game
+     * @param ticks ticks to run
+     * @param autopilot true to steer with the autopilot, false for
+     *        random turns
+     * @return the outcome
+     */
+    private static Run run(final SnakeSimulation simulation,
+                           final long ticks, final boolean autopilot) {
+        Run run = new Run();
+        SnakeEngine engine = simulation.engine();
+        long seed = 1;
+        long random = seed;
+        simulation.reset(seed);
+        long bytesBefore = allocatedBytes();
+        long start = System.nanoTime();
+        for (long i = 0; i < ticks; i++) {
+            int result;
+            if (autopilot) {
+                result = simulation.step();
+            } else {
+                random ^= random << XORSHIFT[0];
+                random ^= random >>> XORSHIFT[1];
+                random ^= random << XORSHIFT[2];
+                engine.turn((int) (random & (DIRECTIONS - 1)));
+                result = engine.tick();
+            }
+            if (result == SnakeEngine.DIED || result == SnakeEngine.WON) {
+                run.games++;
+                run.food += engine.score();
+                if (result == SnakeEngine.WON) {
+                    run.wins++;
+                }
+                simulation.reset(++seed);
+            }
+        }
+        run.nanos = System.nanoTime() - start;
+        long bytesAfter = allocatedBytes();
+        run.ticks = ticks;
+        run.bytes = bytesBefore < 0 ? -1 : bytesAfter - bytesBefore;
+        return run;
+    }
+
+    /**
+     * Prints a result row.
+     * @param board the board size
+     * @param mode the player
+     * @param run the outcome
+     */
+    private static void report(final String board, final String mode,
+                               final Run run) {
+        String bytes = run.bytes < 0 ? "n/a"
+            : String.format("%.3f", (double) run.bytes / run.ticks);
+        String food = run.games == 0 ? "-"
+            : String.format("%.1f", (double) run.food / run.games);
+        System.out.printf("%-8s %-10s %14.0f %12s %8d %6d %10s%n",
+                          board, mode,
+                          run.ticks * NANOS_PER_SECOND / run.nanos,
+                          bytes, run.games, run.wins, food);
+    }
+
+    /**
+     * Bytes allocated so far by the current thread.
+     * @return the count, or -1 if the runtime does not provide it
+     */
+    private static long allocatedBytes() {
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        if (threads instanceof com.sun.management.ThreadMXBean) {
+            return ((com.sun.management.ThreadMXBean) threads)
+                .getCurrentThreadAllocatedBytes();
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,347 @@
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Rules and state of a Snake game, advanced one tick at a time.
+ * <pre>
+ * Cells are numbered row by row, y * width + x. Every tick costs O(1),
+ *   however long the snake and however large the board:
+ * - The body is a ring buffer of cell numbers, head at one end and tail
+ *   at the other, so moving adds a head and drops a tail without
+ *   shifting anything.
+ * - An occupancy bitset answers "is this cell part of the snake?" for
+ *   the collision check.
+ * - The free cells are kept in an array with each cell's position in
+ *   it, so a cell is added or removed by swapping with the last entry,
+ *   and food is placed by picking a random entry. Placement never
+ *   retries, so it stays fast when the board is nearly full.
+ * The head may follow the tail into the cell it is leaving; the food is
+ *   never on the snake, so the tail always leaves on such a tick.
+ * Nothing is allocated after construction: ticks and reset work on the
+ *   arrays made by the constructor.
+ * The engine is not thread-safe; SnakeGame drives it from one thread.
+ * </pre>
+ * @version 1
+ */
+final class SnakeEngine {
+    /** Direction towards row 0. */
+    static final int UP = 0;
+    /** Direction towards the last column. */
+    static final int RIGHT = 1;
+    /** Direction towards the last row. */
+    static final int DOWN = 2;
+    /** Direction towards column 0. */
+    static final int LEFT = 3;
+    /** Tick result: the snake moved. */
+    static final int MOVED = 0;
+    /** Tick result: the snake ate the food and grew. */
+    static final int ATE = 1;
+    /** Tick result: the snake hit a wall or itself. */
+    static final int DIED = 2;
+    /** Tick result: the snake fills the board. */
+    static final int WON = 3;
+    /** No cell, for food when the board is full and for vacated. */
+    static final int NONE = -1;
+    /** Length of a new snake. */
+    static final int START_LENGTH = 3;
+
+    /** Number of directions. */
+    private static final int DIRECTIONS = 4;
+    /** Column step of each direction. */
+    private static final int[] DX = {0, 1, 0, -1};
+    /** Row step of each direction. */
+    private static final int[] DY = {-1, 0, 1, 0};
+    /** Bits per word of the occupancy bitset. */
+    private static final int WORD_BITS = 64;
+    /** Shift from a cell to its bitset word. */
+    private static final int WORD_SHIFT = 6;
+
+    /** Columns on the board. */
+    private final int width;
+    /** Rows on the board. */
+    private final int height;
+    /** Source of food positions. */
+    private final Random random;
+    /** Body cells, a ring buffer from tail to head. */
+    private final int[] body;
+    /** Occupied cells, one bit each. */
+    private final long[] occupied;
+    /** Free cells; the first freeCount entries are in use. */
+    private final int[] free;
+    /** Index of each cell in free, or NONE if occupied. */
+    private final int[] freeIndex;
+    /** Number of free cells. */
+    private int freeCount;
+    /** Index in body of the tail. */
+    private int tail;
+    /** Cells in the snake. */
+    private int length;
+    /** Direction of travel. */
+    private int direction;
+    /** Cell holding the food, or NONE. */
+    private int food;
+    /** Food eaten. */
+    private int score;
+    /** Ticks run. */
+    private long ticks;
+    /** Cell the last tick vacated, or NONE. */
+    private int vacated;
+    /** True once the snake has died or filled the board. */
+    private boolean over;
+
+    /**
+     * Starts a game: a snake of START_LENGTH cells in the middle row,
+     *   heading right from the left half, and one piece of food.
+     * @param columns columns on the board
+     * @param rows rows on the board
+     * @param rng source of food positions
+     */
+    SnakeEngine(final int columns, final int rows, final Random rng) {
+        if (columns < START_LENGTH + 1 || rows < 1
+            || (long) columns * rows > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException(
+                "board too small or too large: " + columns + "x" + rows);
+        }
+        this.width = columns;
+        this.height = rows;
+        this.random = rng;
+        int cells = columns * rows;
+        this.body = new int[cells];
+        this.occupied = new long[(cells + WORD_BITS - 1) / WORD_BITS];
+        this.free = new int[cells];
+        this.freeIndex = new int[cells];
+        reset();
+    }
+
+    /**
+     * Starts a new game on the same board, reusing every array, so
+     *   simulations can play game after game without allocating.
+     */
+    void reset() {
+        int cells = free.length;
+        for (int cell = 0; cell < cells; cell++) {
+            free[cell] = cell;
+            freeIndex[cell] = cell;
+        }
+        Arrays.fill(occupied, 0L);
+        freeCount = cells;
+        tail = 0;
+        int row = height / 2 * width;
+        int x = Math.max(0, width / 2 - START_LENGTH);
+        for (int i = 0; i < START_LENGTH; i++) {
+            body[i] = row + x + i;
+            occupy(body[i]);
+        }
+        length = START_LENGTH;
+        direction = RIGHT;
+        score = 0;
+        ticks = 0;
+        vacated = NONE;
+        over = false;
+        food = placeFood();
+    }
+
+    /**
+     * Columns on the board.
+     * @return the width
+     */
+    int getWidth() {
+        return width;
+    }
+
+    /**
+     * Rows on the board.
+     * @return the height
+     */
+    int getHeight() {
+        return height;
+    }
+
+    /**
+     * Changes direction for the next tick. Turning back onto the body is
+     *   ignored.
+     * @param newDirection UP, RIGHT, DOWN or LEFT
+     * @return true if the direction was taken
+     */
+    boolean turn(final int newDirection) {
+        if (newDirection < 0 || newDirection >= DIRECTIONS
+            || newDirection == (direction + 2) % DIRECTIONS) {
+            return false;
+        }
+        direction = newDirection;
+        return true;
+    }
+
+    /**
+     * Moves the snake one cell.
+     * @return MOVED, ATE, DIED or WON; DIED or WON again once over
+     */
+    int tick() {
+        if (over) {
+            return freeCount == 0 ? WON : DIED;
+        }
+        ticks++;
+        vacated = NONE;
+        int head = head();
+        int x = head % width + DX[direction];
+        int y = head / width + DY[direction];
+        if (x < 0 || x >= width || y < 0 || y >= height) {
+            over = true;
+            return DIED;
+        }
+        int next = y * width + x;
+        if (isOccupied(next) && next != body[tail]) {
+            over = true;
+            return DIED;
+        }
+        boolean eating = next == food;
+        if (!eating) {
+            vacated = body[tail];
+            release(vacated);
+            tail = (tail + 1) % body.length;
+            length--;
+        }
+        body[(tail + length) % body.length] = next;
+        length++;
+        occupy(next);
+        if (!eating) {
+            return MOVED;
+        }
+        score++;
+        food = placeFood();
+        if (food == NONE) {
+            over = true;
+            return WON;
+        }
+        return ATE;
+    }
+
+    /**
+     * Cell of the snake's head.
+     * @return the cell number
+     */
+    int head() {
+        return body[(tail + length - 1) % body.length];
+    }
+
+    /**
+     * Cell of the snake's tail.
+     * @return the cell number
+     */
+    int tail() {
+        return body[tail];
+    }
+
+    /**
+     * A body cell, counting from the tail.
+     * @param i index from the tail, 0 to length - 1
+     * @return the cell number
+     */
+    int bodyCell(final int i) {
+        return body[(tail + i) % body.length];
+    }
+
+    /**
+     * Cell the last tick vacated, to be redrawn as empty.
+     * @return the cell number, or NONE if the snake grew or died
+     */
+    int vacated() {
+        return vacated;
+    }
+
+    /**
+     * Whether a cell is part of the snake.
+     * @param cell the cell number
+     * @return true if occupied
+     */
+    boolean isOccupied(final int cell) {
+        return (occupied[cell >>> WORD_SHIFT] & (1L << cell)) != 0;
+    }
+
+    /**
+     * Cell holding the food.
+     * @return the cell number, or NONE if the board is full
+     */
+    int food() {
+        return food;
+    }
+
+    /**
+     * Cells in the snake.
+     * @return the length
+     */
+    int length() {
+        return length;
+    }
+
+    /**
+     * Direction of travel.
+     * @return UP, RIGHT, DOWN or LEFT
+     */
+    int direction() {
+        return direction;
+    }
+
+    /**
+     * Food eaten.
+     * @return the score
+     */
+    int score() {
+        return score;
+    }
+
+    /**
+     * Ticks run.
+     * @return the tick count
+     */
+    long ticks() {
+        return ticks;
+    }
+
+    /**
+     * Number of cells not in the snake.
+     * @return the free count
+     */
+    int freeCells() {
+        return freeCount;
+    }
+
+    /**
+     * Whether the game has ended.
+     * @return true once the snake has died or filled the board
+     */
+    boolean isOver() {
+        return over;
+    }
+
+    /**
+     * Picks a random free cell for the food.
+     * @return the cell, or NONE if there are no free cells
+     */
+    private int placeFood() {
+        return freeCount == 0 ? NONE : free[random.nextInt(freeCount)];
+    }
+
+    /**
+     * Marks a free cell as part of the snake.
+     * @param cell the cell number
+     */
+    private void occupy(final int cell) {
+        occupied[cell >>> WORD_SHIFT] |= 1L << cell;
+        int index = freeIndex[cell];
+        int last = free[--freeCount];
+        free[index] = last;
+        freeIndex[last] = index;
+        freeIndex[cell] = NONE;
+    }
+
+    /**
+     * Marks a snake cell as free.
+     * @param cell the cell number
+     */
+    private void release(final int cell) {
+        occupied[cell >>> WORD_SHIFT] &= ~(1L << cell);
+        free[freeCount] = cell;
+        freeIndex[cell] = freeCount++;
+    }
+}
@@ -0,0 +1,192 @@
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests for SnakeEngine.
+ * @version 1
+ */
+public class SnakeEngineTest {
+    /**
+     * A new snake sits in the middle row heading right, clear of the food.
+     */
+    @Test
+    public void testStart() {
+        SnakeEngine engine = new SnakeEngine(10, 5, new Random(1));
+        assertEquals(SnakeEngine.START_LENGTH, engine.length());
+        assertEquals(2 * 10 + 4, engine.head());
+        assertEquals(2 * 10 + 2, engine.tail());
+        assertEquals(SnakeEngine.RIGHT, engine.direction());
+        assertEquals(50 - SnakeEngine.START_LENGTH, engine.freeCells());
+        assertFalse(engine.isOccupied(engine.food()));
+        assertFalse(engine.isOver());
+    }
+
+    /**
+     * The snake dies on reaching the wall, and cannot reverse.
+     */
+    @Test
+    public void testWallAndReverse() {
+        SnakeEngine engine = new SnakeEngine(10, 5, new Random(1));
+        assertFalse(engine.turn(SnakeEngine.LEFT));
+        for (int i = 0; i < 5; i++) {
+            assertNotEquals(SnakeEngine.DIED, engine.tick());
+        }
+        assertEquals(SnakeEngine.DIED, engine.tick());
+        assertTrue(engine.isOver());
+        assertEquals(SnakeEngine.DIED, engine.tick());
+    }
+
+    /**
+     * Running into its own body kills the snake.
+     */
+    @Test
+    public void testSelfCollision() {
+        SnakeEngine engine = grown(10, 8, 5);
+        engine.turn(SnakeEngine.UP);
+        assertNotEquals(SnakeEngine.DIED, engine.tick());
+        engine.turn(SnakeEngine.LEFT);
+        assertNotEquals(SnakeEngine.DIED, engine.tick());
+        engine.turn(SnakeEngine.DOWN);
+        assertEquals(SnakeEngine.DIED, engine.tick());
+        assertTrue(engine.isOver());
+    }
+
+    /**
+     * Following a cycle through every cell, the snake chases its tail
+     *   and eventually fills the board.
+     */
+    @Test
+    public void testFillBoard() {
+        SnakeEngine engine = new SnakeEngine(4, 4, new Random(7));
+        int result = SnakeEngine.MOVED;
+        for (int i = 0; i < 10_000 && !engine.isOver(); i++) {
+            engine.turn(serpentine(engine));
+            result = engine.tick();
+            checkInvariants(engine);
+        }
+        assertEquals(SnakeEngine.WON, result);
+        assertEquals(16, engine.length());
+        assertEquals(16 - SnakeEngine.START_LENGTH, engine.score());
+        assertEquals(SnakeEngine.NONE, engine.food());
+        assertEquals(0, engine.freeCells());
+    }
+
+    /**
+     * A long game on a 500x500 board keeps the body, bitset and free
+     *   cells consistent.
+     */
+    @Test
+    public void testLargeBoard() {
+        SnakeEngine engine = new SnakeEngine(500, 500, new Random(3));
+        for (int i = 0; i < 2_000_000; i++) {
+            engine.turn(serpentine(engine));
+            assertNotEquals(SnakeEngine.DIED, engine.tick());
+        }
+        assertTrue(engine.score() > 0);
+        checkInvariants(engine);
+    }
+
+    /**
+     * A random walk keeps the snake's bookkeeping consistent until it
+     *   dies.
+     */
+    @Test
+    public void testRandomWalk() {
+        Random moves = new Random(11);
+        for (int game = 0; game < 50; game++) {
+            SnakeEngine engine = new SnakeEngine(8, 6, new Random(game));
+            while (!engine.isOver()) {
+                engine.turn(moves.nextInt(4));
+                int length = engine.length();
+                int result = engine.tick();
+                if (result == SnakeEngine.ATE) {
+                    assertEquals(length + 1, engine.length());
+                    assertEquals(SnakeEngine.NONE, engine.vacated());
+                } else if (result == SnakeEngine.MOVED) {
+                    assertEquals(length, engine.length());
+                    assertTrue(!engine.isOccupied(engine.vacated())
+                               || engine.vacated() == engine.head());
+                }
+                checkInvariants(engine);
+            }
+        }
+    }
+
+    /**
+     * Checks the body, occupancy and free count agree.
+     * @param engine the engine
+     */
+    private static void checkInvariants(final SnakeEngine engine) {
+        int cells = engine.getWidth() * engine.getHeight();
+        Set<Integer> body = new HashSet<>();
+        for (int i = 0; i < engine.length(); i++) {
+            assertTrue(body.add(engine.bodyCell(i)));
+        }
+        for (int cell = 0; cell < cells; cell++) {
+            assertEquals(body.contains(cell), engine.isOccupied(cell));
+        }
+        assertEquals(cells - engine.length(), engine.freeCells());
+        assertEquals(SnakeEngine.START_LENGTH + engine.score(),
+                     engine.length());
+        if (engine.food() != SnakeEngine.NONE) {
+            assertFalse(engine.isOccupied(engine.food()));
+        }
+    }
+
+    /**
+     * Direction along a cycle through every cell of a board with an even
+     *   number of rows: right along even rows and left along odd rows,
+     *   skipping column 0, which leads back up to the top. A new snake
+     *   is on the cycle if its middle row is even.
+     * @param engine the engine
+     * @return the direction to take from the head
+     */
+    static int serpentine(final SnakeEngine engine) {
+        int width = engine.getWidth();
+        int x = engine.head() % width;
+        int y = engine.head() / width;
+        if (x == 0) {
+            return y == 0 ? SnakeEngine.RIGHT : SnakeEngine.UP;
+        }
+        if (y % 2 == 0) {
+            return x < width - 1 ? SnakeEngine.RIGHT : SnakeEngine.DOWN;
+        }
+        if (x > 1 || y == engine.getHeight() - 1) {
+            return SnakeEngine.LEFT;
+        }
+        return SnakeEngine.DOWN;
+    }
+
+    /**
+     * Plays along the serpentine until the snake is at least a length
+     *   and lies along one row, heading right, below the top row.
+     * @param width board columns, at least 4
+     * @param height board rows, a multiple of 4, so the snake starts on
+     *   a row the serpentine crosses to the right
+     * @param length length wanted
+     * @return the engine, mid-game
+     */
+    private static SnakeEngine grown(final int width, final int height,
+                                     final int length) {
+        SnakeEngine engine = new SnakeEngine(width, height, new Random(5));
+        while (true) {
+            int x = engine.head() % width;
+            int y = engine.head() / width;
+            if (engine.length() >= length
+                && engine.direction() == SnakeEngine.RIGHT
+                && y > 0 && x >= engine.length()) {
+                return engine;
+            }
+            engine.turn(serpentine(engine));
+            assertNotEquals(SnakeEngine.DIED, engine.tick());
+        }
+    }
+}
@@ -1,28 +1,327 @@
+import java.util.NoSuchElementException;
 import java.util.Optional;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.LockSupport;
 
 /**
- * A simplified console version of the classic Snake game.
+ * A console version of the classic Snake game.
  * The player controls a "snake" that moves around a grid, collecting food
  *   and growing in length.
  * The game ends if the snake runs into itself or the edge of the grid.
  * <pre>
- * Simulate the game board with a 2D array.
- * Display the game using text-based output.
+ * The rules live in SnakeEngine; this class runs them in real time.
+ * The game loop ticks at a fixed rate, deadline after deadline, so the
+ *   snake's speed does not depend on how long a tick or a frame takes.
+ *   If the loop falls behind it ticks without drawing to catch up, and
+ *   gives up on deadlines more than MAX_CATCH_UP ticks old rather than
+ *   racing to replay them.
+ * Input is read on its own thread, since reading a console line blocks.
+ *   Each command letter goes into an SpscIntQueue, which the loop drains
+ *   without blocking at every tick, taking at most one turn per tick so
+ *   quick double turns are not lost.
+ * The board is drawn with a GridRenderer; each tick changes at most four
+ *   cells (head, neck, tail and food) and the score line.
+ *
+ * The console reads whole lines, so the player types w, a, s or d (or
+ *   several) and Enter to steer, and q and Enter to quit. The score is
+ *   the food eaten.
  * </pre>
- * @version 1
+ * @version 2
  */
 class SnakeGame implements Game {
+    /** Board columns in the console game. */
+    static final int DEFAULT_WIDTH = 20;
+    /** Board rows in the console game. */
+    static final int DEFAULT_HEIGHT = 10;
+    /** Milliseconds per tick in the console game. */
+    static final long DEFAULT_TICK_MILLIS = 250;
+    /** Ticks the loop may fall behind before it skips ahead. */
+    static final int MAX_CATCH_UP = 5;
+    /** Queue command: quit the game. */
+    private static final int QUIT = -1;
+    /** Commands queued before the input thread waits for the loop. */
+    private static final int QUEUE_CAPACITY = 64;
+    /** Nanoseconds per millisecond. */
+    private static final long NANOS_PER_MILLI = 1_000_000;
+    /** Wall character. */
+    private static final char WALL = '#';
+    /** Head character. */
+    private static final char HEAD = '@';
+    /** Body character. */
+    private static final char BODY = 'o';
+    /** Food character. */
+    private static final char FOOD = '*';
+    /** Empty cell character. */
+    private static final char EMPTY = ' ';
+
+    /** Board columns. */
+    private final int width;
+    /** Board rows. */
+    private final int height;
+    /** Nanoseconds per tick. */
+    private final long tickNanos;
+    /** Source of food positions. */
+    private final Random random;
+
+    /**
+     * Creates the console game.
+     */
+    SnakeGame() {
+        this(DEFAULT_WIDTH, DEFAULT_HEIGHT,
+             DEFAULT_TICK_MILLIS * NANOS_PER_MILLI, new Random());
+    }
+
+    /**
+     * Creates a game with a given board and speed.
+     * @param columns board columns
+     * @param rows board rows
+     * @param nanosPerTick nanoseconds per tick
+     * @param rng source of food positions
+     */
+    SnakeGame(final int columns, final int rows, final long nanosPerTick,
+              final Random rng) {
+        this.width = columns;
+        this.height = rows;
+        this.tickNanos = nanosPerTick;
+        this.random = rng;
+    }
+
     @Override
     public String getName() {
         return "Snake";
     }
 
     @Override
-    public Optional<Integer> play() {
-        System.out.println("Welcome to Snake!");
-        System.out.println("Objective: Survive as long as you can!");
-        System.out.println("How to play: Grow by eating dots and avoid walls");
-        System.out.println("or you die");
-        return Optional.empty();
+    public Optional<Integer> play(final GameIO io) {
+        io.println("Welcome to Snake!");
+        io.println("Objective: Survive as long as you can!");
+        io.println("How to play: Grow by eating dots and avoid walls");
+        io.println("or you die");
+        io.println("Steer with w, a, s, d and Enter; q and Enter quits.");
+        try {
+            io.prompt("Press Enter to start.");
+        } catch (NoSuchElementException e) {
+            return Optional.empty();
+        }
+        SnakeEngine engine = new SnakeEngine(width, height, random);
+        SpscIntQueue commands = new SpscIntQueue(QUEUE_CAPACITY);
+        AtomicBoolean over = new AtomicBoolean();
+        Thread input = new Thread(() -> readCommands(io, commands, over),
+                                  "snake-input");
+        input.setDaemon(true);
+        input.start();
+        boolean quit = run(engine, commands, io);
+        over.set(true);
+        io.println(engine.freeCells() == 0
+                   ? "You filled the board! Score: " + engine.score()
+                   : "Game over! Score: " + engine.score());
+        if (!quit && input.isAlive()) {
+            io.println("Press Enter to return to the menu.");
+            io.flush();
+        }
+        try {
+            input.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return Optional.of(engine.score());
+    }
+
+    /**
+     * Runs the game loop until the game ends or the player quits.
+     * @param engine the game
+     * @param commands commands from the input thread
+     * @param io where to draw
+     * @return true if the player quit
+     */
+    private boolean run(final SnakeEngine engine,
+                        final SpscIntQueue commands, final GameIO io) {
+        GridRenderer screen = new GridRenderer(width + 2, height + 3);
+        drawBoard(engine, screen);
+        screen.render(io);
+        long deadline = System.nanoTime();
+        while (!engine.isOver()) {
+            deadline += tickNanos;
+            long wait;
+            while ((wait = deadline - System.nanoTime()) > 0) {
+                LockSupport.parkNanos(wait);
+            }
+            if (!steer(engine, commands)) {
+                return true;
+            }
+            int neck = engine.head();
+            int result = engine.tick();
+            if (result == SnakeEngine.DIED) {
+                break;
+            }
+            drawTick(engine, screen, neck);
+            long behind = System.nanoTime() - deadline;
+            if (behind > MAX_CATCH_UP * tickNanos) {
+                deadline = System.nanoTime();
+            }
+            if (behind < tickNanos) {
+                screen.render(io);
+            }
+        }
+        screen.render(io);
+        return false;
+    }
+
+    /**
+     * Applies queued commands up to and including the first turn taken.
+     * @param engine the game
+     * @param commands commands from the input thread
+     * @return false if the player quit
+     */
+    private static boolean steer(final SnakeEngine engine,
+                                 final SpscIntQueue commands) {
+        int command;
+        while ((command = commands.poll()) != SpscIntQueue.EMPTY) {
+            if (command == QUIT) {
+                return false;
+            }
+            if (engine.turn(command)) {
+                break;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Body of the input thread: queues each command letter typed until
+     *   the player quits, input ends, or a line arrives after the game
+     *   is over (the player's Enter at the end).
+     * @param io the player's console
+     * @param commands where to queue commands
+     * @param over set when the game has ended
+     */
+    private static void readCommands(final GameIO io,
+                                     final SpscIntQueue commands,
+                                     final AtomicBoolean over) {
+        while (true) {
+            String line;
+            try {
+                line = io.readLine();
+            } catch (NoSuchElementException | IllegalStateException e) {
+                enqueue(commands, QUIT, over);
+                return;
+            }
+            if (over.get()) {
+                return;
+            }
+            for (int i = 0; i < line.length(); i++) {
+                int command = commandFor(line.charAt(i));
+                if (command != SpscIntQueue.EMPTY) {
+                    enqueue(commands, command, over);
+                }
+                if (command == QUIT) {
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * Queues a command, waiting for room while the game runs.
+     * @param commands the queue
+     * @param command the command
+     * @param over set when the game has ended
+     */
+    private static void enqueue(final SpscIntQueue commands,
+                                final int command, final AtomicBoolean over) {
+        while (!commands.offer(command) && !over.get()) {
+            LockSupport.parkNanos(NANOS_PER_MILLI);
+        }
+    }
+
+    /**
+     * Maps a typed letter to a command.
+     * @param key the letter
+     * @return a SnakeEngine direction, QUIT, or SpscIntQueue.EMPTY if the
+     *         letter means nothing
+     */
+    private static int commandFor(final char key) {
+        switch (Character.toLowerCase(key)) {
+            case 'w':
+                return SnakeEngine.UP;
+            case 'd':
+                return SnakeEngine.RIGHT;
+            case 's':
+                return SnakeEngine.DOWN;
+            case 'a':
+                return SnakeEngine.LEFT;
+            case 'q':
+                return QUIT;
+            default:
+                return SpscIntQueue.EMPTY;
+        }
+    }
+
+    /**
+     * Draws the walls, the snake, the food and the score.
+     * @param engine the game
+     * @param screen the screen
+     */
+    private void drawBoard(final SnakeEngine engine,
+                           final GridRenderer screen) {
+        for (int x = 0; x < width + 2; x++) {
+            screen.put(x, 0, WALL, GridRenderer.BLUE);
+            screen.put(x, height + 1, WALL, GridRenderer.BLUE);
+        }
+        for (int y = 1; y <= height; y++) {
+            screen.put(0, y, WALL, GridRenderer.BLUE);
+            screen.put(width + 1, y, WALL, GridRenderer.BLUE);
+        }
+        for (int i = 0; i < engine.length() - 1; i++) {
+            drawCell(screen, engine.bodyCell(i), BODY, GridRenderer.GREEN);
+        }
+        drawCell(screen, engine.head(), HEAD,
+                 GridRenderer.GREEN | GridRenderer.BOLD);
+        drawCell(screen, engine.food(), FOOD, GridRenderer.RED);
+        drawScore(engine, screen);
+    }
+
+    /**
+     * Redraws the cells a tick changed.
+     * @param engine the game
+     * @param screen the screen
+     * @param neck the head's cell before the tick
+     */
+    private void drawTick(final SnakeEngine engine,
+                          final GridRenderer screen, final int neck) {
+        if (engine.vacated() != SnakeEngine.NONE) {
+            drawCell(screen, engine.vacated(), EMPTY, GridRenderer.DEFAULT);
+        }
+        drawCell(screen, neck, BODY, GridRenderer.GREEN);
+        drawCell(screen, engine.head(), HEAD,
+                 GridRenderer.GREEN | GridRenderer.BOLD);
+        if (engine.food() != SnakeEngine.NONE) {
+            drawCell(screen, engine.food(), FOOD, GridRenderer.RED);
+        }
+        drawScore(engine, screen);
+    }
+
+    /**
+     * Draws the score line under the board.
+     * @param engine the game
+     * @param screen the screen
+     */
+    private void drawScore(final SnakeEngine engine,
+                           final GridRenderer screen) {
+        screen.print(0, height + 2, "Score: " + engine.score(),
+                     GridRenderer.DEFAULT);
+    }
+
+    /**
+     * Draws a board cell inside the walls.
+     * @param screen the screen
+     * @param cell the cell number
+     * @param c the character
+     * @param attr the attribute
+     */
+    private void drawCell(final GridRenderer screen, final int cell,
+                          final char c, final int attr) {
+        screen.put(cell % width + 1, cell / width + 1, c, attr);
     }
 }
@@ -0,0 +1,76 @@
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PipedInputStream;
+import java.io.PipedOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Optional;
+import java.util.Random;
+import java.util.Scanner;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests for SnakeGame, played through a GameIO with a fast tick.
+ * @version 1
+ */
+public class SnakeGameTest {
+    /** Nanoseconds per tick in the tests. */
+    private static final long TICK_NANOS = 1_000_000;
+
+    /**
+     * Quitting ends the game at once and leaves later input unread.
+     */
+    @Test
+    public void testQuit() {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        GameIO io = new GameIO(new Scanner("\nq\nNEXT\n"), out,
+                               StandardCharsets.UTF_8);
+        SnakeGame game = new SnakeGame(10, 6, TICK_NANOS, new Random(1));
+        assertEquals(Optional.of(0), game.play(io));
+        io.flush();
+        assertTrue(out.toString(StandardCharsets.UTF_8)
+                      .contains("Game over! Score: 0"));
+        assertEquals("NEXT", io.readLine());
+    }
+
+    /**
+     * A snake left alone runs into the wall; the Enter that follows is
+     *   taken by the game and the next line is left for the launcher.
+     * @throws IOException if the pipe fails
+     * @throws InterruptedException if interrupted
+     */
+    @Test
+    public void testDeathWaitsForEnter()
+            throws IOException, InterruptedException {
+        PipedOutputStream keys = new PipedOutputStream();
+        PipedInputStream in = new PipedInputStream(keys);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        GameIO io = new GameIO(
+            new Scanner(new InputStreamReader(in, StandardCharsets.UTF_8)),
+            out, StandardCharsets.UTF_8);
+        Thread player = new Thread(() -> {
+            try {
+                keys.write("\n".getBytes(StandardCharsets.UTF_8));
+                keys.flush();
+                while (!out.toString(StandardCharsets.UTF_8)
+                           .contains("return to the menu")) {
+                    Thread.sleep(1);
+                }
+                keys.write("\nNEXT\n".getBytes(StandardCharsets.UTF_8));
+                keys.close();
+            } catch (IOException | InterruptedException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        player.start();
+        SnakeGame game = new SnakeGame(10, 6, TICK_NANOS, new Random(1));
+        Optional<Integer> score = game.play(io);
+        player.join();
+        assertTrue(score.isPresent());
+        assertEquals("NEXT", io.readLine());
+    }
+}
@@ -0,0 +1,82 @@
+import java.util.Random;
+
+/**
+ * Plays Snake headless, steered by a SnakeAutopilot.
+ * <pre>
+ * No rendering, no input and no clock: each step asks the autopilot for
+ *   a direction and ticks the engine, as fast as the CPU allows. Used to
+ *   check and measure the engine and the autopilot (see
+ *   SnakeBenchmark), and to replay a game exactly from its seed.
+ * A simulation allocates its engine, autopilot and Random once; reset
+ *   starts a new game on the same arrays, so games can be played back
+ *   to back with no garbage.
+ * </pre>
+ * @version 1
+ */
+final class SnakeSimulation {
+    /** Source of food positions, reseeded for each game. */
+    private final Random random;
+    /** The game. */
+    private final SnakeEngine engine;
+    /** The player. */
+    private final SnakeAutopilot autopilot;
+
+    /**
+     * Creates a simulation and starts its first game.
+     * @param columns board columns
+     * @param rows board rows
+     * @param seed seed of the first game's food positions
+     */
+    SnakeSimulation(final int columns, final int rows, final long seed) {
+        this.random = new Random(seed);
+        this.engine = new SnakeEngine(columns, rows, random);
+        this.autopilot = new SnakeAutopilot(engine);
+    }
+
+    /**
+     * Starts a new game.
+     * @param seed seed of the game's food positions
+     */
+    void reset(final long seed) {
+        random.setSeed(seed);
+        engine.reset();
+    }
+
+    /**
+     * Runs one tick with the autopilot's move.
+     * @return the tick's result, as SnakeEngine.tick
+     */
+    int step() {
+        engine.turn(autopilot.direction());
+        return engine.tick();
+    }
+
+    /**
+     * Steps until the game ends or a number of ticks have run.
+     * @param maxTicks most ticks to run
+     * @return the last tick's result, SnakeEngine.MOVED if none ran
+     */
+    int play(final long maxTicks) {
+        int result = SnakeEngine.MOVED;
+        for (long i = 0; i < maxTicks && !engine.isOver(); i++) {
+            result = step();
+        }
+        return result;
+    }
+
+    /**
+     * The game being played, for reading its state.
+     * @return the engine
+     */
+    SnakeEngine engine() {
+        return engine;
+    }
+
+    /**
+     * The player.
+     * @return the autopilot
+     */
+    SnakeAutopilot autopilot() {
+        return autopilot;
+    }
+}
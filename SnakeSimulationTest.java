@@ -0,0 +1,105 @@
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Tests for SnakeSimulation and SnakeAutopilot.
+ * @version 1
+ */
+public class SnakeSimulationTest {
+    /**
+     * On boards with an even number of rows the autopilot always fills
+     *   the board, whichever way its cycle is laid out.
+     */
+    @Test
+    public void testAutopilotFillsBoard() {
+        int[][] boards = {{10, 10}, {12, 8}, {8, 6}, {20, 4}};
+        for (int[] board : boards) {
+            int cells = board[0] * board[1];
+            SnakeSimulation simulation =
+                new SnakeSimulation(board[0], board[1], 0);
+            assertTrue(simulation.autopilot().hasCycle());
+            for (long seed = 0; seed < 20; seed++) {
+                simulation.reset(seed);
+                assertEquals(SnakeEngine.WON,
+                             simulation.play((long) cells * cells));
+                assertEquals(cells, simulation.engine().length());
+            }
+        }
+    }
+
+    /**
+     * Without a cycle the autopilot still chases food until it dies.
+     */
+    @Test
+    public void testOddBoard() {
+        SnakeSimulation simulation = new SnakeSimulation(9, 9, 0);
+        assertFalse(simulation.autopilot().hasCycle());
+        int eaten = 0;
+        for (long seed = 0; seed < 20; seed++) {
+            simulation.reset(seed);
+            simulation.play(100_000);
+            assertTrue(simulation.engine().isOver());
+            eaten += simulation.engine().score();
+        }
+        assertTrue(eaten > 20);
+    }
+
+    /**
+     * Resetting with a seed replays the same game.
+     */
+    @Test
+    public void testResetReplaysGame() {
+        SnakeSimulation simulation = new SnakeSimulation(20, 20, 5);
+        simulation.play(5_000);
+        int score = simulation.engine().score();
+        long ticks = simulation.engine().ticks();
+        int head = simulation.engine().head();
+        simulation.reset(9);
+        simulation.play(1_000);
+        simulation.reset(5);
+        simulation.play(5_000);
+        assertEquals(score, simulation.engine().score());
+        assertEquals(ticks, simulation.engine().ticks());
+        assertEquals(head, simulation.engine().head());
+    }
+
+    /**
+     * Once warmed up, stepping and resetting allocate nothing.
+     */
+    @Test
+    public void testNoAllocationPerTick() {
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        assumeTrue(threads instanceof com.sun.management.ThreadMXBean);
+        com.sun.management.ThreadMXBean counter =
+            (com.sun.management.ThreadMXBean) threads;
+        SnakeSimulation simulation = new SnakeSimulation(30, 30, 1);
+        run(simulation, 200_000);
+        long before = counter.getCurrentThreadAllocatedBytes();
+        run(simulation, 1_000_000);
+        long allocated = counter.getCurrentThreadAllocatedBytes() - before;
+        assertTrue(allocated < 64 * 1024, allocated + " bytes allocated");
+    }
+
+    /**
+     * Steps games back to back.
+     * @param simulation the simulation
+     * @param ticks ticks to run
+     */
+    private static void run(final SnakeSimulation simulation,
+                            final int ticks) {
+        long seed = 1;
+        for (int i = 0; i < ticks; i++) {
+            if (simulation.engine().isOver()) {
+                simulation.reset(++seed);
+            }
+            simulation.step();
+        }
+    }
+}
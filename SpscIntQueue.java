@@ -0,0 +1,84 @@
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bounded lock-free queue of ints for one producer thread and one
+ *   consumer thread.
+ * <pre>
+ * Items live in a power-of-two array indexed by two ever-increasing
+ *   counters: the producer alone advances tail and the consumer alone
+ *   advances head. Each publishes its counter with a release store
+ *   (lazySet) and reads the other's with a volatile read, so an item
+ *   written before tail moves is visible to the consumer that sees the
+ *   new tail, with no locks, no CAS loops and no boxing.
+ * Used to pass keystrokes from SnakeGame's input thread to its game
+ *   loop without the loop ever blocking.
+ * </pre>
+ * @version 1
+ */
+final class SpscIntQueue {
+    /** Returned by poll when the queue is empty. */
+    static final int EMPTY = Integer.MIN_VALUE;
+
+    /** Queued items. */
+    private final int[] items;
+    /** Mask from a counter to an index in items. */
+    private final int mask;
+    /** Count of items taken; written by the consumer only. */
+    private final AtomicLong head = new AtomicLong();
+    /** Count of items added; written by the producer only. */
+    private final AtomicLong tail = new AtomicLong();
+
+    /**
+     * Creates an empty queue.
+     * @param capacity most items held, rounded up to a power of two
+     */
+    SpscIntQueue(final int capacity) {
+        if (capacity < 1 || capacity > 1 << (Integer.SIZE - 2)) {
+            throw new IllegalArgumentException(
+                "capacity out of range: " + capacity);
+        }
+        int size = Integer.highestOneBit(capacity);
+        if (size < capacity) {
+            size <<= 1;
+        }
+        this.items = new int[size];
+        this.mask = size - 1;
+    }
+
+    /**
+     * Adds an item; called by the producer thread only.
+     * @param item the item, anything but EMPTY
+     * @return false if the queue is full
+     */
+    boolean offer(final int item) {
+        long t = tail.get();
+        if (t - head.get() == items.length) {
+            return false;
+        }
+        items[(int) t & mask] = item;
+        tail.lazySet(t + 1);
+        return true;
+    }
+
+    /**
+     * Takes the oldest item; called by the consumer thread only.
+     * @return the item, or EMPTY if there is none
+     */
+    int poll() {
+        long h = head.get();
+        if (h == tail.get()) {
+            return EMPTY;
+        }
+        int item = items[(int) h & mask];
+        head.lazySet(h + 1);
+        return item;
+    }
+
+    /**
+     * Number of items queued; exact only when neither thread is active.
+     * @return the size
+     */
+    int size() {
+        return (int) (tail.get() - head.get());
+    }
+}
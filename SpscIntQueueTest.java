@@ -0,0 +1,57 @@
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests for SpscIntQueue.
+ * @version 1
+ */
+public class SpscIntQueueTest {
+    /**
+     * Items come out in order; a full queue refuses more.
+     */
+    @Test
+    public void testFifoAndCapacity() {
+        SpscIntQueue queue = new SpscIntQueue(3);
+        for (int i = 0; i < 4; i++) {
+            assertTrue(queue.offer(i));
+        }
+        assertFalse(queue.offer(4));
+        assertEquals(4, queue.size());
+        for (int i = 0; i < 4; i++) {
+            assertEquals(i, queue.poll());
+        }
+        assertEquals(SpscIntQueue.EMPTY, queue.poll());
+    }
+
+    /**
+     * Every item a producer thread offers reaches the consumer, in
+     *   order.
+     * @throws InterruptedException if interrupted
+     */
+    @Test
+    public void testProducerConsumer() throws InterruptedException {
+        SpscIntQueue queue = new SpscIntQueue(16);
+        int count = 100_000;
+        Thread producer = new Thread(() -> {
+            for (int i = 0; i < count; i++) {
+                while (!queue.offer(i)) {
+                    Thread.yield();
+                }
+            }
+        });
+        producer.start();
+        for (int expected = 0; expected < count;) {
+            int item = queue.poll();
+            if (item == SpscIntQueue.EMPTY) {
+                Thread.yield();
+            } else {
+                assertEquals(expected++, item);
+            }
+        }
+        producer.join();
+        assertEquals(0, queue.size());
+    }
+}
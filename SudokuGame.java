@@ -17,8 +17,8 @@ class SudokuGame implements Game {
     }
 
     @Override
-    public Optional<Integer> play() {
-        System.out.println("[Playing Sudoku - Placeholder]");
+    public Optional<Integer> play(final GameIO io) {
+        io.println("[Playing Sudoku - Placeholder]");
         return Optional.empty();
     }
 }
@@ -1,3 +1,4 @@
+import java.util.NoSuchElementException;
 import java.util.Optional;
 /**
  * A classic 3x3 two-player game adapted for single-player mode
@@ -6,31 +7,201 @@ import java.util.Optional;
  * The winner is the first to align three in a row (horizontally,
  * vertically, or diagonally).
  * <pre>
- * Implementation may be a basic AI using heuristics or
- * an unbeatable strategy using the Minimax algorithm.
+ * The same game is played on larger boards with longer lines (an
+ *   m,n,k-game), such as Gomoku: five in a row on 15x15.
+ * On 3x3 the computer plays perfectly from TicTacToeTable, one lookup
+ *   per move; it cannot be beaten. On any other board it searches with
+ *   MnkSearch for up to a fixed time per move and reports how deep it
+ *   looked.
+ * The player names a cell by column letter and row number, e.g. b2,
+ *   or types q to quit, and chooses whether to move first.
+ * A win scores the empty cells left plus one, so quicker wins score
+ *   higher; a draw or a loss scores 0, and quitting gives no score.
  * </pre>
- * @version 2
+ * @version 3
  */
 public class TicTacToeGame implements Game {
-/**
-*Returns the name of the game.
-*@return the game name.
-*/
-public String getName() {
-  return "Tic-Tac-Toe";
-}
-/**
-*Displays the game instructions and returns empty result.
-*@return an empty Optional.
-**/
-
-public Optional<Integer> play() {
-
-     System.out.println("Welcome to Tic-Tac-Toe!.");
-     System.out.println("Objective: Be the first to get 3 of your "
-                    + "marks in a row.");
-     System.out.println("How to play: Take turns placing X or O "
-                    + "on the 3x3 grid.");
-     return Optional.empty();
-  }
+    /** Milliseconds the computer thinks per move on large boards. */
+    static final long DEFAULT_THINK_MILLIS = 1000;
+    /** Nanoseconds per millisecond. */
+    private static final long NANOS_PER_MILLI = 1_000_000;
+    /** Player's mark. */
+    private static final char PLAYER = 'X';
+    /** Computer's mark. */
+    private static final char COMPUTER = 'O';
+    /** Empty cell. */
+    private static final char EMPTY = '.';
+
+    /** Name of the game. */
+    private final String name;
+    /** Columns. */
+    private final int width;
+    /** Rows. */
+    private final int height;
+    /** Marks in a row that win. */
+    private final int k;
+    /** Nanoseconds the computer thinks per move on large boards. */
+    private final long thinkNanos;
+
+    /**
+     * Creates the classic 3x3 game.
+     */
+    public TicTacToeGame() {
+        this("Tic-Tac-Toe", 3, 3, 3, DEFAULT_THINK_MILLIS * NANOS_PER_MILLI);
+    }
+
+    /**
+     * Creates a game on any board.
+     * @param gameName name of the game
+     * @param columns width, 1 to MnkBoard.MAX_SIDE
+     * @param rows height, 1 to MnkBoard.MAX_SIDE
+     * @param inARow marks in a row that win
+     * @param nanosPerMove nanoseconds the computer thinks per move
+     * @throws IllegalArgumentException if there is no such game
+     */
+    TicTacToeGame(final String gameName, final int columns, final int rows,
+                  final int inARow, final long nanosPerMove) {
+        new MnkBoard(columns, rows, inARow); // Checks the sizes.
+        this.name = gameName;
+        this.width = columns;
+        this.height = rows;
+        this.k = inARow;
+        this.thinkNanos = nanosPerMove;
+    }
+
+    /**
+     * Creates Gomoku: five in a row on a 15x15 board.
+     * @return the game
+     */
+    static TicTacToeGame gomoku() {
+        return new TicTacToeGame("Gomoku", 15, 15, 5,
+                                 DEFAULT_THINK_MILLIS * NANOS_PER_MILLI);
+    }
+
+    /**
+     * Returns the name of the game.
+     * @return the game name.
+     */
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public Optional<Integer> play(final GameIO io) {
+        io.println("Welcome to " + name + "!");
+        io.println("Objective: Be the first to get " + k + " of your "
+                   + "marks in a row.");
+        io.println("How to play: Take turns placing X or O on the "
+                   + width + "x" + height + " grid. Name a cell by its "
+                   + "column and row, e.g. b2; q quits.");
+        int computer;
+        try {
+            String answer = io.prompt("Do you want to go first? (y/n): ");
+            computer = answer.trim().toLowerCase().startsWith("n")
+                ? MnkBoard.FIRST : MnkBoard.SECOND;
+        } catch (NoSuchElementException e) {
+            return Optional.empty();
+        }
+        MnkBoard board = new MnkBoard(width, height, k);
+        MnkSearch search = isClassic() ? null
+            : new MnkSearch(MnkSearch.DEFAULT_BITS);
+        while (!board.isWon() && !board.isFull()) {
+            int cell;
+            if (board.toMove() != computer) {
+                printBoard(board, computer, io);
+                cell = readMove(board, io);
+                if (cell < 0) {
+                    return Optional.empty();
+                }
+            } else if (search == null) {
+                cell = TicTacToeTable.bestMove(
+                    (int) board.stones(MnkBoard.FIRST),
+                    (int) board.stones(MnkBoard.SECOND));
+                io.println("Computer plays " + board.name(cell));
+            } else {
+                MnkSearch.Result result = search.search(board, thinkNanos);
+                cell = result.move();
+                io.printf("Computer plays %s (depth %d, %,d nodes, "
+                          + "%,.0f nodes/s)%n", board.name(cell),
+                          result.depth(), result.nodes(),
+                          result.nodesPerSecond());
+            }
+            board.play(cell);
+        }
+        printBoard(board, computer, io);
+        if (!board.isWon()) {
+            io.println("It's a draw.");
+            return Optional.of(0);
+        }
+        if (board.toMove() == computer) {
+            io.println("You win!");
+            return Optional.of(board.cells() - board.moves() + 1);
+        }
+        io.println("The computer wins.");
+        return Optional.of(0);
+    }
+
+    /**
+     * Whether this is 3x3 tic-tac-toe, played from the table.
+     * @return true for the classic game
+     */
+    private boolean isClassic() {
+        return width == 3 && height == 3 && k == 3;
+    }
+
+    /**
+     * Asks the player for a move until a legal one is given.
+     * @param board the position
+     * @param io the player's console
+     * @return the cell, or -1 if the player quit
+     */
+    private static int readMove(final MnkBoard board, final GameIO io) {
+        while (true) {
+            String line;
+            try {
+                line = io.prompt("Your move (e.g. b2, q to quit): ").trim();
+            } catch (NoSuchElementException e) {
+                return -1;
+            }
+            if (line.equalsIgnoreCase("q")) {
+                return -1;
+            }
+            int cell = board.parse(line);
+            if (cell < 0) {
+                io.println("Please enter a column letter and row number "
+                           + "on the board.");
+            } else if (!board.isEmpty(cell)) {
+                io.println("That cell is taken.");
+            } else {
+                return cell;
+            }
+        }
+    }
+
+    /**
+     * Prints the board with column letters and row numbers.
+     * @param board the position
+     * @param computer the computer's side
+     * @param io where to print
+     */
+    private static void printBoard(final MnkBoard board, final int computer,
+                                   final GameIO io) {
+        StringBuilder text = new StringBuilder("   ");
+        for (int column = 0; column < board.width(); column++) {
+            text.append(' ').append((char) ('a' + column));
+        }
+        text.append(System.lineSeparator());
+        for (int row = 0; row < board.height(); row++) {
+            text.append(String.format("%2d ", row + 1));
+            for (int column = 0; column < board.width(); column++) {
+                int mark = board.cell(row * board.width() + column);
+                text.append(' ').append(mark == MnkBoard.EMPTY ? EMPTY
+                                        : mark == computer ? COMPUTER
+                                                           : PLAYER);
+            }
+            text.append(System.lineSeparator());
+        }
+        io.print(text);
+    }
 }
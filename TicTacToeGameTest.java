@@ -0,0 +1,86 @@
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Optional;
+import java.util.Scanner;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests for TicTacToeGame, played through a GameIO.
+ * @version 1
+ */
+public class TicTacToeGameTest {
+    /** Nanoseconds the computer thinks per move in the tests. */
+    private static final long THINK_NANOS = 20_000_000;
+
+    /**
+     * Plays a game on scripted input.
+     * @param game the game
+     * @param input the player's lines
+     * @param out where the output goes
+     * @return the score
+     */
+    private static Optional<Integer> play(final TicTacToeGame game,
+                                          final String input,
+                                          final ByteArrayOutputStream out) {
+        GameIO io = new GameIO(new Scanner(input), out,
+                               StandardCharsets.UTF_8);
+        Optional<Integer> score = game.play(io);
+        io.flush();
+        return score;
+    }
+
+    /**
+     * The classic computer cannot be beaten: a player trying the cells
+     *   in order never wins, going first or second.
+     */
+    @Test
+    public void testClassicNeverLoses() {
+        String cells = "a1\nb1\nc1\na2\nb2\nc2\na3\nb3\nc3\n";
+        for (String first : new String[] {"y\n", "n\n"}) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            assertEquals(Optional.of(0),
+                         play(new TicTacToeGame(), first + cells, out));
+            String text = out.toString(StandardCharsets.UTF_8);
+            assertTrue(text.startsWith("Welcome to Tic-Tac-Toe!"));
+            assertTrue(text.contains("Computer plays "));
+            assertFalse(text.contains("You win!"));
+        }
+    }
+
+    /**
+     * Bad input is refused, and quitting ends the game with no score.
+     */
+    @Test
+    public void testQuit() {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        assertEquals(Optional.empty(),
+                     play(new TicTacToeGame(), "n\nz9\nb2\nq\n", out));
+        String text = out.toString(StandardCharsets.UTF_8);
+        assertTrue(text.contains("Computer plays b2"));
+        assertTrue(text.contains("Please enter a column letter"));
+        assertTrue(text.contains("That cell is taken."));
+    }
+
+    /**
+     * On a large board the computer searches, opening in the centre.
+     */
+    @Test
+    public void testGomoku() {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        TicTacToeGame game =
+            new TicTacToeGame("Gomoku", 15, 15, 5, THINK_NANOS);
+        assertEquals("Gomoku", game.getName());
+        assertEquals(Optional.empty(), play(game, "n\nh9\nq\n", out));
+        String text = out.toString(StandardCharsets.UTF_8);
+        assertTrue(text.contains("Computer plays h8 (depth "));
+        assertTrue(text.contains("nodes/s"));
+        assertThrows(IllegalArgumentException.class,
+                     () -> new TicTacToeGame("Bad", 3, 3, 5, THINK_NANOS));
+    }
+}
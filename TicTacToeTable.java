@@ -0,0 +1,159 @@
+import java.util.Arrays;
+
+/**
+ * Perfect play for 3x3 tic-tac-toe, precomputed: every position's value
+ *   and best move, read with one array lookup.
+ * <pre>
+ * A position is two 9-bit masks, one per player; bit row * 3 + column
+ *   is the cell, row 0 at the top. The same layout is the low bits of
+ *   MnkBoard.stones on a 3x3 board.
+ * Positions are numbered in base 3, cell i being digit i (0 empty,
+ *   1 first player, 2 second), so the 3^9 = 19,683 numbers index two
+ *   flat byte arrays: the value and the best move. Converting masks to
+ *   the number is two lookups in a 512-entry table.
+ * The tables are filled when the class is first used, by negamax over
+ *   the positions reachable in a game (a few thousand; well under a
+ *   millisecond), so every move afterwards costs the same two lookups and nothing
+ *   else.
+ * Values are from the mover's point of view: n + 1 for a win with n
+ *   cells left empty after it, so quicker wins score higher, 0 for a
+ *   draw, minus that for a loss. Among equal moves the centre comes
+ *   first, then the corners.
+ * </pre>
+ * @version 1
+ */
+final class TicTacToeTable {
+    /** Cells on the board. */
+    static final int CELLS = 9;
+    /** Returned by bestMove when the game is over. */
+    static final int NO_MOVE = -1;
+
+    /** Every line of three, as a mask. */
+    private static final int[] LINES = {
+        0b000000111, 0b000111000, 0b111000000,
+        0b001001001, 0b010010010, 0b100100100,
+        0b100010001, 0b001010100};
+    /** Cells in the order tried: centre, corners, edges. */
+    private static final int[] ORDER = {4, 0, 2, 6, 8, 1, 3, 5, 7};
+    /** Every cell. */
+    private static final int FULL = (1 << CELLS) - 1;
+    /** Base-3 number of each mask, read as digits of 1. */
+    private static final int[] BASE3 = base3();
+    /** Value of each position, by number. */
+    private static final byte[] VALUE = new byte[BASE3[FULL] * 2 + 1];
+    /** Best move of each position, by number; NO_MOVE if none. */
+    private static final byte[] BEST = new byte[VALUE.length];
+
+    static {
+        Arrays.fill(BEST, (byte) NO_MOVE);
+        solve(0, 0);
+    }
+
+    /**
+     * Not instantiated.
+     */
+    private TicTacToeTable() {
+    }
+
+    /**
+     * Number of a position.
+     * @param first the first player's cells
+     * @param second the second player's cells
+     * @return the position's base-3 number
+     */
+    static int index(final int first, final int second) {
+        return BASE3[first] + 2 * BASE3[second];
+    }
+
+    /**
+     * Best move with perfect play.
+     * @param first the first player's cells
+     * @param second the second player's cells
+     * @return the cell, or NO_MOVE if the game is over
+     */
+    static int bestMove(final int first, final int second) {
+        return BEST[index(first, second)];
+    }
+
+    /**
+     * Value of a position with perfect play.
+     * @param first the first player's cells
+     * @param second the second player's cells
+     * @return the value, from the mover's point of view; 0 if the game
+     *         is over
+     */
+    static int value(final int first, final int second) {
+        return VALUE[index(first, second)];
+    }
+
+    /**
+     * Whether a player's cells include a line of three.
+     * @param cells the player's cells
+     * @return true if they do
+     */
+    static boolean hasLine(final int cells) {
+        for (int line : LINES) {
+            if ((cells & line) == line) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Fills in a position and every position after it.
+     * @param first the first player's cells
+     * @param second the second player's cells
+     * @return the position's value
+     */
+    private static int solve(final int first, final int second) {
+        int index = index(first, second);
+        if (BEST[index] != NO_MOVE) {
+            return VALUE[index];
+        }
+        int taken = first | second;
+        int empty = CELLS - Integer.bitCount(taken);
+        boolean firstToMove = (empty & 1) == 1;
+        int best = -Integer.MAX_VALUE;
+        int bestCell = NO_MOVE;
+        for (int cell : ORDER) {
+            int bit = 1 << cell;
+            if ((taken & bit) != 0) {
+                continue;
+            }
+            int score;
+            if (hasLine((firstToMove ? first : second) | bit)) {
+                score = empty;
+            } else if (empty == 1) {
+                score = 0;
+            } else {
+                score = firstToMove ? -solve(first | bit, second)
+                                    : -solve(first, second | bit);
+            }
+            if (score > best) {
+                best = score;
+                bestCell = cell;
+            }
+        }
+        VALUE[index] = (byte) best;
+        BEST[index] = (byte) bestCell;
+        return best;
+    }
+
+    /**
+     * Base-3 numbers of the masks.
+     * @return the table
+     */
+    private static int[] base3() {
+        int[] table = new int[FULL + 1];
+        for (int mask = 1; mask <= FULL; mask++) {
+            int low = Integer.numberOfTrailingZeros(mask);
+            int power = 1;
+            for (int i = 0; i < low; i++) {
+                power *= 3;
+            }
+            table[mask] = table[mask & (mask - 1)] + power;
+        }
+        return table;
+    }
+}
@@ -0,0 +1,78 @@
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests for TicTacToeTable.
+ * @version 1
+ */
+public class TicTacToeTableTest {
+    /**
+     * Tic-tac-toe is a draw, and the table takes wins and blocks.
+     */
+    @Test
+    public void testValues() {
+        assertEquals(0, TicTacToeTable.value(0, 0));
+        assertEquals(4, TicTacToeTable.bestMove(0, 0));
+        // X on a1 and b1, O on a2 and b2: X completes the top row.
+        assertEquals(2, TicTacToeTable.bestMove(0b011, 0b011000));
+        assertEquals(5, TicTacToeTable.value(0b011, 0b011000));
+        // X on a1, b1 and a3, O on a2 and b2: O wins on c2 rather than
+        // blocking c1.
+        assertEquals(5, TicTacToeTable.bestMove(0b1000011, 0b011000));
+        assertEquals(4, TicTacToeTable.value(0b1000011, 0b011000));
+        // X on a1 and b1, O on b2: O must block c1.
+        assertEquals(2, TicTacToeTable.bestMove(0b011, 0b010000));
+        assertEquals(TicTacToeTable.NO_MOVE,
+                     TicTacToeTable.bestMove(0b111, 0b011000));
+    }
+
+    /**
+     * The table's moves never lose: whatever the opponent does, it
+     *   draws against every reply from the start, and wins wherever
+     *   the opponent errs.
+     */
+    @Test
+    public void testNeverLoses() {
+        assertEquals(0, worst(0, 0, true));
+        assertEquals(0, worst(0, 0, false));
+    }
+
+    /**
+     * The worst result the table's player can get.
+     * @param first the first player's cells
+     * @param second the second player's cells
+     * @param tableFirst true if the table plays first
+     * @return 1 for a win, 0 for a draw, -1 for a loss
+     */
+    private static int worst(final int first, final int second,
+                             final boolean tableFirst) {
+        if (TicTacToeTable.hasLine(first)) {
+            return tableFirst ? 1 : -1;
+        }
+        if (TicTacToeTable.hasLine(second)) {
+            return tableFirst ? -1 : 1;
+        }
+        int taken = first | second;
+        if (taken == (1 << TicTacToeTable.CELLS) - 1) {
+            return 0;
+        }
+        boolean firstToMove = Integer.bitCount(taken) % 2 == 0;
+        if (firstToMove == tableFirst) {
+            int cell = TicTacToeTable.bestMove(first, second);
+            assertTrue(cell >= 0 && (taken & 1 << cell) == 0);
+            return firstToMove ? worst(first | 1 << cell, second, tableFirst)
+                               : worst(first, second | 1 << cell, tableFirst);
+        }
+        int result = 1;
+        for (int cell = 0; cell < TicTacToeTable.CELLS; cell++) {
+            if ((taken & 1 << cell) == 0) {
+                result = Math.min(result, firstToMove
+                    ? worst(first | 1 << cell, second, tableFirst)
+                    : worst(first, second | 1 << cell, tableFirst));
+            }
+        }
+        return result;
+    }
+}
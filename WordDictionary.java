@@ -0,0 +1,431 @@
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Random;
+
+/**
+ * Word list shared by the word games, packed into longs and read from a
+ *   memory-mapped binary image.
+ * <pre>
+ * A word of up to MAX_LENGTH letters A to Z is one long, 5 bits a
+ *   letter (A = 1 ... Z = 26), first letter highest; words of one length
+ *   therefore sort as their longs do.
+ * Image layout (big-endian):
+ *   header (16 bytes)
+ *     int   magic "WDIC"
+ *     short version
+ *     short MAX_LENGTH
+ *     int   word count
+ *     int   reserved (0)
+ *   MAX_LENGTH + 2 ints: the index of the first word of each length,
+ *     0 to MAX_LENGTH, then the word count
+ *   the words, one long each, shortest first, ascending within a length
+ * Membership is a binary search within the word's length; picking a
+ *   random word of a length is one random index and one read. Nothing
+ *   is copied onto the heap: a dictionary of 300,000 words is 2.4 MB of
+ *   mapped file, where a List of Strings holds some 20 MB of objects.
+ *
+ * standard() is the dictionary the games use. It maps words.dict from
+ *   the working directory if there is one (see WordDictionaryBuilder);
+ *   otherwise it builds an image from words.txt there, caches it in the
+ *   temporary directory, and maps that; with neither, it falls back to a
+ *   few words built in. A dictionary is read-only and may be shared by
+ *   threads.
+ * </pre>
+ * @version 1
+ */
+final class WordDictionary {
+    /** Longest word held. */
+    static final int MAX_LENGTH = 12;
+    /** Bits per letter. */
+    static final int LETTER_BITS = 5;
+    /** Image looked for by standard(), in the working directory. */
+    static final String IMAGE_FILENAME = "words.dict";
+    /** Word list standard() builds an image from, if there is no image. */
+    static final String TEXT_FILENAME = "words.txt";
+    /** Image magic, "WDIC". */
+    static final int MAGIC = 0x57444943;
+    /** Current image version. */
+    static final short VERSION = 1;
+
+    /** Size of the header in bytes. */
+    private static final int HEADER_SIZE = 16;
+    /** Offset of the words. */
+    private static final int WORDS_OFFSET =
+        HEADER_SIZE + (MAX_LENGTH + 2) * Integer.BYTES;
+    /** Mask of one letter. */
+    private static final long LETTER_MASK = (1 << LETTER_BITS) - 1;
+    /** Words used when no word list is found. */
+    private static final String[] BUILT_IN = {
+        "APPLE", "BERRY", "BRICK", "CHAIR", "CRANE", "GRAPE", "HOUSE",
+        "LEMON", "MANGO", "PEACH", "PLANT", "RIVER", "TABLE", "TIGER",
+        "CASTLE", "DRAGON", "FOREST", "GARDEN", "ISLAND", "PLANET",
+        "ELEPHANT", "MOUNTAIN", "TREASURE", "BUTTERFLY"};
+
+    /** The image. */
+    private final ByteBuffer image;
+    /** Number of words. */
+    private final int count;
+    /** Index of the first word of each length, then the count. */
+    private final int[] starts = new int[MAX_LENGTH + 2];
+
+    /**
+     * Wraps an image.
+     * @param bytes the image, header first
+     * @param source where the image came from, for messages
+     * @throws IOException if the image is malformed or of an unsupported
+     *         version
+     */
+    private WordDictionary(final ByteBuffer bytes, final Object source)
+            throws IOException {
+        this.image = bytes;
+        if (bytes.capacity() < WORDS_OFFSET || bytes.getInt(0) != MAGIC) {
+            throw new IOException("Not a word dictionary: " + source);
+        }
+        if (bytes.getShort(4) != VERSION
+            || bytes.getShort(6) != MAX_LENGTH) {
+            throw new IOException("Unsupported word dictionary version "
+                                  + bytes.getShort(4));
+        }
+        this.count = bytes.getInt(8);
+        for (int i = 0; i < starts.length; i++) {
+            starts[i] = bytes.getInt(HEADER_SIZE + i * Integer.BYTES);
+        }
+        if (count < 0 || starts[starts.length - 1] != count
+            || (long) count * Long.BYTES != bytes.capacity() - WORDS_OFFSET) {
+            throw new IOException("Truncated word dictionary: " + source);
+        }
+    }
+
+    /**
+     * Holder of the standard dictionary, loaded on first use.
+     */
+    private static final class Standard {
+        /** The dictionary. */
+        static final WordDictionary INSTANCE = load();
+    }
+
+    /**
+     * The dictionary the games use.
+     * @return the standard dictionary
+     */
+    static WordDictionary standard() {
+        return Standard.INSTANCE;
+    }
+
+    /**
+     * Maps an image.
+     * @param path the image file
+     * @return the dictionary
+     * @throws IOException if the file is missing, malformed or of an
+     *         unsupported version
+     */
+    static WordDictionary open(final Path path) throws IOException {
+        try (FileChannel ch = FileChannel.open(path, StandardOpenOption.READ)) {
+            return new WordDictionary(
+                ch.map(FileChannel.MapMode.READ_ONLY, 0, ch.size()), path);
+        }
+    }
+
+    /**
+     * Builds a dictionary on the heap, for tests and small lists.
+     * @param words the words; others than 1 to MAX_LENGTH letters A to
+     *        Z, in either case, are left out
+     * @return the dictionary
+     */
+    static WordDictionary of(final Collection<String> words) {
+        long[] packed = sortedWords(words);
+        ByteBuffer bytes =
+            ByteBuffer.allocate(WORDS_OFFSET + packed.length * Long.BYTES);
+        writeHeader(bytes, packed);
+        for (long word : packed) {
+            bytes.putLong(word);
+        }
+        try {
+            return new WordDictionary(bytes, "heap");
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Writes an image.
+     * @param path destination
+     * @param words the words; others than 1 to MAX_LENGTH letters A to
+     *        Z, in either case, are left out
+     * @return the number of words written
+     * @throws IOException if an I/O error occurs
+     */
+    static int write(final Path path, final Collection<String> words)
+            throws IOException {
+        long[] packed = sortedWords(words);
+        ByteBuffer header = ByteBuffer.allocate(WORDS_OFFSET);
+        writeHeader(header, packed);
+        try (DataOutputStream out = new DataOutputStream(
+                new BufferedOutputStream(Files.newOutputStream(path)))) {
+            out.write(header.array());
+            for (long word : packed) {
+                out.writeLong(word);
+            }
+        }
+        return packed.length;
+    }
+
+    /**
+     * Packs a word.
+     * @param word the word, letters A to Z in either case
+     * @return the packed word, or -1 if it is empty, too long, or has
+     *         another character
+     */
+    static long pack(final CharSequence word) {
+        int length = word.length();
+        if (length == 0 || length > MAX_LENGTH) {
+            return -1;
+        }
+        long packed = 0;
+        for (int i = 0; i < length; i++) {
+            int letter = (word.charAt(i) | 0x20) - 'a';
+            if (letter < 0 || letter >= 26) {
+                return -1;
+            }
+            packed = packed << LETTER_BITS | (letter + 1);
+        }
+        return packed;
+    }
+
+    /**
+     * Unpacks a word.
+     * @param packed the packed word
+     * @return the word in upper case
+     */
+    static String unpack(final long packed) {
+        int length = length(packed);
+        byte[] letters = new byte[length];
+        long rest = packed;
+        for (int i = length - 1; i >= 0; i--) {
+            letters[i] = (byte) ('A' - 1 + (rest & LETTER_MASK));
+            rest >>>= LETTER_BITS;
+        }
+        return new String(letters, StandardCharsets.US_ASCII);
+    }
+
+    /**
+     * Letters in a packed word.
+     * @param packed the packed word
+     * @return its length
+     */
+    static int length(final long packed) {
+        return (Long.SIZE - Long.numberOfLeadingZeros(packed)
+                + LETTER_BITS - 1) / LETTER_BITS;
+    }
+
+    /**
+     * Letter of a packed word.
+     * @param packed the packed word
+     * @param length its length
+     * @param i the position, 0 first
+     * @return the letter, 0 for A to 25 for Z
+     */
+    static int letter(final long packed, final int length, final int i) {
+        return (int) (packed >>> (LETTER_BITS * (length - 1 - i))
+                      & LETTER_MASK) - 1;
+    }
+
+    /**
+     * Number of words.
+     * @return the word count
+     */
+    int size() {
+        return count;
+    }
+
+    /**
+     * Number of words of a length.
+     * @param length the length
+     * @return the count, 0 for lengths out of range
+     */
+    int size(final int length) {
+        if (length < 1 || length > MAX_LENGTH) {
+            return 0;
+        }
+        return starts[length + 1] - starts[length];
+    }
+
+    /**
+     * A word of a length, packed.
+     * @param length the length
+     * @param i the word's index among those of its length, 0 to
+     *        size(length) - 1
+     * @return the packed word
+     */
+    long packed(final int length, final int i) {
+        return image.getLong(WORDS_OFFSET + (starts[length] + i) * Long.BYTES);
+    }
+
+    /**
+     * A word of a length.
+     * @param length the length
+     * @param i the word's index among those of its length, 0 to
+     *        size(length) - 1
+     * @return the word in upper case
+     */
+    String word(final int length, final int i) {
+        return unpack(packed(length, i));
+    }
+
+    /**
+     * Whether a word is in the dictionary.
+     * @param word the word, in either case
+     * @return true if it is
+     */
+    boolean contains(final CharSequence word) {
+        long packed = pack(word);
+        return packed >= 0 && indexOf(packed, word.length()) >= 0;
+    }
+
+    /**
+     * Index of a packed word among those of its length.
+     * @param packed the packed word
+     * @param length its length
+     * @return the index, or -1 if it is not in the dictionary
+     */
+    int indexOf(final long packed, final int length) {
+        int low = starts[length];
+        int high = starts[length + 1] - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            long found = image.getLong(WORDS_OFFSET + mid * Long.BYTES);
+            if (found < packed) {
+                low = mid + 1;
+            } else if (found > packed) {
+                high = mid - 1;
+            } else {
+                return mid - starts[length];
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * A random word of a length.
+     * @param random the source of randomness
+     * @param length the length
+     * @return the word in upper case, or null if there is none of that
+     *         length
+     */
+    String random(final Random random, final int length) {
+        return random(random, length, length);
+    }
+
+    /**
+     * A random word with a length in a range, every such word equally
+     *   likely.
+     * @param random the source of randomness
+     * @param minLength the shortest length
+     * @param maxLength the longest length
+     * @return the word in upper case, or null if there is none
+     */
+    String random(final Random random, final int minLength,
+                  final int maxLength) {
+        int low = starts[Math.max(1, minLength)];
+        int high = starts[Math.min(MAX_LENGTH, maxLength) + 1];
+        if (high <= low) {
+            return null;
+        }
+        int i = low + random.nextInt(high - low);
+        return unpack(image.getLong(WORDS_OFFSET + i * Long.BYTES));
+    }
+
+    /**
+     * Loads the standard dictionary.
+     * @return the dictionary
+     */
+    private static WordDictionary load() {
+        Path image = Paths.get(IMAGE_FILENAME);
+        Path text = Paths.get(TEXT_FILENAME);
+        try {
+            if (Files.isRegularFile(image)) {
+                return open(image);
+            }
+            if (Files.isRegularFile(text)) {
+                Path cached = Paths.get(System.getProperty("java.io.tmpdir"),
+                                        "consolegamehub-words-"
+                                        + Long.toHexString(
+                                            Files.size(text) * 31
+                                            + Files.getLastModifiedTime(text)
+                                                   .toMillis())
+                                        + ".dict");
+                if (!Files.isRegularFile(cached)) {
+                    Path partial = Files.createTempFile(
+                        cached.getParent(), "consolegamehub-words-", ".tmp");
+                    write(partial, Files.readAllLines(text));
+                    Files.move(partial, cached,
+                               StandardCopyOption.REPLACE_EXISTING,
+                               StandardCopyOption.ATOMIC_MOVE);
+                }
+                return open(cached);
+            }
+        } catch (IOException e) {
+            // Fall back to the built-in words.
+        }
+        return of(Arrays.asList(BUILT_IN));
+    }
+
+    /**
+     * Packs, sorts and removes duplicates.
+     * @param words the words
+     * @return the packed words, shortest first, ascending within a length
+     */
+    private static long[] sortedWords(final Collection<String> words) {
+        long[] packed = new long[words.size()];
+        int n = 0;
+        for (String word : words) {
+            long p = pack(word.trim());
+            if (p > 0) {
+                packed[n++] = p;
+            }
+        }
+        // Shorter words have smaller longs, so one sort orders both.
+        Arrays.sort(packed, 0, n);
+        int unique = 0;
+        for (int i = 0; i < n; i++) {
+            if (unique == 0 || packed[i] != packed[unique - 1]) {
+                packed[unique++] = packed[i];
+            }
+        }
+        return Arrays.copyOf(packed, unique);
+    }
+
+    /**
+     * Writes the header and length index of sorted words.
+     * @param bytes where to write, at its position
+     * @param packed the sorted words
+     */
+    private static void writeHeader(final ByteBuffer bytes,
+                                    final long[] packed) {
+        bytes.putInt(MAGIC);
+        bytes.putShort(VERSION);
+        bytes.putShort((short) MAX_LENGTH);
+        bytes.putInt(packed.length);
+        bytes.putInt(0);
+        int i = 0;
+        for (int length = 0; length <= MAX_LENGTH; length++) {
+            while (i < packed.length && length(packed[i]) < length) {
+                i++;
+            }
+            bytes.putInt(i);
+        }
+        bytes.putInt(packed.length);
+    }
+}
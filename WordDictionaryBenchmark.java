@@ -0,0 +1,249 @@
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * Measures heap use, load time and lookup speed of a word list, comparing
+ *   a sorted List of String with a mapped WordDictionary image.
+ * <pre>
+ * Usage: java WordDictionaryBenchmark [count ... | word list]
+ *   Defaults to 100000 300000 random words of 3 to 12 letters; given a
+ *   word list file (e.g. /usr/share/dict/words), measures its words.
+ * For each list, the words are written once as text and once as an
+ *   image (WordDictionaryBuilder's work, timed separately). Each layout
+ *   is then loaded several times; the retained heap and the best load
+ *   time are reported, with the rate of membership tests (binary
+ *   search in both layouts) and of random picks.
+ * </pre>
+ * @version 1
+ */
+public final class WordDictionaryBenchmark {
+    /** Word counts measured when none are given. */
+    private static final int[] DEFAULT_COUNTS = {100_000, 300_000};
+    /** Timed loads per layout; the fastest is reported. */
+    private static final int LOAD_RUNS = 3;
+    /** Membership tests and picks timed per layout. */
+    private static final int OPERATIONS = 1_000_000;
+    /** Shortest random word. */
+    private static final int MIN_LENGTH = 3;
+    /** Bytes per megabyte. */
+    private static final double MB = 1024.0 * 1024.0;
+    /** Nanoseconds per millisecond. */
+    private static final double NANOS_PER_MILLI = 1e6;
+    /** Seed so every layout sees the same words and queries. */
+    private static final long SEED = 42L;
+    /** Keeps the loaded layout reachable while its heap is measured. */
+    private static Object retained;
+    /** Sink for results, so lookups are not optimised away. */
+    private static long sink;
+
+    /**
+     * Prevent instantiation.
+     */
+    private WordDictionaryBenchmark() {
+        throw new UnsupportedOperationException("class cannot be instantiated");
+    }
+
+    /**
+     * Runs the benchmark.
+     * @param args word counts, or a word list
+     * @throws IOException if the temporary files cannot be used
+     */
+    public static void main(final String[] args) throws IOException {
+        System.out.printf("%-9s %-22s %9s %9s %9s %11s %11s%n",
+                          "words", "layout", "heap MB", "file MB",
+                          "load ms", "lookups/s", "picks/s");
+        if (args.length == 1 && Files.isRegularFile(Paths.get(args[0]))) {
+            measure(Files.readAllLines(Paths.get(args[0])));
+            return;
+        }
+        int[] counts = DEFAULT_COUNTS;
+        if (args.length > 0) {
+            counts = new int[args.length];
+            for (int i = 0; i < args.length; i++) {
+                counts[i] = Integer.parseInt(args[i]);
+            }
+        }
+        for (int count : counts) {
+            measure(randomWords(count));
+        }
+    }
+
+    /**
+     * Measures both layouts of one word list and prints a row for each.
+     * @param words the words
+     * @throws IOException if the temporary files cannot be used
+     */
+    private static void measure(final List<String> words) throws IOException {
+        Path text = Files.createTempFile("words", ".txt");
+        Path image = Files.createTempFile("words", ".dict");
+        try {
+            Files.write(text, words);
+            long start = System.nanoTime();
+            int count = WordDictionaryBuilder.build(text, image);
+            double buildMillis = (System.nanoTime() - start) / NANOS_PER_MILLI;
+            String[] queries = queries(words);
+            measure(count, "List<String>", text, queries, false);
+            measure(count, "WordDictionary", image, queries, true);
+            System.out.printf("%-9d %-22s %9s %9.1f %9.1f%n", count,
+                              "(image build, once)", "", Files.size(image) / MB,
+                              buildMillis);
+        } finally {
+            Files.deleteIfExists(text);
+            Files.deleteIfExists(image);
+        }
+    }
+
+    /**
+     * Measures one layout and prints a result row.
+     * @param count number of words
+     * @param layout name of the layout
+     * @param file the text or image file
+     * @param queries words to look up
+     * @param mapped true for WordDictionary, false for the List
+     * @throws IOException if the file cannot be read
+     */
+    private static void measure(final int count, final String layout,
+                                final Path file, final String[] queries,
+                                final boolean mapped) throws IOException {
+        long best = Long.MAX_VALUE;
+        long heap = 0;
+        for (int run = 0; run < LOAD_RUNS; run++) {
+            retained = null;
+            long before = usedHeap();
+            long start = System.nanoTime();
+            retained = mapped ? WordDictionary.open(file) : readList(file);
+            best = Math.min(best, System.nanoTime() - start);
+            heap = usedHeap() - before;
+        }
+        double lookups;
+        double picks;
+        if (mapped) {
+            WordDictionary dictionary = (WordDictionary) retained;
+            lookups = rate(() -> {
+                for (String query : queries) {
+                    sink += dictionary.contains(query) ? 1 : 0;
+                }
+            }, queries.length);
+            Random random = new Random(SEED);
+            picks = rate(() -> {
+                for (int i = 0; i < OPERATIONS; i++) {
+                    sink += dictionary.random(random, 1 + i % 12,
+                                              1 + i % 12) == null ? 0 : 1;
+                }
+            }, OPERATIONS);
+        } else {
+            @SuppressWarnings("unchecked")
+            List<String> list = (List<String>) retained;
+            lookups = rate(() -> {
+                for (String query : queries) {
+                    sink += Collections.binarySearch(list, query) >= 0 ? 1 : 0;
+                }
+            }, queries.length);
+            picks = rate(() -> {
+                for (int i = 0; i < OPERATIONS; i++) {
+                    sink += GameUtils.getRandomWord(list).length();
+                }
+            }, OPERATIONS);
+        }
+        retained = null;
+        System.out.printf("%-9d %-22s %9.1f %9.1f %9.1f %,11.0f %,11.0f%n",
+                          count, layout, heap / MB, Files.size(file) / MB,
+                          best / NANOS_PER_MILLI, lookups, picks);
+    }
+
+    /**
+     * Loads a word list the usual way: every line upper-cased, checked
+     *   and kept as a String, then sorted for binary search.
+     * @param file the text file
+     * @return the list
+     * @throws IOException if an I/O error occurs
+     */
+    private static List<String> readList(final Path file) throws IOException {
+        List<String> list = new ArrayList<>();
+        for (String line : Files.readAllLines(file)) {
+            String word = line.trim().toUpperCase();
+            if (WordDictionary.pack(word) > 0) {
+                list.add(word);
+            }
+        }
+        Collections.sort(list);
+        return list;
+    }
+
+    /**
+     * Times an operation, best of three.
+     * @param operation the operation
+     * @param times the operations it does
+     * @return operations per second
+     */
+    private static double rate(final Runnable operation, final int times) {
+        long best = Long.MAX_VALUE;
+        for (int run = 0; run < LOAD_RUNS; run++) {
+            long start = System.nanoTime();
+            operation.run();
+            best = Math.min(best, System.nanoTime() - start);
+        }
+        return times * 1e9 / best;
+    }
+
+    /**
+     * Distinct random words of MIN_LENGTH to MAX_LENGTH letters.
+     * @param count number of words
+     * @return the words, in no order
+     */
+    private static List<String> randomWords(final int count) {
+        Random random = new Random(SEED);
+        Set<String> words = new HashSet<>();
+        char[] letters = new char[WordDictionary.MAX_LENGTH];
+        while (words.size() < count) {
+            int length = MIN_LENGTH + random.nextInt(
+                WordDictionary.MAX_LENGTH - MIN_LENGTH + 1);
+            for (int i = 0; i < length; i++) {
+                letters[i] = (char) ('A' + random.nextInt(26));
+            }
+            words.add(new String(letters, 0, length));
+        }
+        return new ArrayList<>(words);
+    }
+
+    /**
+     * Lookups to time: the words themselves, half of them with the last
+     *   letter changed so that they may miss.
+     * @param words the words
+     * @return the queries, upper case
+     */
+    private static String[] queries(final List<String> words) {
+        Random random = new Random(SEED);
+        String[] queries = new String[OPERATIONS];
+        for (int i = 0; i < OPERATIONS; i++) {
+            String word = words.get(random.nextInt(words.size()))
+                .trim().toUpperCase();
+            if (i % 2 == 1 && !word.isEmpty()) {
+                word = word.substring(0, word.length() - 1)
+                    + (char) ('A' + random.nextInt(26));
+            }
+            queries[i] = word;
+        }
+        return queries;
+    }
+
+    /**
+     * Heap in use after a collection.
+     * @return used heap in bytes
+     */
+    private static long usedHeap() {
+        Runtime rt = Runtime.getRuntime();
+        for (int i = 0; i < 2; i++) {
+            System.gc();
+        }
+        return rt.totalMemory() - rt.freeMemory();
+    }
+}
@@ -0,0 +1,69 @@
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Builds a WordDictionary image from a word list.
+ * <pre>
+ * Usage: java WordDictionaryBuilder list [image]
+ *   Reads the words of list, any text file with words separated by
+ *   white space (one per line, as /usr/share/dict/words), and writes
+ *   them to image (default words.dict), which the word games map when
+ *   they find it in the working directory.
+ * Words are upper-cased; words with characters other than letters, or
+ *   longer than WordDictionary.MAX_LENGTH, are left out, and repeats
+ *   are kept once.
+ * </pre>
+ * @version 1
+ */
+public final class WordDictionaryBuilder {
+    /**
+     * Not instantiated.
+     */
+    private WordDictionaryBuilder() {
+    }
+
+    /**
+     * Builds an image.
+     * @param args the word list and the image
+     * @throws IOException if the list cannot be read or the image
+     *         written
+     */
+    public static void main(final String[] args) throws IOException {
+        if (args.length < 1) {
+            System.err.println("Usage: java WordDictionaryBuilder list "
+                               + "[image]");
+            return;
+        }
+        Path image = Paths.get(args.length > 1 ? args[1]
+                                               : WordDictionary.IMAGE_FILENAME);
+        long start = System.nanoTime();
+        int count = build(Paths.get(args[0]), image);
+        System.out.printf("%,d words, %,d bytes, in %.0f ms%n", count,
+                          Files.size(image),
+                          (System.nanoTime() - start) / 1e6);
+    }
+
+    /**
+     * Builds an image from a word list.
+     * @param list the word list
+     * @param image destination
+     * @return the number of words written
+     * @throws IOException if an I/O error occurs
+     */
+    static int build(final Path list, final Path image) throws IOException {
+        List<String> words = new ArrayList<>();
+        try (Stream<String> lines = Files.lines(list)) {
+            lines.forEach(line -> {
+                for (String word : line.trim().split("\\s+")) {
+                    words.add(word);
+                }
+            });
+        }
+        return WordDictionary.write(image, words);
+    }
+}
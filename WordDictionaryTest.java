@@ -0,0 +1,135 @@
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests for WordDictionary and WordDictionaryBuilder.
+ * @version 1
+ */
+public class WordDictionaryTest {
+    /** Words used by the tests, with repeats and words to leave out. */
+    private static final List<String> WORDS = Arrays.asList(
+        "apple", "Brick", "CRANE", "apple", "a", "zz", "zebra",
+        "butterflies", "abcdefghijkl", "abcdefghijklm", "don't", "", "42");
+
+    /**
+     * Words pack into 5 bits a letter and back; others are refused.
+     */
+    @Test
+    public void testPack() {
+        assertEquals(1, WordDictionary.pack("a"));
+        assertEquals(1 << 5 | 2, WordDictionary.pack("AB"));
+        for (String word : new String[] {"A", "ZZ", "APPLE",
+                                         "ZZZZZZZZZZZZ"}) {
+            long packed = WordDictionary.pack(word);
+            assertEquals(word, WordDictionary.unpack(packed));
+            assertEquals(word.length(), WordDictionary.length(packed));
+        }
+        assertEquals(25, WordDictionary.letter(
+            WordDictionary.pack("ZAP"), 3, 0));
+        assertEquals(-1, WordDictionary.pack(""));
+        assertEquals(-1, WordDictionary.pack("ABCDEFGHIJKLM"));
+        assertEquals(-1, WordDictionary.pack("DON'T"));
+        assertEquals(-1, WordDictionary.pack("CAFÉ"));
+        assertEquals(-1, WordDictionary.pack("A1"));
+    }
+
+    /**
+     * Words are held once each, by length, and found by any case.
+     */
+    @Test
+    public void testLookUp() {
+        WordDictionary words = WordDictionary.of(WORDS);
+        assertEquals(8, words.size());
+        assertEquals(4, words.size(5));
+        assertEquals(1, words.size(1));
+        assertEquals(1, words.size(12));
+        assertEquals(0, words.size(13));
+        assertEquals(0, words.size(0));
+        assertEquals("APPLE", words.word(5, 0));
+        assertEquals("ZEBRA", words.word(5, 3));
+        assertTrue(words.contains("apple"));
+        assertTrue(words.contains("Crane"));
+        assertTrue(words.contains("BUTTERFLIES"));
+        assertFalse(words.contains("APPLES"));
+        assertFalse(words.contains("ZZZ"));
+        assertFalse(words.contains("don't"));
+        assertEquals(1, words.indexOf(WordDictionary.pack("BRICK"), 5));
+        assertEquals(-1, words.indexOf(WordDictionary.pack("BRICX"), 5));
+    }
+
+    /**
+     * Random words have the length asked for, and every word is picked.
+     */
+    @Test
+    public void testRandom() {
+        WordDictionary words = WordDictionary.of(WORDS);
+        Random random = new Random(1);
+        boolean[] seen = new boolean[words.size(5)];
+        for (int i = 0; i < 200; i++) {
+            String word = words.random(random, 5);
+            assertEquals(5, word.length());
+            seen[words.indexOf(WordDictionary.pack(word), 5)] = true;
+        }
+        for (boolean s : seen) {
+            assertTrue(s);
+        }
+        assertNull(words.random(random, 7));
+        assertTrue(words.random(random, 6, 12).length() >= 11);
+        assertNull(GameUtils.getRandomWord(null, 5));
+        assertEquals(5, GameUtils.getRandomWord(words, 5).length());
+    }
+
+    /**
+     * An image built from a text file maps to the same dictionary;
+     *   files that are not images are refused.
+     * @param tempDir where the files are written
+     * @throws IOException if a file cannot be written
+     */
+    @Test
+    public void testImage(@TempDir final Path tempDir) throws IOException {
+        Path text = tempDir.resolve("words.txt");
+        Files.write(text, Arrays.asList("apple brick", "  crane  ",
+                                        "zebra", "apple"));
+        Path image = tempDir.resolve("words.dict");
+        assertEquals(4, WordDictionaryBuilder.build(text, image));
+        WordDictionary words = WordDictionary.open(image);
+        assertEquals(4, words.size());
+        assertEquals(4, words.size(5));
+        assertTrue(words.contains("ZEBRA"));
+        assertFalse(words.contains("ZEBRAS"));
+
+        Path bad = tempDir.resolve("bad.dict");
+        Files.write(bad, "not a dictionary at all, not at all"
+                    .getBytes(StandardCharsets.UTF_8));
+        assertThrows(IOException.class, () -> WordDictionary.open(bad));
+        byte[] bytes = Files.readAllBytes(image);
+        Files.write(bad, Arrays.copyOf(bytes, bytes.length - 8));
+        assertThrows(IOException.class, () -> WordDictionary.open(bad));
+    }
+
+    /**
+     * The standard dictionary has words for every word game.
+     */
+    @Test
+    public void testStandard() {
+        WordDictionary words = WordDictionary.standard();
+        assertTrue(words.size(5) > 0);
+        assertTrue(words.contains("APPLE"));
+        assertTrue(words.random(new Random(), HangmanGame.MIN_LENGTH,
+                                WordDictionary.MAX_LENGTH) != null);
+    }
+}
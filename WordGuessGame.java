@@ -1,16 +1,90 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NoSuchElementException;
 import java.util.Optional;
+import java.util.Random;
 
 /**
  * A word guessing game similar to Wordle.
  * The player has a limited number of attempts to guess a secret
  * 5-letter word.
- * After each guess, the game indicates whether the guess is correct.
+ * After each guess, the game shows which letters are in the right
+ * place, which are in the word elsewhere, and which are not in it.
  * <br />
  * The score is determined by how many attempts the player had remaining
  *   when they guessed the word correctly.
- * @version 1
+ * <pre>
+ * The secret is a random 5-letter word of an answer list, and guesses
+ *   must be words of a guess list or the answer list; both are the
+ *   standard WordDictionary unless others are given. A guess that is
+ *   not a word costs no attempt.
+ * Feedback is a WordPattern, shown under the guess as G (green, right
+ *   place), Y (yellow, elsewhere) or a dot (gray, not in the word).
+ * At the guess prompt, hint asks a WordleSolver for the guess that
+ *   tells the most about the secret, in bits, and auto lets the solver
+ *   play the rest of the game; a game the computer finishes gives no
+ *   score. The solver reads patterns from a WordPatternTable cached on
+ *   disk, made the first time a hint is asked for.
+ * One instance serves every session of a server, so each game that
+ *   asks for a hint gets its own solver, made from a shared one that
+ *   holds the table and the opening guess; the shared one is made once,
+ *   under a lock, and not changed after.
+ * </pre>
+ * @version 4
  */
 class WordGuessGame implements Game {
+    /** Number of letters in a word. */
+    static final int WORD_LENGTH = WordPattern.LENGTH;
+    /** Attempts the player has. */
+    static final int MAX_ATTEMPTS = 6;
+    /** Command that asks for a hint. */
+    private static final String HINT = "HINT";
+    /** Command that lets the computer finish the game. */
+    private static final String AUTO = "AUTO";
+
+    /** Words the secret comes from. */
+    private final WordDictionary answers;
+    /** Words that may be guessed, besides the answers. */
+    private final WordDictionary guesses;
+    /** Chooses the secret. */
+    private final Random random;
+    /** Guards shared and tried. */
+    private final Object solverLock = new Object();
+    /** Solver the games' solvers are made from, its opening found. */
+    private WordleSolver shared;
+    /** Whether making the shared solver was tried. */
+    private boolean tried;
+
+    /**
+     * Creates the game on the standard dictionary.
+     */
+    WordGuessGame() {
+        this(WordDictionary.standard(), new Random());
+    }
+
+    /**
+     * Creates the game on a given dictionary.
+     * @param dictionary words the secret and the guesses come from
+     * @param secrets chooses the secret
+     */
+    WordGuessGame(final WordDictionary dictionary, final Random secrets) {
+        this(dictionary, dictionary, secrets);
+    }
+
+    /**
+     * Creates the game with separate answer and guess lists, as Wordle
+     *   has.
+     * @param answerWords words the secret comes from
+     * @param guessWords words that may be guessed; hints need every
+     *        answer to be one
+     * @param secrets chooses the secret
+     */
+    WordGuessGame(final WordDictionary answerWords,
+                  final WordDictionary guessWords, final Random secrets) {
+        this.answers = answerWords;
+        this.guesses = guessWords;
+        this.random = secrets;
+    }
 
     @Override
     public String getName() {
@@ -18,19 +92,131 @@ class WordGuessGame implements Game {
     }
 
     @Override
-    public Optional<Integer> play() {
-        System.out.println(
+    public Optional<Integer> play(final GameIO io) {
+        io.println(
             "[Playing Word Guess - You will have a limited number of attempts"
             + " to guess a secret 5 letter word.]"
         );
-        System.out.println(
-            "After each guess, the game will indicate whether the guess is"
-            + " correct."
+        io.println(
+            "After each guess, the game shows G for a letter in the right"
+            + " place, Y for a letter elsewhere in the word, and . for a"
+            + " letter not in it."
         );
-        System.out.println(
+        io.println(
             "Your score is determined by the number of attempts remaining"
             + " after you guessed the word correctly!"
         );
-        return Optional.empty();
+        io.println("Type hint for a suggestion, or auto to let the computer "
+                   + "finish.");
+        String secret = GameUtils.getRandomWord(answers, WORD_LENGTH, random);
+        if (secret == null) {
+            io.println("There are no " + WORD_LENGTH + "-letter words to "
+                       + "play with.");
+            return Optional.empty();
+        }
+        List<String> played = new ArrayList<>();
+        List<Integer> shown = new ArrayList<>();
+        int attemptsLeft = MAX_ATTEMPTS;
+        boolean auto = false;
+        WordleSolver solver = null;
+        while (attemptsLeft > 0) {
+            String guess;
+            if (auto) {
+                if (solver == null) {
+                    solver = solver();
+                }
+                guess = hint(solver, played, shown);
+                if (guess == null) {
+                    io.println("Hints are not available for this word list.");
+                    return Optional.empty();
+                }
+                io.println("Computer guesses " + guess);
+            } else {
+                try {
+                    guess = io.prompt("Enter your guess (" + attemptsLeft
+                                      + " left): ").trim().toUpperCase();
+                } catch (NoSuchElementException e) {
+                    return Optional.empty();
+                }
+                if (guess.equals(HINT)) {
+                    if (solver == null) {
+                        solver = solver();
+                    }
+                    String hint = hint(solver, played, shown);
+                    io.println(hint == null
+                        ? "Hints are not available for this word list."
+                        : String.format("Hint: try %s (%.2f bits; %d words "
+                                        + "are still possible).", hint,
+                                        solver.bits(), solver.candidates()));
+                    continue;
+                }
+                if (guess.equals(AUTO)) {
+                    auto = true;
+                    continue;
+                }
+            }
+            if (guess.length() != WORD_LENGTH) {
+                io.println("Please enter a " + WORD_LENGTH + "-letter word.");
+            } else if (!guesses.contains(guess) && !answers.contains(guess)) {
+                io.println("\"" + guess + "\" is not in the word list.");
+            } else if (guess.equals(secret)) {
+                if (auto) {
+                    io.println("The computer found the word.");
+                    return Optional.empty();
+                }
+                io.println("Correct! The word was " + secret + ".");
+                return Optional.of(attemptsLeft);
+            } else {
+                int pattern = WordPattern.of(guess, secret);
+                io.println(guess + "  " + WordPattern.render(pattern));
+                played.add(guess);
+                shown.add(pattern);
+                attemptsLeft--;
+            }
+        }
+        io.println("Out of attempts. The word was " + secret + ".");
+        return auto ? Optional.empty() : Optional.of(0);
+    }
+
+    /**
+     * A solver for one game.
+     * @return a new solver, or null if the lists do not allow hints
+     */
+    private WordleSolver solver() {
+        synchronized (solverLock) {
+            if (!tried) {
+                tried = true;
+                try {
+                    shared = new WordleSolver(
+                        WordPatternTable.cached(guesses, answers), guesses,
+                        answers);
+                    shared.hint(); // Finds the opening once for every game.
+                } catch (IllegalArgumentException e) {
+                    shared = null;
+                }
+            }
+            return shared == null ? null : new WordleSolver(shared);
+        }
+    }
+
+    /**
+     * The solver's guess after the feedback so far.
+     * @param solver the game's solver, or null
+     * @param played the guesses made
+     * @param shown the pattern each showed
+     * @return the guess, or null if the lists do not allow hints
+     */
+    private String hint(final WordleSolver solver, final List<String> played,
+                        final List<Integer> shown) {
+        if (solver == null) {
+            return null;
+        }
+        solver.reset();
+        for (int i = 0; i < played.size(); i++) {
+            if (guesses.contains(played.get(i))) {
+                solver.record(played.get(i), shown.get(i));
+            }
+        }
+        return solver.hint();
     }
 }
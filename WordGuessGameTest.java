@@ -1,16 +1,33 @@
 import org.junit.jupiter.api.Test;
 import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
 import java.util.Optional;
+import java.util.Random;
+import java.util.Scanner;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 /**
  * Tests for WordGuessGame.
- * @version 1
+ * @version 3
  */
 public class WordGuessGameTest {
+    /**
+     * A game whose secret is APPLE, with the words the tests guess, so it
+     *   does not depend on the dictionary files in the working directory.
+     * @return the game
+     */
+    private static WordGuessGame appleGame() {
+        return new WordGuessGame(WordDictionary.of(List.of("APPLE")),
+                                 WordDictionary.of(List.of(
+                                     "APPLE", "MANGO", "GRAPE", "PLUMB",
+                                     "BERRY", "PEACH", "LEMON")),
+                                 new Random());
+    }
 
     @Test
     public void testCorrectGuessOnFirstTry() {
@@ -18,7 +35,7 @@ public class WordGuessGameTest {
         InputStream originalIn = System.in;
         System.setIn(new ByteArrayInputStream(simulatedInput.getBytes()));
 
-        WordGuessGame game = new WordGuessGame();
+        WordGuessGame game = appleGame();
         Optional<Integer> result = game.play();
 
         assertTrue(result.isPresent());
@@ -33,7 +50,7 @@ public class WordGuessGameTest {
         InputStream originalIn = System.in;
         System.setIn(new ByteArrayInputStream(simulatedInput.getBytes()));
 
-        WordGuessGame game = new WordGuessGame();
+        WordGuessGame game = appleGame();
         Optional<Integer> result = game.play();
 
         assertTrue(result.isPresent());
@@ -48,7 +65,7 @@ public class WordGuessGameTest {
         InputStream originalIn = System.in;
         System.setIn(new ByteArrayInputStream(simulatedInput.getBytes()));
 
-        WordGuessGame game = new WordGuessGame();
+        WordGuessGame game = appleGame();
         Optional<Integer> result = game.play();
 
         assertTrue(result.isPresent());
@@ -56,4 +73,27 @@ public class WordGuessGameTest {
 
         System.setIn(originalIn);
     }
+
+    /**
+     * Wrong guesses show their pattern; a hint names a guess and costs
+     *   no attempt; auto lets the computer finish, which gives no score.
+     */
+    @Test
+    public void testPatternHintAndAuto() {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        GameIO io = new GameIO(new Scanner("MANGO\nhint\nauto\n"), out,
+                               StandardCharsets.UTF_8);
+        WordDictionary words = WordDictionary.of(
+            List.of("APPLE", "MANGO", "GRAPE", "PEACH", "LEMON"));
+        WordGuessGame game = new WordGuessGame(
+            WordDictionary.of(List.of("APPLE")), words, new Random());
+        Optional<Integer> result = game.play(io);
+        io.flush();
+        String text = out.toString(StandardCharsets.UTF_8);
+        assertTrue(text.contains("MANGO  .Y..."));
+        assertTrue(text.contains("Hint: try APPLE"));
+        assertTrue(text.contains("Computer guesses APPLE"));
+        assertTrue(text.contains("The computer found the word."));
+        assertEquals(Optional.empty(), result);
+    }
 }
@@ -0,0 +1,119 @@
+/**
+ * Wordle feedback: which letters of a guess are in the right place,
+ *   in the word elsewhere, or not in it.
+ * <pre>
+ * A pattern is a base-3 number, one digit per letter, the first letter
+ *   the lowest digit: GRAY (0) the letter is not in the answer, or not
+ *   as many times; YELLOW (1) it is, elsewhere; GREEN (2) it is here.
+ *   Five letters give 3^5 = 243 patterns, so one fits a byte (read it
+ *   back with &amp; 0xFF); SOLVED, every letter green, is 242.
+ * Repeated letters follow Wordle: greens are marked first, then each
+ *   other letter of the guess, left to right, is yellow while the answer
+ *   has copies of it not yet matched, and gray after. Guessing SPEED
+ *   against ABIDE shows one yellow E and one gray.
+ * Words are the packed longs of WordDictionary; scoring a pair reads
+ *   their letters in place and allocates nothing.
+ * </pre>
+ * @version 1
+ */
+final class WordPattern {
+    /** Letters in a word. */
+    static final int LENGTH = 5;
+    /** Number of patterns. */
+    static final int PATTERNS = 243;
+    /** Every letter green. */
+    static final int SOLVED = PATTERNS - 1;
+    /** Letter not in the answer. */
+    static final int GRAY = 0;
+    /** Letter in the answer elsewhere. */
+    static final int YELLOW = 1;
+    /** Letter in the right place. */
+    static final int GREEN = 2;
+    /** Weight of each letter's digit. */
+    private static final int[] POWERS = {1, 3, 9, 27, 81};
+    /** How each color is shown. */
+    private static final char[] SHOWN = {'.', 'Y', 'G'};
+
+    /**
+     * Not instantiated.
+     */
+    private WordPattern() {
+    }
+
+    /**
+     * The feedback for a guess.
+     * @param guess the guess, packed, LENGTH letters
+     * @param answer the answer, packed, LENGTH letters
+     * @return the pattern, 0 to SOLVED
+     */
+    static int of(final long guess, final long answer) {
+        int pattern = 0;
+        int matched = 0; // Answer letters already given a color, by bit.
+        for (int i = 0; i < LENGTH; i++) {
+            if (WordDictionary.letter(guess, LENGTH, i)
+                == WordDictionary.letter(answer, LENGTH, i)) {
+                pattern += GREEN * POWERS[i];
+                matched |= 1 << i;
+            }
+        }
+        int greens = matched;
+        for (int i = 0; i < LENGTH; i++) {
+            if ((greens & 1 << i) != 0) {
+                continue;
+            }
+            int letter = WordDictionary.letter(guess, LENGTH, i);
+            for (int j = 0; j < LENGTH; j++) {
+                if ((matched & 1 << j) == 0
+                    && WordDictionary.letter(answer, LENGTH, j) == letter) {
+                    pattern += YELLOW * POWERS[i];
+                    matched |= 1 << j;
+                    break;
+                }
+            }
+        }
+        return pattern;
+    }
+
+    /**
+     * The feedback for a guess.
+     * @param guess the guess, LENGTH letters
+     * @param answer the answer, LENGTH letters
+     * @return the pattern, 0 to SOLVED
+     * @throws IllegalArgumentException if either is not a word of LENGTH
+     *         letters
+     */
+    static int of(final CharSequence guess, final CharSequence answer) {
+        long g = WordDictionary.pack(guess);
+        long a = WordDictionary.pack(answer);
+        if (guess.length() != LENGTH || answer.length() != LENGTH
+            || g < 0 || a < 0) {
+            throw new IllegalArgumentException("Not two " + LENGTH
+                                               + "-letter words: " + guess
+                                               + ", " + answer);
+        }
+        return of(g, a);
+    }
+
+    /**
+     * The color of one letter.
+     * @param pattern the pattern
+     * @param i the letter, 0 first
+     * @return GRAY, YELLOW or GREEN
+     */
+    static int color(final int pattern, final int i) {
+        return pattern / POWERS[i] % 3;
+    }
+
+    /**
+     * Shows a pattern, G for green, Y for yellow and a dot for gray.
+     * @param pattern the pattern
+     * @return e.g. "G.Y.."
+     */
+    static String render(final int pattern) {
+        char[] shown = new char[LENGTH];
+        for (int i = 0; i < LENGTH; i++) {
+            shown[i] = SHOWN[color(pattern, i)];
+        }
+        return new String(shown);
+    }
+}
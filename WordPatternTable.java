@@ -0,0 +1,296 @@
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Every WordPattern of a guess list against an answer list, precomputed,
+ *   so scoring a pair is one byte read.
+ * <pre>
+ * Guesses and answers are the five-letter words of two WordDictionary
+ *   instances, by index. Row g holds the patterns of guess g against
+ *   every answer, so scoring one guess against the candidates walks one
+ *   row. 12,972 guesses by 2,315 answers is 30 MB.
+ * File layout (big-endian):
+ *   header (32 bytes)
+ *     int   magic "WPAT"
+ *     short version
+ *     short reserved (0)
+ *     int   guess count
+ *     int   answer count
+ *     long  fingerprint of the two word lists
+ *     long  reserved (0)
+ *   guesses * answers pattern bytes, row by row
+ * build fills the table on the heap, its rows divided among the cores
+ *   with fork-join. cached maps a table from the temporary directory,
+ *   named by the lists' fingerprint, building and writing it first if
+ *   it is not there; building 30 MB takes about two seconds on one core,
+ *   mapping it afterwards takes none. A table is read-only and may be
+ *   shared by threads.
+ * </pre>
+ * @version 1
+ */
+final class WordPatternTable {
+    /** File magic, "WPAT". */
+    static final int MAGIC = 0x57504154;
+    /** Current file version. */
+    static final short VERSION = 1;
+    /** Size of the header in bytes. */
+    private static final int HEADER_SIZE = 32;
+    /** Pattern bytes one build task fills. */
+    private static final int GRAIN = 1 << 16;
+    /** Multiplier of the fingerprint. */
+    private static final long FINGERPRINT_PRIME = 0x100000001B3L;
+
+    /** The header and patterns. */
+    private final ByteBuffer table;
+    /** Number of guesses. */
+    private final int guesses;
+    /** Number of answers. */
+    private final int answers;
+    /** Fingerprint of the word lists. */
+    private final long fingerprint;
+
+    /**
+     * Wraps a table.
+     * @param bytes the table, header first
+     * @param source where the table came from, for messages
+     * @throws IOException if the table is malformed or of an unsupported
+     *         version
+     */
+    private WordPatternTable(final ByteBuffer bytes, final Object source)
+            throws IOException {
+        this.table = bytes;
+        if (bytes.capacity() < HEADER_SIZE || bytes.getInt(0) != MAGIC) {
+            throw new IOException("Not a pattern table: " + source);
+        }
+        if (bytes.getShort(4) != VERSION) {
+            throw new IOException("Unsupported pattern table version "
+                                  + bytes.getShort(4));
+        }
+        this.guesses = bytes.getInt(8);
+        this.answers = bytes.getInt(12);
+        this.fingerprint = bytes.getLong(16);
+        if (guesses < 0 || answers < 0
+            || (long) guesses * answers != bytes.capacity() - HEADER_SIZE) {
+            throw new IOException("Truncated pattern table: " + source);
+        }
+    }
+
+    /**
+     * Builds a table on the heap.
+     * @param guessWords the guesses: the dictionary's five-letter words
+     * @param answerWords the answers: the dictionary's five-letter words
+     * @return the table
+     * @throws IllegalArgumentException if the table would exceed 2 GB
+     */
+    static WordPatternTable build(final WordDictionary guessWords,
+                                  final WordDictionary answerWords) {
+        long[] g = words(guessWords);
+        long[] a = words(answerWords);
+        long size = HEADER_SIZE + (long) g.length * a.length;
+        if (size > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Pattern table too large: "
+                                               + g.length + " x " + a.length);
+        }
+        ByteBuffer bytes = ByteBuffer.allocate((int) size);
+        bytes.putInt(MAGIC);
+        bytes.putShort(VERSION);
+        bytes.putShort((short) 0);
+        bytes.putInt(g.length);
+        bytes.putInt(a.length);
+        bytes.putLong(fingerprint(g, a));
+        bytes.putLong(0);
+        ForkJoinPool.commonPool().invoke(
+            new Fill(bytes.array(), g, a, 0, g.length));
+        try {
+            return new WordPatternTable(bytes, "heap");
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Maps a table file.
+     * @param path the file
+     * @return the table
+     * @throws IOException if the file is missing, malformed or of an
+     *         unsupported version
+     */
+    static WordPatternTable open(final Path path) throws IOException {
+        try (FileChannel ch = FileChannel.open(path, StandardOpenOption.READ)) {
+            return new WordPatternTable(
+                ch.map(FileChannel.MapMode.READ_ONLY, 0, ch.size()), path);
+        }
+    }
+
+    /**
+     * Writes the table to a file.
+     * @param path destination
+     * @throws IOException if an I/O error occurs
+     */
+    void write(final Path path) throws IOException {
+        try (FileChannel ch = FileChannel.open(
+                path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer bytes = table.duplicate();
+            bytes.clear();
+            while (bytes.hasRemaining()) {
+                ch.write(bytes);
+            }
+        }
+    }
+
+    /**
+     * The table of two word lists, mapped from the temporary directory,
+     *   where it is built and written on first use.
+     * @param guessWords the guesses
+     * @param answerWords the answers
+     * @return the table; built on the heap if the cache cannot be
+     *         written
+     */
+    static WordPatternTable cached(final WordDictionary guessWords,
+                                   final WordDictionary answerWords) {
+        long print = fingerprint(words(guessWords), words(answerWords));
+        Path cached = Paths.get(System.getProperty("java.io.tmpdir"),
+                                "consolegamehub-patterns-"
+                                + Long.toHexString(print) + ".table");
+        try {
+            if (Files.isRegularFile(cached)) {
+                WordPatternTable table = open(cached);
+                if (table.fingerprint == print) {
+                    return table;
+                }
+            }
+        } catch (IOException e) {
+            // Rebuild it.
+        }
+        WordPatternTable table = build(guessWords, answerWords);
+        try {
+            Path partial = Files.createTempFile(
+                cached.getParent(), "consolegamehub-patterns-", ".tmp");
+            table.write(partial);
+            Files.move(partial, cached, StandardCopyOption.REPLACE_EXISTING,
+                       StandardCopyOption.ATOMIC_MOVE);
+            return open(cached);
+        } catch (IOException e) {
+            return table;
+        }
+    }
+
+    /**
+     * Number of guesses.
+     * @return the guess count
+     */
+    int guesses() {
+        return guesses;
+    }
+
+    /**
+     * Number of answers.
+     * @return the answer count
+     */
+    int answers() {
+        return answers;
+    }
+
+    /**
+     * The feedback for a guess.
+     * @param guess index of the guess
+     * @param answer index of the answer
+     * @return the pattern, 0 to WordPattern.SOLVED
+     */
+    int pattern(final int guess, final int answer) {
+        return table.get(HEADER_SIZE + guess * answers + answer) & 0xFF;
+    }
+
+    /**
+     * The five-letter words of a dictionary.
+     * @param dictionary the dictionary
+     * @return its five-letter words, packed, in order
+     */
+    private static long[] words(final WordDictionary dictionary) {
+        long[] words = new long[dictionary.size(WordPattern.LENGTH)];
+        for (int i = 0; i < words.length; i++) {
+            words[i] = dictionary.packed(WordPattern.LENGTH, i);
+        }
+        return words;
+    }
+
+    /**
+     * FNV-1a style fingerprint of two word lists.
+     * @param g the guesses
+     * @param a the answers
+     * @return the fingerprint
+     */
+    private static long fingerprint(final long[] g, final long[] a) {
+        long hash = 0xCBF29CE484222325L ^ g.length;
+        for (long word : g) {
+            hash = (hash ^ word) * FINGERPRINT_PRIME;
+        }
+        hash = (hash ^ a.length) * FINGERPRINT_PRIME;
+        for (long word : a) {
+            hash = (hash ^ word) * FINGERPRINT_PRIME;
+        }
+        return hash;
+    }
+
+    /**
+     * Fills a range of rows, splitting it among the fork-join workers.
+     */
+    private static final class Fill extends RecursiveAction {
+        /** Serialization version. */
+        private static final long serialVersionUID = 1L;
+        /** The table, header first. */
+        private final byte[] bytes;
+        /** The guesses. */
+        private final long[] g;
+        /** The answers. */
+        private final long[] a;
+        /** First row. */
+        private final int from;
+        /** Row after the last. */
+        private final int to;
+
+        /**
+         * Creates a task.
+         * @param table the table, header first
+         * @param guessWords the guesses
+         * @param answerWords the answers
+         * @param first first row
+         * @param end row after the last
+         */
+        Fill(final byte[] table, final long[] guessWords,
+             final long[] answerWords, final int first, final int end) {
+            this.bytes = table;
+            this.g = guessWords;
+            this.a = answerWords;
+            this.from = first;
+            this.to = end;
+        }
+
+        @Override
+        protected void compute() {
+            if ((long) (to - from) * a.length > GRAIN && to - from > 1) {
+                int middle = (from + to) >>> 1;
+                invokeAll(new Fill(bytes, g, a, from, middle),
+                          new Fill(bytes, g, a, middle, to));
+                return;
+            }
+            for (int row = from; row < to; row++) {
+                int offset = HEADER_SIZE + row * a.length;
+                for (int column = 0; column < a.length; column++) {
+                    bytes[offset + column] =
+                        (byte) WordPattern.of(g[row], a[column]);
+                }
+            }
+        }
+    }
+}
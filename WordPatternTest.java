@@ -0,0 +1,112 @@
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Tests for WordPattern and WordPatternTable.
+ * @version 1
+ */
+public class WordPatternTest {
+    /**
+     * Greens, yellows and grays, with repeated letters as Wordle marks
+     *   them.
+     */
+    @Test
+    public void testPattern() {
+        assertEquals("GGGGG", render("CRANE", "CRANE"));
+        assertEquals(WordPattern.SOLVED, WordPattern.of("CRANE", "crane"));
+        assertEquals(".....", render("CRANE", "BUILT"));
+        assertEquals(0, WordPattern.of("CRANE", "BUILT"));
+        assertEquals("YG...", render("CRANE", "BRICK"));
+        assertEquals("..Y.Y", render("SPEED", "ABIDE"));
+        assertEquals("YYY..", render("LLAMA", "HALLO"));
+        assertEquals("GY...", render("EERIE", "EVENT"));
+        assertEquals(".G..G", render("ROBOT", "FOUNT"));
+        assertEquals(1, WordPattern.of("ABCDE", "EAAAA") / 81 % 3);
+        assertEquals(WordPattern.YELLOW,
+                     WordPattern.color(WordPattern.of("SPEED", "ABIDE"), 2));
+        assertEquals(WordPattern.GRAY,
+                     WordPattern.color(WordPattern.of("SPEED", "ABIDE"), 3));
+        assertThrows(IllegalArgumentException.class,
+                     () -> WordPattern.of("CRANES", "CRANE"));
+        assertThrows(IllegalArgumentException.class,
+                     () -> WordPattern.of("CR4NE", "CRANE"));
+    }
+
+    /**
+     * The table holds the pattern of every pair, and survives a round
+     *   trip through a file; other files are refused.
+     * @param tempDir where the files are written
+     * @throws IOException if a file cannot be written
+     */
+    @Test
+    public void testTable(@TempDir final Path tempDir) throws IOException {
+        WordDictionary guesses = randomWords(new Random(2), 120);
+        WordDictionary answers = WordDictionary.of(
+            Arrays.asList(guesses.word(5, 3), guesses.word(5, 50),
+                          guesses.word(5, 99), "ZZZZZ"));
+        WordPatternTable table = WordPatternTable.build(guesses, answers);
+        assertEquals(120, table.guesses());
+        assertEquals(4, table.answers());
+        Path file = tempDir.resolve("patterns.table");
+        table.write(file);
+        assertEquals(32 + 120 * 4, Files.size(file));
+        WordPatternTable mapped = WordPatternTable.open(file);
+        for (int g = 0; g < 120; g++) {
+            for (int a = 0; a < 4; a++) {
+                int expected = WordPattern.of(guesses.packed(5, g),
+                                              answers.packed(5, a));
+                assertEquals(expected, table.pattern(g, a));
+                assertEquals(expected, mapped.pattern(g, a));
+            }
+        }
+        byte[] bytes = Files.readAllBytes(file);
+        Path bad = tempDir.resolve("bad.table");
+        Files.write(bad, Arrays.copyOf(bytes, bytes.length - 1));
+        assertThrows(IOException.class, () -> WordPatternTable.open(bad));
+        bytes[0] = 0;
+        Files.write(bad, bytes);
+        assertThrows(IOException.class, () -> WordPatternTable.open(bad));
+        WordPatternTable cached = WordPatternTable.cached(guesses, answers);
+        assertEquals(table.pattern(7, 2), cached.pattern(7, 2));
+    }
+
+    /**
+     * A pattern shown.
+     * @param guess the guess
+     * @param answer the answer
+     * @return the rendering
+     */
+    private static String render(final String guess, final String answer) {
+        return WordPattern.render(WordPattern.of(guess, answer));
+    }
+
+    /**
+     * A dictionary of random five-letter words over a few letters.
+     * @param random the generator
+     * @param count words to draw
+     * @return the dictionary
+     */
+    static WordDictionary randomWords(final Random random, final int count) {
+        Set<String> words = new HashSet<>();
+        char[] letters = new char[5];
+        while (words.size() < count) {
+            for (int i = 0; i < 5; i++) {
+                letters[i] = (char) ('A' + random.nextInt(8));
+            }
+            words.add(new String(letters));
+        }
+        return WordDictionary.of(words);
+    }
+}
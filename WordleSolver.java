@@ -0,0 +1,371 @@
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Wordle solver: keeps the answers still possible and picks the guess
+ *   whose feedback tells the most about which one it is.
+ * <pre>
+ * A guess splits the n candidates into classes by the WordPattern each
+ *   would show. The information it gives, if every candidate is equally
+ *   likely, is the entropy of that split,
+ *     log2 n - (sum over classes of s log2 s) / n  bits,
+ *   so the solver picks the guess with the least sum of s log2 s, a
+ *   candidate on a tie (it may be the answer), then the first guess in
+ *   dictionary order. The sums are added in fixed point so that ties
+ *   are exact. A class of one is a word known; a candidate guessed is a
+ *   class of its own (SOLVED), so guessing one always leaves fewer and
+ *   the solver never stalls.
+ * Patterns come from a WordPatternTable, one byte read a pair. Each
+ *   guess counts its classes in a histogram of the 243 patterns and
+ *   sums them in a second pass over the candidates, clearing each entry
+ *   as it is summed, so small candidate sets do not pay to clear the
+ *   whole histogram. The guesses are divided among the cores with
+ *   fork-join. The opening guess, every answer a candidate, is the same
+ *   in every game and is remembered.
+ * Every answer must also be a guess. A solver is used by one caller at
+ *   a time; callers that share a table make a solver each from one
+ *   whose opening is known, sharing the table, the lists and the
+ *   opening, none of which a solver changes.
+ * </pre>
+ * @version 2
+ */
+final class WordleSolver {
+    /** Bits of a packed choice that hold the guess. */
+    private static final int GUESS_BITS = 17;
+    /** Most guesses or answers a solver takes. */
+    static final int MAX_WORDS = 1 << GUESS_BITS;
+    /** Fixed-point scale of s log2 s. */
+    private static final double SCALE = 1 << 16;
+    /** Table reads (guesses times candidates) one task makes. */
+    private static final int GRAIN = 1 << 16;
+
+    /** The patterns. */
+    private final WordPatternTable table;
+    /** The guesses. */
+    private final WordDictionary guessWords;
+    /** The answers. */
+    private final WordDictionary answerWords;
+    /** Index among the guesses of each answer. */
+    private final int[] answerGuess;
+    /** s log2 s in fixed point, for s from 0 to the answer count. */
+    private final long[] weights;
+    /** Candidates, as answer indices; 0 to count. */
+    private final int[] candidates;
+    /** Number of candidates. */
+    private int count;
+    /** Whether each guess is a candidate, while a choice is made. */
+    private final boolean[] live;
+    /** Remembered opening guess, or -1. */
+    private int opening = -1;
+    /** Score of the opening guess, fixed point. */
+    private long openingScore;
+    /** Sum of s log2 s of the last choice, fixed point. */
+    private long lastScore;
+
+    /**
+     * Creates a solver with every answer a candidate.
+     * @param patterns the patterns of the guesses against the answers
+     * @param guesses the guesses, the five-letter words of the
+     *        dictionary the table was built with
+     * @param answers the answers, likewise
+     * @throws IllegalArgumentException if an answer is not a guess, the
+     *         table does not fit the lists, or there are more than
+     *         MAX_WORDS words
+     */
+    WordleSolver(final WordPatternTable patterns,
+                 final WordDictionary guesses, final WordDictionary answers) {
+        int g = guesses.size(WordPattern.LENGTH);
+        int a = answers.size(WordPattern.LENGTH);
+        if (patterns.guesses() != g || patterns.answers() != a
+            || g > MAX_WORDS) {
+            throw new IllegalArgumentException("Table is " + patterns.guesses()
+                                               + " x " + patterns.answers()
+                                               + ", lists " + g + " x " + a);
+        }
+        this.table = patterns;
+        this.guessWords = guesses;
+        this.answerWords = answers;
+        this.answerGuess = new int[a];
+        for (int i = 0; i < a; i++) {
+            answerGuess[i] = guesses.indexOf(
+                answers.packed(WordPattern.LENGTH, i), WordPattern.LENGTH);
+            if (answerGuess[i] < 0) {
+                throw new IllegalArgumentException("Answer is not a guess: "
+                                                   + answers.word(
+                                                       WordPattern.LENGTH, i));
+            }
+        }
+        this.weights = new long[a + 1];
+        for (int s = 2; s <= a; s++) {
+            weights[s] = Math.round(s * Math.log(s) / Math.log(2) * SCALE);
+        }
+        this.candidates = new int[a];
+        this.live = new boolean[g];
+        reset();
+    }
+
+    /**
+     * Creates a solver with every answer a candidate, sharing another's
+     *   table, lists and remembered opening; the other is not changed.
+     * @param shared the solver to share with
+     */
+    WordleSolver(final WordleSolver shared) {
+        this.table = shared.table;
+        this.guessWords = shared.guessWords;
+        this.answerWords = shared.answerWords;
+        this.answerGuess = shared.answerGuess;
+        this.weights = shared.weights;
+        this.opening = shared.opening;
+        this.openingScore = shared.openingScore;
+        this.candidates = new int[shared.candidates.length];
+        this.live = new boolean[shared.live.length];
+        reset();
+    }
+
+    /**
+     * Makes every answer a candidate again.
+     */
+    void reset() {
+        for (int i = 0; i < candidates.length; i++) {
+            candidates[i] = i;
+        }
+        count = candidates.length;
+    }
+
+    /**
+     * Number of answers still possible.
+     * @return the candidate count
+     */
+    int candidates() {
+        return count;
+    }
+
+    /**
+     * An answer still possible.
+     * @param i 0 to candidates() - 1
+     * @return the word
+     */
+    String candidate(final int i) {
+        return answerWords.word(WordPattern.LENGTH, candidates[i]);
+    }
+
+    /**
+     * The guess that tells the most about the answers still possible.
+     * @return the guess, or null if no answer is possible
+     */
+    String hint() {
+        int guess = best();
+        return guess < 0 ? null : guessWords.word(WordPattern.LENGTH, guess);
+    }
+
+    /**
+     * Information the last hint's guess gives, on average.
+     * @return the entropy in bits
+     */
+    double bits() {
+        if (count == 0) {
+            return 0;
+        }
+        return Math.log(count) / Math.log(2) - lastScore / SCALE / count;
+    }
+
+    /**
+     * Keeps the answers that would show a pattern for a guess.
+     * @param guess the guess, a word of the guess list
+     * @param pattern the feedback shown
+     * @throws IllegalArgumentException if the guess is not in the list
+     */
+    void record(final String guess, final int pattern) {
+        int g = guessWords.indexOf(WordDictionary.pack(guess),
+                                   WordPattern.LENGTH);
+        if (guess.length() != WordPattern.LENGTH || g < 0) {
+            throw new IllegalArgumentException("Not a guess: " + guess);
+        }
+        record(g, pattern);
+    }
+
+    /**
+     * Keeps the answers that would show a pattern for a guess.
+     * @param guess index of the guess
+     * @param pattern the feedback shown
+     */
+    private void record(final int guess, final int pattern) {
+        int kept = 0;
+        for (int i = 0; i < count; i++) {
+            if (table.pattern(guess, candidates[i]) == pattern) {
+                candidates[kept++] = candidates[i];
+            }
+        }
+        count = kept;
+    }
+
+    /**
+     * Guesses the solver needs to find an answer, playing against it.
+     * @param answer index of the answer
+     * @return guesses made, the last the answer
+     */
+    int solve(final int answer) {
+        reset();
+        int guesses = 0;
+        while (true) {
+            int guess = best();
+            guesses++;
+            if (guess == answerGuess[answer]) {
+                return guesses;
+            }
+            record(guess, table.pattern(guess, answer));
+        }
+    }
+
+    /**
+     * Solves every answer by following the solver's decision tree: each
+     *   class a guess leaves gets its own best guess, found once for all
+     *   its answers. The guesses are the same as solve makes.
+     * @return guesses needed for each answer, by index
+     */
+    int[] solveAll() {
+        int[] guesses = new int[candidates.length];
+        int[] saved = candidates.clone();
+        int savedCount = count;
+        reset();
+        solveAll(candidates.clone(), candidates.length, 1, guesses);
+        System.arraycopy(saved, 0, candidates, 0, saved.length);
+        count = savedCount;
+        return guesses;
+    }
+
+    /**
+     * Solves every answer of a candidate set.
+     * @param set the candidates
+     * @param n number of candidates
+     * @param depth guesses made so far, this one included
+     * @param guesses where each answer's guess count goes
+     */
+    private void solveAll(final int[] set, final int n, final int depth,
+                          final int[] guesses) {
+        System.arraycopy(set, 0, candidates, 0, n);
+        count = n;
+        int guess = best();
+        int[] sizes = new int[WordPattern.PATTERNS];
+        for (int i = 0; i < n; i++) {
+            sizes[table.pattern(guess, set[i])]++;
+        }
+        for (int pattern = 0; pattern < WordPattern.PATTERNS; pattern++) {
+            if (sizes[pattern] == 0) {
+                continue;
+            }
+            int[] subset = new int[sizes[pattern]];
+            int m = 0;
+            for (int i = 0; i < n; i++) {
+                if (table.pattern(guess, set[i]) == pattern) {
+                    subset[m++] = set[i];
+                }
+            }
+            if (pattern == WordPattern.SOLVED) {
+                guesses[subset[0]] = depth;
+            } else {
+                solveAll(subset, m, depth + 1, guesses);
+            }
+        }
+    }
+
+    /**
+     * The best guess against the candidates.
+     * @return index of the guess, or -1 if there are no candidates
+     */
+    private int best() {
+        if (count <= 2) {
+            lastScore = 0; // Guessing either of two leaves classes of one.
+            return count == 0 ? -1 : answerGuess[candidates[0]];
+        }
+        boolean first = count == candidates.length;
+        if (first && opening >= 0) {
+            lastScore = openingScore;
+            return opening;
+        }
+        for (int i = 0; i < count; i++) {
+            live[answerGuess[candidates[i]]] = true;
+        }
+        long choice = ForkJoinPool.commonPool().invoke(
+            new Choose(0, table.guesses()));
+        for (int i = 0; i < count; i++) {
+            live[answerGuess[candidates[i]]] = false;
+        }
+        int guess = (int) (choice & ((1 << GUESS_BITS) - 1));
+        lastScore = choice >>> (GUESS_BITS + 1);
+        if (first) {
+            opening = guess;
+            openingScore = lastScore;
+        }
+        return guess;
+    }
+
+    /**
+     * Scores one guess: the sum over its classes of s log2 s.
+     * @param guess index of the guess
+     * @param sizes histogram of the patterns, all zero; left all zero
+     * @return the score, fixed point
+     */
+    private long score(final int guess, final int[] sizes) {
+        int[] c = candidates;
+        int n = count;
+        for (int i = 0; i < n; i++) {
+            sizes[table.pattern(guess, c[i])]++;
+        }
+        long sum = 0;
+        for (int i = 0; i < n; i++) {
+            int pattern = table.pattern(guess, c[i]);
+            int s = sizes[pattern];
+            if (s != 0) {
+                sum += weights[s];
+                sizes[pattern] = 0;
+            }
+        }
+        return sum;
+    }
+
+    /**
+     * Finds the best of a range of guesses, splitting the range among
+     *   the fork-join workers. The result packs the score, then 0 for a
+     *   candidate and 1 for another word, then the guess, so the least
+     *   result is the best choice.
+     */
+    private final class Choose extends RecursiveTask<Long> {
+        /** Serialization version. */
+        private static final long serialVersionUID = 1L;
+        /** First guess. */
+        private final int from;
+        /** Guess after the last. */
+        private final int to;
+
+        /**
+         * Creates a task.
+         * @param first first guess
+         * @param end guess after the last
+         */
+        Choose(final int first, final int end) {
+            this.from = first;
+            this.to = end;
+        }
+
+        @Override
+        protected Long compute() {
+            if ((long) (to - from) * count > GRAIN && to - from > 1) {
+                int middle = (from + to) >>> 1;
+                Choose left = new Choose(from, middle);
+                left.fork();
+                long right = new Choose(middle, to).compute();
+                return Math.min(left.join(), right);
+            }
+            int[] sizes = new int[WordPattern.PATTERNS];
+            long best = Long.MAX_VALUE;
+            for (int guess = from; guess < to; guess++) {
+                long choice = (score(guess, sizes) << 1
+                               | (live[guess] ? 0 : 1)) << GUESS_BITS
+                    | guess;
+                best = Math.min(best, choice);
+            }
+            return best;
+        }
+    }
+}
@@ -0,0 +1,213 @@
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Measures the Wordle pattern table and solver at Wordle's size.
+ * <pre>
+ * Usage: java WordleSolverBenchmark [answers guesses]
+ *   Given two word lists, uses their five-letter words, every answer
+ *   also taken as a guess. Otherwise uses 12972 random five-letter
+ *   guesses drawn with English letter frequencies, 2315 of them the
+ *   answers: the size of Wordle's own lists.
+ * It reports, in order:
+ *   scoring     WordPattern.of per pair, computed from the words
+ *   table       building the table on the heap (fork-join), writing it
+ *               and mapping it back, and one lookup per pair
+ *   hints       the opening hint, every answer a candidate, and the
+ *               second hint after each first feedback, worst and mean
+ *   solve       every answer solved: guesses, mean and most, and wall
+ *               time (WordleSolver.solveAll)
+ * Fork-join work runs on the common pool, whose size is printed.
+ * </pre>
+ * @version 1
+ */
+public final class WordleSolverBenchmark {
+    /** Letters in a word. */
+    private static final int LENGTH = WordPattern.LENGTH;
+    /** Random guesses when no lists are given. */
+    private static final int GUESSES = 12_972;
+    /** Random answers when no lists are given. */
+    private static final int ANSWERS = 2_315;
+    /** Pairs scored to time scoring and lookups. */
+    private static final int PAIRS = 20_000_000;
+    /** Nanoseconds per millisecond. */
+    private static final double NANOS_PER_MILLI = 1e6;
+    /** Seed so every run sees the same words. */
+    private static final long SEED = 42L;
+    /** English letter frequencies, per mille, A to Z. */
+    private static final int[] FREQUENCIES = {
+        82, 15, 28, 43, 127, 22, 20, 61, 70, 2, 8, 40, 24,
+        67, 75, 19, 1, 60, 63, 91, 28, 10, 24, 2, 20, 1};
+    /** Sink for results, so the work is not optimised away. */
+    private static long sink;
+
+    /**
+     * Prevent instantiation.
+     */
+    private WordleSolverBenchmark() {
+        throw new UnsupportedOperationException("class cannot be instantiated");
+    }
+
+    /**
+     * Runs the benchmark.
+     * @param args the answer and guess lists
+     * @throws IOException if a list cannot be read or the table written
+     */
+    public static void main(final String[] args) throws IOException {
+        WordDictionary guesses;
+        WordDictionary answers;
+        if (args.length >= 2) {
+            List<String> answerList = Files.readAllLines(Paths.get(args[0]));
+            List<String> guessList =
+                new ArrayList<>(Files.readAllLines(Paths.get(args[1])));
+            guessList.addAll(answerList);
+            answers = WordDictionary.of(answerList);
+            guesses = WordDictionary.of(guessList);
+        } else {
+            List<String> guessList = randomWords(GUESSES);
+            guesses = WordDictionary.of(guessList);
+            answers = WordDictionary.of(guessList.subList(0, ANSWERS));
+        }
+        int g = guesses.size(LENGTH);
+        int a = answers.size(LENGTH);
+        System.out.printf("%,d guesses x %,d answers, fork-join "
+                          + "parallelism %d%n", g, a,
+                          ForkJoinPool.getCommonPoolParallelism());
+
+        long[] gw = new long[g];
+        long[] aw = new long[a];
+        for (int i = 0; i < g; i++) {
+            gw[i] = guesses.packed(LENGTH, i);
+        }
+        for (int i = 0; i < a; i++) {
+            aw[i] = answers.packed(LENGTH, i);
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < PAIRS; i++) {
+            sink += WordPattern.of(gw[i % g], aw[i % a]);
+        }
+        System.out.printf("scoring: %.1f ns per pair computed%n",
+                          (double) (System.nanoTime() - start) / PAIRS);
+
+        start = System.nanoTime();
+        WordPatternTable table = WordPatternTable.build(guesses, answers);
+        double buildMillis = (System.nanoTime() - start) / NANOS_PER_MILLI;
+        Path file = Files.createTempFile("patterns", ".table");
+        try {
+            start = System.nanoTime();
+            table.write(file);
+            double writeMillis = (System.nanoTime() - start) / NANOS_PER_MILLI;
+            start = System.nanoTime();
+            table = WordPatternTable.open(file);
+            double openMillis = (System.nanoTime() - start) / NANOS_PER_MILLI;
+            start = System.nanoTime();
+            for (int i = 0; i < PAIRS; i++) {
+                sink += table.pattern(i % g, i % a);
+            }
+            System.out.printf("table: %.1f MB, built in %.0f ms, written "
+                              + "in %.0f ms, mapped in %.1f ms; %.1f ns per "
+                              + "lookup%n",
+                              Files.size(file) / (1024.0 * 1024.0),
+                              buildMillis, writeMillis, openMillis,
+                              (double) (System.nanoTime() - start) / PAIRS);
+            hints(new WordleSolver(table, guesses, answers), table, guesses);
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    /**
+     * Times the hints and the solve.
+     * @param solver the solver
+     * @param table its table
+     * @param guesses the guesses
+     */
+    private static void hints(final WordleSolver solver,
+                              final WordPatternTable table,
+                              final WordDictionary guesses) {
+        long start = System.nanoTime();
+        String opening = solver.hint();
+        double openingMillis = (System.nanoTime() - start) / NANOS_PER_MILLI;
+        System.out.printf("opening hint: %s (%.2f bits) in %.0f ms%n",
+                          opening, solver.bits(), openingMillis);
+        Set<Integer> patterns = new HashSet<>();
+        int g = guesses.indexOf(WordDictionary.pack(opening), LENGTH);
+        for (int i = 0; i < table.answers(); i++) {
+            patterns.add(table.pattern(g, i));
+        }
+        double worst = 0;
+        double total = 0;
+        for (int pattern : patterns) {
+            solver.reset();
+            solver.record(opening, pattern);
+            start = System.nanoTime();
+            solver.hint();
+            double millis = (System.nanoTime() - start) / NANOS_PER_MILLI;
+            worst = Math.max(worst, millis);
+            total += millis;
+        }
+        System.out.printf("second hint: %d first feedbacks, worst %.1f ms, "
+                          + "mean %.2f ms%n", patterns.size(), worst,
+                          total / patterns.size());
+        start = System.nanoTime();
+        int[] counts = solver.solveAll();
+        double solveMillis = (System.nanoTime() - start) / NANOS_PER_MILLI;
+        long sum = 0;
+        int most = 0;
+        int[] histogram = new int[WordGuessGame.MAX_ATTEMPTS + 2];
+        for (int c : counts) {
+            sum += c;
+            most = Math.max(most, c);
+            histogram[Math.min(c, histogram.length - 1)]++;
+        }
+        StringBuilder spread = new StringBuilder();
+        for (int c = 1; c < histogram.length; c++) {
+            spread.append(c == histogram.length - 1 ? " more:" : " " + c + ":")
+                  .append(histogram[c]);
+        }
+        System.out.printf("solve: %,d answers, %.3f guesses mean, %d most, "
+                          + "in %.0f ms;%s%n", counts.length,
+                          (double) sum / counts.length, most, solveMillis,
+                          spread);
+    }
+
+    /**
+     * Distinct random five-letter words, letters drawn with English
+     *   frequencies so that words share letters as real ones do.
+     * @param count number of words
+     * @return the words, in the order drawn
+     */
+    private static List<String> randomWords(final int count) {
+        int total = 0;
+        for (int f : FREQUENCIES) {
+            total += f;
+        }
+        Random random = new Random(SEED);
+        Set<String> seen = new HashSet<>();
+        List<String> words = new ArrayList<>();
+        char[] letters = new char[LENGTH];
+        while (words.size() < count) {
+            for (int i = 0; i < LENGTH; i++) {
+                int r = random.nextInt(total);
+                int letter = 0;
+                while (r >= FREQUENCIES[letter]) {
+                    r -= FREQUENCIES[letter++];
+                }
+                letters[i] = (char) ('A' + letter);
+            }
+            String word = new String(letters);
+            if (seen.add(word)) {
+                words.add(word);
+            }
+        }
+        return words;
+    }
+}
@@ -0,0 +1,159 @@
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests for WordleSolver.
+ * @version 2
+ */
+public class WordleSolverTest {
+    /**
+     * The hint is the guess of most entropy, as found by scoring every
+     *   pair one at a time.
+     */
+    @Test
+    public void testHintIsMostInformative() {
+        WordDictionary guesses = WordPatternTest.randomWords(new Random(4), 400);
+        WordDictionary answers = answersOf(guesses, 7);
+        WordleSolver solver = solver(guesses, answers);
+        String hint = solver.hint();
+        double best = -1;
+        for (int g = 0; g < guesses.size(5); g++) {
+            best = Math.max(best, entropy(guesses.packed(5, g), answers));
+        }
+        assertEquals(best, entropy(WordDictionary.pack(hint), answers), 1e-6);
+        assertEquals(best, solver.bits(), 1e-3);
+        assertEquals(hint, solver.hint()); // The remembered opening.
+    }
+
+    /**
+     * Recording feedback keeps the answers that would show it.
+     */
+    @Test
+    public void testRecord() {
+        WordDictionary words = WordDictionary.of(List.of(
+            "CRANE", "BRICK", "PRICK", "TRICK", "SLATE"));
+        WordleSolver solver = solver(words, words);
+        solver.record("CRANE", WordPattern.of("CRANE", "TRICK"));
+        assertEquals(3, solver.candidates());
+        solver.record("PRICK", WordPattern.of("PRICK", "TRICK"));
+        assertEquals(2, solver.candidates());
+        assertEquals("BRICK", solver.candidate(0));
+        assertEquals("BRICK", solver.hint());
+        solver.record("BRICK", WordPattern.of("BRICK", "TRICK"));
+        assertEquals("TRICK", solver.hint());
+        solver.record("TRICK", WordPattern.of("TRICK", "TRICK"));
+        assertEquals(1, solver.candidates());
+        solver.record("SLATE", WordPattern.SOLVED);
+        assertNull(solver.hint());
+        assertThrows(IllegalArgumentException.class,
+                     () -> solver.record("QQQQQ", 0));
+    }
+
+    /**
+     * Solving every answer at once makes the same guesses as solving
+     *   them one by one, and always ends on the answer.
+     */
+    @Test
+    public void testSolveAll() {
+        WordDictionary guesses = WordPatternTest.randomWords(new Random(6), 300);
+        WordDictionary answers = answersOf(guesses, 3);
+        WordleSolver solver = solver(guesses, answers);
+        int[] all = solver.solveAll();
+        assertEquals(answers.size(5), all.length);
+        for (int i = 0; i < all.length; i++) {
+            assertTrue(all[i] >= 1);
+            assertEquals(all[i], solver.solve(i), "answer " + i);
+        }
+    }
+
+    /**
+     * A solver made from another starts from every answer, knows its
+     *   opening, and records feedback without changing the other.
+     */
+    @Test
+    public void testShared() {
+        WordDictionary words = WordDictionary.of(List.of(
+            "CRANE", "BRICK", "PRICK", "TRICK", "SLATE"));
+        WordleSolver shared = solver(words, words);
+        String opening = shared.hint();
+        WordleSolver one = new WordleSolver(shared);
+        WordleSolver two = new WordleSolver(shared);
+        one.record("CRANE", WordPattern.of("CRANE", "TRICK"));
+        assertEquals(3, one.candidates());
+        assertEquals(5, two.candidates());
+        assertEquals(5, shared.candidates());
+        assertEquals(opening, two.hint());
+        assertEquals(shared.bits(), two.bits(), 1e-9);
+    }
+
+    /**
+     * Answers must be guesses, and the table must fit the lists.
+     */
+    @Test
+    public void testMismatch() {
+        WordDictionary guesses = WordDictionary.of(List.of("CRANE", "BRICK"));
+        WordDictionary answers = WordDictionary.of(List.of("SLATE"));
+        assertThrows(IllegalArgumentException.class, () -> new WordleSolver(
+            WordPatternTable.build(guesses, answers), guesses, answers));
+        assertThrows(IllegalArgumentException.class, () -> new WordleSolver(
+            WordPatternTable.build(guesses, guesses), guesses, answers));
+    }
+
+    /**
+     * A solver on a heap table.
+     * @param guesses the guesses
+     * @param answers the answers
+     * @return the solver
+     */
+    private static WordleSolver solver(final WordDictionary guesses,
+                                       final WordDictionary answers) {
+        return new WordleSolver(WordPatternTable.build(guesses, answers),
+                                guesses, answers);
+    }
+
+    /**
+     * Every n-th guess, as answers.
+     * @param guesses the guesses
+     * @param n the step
+     * @return the answers
+     */
+    private static WordDictionary answersOf(final WordDictionary guesses,
+                                            final int n) {
+        List<String> words = new ArrayList<>();
+        for (int i = 0; i < guesses.size(5); i += n) {
+            words.add(guesses.word(5, i));
+        }
+        return WordDictionary.of(words);
+    }
+
+    /**
+     * Entropy of a guess's split of the answers, counted one by one.
+     * @param guess the guess, packed
+     * @param answers the answers
+     * @return the entropy in bits
+     */
+    private static double entropy(final long guess,
+                                  final WordDictionary answers) {
+        Map<Integer, Integer> classes = new HashMap<>();
+        int n = answers.size(5);
+        for (int a = 0; a < n; a++) {
+            classes.merge(WordPattern.of(guess, answers.packed(5, a)), 1,
+                          Integer::sum);
+        }
+        double bits = 0;
+        for (int s : classes.values()) {
+            bits -= (double) s / n * Math.log((double) s / n) / Math.log(2);
+        }
+        return bits;
+    }
+}